@@ -1,5 +1,8 @@
 package com.dbassist.dbassist;
 
+import com.dbassist.dbassist.service.BrowseSessionPool;
+import com.dbassist.dbassist.service.TaskExecutionService;
+import com.dbassist.dbassist.service.WorksheetManager;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -40,4 +43,14 @@ public class HelloApplication extends Application {
 
         stage.show();
     }
+
+    @Override
+    public void stop() {
+        // Persist any worksheet edits still waiting in the autosave queue
+        WorksheetManager.getInstance().shutdown();
+
+        // Cancel queries still running so their threads and server sessions do not linger
+        TaskExecutionService.getInstance().shutdown();
+        BrowseSessionPool.getInstance().closeAll();
+    }
 }
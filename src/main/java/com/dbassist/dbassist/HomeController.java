@@ -6,6 +6,7 @@ import com.dbassist.dbassist.components.QueryResultGrid;
 import com.dbassist.dbassist.components.SqlWorksheet;
 import com.dbassist.dbassist.components.TableDataGrid;
 import com.dbassist.dbassist.components.TabSelectionDialog;
+import com.dbassist.dbassist.components.TaskMonitorView;
 import com.dbassist.dbassist.connection.NewConnectionController;
 import com.dbassist.dbassist.model.ComparisonResult;
 import com.dbassist.dbassist.model.DatabaseConnection;
@@ -14,7 +15,10 @@ import com.dbassist.dbassist.service.ConnectionEventManager;
 import com.dbassist.dbassist.service.ConnectionManager;
 import com.dbassist.dbassist.service.DataComparisonService;
 import com.dbassist.dbassist.service.DatabaseMetadataService;
+import com.dbassist.dbassist.service.QueryTask;
+import com.dbassist.dbassist.service.SharedResult;
 import com.dbassist.dbassist.service.TabConfigManager;
+import com.dbassist.dbassist.service.TaskExecutionService;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -95,6 +99,14 @@ public class HomeController {
     @FXML
     private javafx.scene.control.ProgressBar progressBar;
 
+    @FXML
+    private Label queueStatusLabel;
+
+    @FXML
+    private Label startupLabel;
+
+    private final List<QueryTask> treeLoadTasks = new ArrayList<>(); // Running tree loads (FX thread only)
+
     private Stage stage;
     private double xOffset = 0;
     private double yOffset = 0;
@@ -103,6 +115,8 @@ public class HomeController {
 
     @FXML
     public void initialize() {
+        long initializeStartedAt = System.currentTimeMillis();
+
         // Initialize the home page
         System.out.println("Home Page Initialized");
 
@@ -233,7 +247,55 @@ public class HomeController {
         }
 
         // Load saved tabs on startup
-        loadSavedTabs();
+        int restoredTabs = loadSavedTabs();
+
+        // Runs after the stage is shown - the window is usable from here on
+        Platform.runLater(() -> reportStartupTime(initializeStartedAt, restoredTabs));
+
+        // Keep the status bar's query queue summary current
+        javafx.animation.Timeline queueStatusTimeline = new javafx.animation.Timeline(
+            new javafx.animation.KeyFrame(javafx.util.Duration.seconds(1), e -> updateQueueStatus()));
+        queueStatusTimeline.setCycleCount(javafx.animation.Animation.INDEFINITE);
+        queueStatusTimeline.play();
+    }
+
+    /**
+     * Log and show time-to-interactive, measured from process start when the OS reports it
+     */
+    private void reportStartupTime(long initializeStartedAt, int restoredTabs) {
+        long startedAt = ProcessHandle.current().info().startInstant()
+            .map(java.time.Instant::toEpochMilli)
+            .orElse(initializeStartedAt);
+        long elapsed = System.currentTimeMillis() - startedAt;
+
+        String message = "Ready in " + formatSeconds(elapsed) + " (" + restoredTabs + " saved tabs restored)";
+        System.out.println("Startup: " + message);
+        if (startupLabel != null) {
+            startupLabel.setText(message);
+        }
+    }
+
+    /**
+     * Show how many queries wait for a free connection slot and for how long
+     */
+    private void updateQueueStatus() {
+        if (queueStatusLabel == null) return;
+
+        TaskExecutionService taskService = TaskExecutionService.getInstance();
+        int queued = taskService.getQueuedCount();
+        if (queued == 0) {
+            queueStatusLabel.setText("No queries waiting (avg wait " + formatSeconds(taskService.getAverageWaitMillis()) + ")");
+            queueStatusLabel.setStyle("-fx-text-fill: #7f8c8d; -fx-font-size: 11px;");
+        } else {
+            queueStatusLabel.setText(queued + (queued == 1 ? " query" : " queries") + " waiting, longest "
+                + formatSeconds(taskService.getLongestWaitMillis())
+                + " (avg wait " + formatSeconds(taskService.getAverageWaitMillis()) + ")");
+            queueStatusLabel.setStyle("-fx-text-fill: #d35400; -fx-font-size: 11px; -fx-font-weight: bold;");
+        }
+    }
+
+    private static String formatSeconds(long millis) {
+        return String.format("%.1f s", millis / 1000.0);
     }
 
     private void initializeConnectionTree() {
@@ -340,23 +402,26 @@ public class HomeController {
         // Show progress
         showProgress("Loading " + nodeType.toLowerCase() + " from " + connectionName + "...");
 
+        QueryTask task = startTreeTask("Load " + nodeType.toLowerCase() + " from " + connectionName, dbConnection);
+
         // Load data in background thread
-        new Thread(() -> {
+        TaskExecutionService.getInstance().submit(task.getDescription(), connectionName,
+                TaskExecutionService.TaskPriority.BACKGROUND, task, () -> {
             List<String> items = new ArrayList<>();
 
             try {
                 switch (nodeType) {
                     case "Tables":
-                        items = com.dbassist.dbassist.service.DatabaseMetadataService.getTables(dbConnection);
+                        items = com.dbassist.dbassist.service.DatabaseMetadataService.getTables(dbConnection, task);
                         break;
                     case "Views":
-                        items = com.dbassist.dbassist.service.DatabaseMetadataService.getViews(dbConnection);
+                        items = com.dbassist.dbassist.service.DatabaseMetadataService.getViews(dbConnection, task);
                         break;
                     case "Stored Procedures":
-                        items = com.dbassist.dbassist.service.DatabaseMetadataService.getProcedures(dbConnection);
+                        items = com.dbassist.dbassist.service.DatabaseMetadataService.getProcedures(dbConnection, task);
                         break;
                     case "Functions":
-                        items = com.dbassist.dbassist.service.DatabaseMetadataService.getFunctions(dbConnection);
+                        items = com.dbassist.dbassist.service.DatabaseMetadataService.getFunctions(dbConnection, task);
                         break;
                 }
 
@@ -366,6 +431,10 @@ public class HomeController {
                     // Remove loading indicator
                     selectedItem.getChildren().clear();
 
+                    if (finishTreeTask(task)) {
+                        return; // Cancelled - left empty so the next click loads again
+                    }
+
                     if (finalItems.isEmpty()) {
                         TreeItem<String> emptyItem = new TreeItem<>("(No " + nodeType.toLowerCase() + " found)");
                         selectedItem.getChildren().add(emptyItem);
@@ -385,6 +454,7 @@ public class HomeController {
             } catch (Exception e) {
                 Platform.runLater(() -> {
                     selectedItem.getChildren().clear();
+                    finishTreeTask(task);
                     TreeItem<String> errorItem = new TreeItem<>("Error: " + e.getMessage());
                     selectedItem.getChildren().add(errorItem);
 
@@ -393,7 +463,11 @@ public class HomeController {
                 });
                 e.printStackTrace();
             }
-        }).start();
+        }, () -> Platform.runLater(() -> {
+            // Cancelled while queued - left empty so the next click loads again
+            selectedItem.getChildren().clear();
+            finishTreeTask(task);
+        }));
     }
 
     /**
@@ -429,16 +503,23 @@ public class HomeController {
         // Show progress
         showProgress("Loading columns for table: " + tableName + "...");
 
+        QueryTask task = startTreeTask("Load columns of " + tableName, dbConnection);
+
         // Load columns in background thread
-        new Thread(() -> {
+        TaskExecutionService.getInstance().submit(task.getDescription(), connectionName,
+                TaskExecutionService.TaskPriority.BACKGROUND, task, () -> {
             try {
-                List<String> columns = DatabaseMetadataService.getTableColumns(dbConnection, tableName);
+                List<String> columns = DatabaseMetadataService.getTableColumns(dbConnection, tableName, task);
 
                 // Update UI on JavaFX thread
                 Platform.runLater(() -> {
                     // Remove loading indicator
                     tableItem.getChildren().clear();
 
+                    if (finishTreeTask(task)) {
+                        return; // Cancelled - left empty so the next click loads again
+                    }
+
                     if (columns.isEmpty()) {
                         TreeItem<String> emptyItem = new TreeItem<>("(No columns found)");
                         tableItem.getChildren().add(emptyItem);
@@ -458,6 +539,7 @@ public class HomeController {
             } catch (Exception e) {
                 Platform.runLater(() -> {
                     tableItem.getChildren().clear();
+                    finishTreeTask(task);
                     TreeItem<String> errorItem = new TreeItem<>("Error: " + e.getMessage());
                     tableItem.getChildren().add(errorItem);
 
@@ -466,7 +548,11 @@ public class HomeController {
                 });
                 e.printStackTrace();
             }
-        }).start();
+        }, () -> Platform.runLater(() -> {
+            // Cancelled while queued - left empty so the next click loads again
+            tableItem.getChildren().clear();
+            finishTreeTask(task);
+        }));
     }
 
     public void setStage(Stage stage) {
@@ -739,14 +825,9 @@ public class HomeController {
         TabConfigManager.getInstance().addTabConfig(tabConfig);
 
         // Hide progress after a short delay (data loading happens in TableDataGrid)
-        new Thread(() -> {
-            try {
-                Thread.sleep(500);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
-            hideProgress();
-        }).start();
+        javafx.animation.PauseTransition hideDelay = new javafx.animation.PauseTransition(javafx.util.Duration.millis(500));
+        hideDelay.setOnFinished(e -> hideProgress());
+        hideDelay.play();
     }
 
     /**
@@ -775,9 +856,9 @@ public class HomeController {
         }
 
         // Set callback for query results
-        worksheet.setQueryResultCallback((query, data, columns) -> {
+        worksheet.setQueryResultCallback((query, result, columns) -> {
             // Create a table grid tab for SELECT query results
-            createQueryResultTab(connectionName, query, data, columns);
+            createQueryResultTab(connectionName, query, result, columns);
         });
 
         worksheetTab.setContent(worksheet);
@@ -801,7 +882,7 @@ public class HomeController {
      * Create a table grid tab from SQL query results
      */
     private void createQueryResultTab(String connectionName, String query,
-                                      List<Map<String, Object>> data, List<String> columns) {
+                                      SharedResult result, List<String> columns) {
         // Create a unique tab name
         String tabName = "📊 Query Result - " + connectionName;
         String tabId = "QUERY:" + connectionName + ":" + System.currentTimeMillis();
@@ -811,10 +892,14 @@ public class HomeController {
         queryTab.setClosable(true);
         queryTab.setUserData(tabId);
 
-        // Create QueryResultGrid (read-only) instead of TableDataGrid
-        QueryResultGrid resultGrid = new QueryResultGrid(connectionName, query, data, columns);
+        // Create QueryResultGrid (read-only) instead of TableDataGrid - it shares the worksheet's rows
+        QueryResultGrid resultGrid = new QueryResultGrid(connectionName, query, result, columns);
+        // Grouped results open as result tabs of their own (and can be grouped again)
+        resultGrid.setGroupResultCallback((groupQuery, groupResult, groupColumns) ->
+            createQueryResultTab(connectionName, groupQuery, groupResult, groupColumns));
 
         queryTab.setContent(resultGrid);
+        queryTab.setOnClosed(e -> resultGrid.close());
 
         mainTabPane.getTabs().add(queryTab);
         mainTabPane.getSelectionModel().select(queryTab);
@@ -824,6 +909,13 @@ public class HomeController {
      * Create a data tab with close button
      */
     private Tab createDataTab(DataTabConfig tabConfig) {
+        return createDataTab(tabConfig, false);
+    }
+
+    /**
+     * @param deferLoad true to query the table only when the tab is first selected
+     */
+    private Tab createDataTab(DataTabConfig tabConfig, boolean deferLoad) {
         Tab tab = new Tab();
         tab.setText(tabConfig.getDisplayName()); // Now shows: "ConnectionName - TableName"
         tab.setUserData(tabConfig.getTabId());
@@ -835,6 +927,9 @@ public class HomeController {
         closeButton.setOnMouseEntered(e -> closeButton.setStyle("-fx-background-color: transparent; -fx-text-fill: #e74c3c; -fx-font-size: 14px; -fx-cursor: hand; -fx-padding: 0 5;"));
         closeButton.setOnMouseExited(e -> closeButton.setStyle("-fx-background-color: transparent; -fx-text-fill: #7f8c8d; -fx-font-size: 14px; -fx-cursor: hand; -fx-padding: 0 5;"));
         closeButton.setOnAction(e -> {
+            if (tab.getContent() instanceof TableDataGrid) {
+                ((TableDataGrid) tab.getContent()).cancelLoading();
+            }
             mainTabPane.getTabs().remove(tab);
             TabConfigManager.getInstance().removeTabConfig(tabConfig.getTabId());
         });
@@ -847,7 +942,7 @@ public class HomeController {
         tab.setText(null);
 
         // Create table data grid
-        TableDataGrid dataGrid = new TableDataGrid(tabConfig);
+        TableDataGrid dataGrid = new TableDataGrid(tabConfig, deferLoad);
         dataGrid.setParentTab(tab); // Set reference so grid can update tab name
         dataGrid.setCloneCallback(clonedConfig -> handleCloneTab(clonedConfig)); // Set clone callback
         tab.setContent(dataGrid);
@@ -856,17 +951,62 @@ public class HomeController {
     }
 
     /**
-     * Load saved tabs from disk on startup
+     * Load saved tabs from disk on startup. Tabs are restored without data - each one
+     * queries its table the first time it is selected.
+     *
+     * @return number of tabs restored
      */
-    private void loadSavedTabs() {
+    private int loadSavedTabs() {
         List<DataTabConfig> savedTabs = TabConfigManager.getInstance().getAllTabConfigs();
+        Map<String, List<TableDataGrid>> gridsByConnection = new java.util.LinkedHashMap<>();
 
         for (DataTabConfig tabConfig : savedTabs) {
-            Tab dataTab = createDataTab(tabConfig);
+            Tab dataTab = createDataTab(tabConfig, true);
             mainTabPane.getTabs().add(dataTab);
+            gridsByConnection.computeIfAbsent(tabConfig.getConnectionName(), k -> new ArrayList<>())
+                .add((TableDataGrid) dataTab.getContent());
         }
 
-        System.out.println("Loaded " + savedTabs.size() + " saved tabs");
+        System.out.println("Restored " + savedTabs.size() + " saved tabs (data loads on first open)");
+        checkSavedTables(gridsByConnection);
+        return savedTabs.size();
+    }
+
+    /**
+     * Check in the background that restored tabs' tables still exist: one table listing per
+     * connection, all connections in parallel, at background priority
+     */
+    private void checkSavedTables(Map<String, List<TableDataGrid>> gridsByConnection) {
+        long startedAt = System.currentTimeMillis();
+
+        for (Map.Entry<String, List<TableDataGrid>> entry : gridsByConnection.entrySet()) {
+            String connectionName = entry.getKey();
+            List<TableDataGrid> grids = entry.getValue();
+            DatabaseConnection dbConnection = ConnectionManager.getInstance().getConnectionByName(connectionName);
+            if (dbConnection == null) continue; // The grid reports this when opened
+
+            QueryTask task = new QueryTask("Check saved tabs on " + connectionName, dbConnection);
+            TaskExecutionService.getInstance().submit(task.getDescription(), connectionName,
+                    TaskExecutionService.TaskPriority.BACKGROUND, task, () -> {
+                List<String> tables = DatabaseMetadataService.getTables(dbConnection, task);
+                if (tables.isEmpty() || task.isCancelled()) return; // Listing failed - nothing to report
+
+                java.util.Set<String> existing = new java.util.HashSet<>();
+                for (String table : tables) {
+                    existing.add(table.toLowerCase());
+                }
+
+                Platform.runLater(() -> {
+                    for (TableDataGrid grid : grids) {
+                        if (!existing.contains(grid.getTabConfig().getTableName().toLowerCase())) {
+                            grid.markTableMissing();
+                        }
+                    }
+                    System.out.println("Saved tabs on " + connectionName + " checked in "
+                        + (System.currentTimeMillis() - startedAt) + " ms");
+                });
+            });
+        }
     }
 
     /**
@@ -1102,6 +1242,8 @@ public class HomeController {
         java.util.List<String> targetColumns;
         javafx.collections.ObservableList<Map<String, Object>> sourceData;
         javafx.collections.ObservableList<Map<String, Object>> targetData;
+        // Query results compared are held until the comparison ends, even if their tabs close
+        java.util.List<SharedResult> heldResults = new java.util.ArrayList<>();
 
         if (sourceGridObj instanceof TableDataGrid) {
             TableDataGrid grid = (TableDataGrid) sourceGridObj;
@@ -1111,6 +1253,7 @@ public class HomeController {
             QueryResultGrid grid = (QueryResultGrid) sourceGridObj;
             sourceColumns = grid.getVisibleColumns();
             sourceData = grid.getCurrentData();
+            heldResults.add(grid.getResult());
         }
 
         if (targetGridObj instanceof TableDataGrid) {
@@ -1121,6 +1264,7 @@ public class HomeController {
             QueryResultGrid grid = (QueryResultGrid) targetGridObj;
             targetColumns = grid.getVisibleColumns();
             targetData = grid.getCurrentData();
+            heldResults.add(grid.getResult());
         }
 
         // Find common columns
@@ -1154,8 +1298,12 @@ public class HomeController {
         // Perform comparison in background
         final javafx.collections.ObservableList<Map<String, Object>> finalSourceData = sourceData;
         final javafx.collections.ObservableList<Map<String, Object>> finalTargetData = targetData;
+        heldResults.forEach(SharedResult::retain);
 
-        new Thread(() -> {
+        // Cancelling the comparison from the task monitor stops its large value reads
+        QueryTask compareTask = new QueryTask("Compare " + config.getSourceTab().getTableName(), null);
+        TaskExecutionService.getInstance().submit(compareTask.getDescription(), null,
+                TaskExecutionService.TaskPriority.BACKGROUND, compareTask, () -> {
             try {
                 ComparisonResult compResult = DataComparisonService.compareData(
                     config.getSourceTab().getTableName(),
@@ -1164,7 +1312,8 @@ public class HomeController {
                     finalSourceData,
                     finalTargetData,
                     commonColumns,
-                    identificationColumns
+                    identificationColumns,
+                    compareTask
                 );
 
                 // Show result in new tab
@@ -1179,8 +1328,31 @@ public class HomeController {
                     hideProgress();
                 });
                 e.printStackTrace();
+            } finally {
+                heldResults.forEach(SharedResult::release);
             }
-        }).start();
+        });
+    }
+
+    /**
+     * Show the background task monitor (one tab, reused)
+     */
+    @FXML
+    private void onShowTasks() {
+        for (Tab tab : mainTabPane.getTabs()) {
+            if ("TASKS".equals(tab.getUserData())) {
+                mainTabPane.getSelectionModel().select(tab);
+                return;
+            }
+        }
+
+        Tab tasksTab = new Tab("⚙ Tasks");
+        tasksTab.setClosable(true);
+        tasksTab.setUserData("TASKS");
+        tasksTab.setContent(new TaskMonitorView());
+
+        mainTabPane.getTabs().add(tasksTab);
+        mainTabPane.getSelectionModel().select(tasksTab);
     }
 
     /**
@@ -1428,6 +1600,7 @@ public class HomeController {
         // Remove tabs and their configurations
         for (Tab tab : tabsToRemove) {
             String tabId = (String) tab.getUserData();
+            ((TableDataGrid) tab.getContent()).cancelLoading();
             mainTabPane.getTabs().remove(tab);
             TabConfigManager.getInstance().removeTabConfig(tabId);
         }
@@ -1441,6 +1614,40 @@ public class HomeController {
         }
     }
 
+    /**
+     * Track a tree metadata load so the Stop button in the progress bar can cancel it
+     */
+    private QueryTask startTreeTask(String description, DatabaseConnection dbConnection) {
+        QueryTask task = new QueryTask(description, dbConnection);
+        treeLoadTasks.add(task);
+        return task;
+    }
+
+    /**
+     * @return true if the task was cancelled and its results should be dropped
+     */
+    private boolean finishTreeTask(QueryTask task) {
+        treeLoadTasks.remove(task);
+        if (task.isCancelled()) {
+            if (treeLoadTasks.isEmpty()) hideProgress();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Stop all running tree loads (Stop button in the progress bar)
+     */
+    @FXML
+    private void onStopLoading() {
+        for (QueryTask task : new ArrayList<>(treeLoadTasks)) {
+            task.cancel();
+        }
+        if (progressLabel != null) {
+            progressLabel.setText("Cancelling...");
+        }
+    }
+
     /**
      * Show progress bar with message
      */
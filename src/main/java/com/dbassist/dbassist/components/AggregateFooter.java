@@ -0,0 +1,137 @@
+package com.dbassist.dbassist.components;
+
+import com.dbassist.dbassist.service.AggregationService;
+import javafx.collections.ListChangeListener;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.Tooltip;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.VBox;
+import javafx.scene.shape.Rectangle;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Footer row under a result table with per-column aggregates (sum, min/max, distinct count,
+ * nulls). One cell per column, kept as wide as its column, hidden with it and scrolled
+ * horizontally along with the table.
+ */
+public class AggregateFooter extends VBox {
+
+    private static final int MAX_VALUE_TEXT = 24;
+
+    private final TableView<Map<String, Object>> tableView;
+    private final Function<TableColumn<Map<String, Object>, ?>, String> columnName;
+    private final Label captionLabel = new Label();
+    private final HBox cells = new HBox();
+    private Map<String, AggregationService.ColumnAggregate> aggregates = Collections.emptyMap();
+    private ScrollBar horizontalBar;
+
+    public AggregateFooter(TableView<Map<String, Object>> tableView,
+                           Function<TableColumn<Map<String, Object>, ?>, String> columnName) {
+        this.tableView = tableView;
+        this.columnName = columnName;
+        getStyleClass().add("aggregate-footer");
+
+        captionLabel.getStyleClass().add("aggregate-caption");
+
+        // Cells sit in a clipped viewport and move with the table's horizontal scroll bar
+        Pane viewport = new Pane(cells);
+        Rectangle clip = new Rectangle();
+        clip.widthProperty().bind(viewport.widthProperty());
+        clip.heightProperty().bind(viewport.heightProperty());
+        viewport.setClip(clip);
+        viewport.minHeightProperty().bind(cells.heightProperty());
+        viewport.prefHeightProperty().bind(cells.heightProperty());
+
+        getChildren().addAll(captionLabel, viewport);
+
+        // Column order changes (drag and drop) rebuild the cells
+        tableView.getColumns().addListener((ListChangeListener<TableColumn<Map<String, Object>, ?>>) change -> rebuild());
+    }
+
+    /**
+     * Show aggregates (column name -> values) with a caption saying what they cover
+     */
+    public void setAggregates(Map<String, AggregationService.ColumnAggregate> aggregates, String caption) {
+        this.aggregates = aggregates;
+        captionLabel.setText(caption);
+        rebuild();
+    }
+
+    /**
+     * Keep the current cells and show a progress or error message in the caption
+     */
+    public void setCaption(String caption) {
+        captionLabel.setText(caption);
+    }
+
+    private void rebuild() {
+        bindScrollBar();
+        cells.getChildren().clear();
+        for (TableColumn<Map<String, Object>, ?> column : tableView.getColumns()) {
+            AggregationService.ColumnAggregate aggregate = aggregates.get(columnName.apply(column));
+            String text = aggregate != null ? describe(aggregate) : "";
+
+            Label cell = new Label(text);
+            cell.getStyleClass().add("aggregate-cell");
+            cell.minWidthProperty().bind(column.widthProperty());
+            cell.prefWidthProperty().bind(column.widthProperty());
+            cell.maxWidthProperty().bind(column.widthProperty());
+            cell.visibleProperty().bind(column.visibleProperty());
+            cell.managedProperty().bind(column.visibleProperty());
+            if (!text.isEmpty()) {
+                cell.setTooltip(new Tooltip(text));
+            }
+            cells.getChildren().add(cell);
+        }
+    }
+
+    private void bindScrollBar() {
+        if (horizontalBar != null) return;
+        for (Node node : tableView.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar && ((ScrollBar) node).getOrientation() == Orientation.HORIZONTAL) {
+                horizontalBar = (ScrollBar) node;
+                // The bar's value is the scroll offset in pixels
+                cells.translateXProperty().bind(horizontalBar.valueProperty().negate());
+                return;
+            }
+        }
+    }
+
+    private static String describe(AggregationService.ColumnAggregate aggregate) {
+        StringBuilder text = new StringBuilder();
+        if (aggregate.getSum() != null) {
+            text.append("Σ ").append(formatNumber(aggregate.getSum())).append('\n');
+        }
+        if (aggregate.getMin() != null) {
+            text.append("min ").append(shorten(GridCells.displayText(aggregate.getMin()))).append('\n');
+            text.append("max ").append(shorten(GridCells.displayText(aggregate.getMax()))).append('\n');
+        }
+        if (aggregate.getNonNull() > 0 && aggregate.getDistinct() >= 0) {
+            text.append(aggregate.isDistinctEstimated() ? "≈ " : "")
+                .append(String.format("%,d", aggregate.getDistinct())).append(" distinct\n");
+        }
+        text.append(String.format("%,d", aggregate.getNulls())).append(" null");
+        return text.toString();
+    }
+
+    private static String formatNumber(Number number) {
+        if (number instanceof Double && Double.isFinite((Double) number)) {
+            return BigDecimal.valueOf((Double) number).stripTrailingZeros().toPlainString();
+        }
+        return GridCells.displayText(number);
+    }
+
+    private static String shorten(String text) {
+        return text.length() > MAX_VALUE_TEXT ? text.substring(0, MAX_VALUE_TEXT - 3) + "..." : text;
+    }
+}
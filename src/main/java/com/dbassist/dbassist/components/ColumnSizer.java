@@ -0,0 +1,133 @@
+package com.dbassist.dbassist.components;
+
+import com.dbassist.dbassist.service.TaskExecutionService;
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.control.Labeled;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sizes result columns to their content. A strided sample of the rows is taken on the FX
+ * thread, the text widths are computed in the background from cached per-font character
+ * advances (no layout per value), and all widths are applied in one pass.
+ */
+public class ColumnSizer {
+
+    // Rows measured per column, spread over the first SAMPLE_SPAN rows (further rows may be on disk)
+    private static final int SAMPLE_ROWS = 1000;
+    private static final int SAMPLE_SPAN = 50_000;
+
+    // Width covers this share of the sampled values; longer outliers are cut with "..."
+    private static final double PERCENTILE = 0.95;
+
+    private static final double CELL_PADDING = 18; // Cell insets plus room for the ellipsis
+    private static final double MIN_WIDTH = 60;
+    private static final double MAX_WIDTH = 400;
+
+    // Advances of chars 0-255 per font, measured once on the FX thread
+    private static final Map<Font, double[]> ADVANCES = new ConcurrentHashMap<>();
+
+    /**
+     * Size the given columns (by column name) from the table's current rows. Must be called
+     * on the FX thread; columns the user resizes in the meantime keep their width.
+     */
+    public static void sizeColumns(TableView<Map<String, Object>> tableView,
+                                   Map<String, ? extends TableColumn<Map<String, Object>, ?>> columns) {
+        List<Map<String, Object>> items = tableView.getItems();
+        if (columns.isEmpty() || items.isEmpty()) return;
+
+        // Row references only - the values are read and measured in the background
+        int span = Math.min(items.size(), SAMPLE_SPAN);
+        int step = Math.max(1, span / SAMPLE_ROWS);
+        List<Map<String, Object>> sample = new ArrayList<>(Math.min(span, SAMPLE_ROWS));
+        for (int i = 0; i < span && sample.size() < SAMPLE_ROWS; i += step) {
+            sample.add(items.get(i));
+        }
+
+        Font font = findCellFont(tableView);
+        double[] advances = advancesFor(font);
+        double[] headerAdvances = advancesFor(Font.font(font.getFamily(), javafx.scene.text.FontWeight.BOLD, font.getSize()));
+
+        Map<String, TableColumn<Map<String, Object>, ?>> targets = new LinkedHashMap<>(columns);
+        Map<TableColumn<Map<String, Object>, ?>, Double> startWidths = new java.util.HashMap<>();
+        for (TableColumn<Map<String, Object>, ?> column : targets.values()) {
+            startWidths.put(column, column.getPrefWidth());
+        }
+
+        TaskExecutionService.getInstance().submit("Size " + targets.size() + " columns", () -> {
+            Map<TableColumn<Map<String, Object>, ?>, Double> widths = new LinkedHashMap<>();
+            double[] valueWidths = new double[sample.size()];
+            for (Map.Entry<String, TableColumn<Map<String, Object>, ?>> entry : targets.entrySet()) {
+                String columnName = entry.getKey();
+                TableColumn<Map<String, Object>, ?> column = entry.getValue();
+                for (int i = 0; i < valueWidths.length; i++) {
+                    valueWidths[i] = measure(GridCells.displayText(sample.get(i).get(columnName)), advances, font.getSize());
+                }
+                Arrays.sort(valueWidths);
+                double content = valueWidths[(int) Math.min(valueWidths.length - 1, Math.floor(valueWidths.length * PERCENTILE))];
+
+                double floor = Math.max(MIN_WIDTH, measure(columnName, headerAdvances, font.getSize()) + CELL_PADDING);
+                widths.put(column, Math.max(floor, Math.min(MAX_WIDTH, content + CELL_PADDING)));
+            }
+
+            Platform.runLater(() -> {
+                // Rows replaced since the sample was taken - a later sizing covers them
+                if (tableView.getItems() != items) return;
+                for (Map.Entry<TableColumn<Map<String, Object>, ?>, Double> entry : widths.entrySet()) {
+                    TableColumn<Map<String, Object>, ?> column = entry.getKey();
+                    if (column.getPrefWidth() == startWidths.get(column)) {
+                        column.setPrefWidth(Math.max(column.getMinWidth(), entry.getValue()));
+                    }
+                }
+            });
+        });
+    }
+
+    /**
+     * Width of a single line of text; chars without a measured advance count as a full em
+     */
+    private static double measure(String text, double[] advances, double fontSize) {
+        double width = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '\n' || c == '\r') break; // Cells show the first line
+            width += c < advances.length ? advances[c] : fontSize;
+        }
+        return width;
+    }
+
+    private static double[] advancesFor(Font font) {
+        return ADVANCES.computeIfAbsent(font, f -> {
+            double[] advances = new double[256];
+            Text text = new Text();
+            text.setFont(f);
+            for (int c = 0; c < advances.length; c++) {
+                text.setText(String.valueOf((char) c));
+                advances[c] = Character.isISOControl(c) ? 0 : text.getLayoutBounds().getWidth();
+            }
+            return advances;
+        });
+    }
+
+    /**
+     * Font of the rendered cells, or the default font before any cell exists
+     */
+    private static Font findCellFont(TableView<?> tableView) {
+        Node cell = tableView.lookup(".value-cell");
+        if (cell instanceof Labeled) {
+            return ((Labeled) cell).getFont();
+        }
+        return Font.getDefault();
+    }
+}
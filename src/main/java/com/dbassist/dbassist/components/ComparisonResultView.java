@@ -2,6 +2,8 @@ package com.dbassist.dbassist.components;
 
 import com.dbassist.dbassist.model.ComparisonResult;
 import com.dbassist.dbassist.model.ComparisonResult.*;
+import com.dbassist.dbassist.service.TaskExecutionService;
+import javafx.css.PseudoClass;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
@@ -15,8 +17,17 @@ import java.util.Map;
  */
 public class ComparisonResultView extends VBox {
 
+    private static final PseudoClass MATCHED = PseudoClass.getPseudoClass("matched");
+    private static final PseudoClass MISMATCHED = PseudoClass.getPseudoClass("mismatched");
+    private static final PseudoClass SOURCE_ONLY = PseudoClass.getPseudoClass("source-only");
+    private static final PseudoClass TARGET_ONLY = PseudoClass.getPseudoClass("target-only");
+
+    // Longest value shown in a comparison cell
+    private static final int MAX_CELL_TEXT = 30;
+
     private ComparisonResult result;
     private TableView<ComparisonRow> tableView;
+    private FindBar<ComparisonRow> findBar;
     private Map<String, ColumnStats> columnStats; // Track statistics per column
 
     /**
@@ -56,6 +67,7 @@ public class ComparisonResultView extends VBox {
         this.setSpacing(10);
         this.setPadding(new Insets(15));
         this.setStyle("-fx-background-color: #f5f7fa;");
+        this.getStylesheets().add(GridCells.STYLESHEET);
 
         // Header with summary and export buttons
         HBox header = createHeader();
@@ -75,7 +87,16 @@ public class ComparisonResultView extends VBox {
 
         tableView.getItems().addAll(result.getComparisonRows());
 
-        this.getChildren().add(tableView);
+        findBar = new FindBar<>(tableView, this::findText);
+        this.getChildren().addAll(findBar, tableView);
+
+        // Ctrl+F anywhere in the grid opens the find bar
+        this.addEventFilter(javafx.scene.input.KeyEvent.KEY_PRESSED, e -> {
+            if (e.isShortcutDown() && e.getCode() == javafx.scene.input.KeyCode.F) {
+                findBar.open();
+                e.consume();
+            }
+        });
     }
 
     /**
@@ -154,11 +175,16 @@ public class ComparisonResultView extends VBox {
         exportHtmlBtn.setStyle("-fx-background-color: #3498db; -fx-text-fill: white; -fx-cursor: hand; -fx-padding: 8 15; -fx-font-size: 11px;");
         exportHtmlBtn.setOnAction(e -> exportToHtml());
 
+        Button findButton = new Button("🔍 Find");
+        findButton.setStyle("-fx-background-color: #34495e; -fx-text-fill: white; -fx-cursor: hand; -fx-padding: 8 15;");
+        findButton.setTooltip(new Tooltip("Find in the loaded rows (Ctrl+F)"));
+        findButton.setOnAction(e -> findBar.open());
+
         Button exportCsvBtn = new Button("📄 Export CSV");
         exportCsvBtn.setStyle("-fx-background-color: #9b59b6; -fx-text-fill: white; -fx-cursor: hand; -fx-padding: 8 15; -fx-font-size: 11px;");
         exportCsvBtn.setOnAction(e -> exportToCsv());
 
-        header.getChildren().addAll(titleLabel, spacer, connectionInfo, exportExcelBtn, exportHtmlBtn, exportCsvBtn);
+        header.getChildren().addAll(titleLabel, spacer, connectionInfo, findButton, exportExcelBtn, exportHtmlBtn, exportCsvBtn);
 
         return header;
     }
@@ -200,52 +226,58 @@ public class ComparisonResultView extends VBox {
     }
 
     private void createColumns() {
-        // Status column
-        TableColumn<ComparisonRow, String> statusCol = new TableColumn<>("Status");
+        // Status column - cells are styled by pseudo-class (data-grid.css), not inline styles
+        TableColumn<ComparisonRow, RowStatus> statusCol = new TableColumn<>("Status");
         statusCol.setPrefWidth(120);
-        statusCol.setCellValueFactory(cellData -> {
-            RowStatus status = cellData.getValue().getStatus();
-            return new javafx.beans.property.SimpleStringProperty(getStatusText(status));
-        });
-        statusCol.setCellFactory(col -> new TableCell<ComparisonRow, String>() {
+        statusCol.setCellValueFactory(cellData -> GridCells.cellValue(cellData.getValue().getStatus()));
+        statusCol.setCellFactory(col -> new TableCell<ComparisonRow, RowStatus>() {
+            {
+                getStyleClass().add("status-cell");
+            }
+
             @Override
-            protected void updateItem(String item, boolean empty) {
+            protected void updateItem(RowStatus item, boolean empty) {
                 super.updateItem(item, empty);
-                if (empty || item == null) {
-                    setText(null);
-                    setStyle("");
-                } else {
-                    setText(item);
-                    ComparisonRow row = getTableView().getItems().get(getIndex());
-                    setStyle(getStatusStyle(row.getStatus()));
-                }
+                setText(empty || item == null ? null : getStatusText(item));
+                java.util.function.Predicate<String> find = GridCells.findMatcher(getTableView());
+                pseudoClassStateChanged(GridCells.FIND_MATCH, find != null && item != null && !empty && find.test(getText()));
+                pseudoClassStateChanged(MATCHED, !empty && item == RowStatus.MATCHED);
+                pseudoClassStateChanged(MISMATCHED, !empty && item == RowStatus.MISMATCHED);
+                pseudoClassStateChanged(SOURCE_ONLY, !empty && item == RowStatus.SOURCE_ONLY);
+                pseudoClassStateChanged(TARGET_ONLY, !empty && item == RowStatus.TARGET_ONLY);
             }
         });
         tableView.getColumns().add(statusCol);
 
         // Primary key columns
         for (String pkCol : result.getPrimaryKeyColumns()) {
-            TableColumn<ComparisonRow, String> col = new TableColumn<>(pkCol + " (PK)");
+            TableColumn<ComparisonRow, Object> col = new TableColumn<>(pkCol + " (PK)");
             col.setPrefWidth(120);
-            col.setCellValueFactory(cellData -> {
-                Object value = cellData.getValue().getPrimaryKeyValues().get(pkCol);
-                return new javafx.beans.property.SimpleStringProperty(value != null ? value.toString() : "null");
+            col.setCellValueFactory(cellData -> GridCells.cellValue(cellData.getValue().getPrimaryKeyValues().get(pkCol)));
+            GridCells.Formatter formatter = new GridCells.Formatter();
+            col.setCellFactory(c -> {
+                GridCells.ValueCell<ComparisonRow> cell = new GridCells.ValueCell<>(formatter);
+                cell.getStyleClass().add("pk-cell");
+                return cell;
             });
-            col.setCellFactory(this::createPKCellFactory);
             tableView.getColumns().add(col);
         }
 
         // Data columns with comparison
         for (String column : result.getCommonColumns()) {
             if (!result.getPrimaryKeyColumns().contains(column)) {
-                TableColumn<ComparisonRow, String> col = new TableColumn<>();
+                TableColumn<ComparisonRow, CellComparison> col = new TableColumn<>();
                 col.setPrefWidth(150);
 
                 // Create custom header with match indicator
                 VBox headerBox = createColumnHeaderWithStats(column);
                 col.setGraphic(headerBox);
 
-                col.setCellFactory(c -> createComparisonCell(column));
+                col.setCellValueFactory(cellData -> GridCells.cellValue(cellData.getValue().getCellComparisons().get(column)));
+                GridCells.Formatter formatter = new GridCells.Formatter(MAX_CELL_TEXT);
+                col.setCellFactory(c -> createComparisonCell(formatter));
+                // Header sort: mismatches first
+                col.setComparator(java.util.Comparator.comparing(c -> c != null && c.isMatched()));
                 tableView.getColumns().add(col);
             }
         }
@@ -307,73 +339,60 @@ public class ComparisonResultView extends VBox {
         return headerBox;
     }
 
-    private TableCell<ComparisonRow, String> createPKCellFactory(TableColumn<ComparisonRow, String> col) {
-        return new TableCell<ComparisonRow, String>() {
-            @Override
-            protected void updateItem(String item, boolean empty) {
-                super.updateItem(item, empty);
-                if (empty || item == null) {
-                    setText(null);
-                    setStyle("");
-                } else {
-                    setText(item);
-                    setStyle("-fx-font-weight: bold; -fx-background-color: #e8eaf6;");
-                }
+    /**
+     * Source over target value, green or red by match. The labels are built once per cell
+     * and only their text changes as the cell is reused while scrolling.
+     */
+    private TableCell<ComparisonRow, CellComparison> createComparisonCell(GridCells.Formatter formatter) {
+        return new TableCell<ComparisonRow, CellComparison>() {
+            private final Label sourceLabel = new Label();
+            private final Label targetLabel = new Label();
+            private final VBox cellContent = new VBox(3,
+                new HBox(4, new Label("S:"), sourceLabel),
+                new HBox(4, new Label("T:"), targetLabel));
+
+            {
+                getStyleClass().add("comparison-cell");
+                cellContent.setAlignment(Pos.CENTER_LEFT);
             }
-        };
-    }
 
-    private TableCell<ComparisonRow, String> createComparisonCell(String columnName) {
-        return new TableCell<ComparisonRow, String>() {
             @Override
-            protected void updateItem(String item, boolean empty) {
-                super.updateItem(item, empty);
-                if (empty) {
-                    setText(null);
+            protected void updateItem(CellComparison cellComp, boolean empty) {
+                super.updateItem(cellComp, empty);
+                setText(null);
+                if (empty || cellComp == null) {
                     setGraphic(null);
-                    setStyle("");
-                    return;
-                }
-
-                ComparisonRow row = getTableView().getItems().get(getIndex());
-                CellComparison cellComp = row.getCellComparisons().get(columnName);
-
-                if (cellComp == null) {
-                    setText("");
-                    setStyle("");
+                    pseudoClassStateChanged(MATCHED, false);
+                    pseudoClassStateChanged(MISMATCHED, false);
+                    pseudoClassStateChanged(GridCells.FIND_MATCH, false);
                     return;
                 }
 
-                VBox cellContent = new VBox(3);
-                cellContent.setAlignment(Pos.CENTER_LEFT);
-
-                // Source value
-                Label sourceLabel = new Label("S: " + formatValue(cellComp.getSourceValue()));
-                sourceLabel.setStyle("-fx-font-size: 11px;");
-
-                // Target value
-                Label targetLabel = new Label("T: " + formatValue(cellComp.getTargetValue()));
-                targetLabel.setStyle("-fx-font-size: 11px;");
-
-                cellContent.getChildren().addAll(sourceLabel, targetLabel);
-
-                setText(null);
+                sourceLabel.setText(formatter.format(cellComp.getSourceValue()));
+                targetLabel.setText(formatter.format(cellComp.getTargetValue()));
                 setGraphic(cellContent);
 
-                // Color coding
-                if (cellComp.isMatched()) {
-                    setStyle("-fx-background-color: #c8e6c9; -fx-border-color: #81c784; -fx-border-width: 0.5;"); // Light green
-                } else {
-                    setStyle("-fx-background-color: #ffcdd2; -fx-border-color: #e57373; -fx-border-width: 0.5;"); // Light red
-                }
+                // Color coding: light green / light red
+                pseudoClassStateChanged(MATCHED, cellComp.isMatched());
+                pseudoClassStateChanged(MISMATCHED, !cellComp.isMatched());
+                java.util.function.Predicate<String> find = GridCells.findMatcher(getTableView());
+                pseudoClassStateChanged(GridCells.FIND_MATCH, find != null && find.test(findText(cellComp)));
             }
         };
     }
 
-    private String formatValue(Object value) {
-        if (value == null) return "null";
-        String str = value.toString();
-        return str.length() > 30 ? str.substring(0, 27) + "..." : str;
+    /**
+     * Text the find bar searches for a cell: source over target for compared values
+     */
+    private String findText(Object value) {
+        if (value instanceof CellComparison) {
+            CellComparison cellComp = (CellComparison) value;
+            return GridCells.displayText(cellComp.getSourceValue()) + "\n" + GridCells.displayText(cellComp.getTargetValue());
+        }
+        if (value instanceof RowStatus) {
+            return getStatusText((RowStatus) value);
+        }
+        return GridCells.displayText(value);
     }
 
     private String getStatusText(RowStatus status) {
@@ -386,21 +405,6 @@ public class ComparisonResultView extends VBox {
         }
     }
 
-    private String getStatusStyle(RowStatus status) {
-        switch (status) {
-            case MATCHED:
-                return "-fx-background-color: #c8e6c9; -fx-text-fill: #2e7d32; -fx-font-weight: bold;";
-            case MISMATCHED:
-                return "-fx-background-color: #ffe0b2; -fx-text-fill: #e65100; -fx-font-weight: bold;";
-            case SOURCE_ONLY:
-                return "-fx-background-color: #e1bee7; -fx-text-fill: #6a1b9a; -fx-font-weight: bold;";
-            case TARGET_ONLY:
-                return "-fx-background-color: #bbdefb; -fx-text-fill: #0d47a1; -fx-font-weight: bold;";
-            default:
-                return "";
-        }
-    }
-
     /**
      * Export comparison results to Excel format
      */
@@ -414,7 +418,7 @@ public class ComparisonResultView extends VBox {
 
         java.io.File file = fileChooser.showSaveDialog(this.getScene().getWindow());
         if (file != null) {
-            new Thread(() -> {
+            TaskExecutionService.getInstance().submit("Export " + file.getName(), () -> {
                 try {
                     exportToExcelFile(file);
                     javafx.application.Platform.runLater(() -> {
@@ -434,7 +438,7 @@ public class ComparisonResultView extends VBox {
                     });
                     e.printStackTrace();
                 }
-            }).start();
+            });
         }
     }
 
@@ -451,7 +455,7 @@ public class ComparisonResultView extends VBox {
 
         java.io.File file = fileChooser.showSaveDialog(this.getScene().getWindow());
         if (file != null) {
-            new Thread(() -> {
+            TaskExecutionService.getInstance().submit("Export " + file.getName(), () -> {
                 try {
                     exportToHtmlFile(file);
                     javafx.application.Platform.runLater(() -> {
@@ -471,7 +475,7 @@ public class ComparisonResultView extends VBox {
                     });
                     e.printStackTrace();
                 }
-            }).start();
+            });
         }
     }
 
@@ -488,7 +492,7 @@ public class ComparisonResultView extends VBox {
 
         java.io.File file = fileChooser.showSaveDialog(this.getScene().getWindow());
         if (file != null) {
-            new Thread(() -> {
+            TaskExecutionService.getInstance().submit("Export " + file.getName(), () -> {
                 try {
                     exportToCsvFile(file);
                     javafx.application.Platform.runLater(() -> {
@@ -508,7 +512,7 @@ public class ComparisonResultView extends VBox {
                     });
                     e.printStackTrace();
                 }
-            }).start();
+            });
         }
     }
 
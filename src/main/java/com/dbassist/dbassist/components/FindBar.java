@@ -0,0 +1,254 @@
+package com.dbassist.dbassist.components;
+
+import com.dbassist.dbassist.service.QueryTask;
+import com.dbassist.dbassist.service.ResultSearch;
+import com.dbassist.dbassist.service.TaskExecutionService;
+import javafx.application.Platform;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.*;
+import javafx.scene.input.KeyCode;
+import javafx.scene.layout.HBox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Find/next bar over a result table (Ctrl+F). Searches every visible cell in the background,
+ * as plain text or a regular expression; matching cells are highlighted and Enter /
+ * Shift+Enter step through them. The search over a result is kept until its rows or
+ * columns change, so repeated finds reuse its column index (see {@link ResultSearch}).
+ */
+public class FindBar<T> extends HBox {
+
+    private final TableView<T> tableView;
+    private final Function<Object, String> valueText; // Cell value -> searched text
+    private Runnable retainRows = () -> { };  // Hold the searched rows while a search runs
+    private Runnable releaseRows = () -> { };
+
+    private final TextField queryField = new TextField();
+    private final CheckBox regexCheckBox = new CheckBox("Regex");
+    private final Label resultLabel = new Label();
+
+    // Search over the current rows and columns; dropped when either changes (FX thread only)
+    private ResultSearch<T> search;
+    private ObservableList<T> searchedItems;
+    private List<TableColumn<T, ?>> searchedColumns;
+    private final ListChangeListener<T> itemsListener = change -> invalidate();
+
+    private QueryTask findTask;
+    private String matchedQuery; // Query and flag the matches belong to
+    private long[] matches;
+    private int position = -1;
+
+    public FindBar(TableView<T> tableView, Function<Object, String> valueText) {
+        this.tableView = tableView;
+        this.valueText = valueText;
+
+        setSpacing(8);
+        setAlignment(Pos.CENTER_LEFT);
+        setPadding(new Insets(6, 10, 6, 10));
+        setStyle("-fx-background-color: white; -fx-background-radius: 5;");
+
+        queryField.setPromptText("Find in results...");
+        queryField.setPrefWidth(300);
+        queryField.setOnKeyPressed(e -> {
+            if (e.getCode() == KeyCode.ENTER) {
+                find(!e.isShiftDown());
+                e.consume();
+            } else if (e.getCode() == KeyCode.ESCAPE) {
+                close();
+                e.consume();
+            }
+        });
+        regexCheckBox.setStyle("-fx-font-size: 11px;");
+        regexCheckBox.setOnAction(e -> find(true));
+
+        Button previousButton = new Button("▲");
+        previousButton.setTooltip(new Tooltip("Previous match (Shift+Enter)"));
+        previousButton.setOnAction(e -> find(false));
+        Button nextButton = new Button("▼");
+        nextButton.setTooltip(new Tooltip("Next match (Enter)"));
+        nextButton.setOnAction(e -> find(true));
+        Button closeButton = new Button("✖");
+        closeButton.setTooltip(new Tooltip("Close (Esc)"));
+        closeButton.setOnAction(e -> close());
+
+        resultLabel.setStyle("-fx-font-size: 11px; -fx-text-fill: #7f8c8d;");
+
+        getChildren().addAll(new Label("🔍"), queryField, regexCheckBox, previousButton, nextButton, resultLabel, closeButton);
+        setVisible(false);
+        setManaged(false);
+
+        // Sorting, reloading or showing other columns moves the cells - search again on Enter
+        tableView.itemsProperty().addListener((obs, oldItems, newItems) -> invalidate());
+        tableView.getVisibleLeafColumns().addListener((ListChangeListener<TableColumn<T, ?>>) change -> invalidate());
+    }
+
+    /**
+     * Keep the rows readable while a search runs over them in the background, for rows
+     * shared with other holders that may be released meanwhile (each retain gets a release)
+     */
+    public void setRowsHold(Runnable retain, Runnable release) {
+        this.retainRows = retain;
+        this.releaseRows = release;
+    }
+
+    public void open() {
+        setVisible(true);
+        setManaged(true);
+        queryField.requestFocus();
+        queryField.selectAll();
+    }
+
+    public void close() {
+        cancelFind();
+        setVisible(false);
+        setManaged(false);
+        matches = null;
+        matchedQuery = null;
+        resultLabel.setText("");
+        tableView.getProperties().remove(GridCells.FIND_MATCHER);
+        tableView.refresh();
+        tableView.requestFocus();
+    }
+
+    /**
+     * Go to the next (or previous) match, searching first if the query changed
+     */
+    private void find(boolean forward) {
+        String query = queryField.getText();
+        if (query == null || query.isEmpty()) {
+            resultLabel.setText("");
+            tableView.getProperties().remove(GridCells.FIND_MATCHER);
+            tableView.refresh();
+            return;
+        }
+
+        String queryKey = regexCheckBox.isSelected() + ":" + query;
+        if (matches != null && queryKey.equals(matchedQuery)) {
+            step(forward);
+            return;
+        }
+
+        Predicate<String> matcher;
+        try {
+            matcher = ResultSearch.compile(query, regexCheckBox.isSelected());
+        } catch (java.util.regex.PatternSyntaxException e) {
+            resultLabel.setText("Invalid regex: " + e.getDescription());
+            return;
+        }
+
+        cancelFind();
+        ResultSearch<T> currentSearch = currentSearch();
+        QueryTask task = new QueryTask("Find \"" + query + "\"", null);
+        findTask = task;
+        resultLabel.setText("Searching...");
+        retainRows.run();
+
+        TaskExecutionService.getInstance().submit(task.getDescription(), () -> {
+            try {
+                long start = System.currentTimeMillis();
+                long[] found = currentSearch.find(matcher, task);
+                long millis = System.currentTimeMillis() - start;
+                Platform.runLater(() -> {
+                    if (findTask != task || search != currentSearch) return;
+                    findTask = null;
+                    matches = found;
+                    matchedQuery = queryKey;
+                    position = -1;
+                    tableView.getProperties().put(GridCells.FIND_MATCHER, matcher);
+                    tableView.refresh();
+                    if (found.length == 0) {
+                        resultLabel.setText("No matches (" + millis + " ms)");
+                    } else {
+                        startAtSelection(forward);
+                        step(forward);
+                        resultLabel.setText(resultLabel.getText() + " - " + millis + " ms");
+                    }
+                });
+            } catch (Exception e) {
+                Platform.runLater(() -> {
+                    if (findTask == task && !task.isCancelled()) {
+                        findTask = null;
+                        resultLabel.setText("Search failed: " + e.getMessage());
+                    }
+                });
+            } finally {
+                releaseRows.run();
+            }
+        });
+    }
+
+    /**
+     * Position the first step at the match nearest the selected row
+     */
+    private void startAtSelection(boolean forward) {
+        int selected = tableView.getSelectionModel().getSelectedIndex();
+        if (selected < 0) return;
+        for (int i = 0; i < matches.length; i++) {
+            if (ResultSearch.row(matches[i]) >= selected) {
+                position = forward ? i - 1 : i;
+                return;
+            }
+        }
+    }
+
+    private void step(boolean forward) {
+        if (matches.length == 0) return;
+        position = forward
+            ? (position + 1) % matches.length
+            : (position - 1 + matches.length) % matches.length;
+
+        int row = ResultSearch.row(matches[position]);
+        TableColumn<T, ?> column = searchedColumns.get(ResultSearch.column(matches[position]));
+        tableView.getSelectionModel().clearAndSelect(row);
+        tableView.scrollTo(row);
+        tableView.scrollToColumn(column);
+
+        resultLabel.setText(String.format("%,d of %,d%s", position + 1, matches.length,
+            matches.length == ResultSearch.MAX_MATCHES ? " (first matches only)" : ""));
+    }
+
+    /**
+     * Search over the current rows and visible columns, reused while they stay the same
+     */
+    private ResultSearch<T> currentSearch() {
+        if (search == null) {
+            searchedItems = tableView.getItems();
+            searchedItems.addListener(itemsListener);
+            searchedColumns = new ArrayList<>(tableView.getVisibleLeafColumns());
+
+            List<Function<T, String>> columnTexts = new ArrayList<>();
+            for (TableColumn<T, ?> column : searchedColumns) {
+                columnTexts.add(row -> valueText.apply(column.getCellData(row)));
+            }
+            search = new ResultSearch<>(searchedItems, columnTexts);
+        }
+        return search;
+    }
+
+    private void invalidate() {
+        if (search == null) return;
+        cancelFind();
+        searchedItems.removeListener(itemsListener);
+        search = null;
+        searchedItems = null;
+        matches = null;
+        matchedQuery = null;
+        if (isVisible() && !queryField.getText().isEmpty()) {
+            resultLabel.setText("Rows changed - press Enter to search again");
+        }
+    }
+
+    private void cancelFind() {
+        if (findTask != null) {
+            findTask.cancel();
+            findTask = null;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.dbassist.dbassist.components;
+
+import com.dbassist.dbassist.model.LobHandle;
+import javafx.beans.InvalidationListener;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.css.PseudoClass;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Cell rendering shared by the result grids. Scrolling re-renders every visible cell, so
+ * the path is kept allocation-light: each column has one {@link Formatter} that caches the
+ * display string per value, cells are styled through CSS pseudo-classes (data-grid.css)
+ * instead of inline styles, and cell values are passed in a minimal read-only wrapper.
+ */
+public class GridCells {
+
+    public static final String STYLESHEET = GridCells.class.getResource("/com/dbassist/dbassist/data-grid.css").toExternalForm();
+
+    public static final PseudoClass NULL_VALUE = PseudoClass.getPseudoClass("null-value");
+    public static final PseudoClass LOB_VALUE = PseudoClass.getPseudoClass("lob-value");
+    public static final PseudoClass FIND_MATCH = PseudoClass.getPseudoClass("find-match");
+
+    // Table property holding the text test of the active find (see FindBar)
+    static final String FIND_MATCHER = "dbassist.findMatcher";
+
+    private static final String NULL_TEXT = "null";
+
+    // Bytes shown of binary values
+    private static final int BINARY_PREVIEW_BYTES = 32;
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    /**
+     * Formats one column's values. Display strings are kept in a small direct-mapped cache
+     * keyed by value identity, so a value scrolled past again is not formatted again.
+     * Only used on the FX thread.
+     */
+    public static class Formatter {
+        private static final int CACHE_SIZE = 1024; // Power of two
+
+        private final int maxLength; // Longer text is cut with "...", 0 = no limit
+        private final Object[] cachedValues = new Object[CACHE_SIZE];
+        private final String[] cachedTexts = new String[CACHE_SIZE];
+
+        public Formatter() {
+            this(0);
+        }
+
+        public Formatter(int maxLength) {
+            this.maxLength = maxLength;
+        }
+
+        public String format(Object value) {
+            if (value == null) return NULL_TEXT;
+            if (value instanceof String && (maxLength == 0 || ((String) value).length() <= maxLength)) {
+                return (String) value;
+            }
+
+            int slot = System.identityHashCode(value) & (CACHE_SIZE - 1);
+            if (cachedValues[slot] == value) {
+                return cachedTexts[slot];
+            }
+
+            String text = displayText(value);
+            if (maxLength > 0 && text.length() > maxLength) {
+                text = text.substring(0, maxLength - 3) + "...";
+            }
+            cachedValues[slot] = value;
+            cachedTexts[slot] = text;
+            return text;
+        }
+
+    }
+
+    /**
+     * Text shown for a value, without caching (safe on any thread)
+     */
+    public static String displayText(Object value) {
+        if (value == null) return NULL_TEXT;
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).toPlainString(); // Never 1E+3
+        }
+        if (value instanceof java.sql.Timestamp) {
+            String text = value.toString();
+            return text.endsWith(".0") ? text.substring(0, text.length() - 2) : text;
+        }
+        if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            int shown = Math.min(bytes.length, BINARY_PREVIEW_BYTES);
+            StringBuilder hex = new StringBuilder(2 + shown * 2 + 24).append("0x");
+            for (int i = 0; i < shown; i++) {
+                hex.append(HEX_DIGITS[(bytes[i] >> 4) & 0xF]).append(HEX_DIGITS[bytes[i] & 0xF]);
+            }
+            if (shown < bytes.length) {
+                hex.append("… [").append(bytes.length).append(" bytes]");
+            }
+            return hex.toString();
+        }
+        return value.toString();
+    }
+
+    /**
+     * Text test of the table's active find, or null when nothing is searched
+     */
+    @SuppressWarnings("unchecked")
+    public static java.util.function.Predicate<String> findMatcher(TableView<?> tableView) {
+        return tableView == null ? null
+            : (java.util.function.Predicate<String>) tableView.getProperties().get(FIND_MATCHER);
+    }
+
+    /**
+     * Read-only cell value without listener support - cells only read it once per update,
+     * so a property with listener bookkeeping per cell is wasted
+     */
+    private static final class CellValue<T> implements ObservableValue<T> {
+        private final T value;
+
+        CellValue(T value) {
+            this.value = value;
+        }
+
+        @Override
+        public T getValue() {
+            return value;
+        }
+
+        @Override
+        public void addListener(ChangeListener<? super T> listener) {
+        }
+
+        @Override
+        public void removeListener(ChangeListener<? super T> listener) {
+        }
+
+        @Override
+        public void addListener(InvalidationListener listener) {
+        }
+
+        @Override
+        public void removeListener(InvalidationListener listener) {
+        }
+    }
+
+    private static final CellValue<Object> NULL_CELL_VALUE = new CellValue<>(null);
+
+    @SuppressWarnings("unchecked")
+    public static <T> ObservableValue<T> cellValue(T value) {
+        return value == null ? (ObservableValue<T>) NULL_CELL_VALUE : new CellValue<>(value);
+    }
+
+    /**
+     * Plain value cell: formatted text, with nulls and large values marked by pseudo-class
+     */
+    public static class ValueCell<S> extends TableCell<S, Object> {
+        private final Formatter formatter;
+
+        public ValueCell(Formatter formatter) {
+            this.formatter = formatter;
+            getStyleClass().add("value-cell");
+        }
+
+        @Override
+        protected void updateItem(Object item, boolean empty) {
+            super.updateItem(item, empty);
+            if (empty) {
+                setText(null);
+                pseudoClassStateChanged(NULL_VALUE, false);
+                pseudoClassStateChanged(LOB_VALUE, false);
+                pseudoClassStateChanged(FIND_MATCH, false);
+            } else {
+                setText(formatter.format(item));
+                pseudoClassStateChanged(NULL_VALUE, item == null);
+                pseudoClassStateChanged(LOB_VALUE, item instanceof LobHandle);
+                java.util.function.Predicate<String> find = findMatcher(getTableView());
+                pseudoClassStateChanged(FIND_MATCH, find != null && find.test(displayText(item)));
+            }
+        }
+    }
+
+    /**
+     * Set up a result column over row maps: value lookup by name and a formatted value cell
+     */
+    public static void install(TableColumn<Map<String, Object>, Object> column, String columnName) {
+        Formatter formatter = new Formatter();
+        column.setCellValueFactory(cellData -> cellValue(cellData.getValue().get(columnName)));
+        column.setCellFactory(col -> new ValueCell<>(formatter));
+    }
+
+    /**
+     * Sort a table over shared rows without moving them: a sorted table shows a sorted list of
+     * references to the rows, an unsorted one the rows themselves. Rows on disk are not sorted
+     * (that would read the whole result back); {@code refused} is run instead.
+     */
+    public static void sortByReference(TableView<Map<String, Object>> table, ObservableList<Map<String, Object>> rows,
+                                       BooleanSupplier spilled, Runnable refused) {
+        table.setSortPolicy(t -> {
+            Comparator<Map<String, Object>> comparator = t.getComparator();
+            if (comparator == null) {
+                if (t.getItems() != rows) t.setItems(rows);
+                return true;
+            }
+            if (spilled.getAsBoolean()) {
+                refused.run();
+                return false;
+            }
+            List<Map<String, Object>> sorted = new ArrayList<>(rows);
+            sorted.sort(comparator);
+            t.setItems(FXCollections.observableList(sorted));
+            return true;
+        });
+    }
+}
@@ -0,0 +1,111 @@
+package com.dbassist.dbassist.components;
+
+import com.dbassist.dbassist.service.GroupByService;
+import javafx.geometry.Insets;
+import javafx.scene.control.*;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Asks how to group a result: group columns, an optional pivot column and the functions
+ * applied to a value column
+ */
+public class GroupByDialog {
+
+    private static final String NONE = "(none)";
+    private static final String ROWS_ONLY = "(count rows only)";
+
+    public static Optional<GroupByService.GroupSpec> show(List<String> columns) {
+        Dialog<GroupByService.GroupSpec> dialog = new Dialog<>();
+        dialog.setTitle("Group By");
+        dialog.setHeaderText("Group the loaded rows locally - the result opens in a new tab");
+
+        // Group columns
+        VBox groupBox = new VBox(6);
+        groupBox.setPadding(new Insets(8));
+        List<CheckBox> groupChecks = new ArrayList<>();
+        for (String column : columns) {
+            CheckBox checkBox = new CheckBox(column);
+            checkBox.setStyle("-fx-font-size: 13px;");
+            groupChecks.add(checkBox);
+            groupBox.getChildren().add(checkBox);
+        }
+        ScrollPane groupScroll = new ScrollPane(groupBox);
+        groupScroll.setFitToWidth(true);
+        groupScroll.setPrefHeight(260);
+
+        ComboBox<String> pivotCombo = new ComboBox<>();
+        pivotCombo.getItems().add(NONE);
+        pivotCombo.getItems().addAll(columns);
+        pivotCombo.setValue(NONE);
+        pivotCombo.setMaxWidth(Double.MAX_VALUE);
+        pivotCombo.setTooltip(new Tooltip("Each value of this column becomes a result column (at most "
+            + GroupByService.MAX_PIVOT_VALUES + ")"));
+
+        ComboBox<String> valueCombo = new ComboBox<>();
+        valueCombo.getItems().add(ROWS_ONLY);
+        valueCombo.getItems().addAll(columns);
+        valueCombo.setValue(ROWS_ONLY);
+        valueCombo.setMaxWidth(Double.MAX_VALUE);
+
+        HBox functionBox = new HBox(10);
+        List<CheckBox> functionChecks = new ArrayList<>();
+        for (GroupByService.Function function : GroupByService.Function.values()) {
+            CheckBox checkBox = new CheckBox(function.name());
+            checkBox.setSelected(function == GroupByService.Function.SUM);
+            checkBox.setUserData(function);
+            checkBox.disableProperty().bind(valueCombo.valueProperty().isEqualTo(ROWS_ONLY));
+            functionChecks.add(checkBox);
+            functionBox.getChildren().add(checkBox);
+        }
+
+        GridPane form = new GridPane();
+        form.setHgap(10);
+        form.setVgap(10);
+        form.add(new Label("Group by:"), 0, 0);
+        form.add(groupScroll, 1, 0);
+        form.add(new Label("Pivot on:"), 0, 1);
+        form.add(pivotCombo, 1, 1);
+        form.add(new Label("Value:"), 0, 2);
+        form.add(valueCombo, 1, 2);
+        form.add(new Label("Functions:"), 0, 3);
+        form.add(functionBox, 1, 3);
+        form.setPadding(new Insets(20));
+        form.setStyle("-fx-background-color: white;");
+
+        dialog.getDialogPane().setContent(form);
+        dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+
+        // A value column needs at least one function
+        Button okButton = (Button) dialog.getDialogPane().lookupButton(ButtonType.OK);
+        okButton.addEventFilter(javafx.event.ActionEvent.ACTION, e -> {
+            boolean anyFunction = functionChecks.stream().anyMatch(CheckBox::isSelected);
+            if (!ROWS_ONLY.equals(valueCombo.getValue()) && !anyFunction) {
+                new Alert(Alert.AlertType.WARNING, "Select at least one function for " + valueCombo.getValue()).showAndWait();
+                e.consume();
+            }
+        });
+
+        dialog.setResultConverter(button -> {
+            if (button != ButtonType.OK) return null;
+            List<String> groupColumns = new ArrayList<>();
+            for (CheckBox checkBox : groupChecks) {
+                if (checkBox.isSelected()) groupColumns.add(checkBox.getText());
+            }
+            List<GroupByService.Function> functions = new ArrayList<>();
+            for (CheckBox checkBox : functionChecks) {
+                if (checkBox.isSelected()) functions.add((GroupByService.Function) checkBox.getUserData());
+            }
+            String pivot = NONE.equals(pivotCombo.getValue()) ? null : pivotCombo.getValue();
+            String value = ROWS_ONLY.equals(valueCombo.getValue()) ? null : valueCombo.getValue();
+            return new GroupByService.GroupSpec(groupColumns, pivot, value, functions);
+        });
+
+        return dialog.showAndWait();
+    }
+}
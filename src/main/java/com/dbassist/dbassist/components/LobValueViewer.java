@@ -0,0 +1,119 @@
+package com.dbassist.dbassist.components;
+
+import com.dbassist.dbassist.model.DatabaseConnection;
+import com.dbassist.dbassist.model.LobHandle;
+import com.dbassist.dbassist.service.ConnectionManager;
+import com.dbassist.dbassist.service.QueryTask;
+import com.dbassist.dbassist.service.TableDataService;
+import com.dbassist.dbassist.service.TaskExecutionService;
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.scene.control.*;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+
+/**
+ * Shows the full value behind a {@link LobHandle}, fetched by key when the cell is opened
+ */
+public class LobValueViewer {
+
+    /**
+     * Open a (non-modal) viewer; the value is loaded in the background
+     */
+    public static void show(LobHandle handle) {
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.setTitle("Value of " + (handle.getColumnName() != null ? handle.getColumnName() : "column"));
+        dialog.setHeaderText((handle.getTableName() != null ? handle.getTableName() + "." + handle.getColumnName() + " - " : "")
+            + handle.describeLength());
+        dialog.setResizable(true);
+
+        TextArea valueArea = new TextArea(handle.getPreview());
+        valueArea.setEditable(false);
+        valueArea.setWrapText(!handle.isBinary());
+        valueArea.setStyle("-fx-font-family: 'Consolas', 'Monaco', monospace; -fx-font-size: 12px;");
+        valueArea.setPrefSize(800, 500);
+        VBox.setVgrow(valueArea, Priority.ALWAYS);
+
+        Label statusLabel = new Label();
+        statusLabel.setStyle("-fx-font-size: 11px; -fx-text-fill: #7f8c8d;");
+
+        VBox content = new VBox(8, valueArea, statusLabel);
+        content.setPadding(new Insets(10));
+        dialog.getDialogPane().setContent(content);
+        dialog.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
+
+        DatabaseConnection dbConnection = handle.getConnectionName() != null
+            ? ConnectionManager.getInstance().getConnectionByName(handle.getConnectionName())
+            : null;
+
+        if (handle.isComplete()) {
+            statusLabel.setText("Complete value");
+        } else if (!handle.hasKey() || dbConnection == null) {
+            statusLabel.setText("Preview only - the row has no primary key to fetch the full value by");
+        } else {
+            statusLabel.setText("Loading full value...");
+            QueryTask task = new QueryTask("Open " + handle.getTableName() + "." + handle.getColumnName(), dbConnection);
+            // Closing the viewer stops a load still running - never later, once its statement is back in the pool
+            java.util.concurrent.atomic.AtomicBoolean done = new java.util.concurrent.atomic.AtomicBoolean();
+            dialog.setOnHidden(e -> {
+                if (!done.get()) task.cancel();
+            });
+
+            TaskExecutionService.getInstance().submit(task.getDescription(), handle.getConnectionName(),
+                    TaskExecutionService.TaskPriority.INTERACTIVE, task, () -> {
+                try {
+                    Object value = TableDataService.fetchLobValue(dbConnection, handle, task);
+                    done.set(true);
+                    Platform.runLater(() -> showValue(handle, value, valueArea, statusLabel));
+                } catch (Exception e) {
+                    done.set(true);
+                    Platform.runLater(() -> statusLabel.setText(task.isCancelled()
+                        ? "Cancelled"
+                        : "Error loading value: " + e.getMessage()));
+                }
+            }, () -> Platform.runLater(() -> statusLabel.setText("Cancelled")));
+        }
+
+        dialog.show();
+    }
+
+    private static void showValue(LobHandle handle, Object value, TextArea valueArea, Label statusLabel) {
+        if (value == null) {
+            statusLabel.setText("The row no longer exists or the value is now NULL");
+            return;
+        }
+
+        if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            valueArea.setText(hexDump(bytes));
+            statusLabel.setText(bytes.length < handle.getLength()
+                ? "Showing the first " + bytes.length + " of " + handle.describeLength()
+                : "Complete value");
+        } else {
+            String text = (String) value;
+            valueArea.setText(text);
+            statusLabel.setText(text.length() >= TableDataService.MAX_LOB_OPEN_CHARS
+                ? "Showing the first " + String.format("%,d", text.length()) + " characters"
+                : "Complete value");
+        }
+    }
+
+    private static String hexDump(byte[] bytes) {
+        StringBuilder dump = new StringBuilder();
+        for (int offset = 0; offset < bytes.length; offset += 16) {
+            dump.append(String.format("%08X  ", offset));
+            StringBuilder ascii = new StringBuilder();
+            for (int i = offset; i < offset + 16; i++) {
+                if (i < bytes.length) {
+                    dump.append(String.format("%02X ", bytes[i]));
+                    char c = (char) (bytes[i] & 0xFF);
+                    ascii.append(c >= 32 && c < 127 ? c : '.');
+                } else {
+                    dump.append("   ");
+                }
+            }
+            dump.append(' ').append(ascii).append('\n');
+        }
+        return dump.toString();
+    }
+}
@@ -1,6 +1,15 @@
 package com.dbassist.dbassist.components;
 
+import com.dbassist.dbassist.service.AggregationService;
+import com.dbassist.dbassist.service.ConnectionManager;
+import com.dbassist.dbassist.service.GroupByService;
+import com.dbassist.dbassist.service.QueryTask;
+import com.dbassist.dbassist.service.ResultStore;
+import com.dbassist.dbassist.service.SharedResult;
+import com.dbassist.dbassist.service.TaskExecutionService;
 import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
@@ -18,18 +27,29 @@ public class QueryResultGrid extends VBox {
 
     private final String connectionName;
     private final String querySnippet;
+    private final SharedResult result; // Retained while the grid is open
     private final List<Map<String, Object>> data;
     private final List<String> columns;
     private TableView<Map<String, Object>> tableView;
     private Label statusLabel;
     private Map<String, Boolean> columnVisibilityState;
+    private AggregateFooter aggregateFooter;
+    private QueryTask aggregateTask; // Totals of the snapshot, computed once when first shown
+    private QueryTask groupTask; // Local group by in progress, if any
+    private SqlWorksheet.QueryResultCallback groupResultCallback; // Opens grouped results in a new tab
+    private FindBar<Map<String, Object>> findBar;
+    private boolean closed = false;
 
+    /**
+     * Grid over a shared result, without copying it; the grid holds it until {@link #close()}
+     */
     public QueryResultGrid(String connectionName, String querySnippet,
-                          List<Map<String, Object>> data, List<String> columns) {
+                          SharedResult result, List<String> columns) {
         this.connectionName = connectionName;
         this.querySnippet = querySnippet;
-        this.data = new ArrayList<>(data); // Make a copy
         this.columns = new ArrayList<>(columns);
+        this.result = result.retain();
+        this.data = result.getRows();
         this.columnVisibilityState = new HashMap<>();
 
         initialize();
@@ -39,6 +59,7 @@ public class QueryResultGrid extends VBox {
         this.setSpacing(10);
         this.setPadding(new Insets(15));
         this.setStyle("-fx-background-color: #f5f7fa;");
+        this.getStylesheets().add(GridCells.STYLESHEET);
 
         // Header
         HBox header = createHeader();
@@ -58,13 +79,41 @@ public class QueryResultGrid extends VBox {
         // Create columns
         createColumns();
 
-        // Load data
-        tableView.getItems().addAll(data);
+        // Load data - the table pages over the rows, reading spilled ones as they scroll into view
+        ObservableList<Map<String, Object>> rows = FXCollections.observableList(data);
+        tableView.setItems(rows);
+
+        // The rows are shared, so sorting shows sorted references; spilled rows are not sorted
+        GridCells.sortByReference(tableView, rows, result::isSpilled,
+            () -> statusLabel.setText("Result is partly on disk - sort with ORDER BY in the worksheet instead"));
 
-        this.getChildren().add(tableView);
+        findBar = new FindBar<>(tableView, GridCells::displayText);
+        findBar.setRowsHold(result::retain, result::release); // Closing the grid mid-search keeps the rows
+        this.getChildren().addAll(findBar, tableView);
+
+        // Ctrl+F anywhere in the grid opens the find bar
+        this.addEventFilter(javafx.scene.input.KeyEvent.KEY_PRESSED, e -> {
+            if (e.isShortcutDown() && e.getCode() == javafx.scene.input.KeyCode.F) {
+                findBar.open();
+                e.consume();
+            }
+        });
+
+        aggregateFooter = new AggregateFooter(tableView, TableColumn::getText);
+        aggregateFooter.setVisible(false);
+        aggregateFooter.setManaged(false);
+        this.getChildren().add(aggregateFooter);
+
+        // Widths from the values (sampled, measured in the background)
+        Map<String, TableColumn<Map<String, Object>, ?>> columnsByName = new java.util.LinkedHashMap<>();
+        for (TableColumn<Map<String, Object>, ?> column : tableView.getColumns()) {
+            columnsByName.put(column.getText(), column);
+        }
+        ColumnSizer.sizeColumns(tableView, columnsByName);
 
         // Status bar
-        statusLabel = new Label("Query Result - " + data.size() + " rows (Read-only snapshot)");
+        statusLabel = new Label("Query Result - " + data.size() + " rows (Read-only snapshot)"
+            + (result.isSpilled() ? " - " + result.getSpilledRowCount() + " rows on disk" : ""));
         statusLabel.setStyle("-fx-font-size: 11px; -fx-text-fill: #7f8c8d; -fx-font-style: italic;");
         this.getChildren().add(statusLabel);
     }
@@ -86,10 +135,31 @@ public class QueryResultGrid extends VBox {
         queryLabel.setStyle("-fx-font-size: 11px; -fx-text-fill: #7f8c8d; -fx-font-style: italic;");
         queryLabel.setMaxWidth(400);
 
+        Button groupByButton = new Button("⊞ Group By");
+        groupByButton.setStyle("-fx-background-color: #2980b9; -fx-text-fill: white; -fx-cursor: hand; -fx-padding: 8 15;");
+        groupByButton.setTooltip(new Tooltip("Group or pivot these rows locally, without querying again"));
+        groupByButton.setOnAction(e -> showGroupBy());
+
+        Button findButton = new Button("🔍 Find");
+        findButton.setStyle("-fx-background-color: #34495e; -fx-text-fill: white; -fx-cursor: hand; -fx-padding: 8 15;");
+        findButton.setTooltip(new Tooltip("Find in the loaded rows (Ctrl+F)"));
+        findButton.setOnAction(e -> findBar.open());
+
         Button columnSelectorButton = new Button("📋 Columns");
         columnSelectorButton.setStyle("-fx-background-color: #9b59b6; -fx-text-fill: white; -fx-cursor: hand; -fx-padding: 8 15;");
         columnSelectorButton.setOnAction(e -> showColumnSelector());
 
+        ToggleButton totalsButton = new ToggleButton("Σ Totals");
+        totalsButton.setStyle("-fx-background-color: #16a085; -fx-text-fill: white; -fx-cursor: hand; -fx-padding: 8 15;");
+        totalsButton.setTooltip(new Tooltip("Sum, min/max, distinct count and nulls per column"));
+        totalsButton.setOnAction(e -> {
+            aggregateFooter.setVisible(totalsButton.isSelected());
+            aggregateFooter.setManaged(totalsButton.isSelected());
+            if (totalsButton.isSelected() && aggregateTask == null) {
+                computeAggregates();
+            }
+        });
+
         Label readOnlyLabel = new Label("🔒 Read-Only");
         readOnlyLabel.setStyle("-fx-font-size: 11px; -fx-text-fill: #e67e22; -fx-font-weight: bold;");
         readOnlyLabel.setTooltip(new Tooltip("This is a snapshot of query results. No filtering or refresh available."));
@@ -100,41 +170,93 @@ public class QueryResultGrid extends VBox {
         VBox infoBox = new VBox(3);
         infoBox.getChildren().addAll(connectionLabel, queryLabel);
 
-        header.getChildren().addAll(titleLabel, infoBox, spacer, readOnlyLabel, columnSelectorButton);
+        header.getChildren().addAll(titleLabel, infoBox, spacer, readOnlyLabel, findButton, groupByButton, totalsButton, columnSelectorButton);
 
         return header;
     }
 
-    private void createColumns() {
-        for (String columnName : columns) {
-            TableColumn<Map<String, Object>, String> column = new TableColumn<>(columnName);
-            column.setPrefWidth(Math.max(150, columnName.length() * 10));
+    /**
+     * Reduce the snapshot in the background; sorting never moves the shared rows, so they are
+     * read directly. The job holds its own reference, so closing the grid mid-way cannot
+     * clear the rows under it.
+     */
+    private void computeAggregates() {
+        QueryTask task = new QueryTask("Totals of query result", null);
+        aggregateTask = task;
+        List<Map<String, Object>> rows = data;
+        aggregateFooter.setCaption("Computing totals...");
+        result.retain();
+
+        TaskExecutionService.getInstance().submit(task.getDescription(), () -> {
+            try {
+                Map<String, AggregationService.ColumnAggregate> aggregates = AggregationService.aggregate(rows, columns, task);
+                Platform.runLater(() -> aggregateFooter.setAggregates(aggregates,
+                    String.format("Totals of the %,d result rows", rows.size())));
+            } catch (Exception e) {
+                Platform.runLater(() -> {
+                    aggregateFooter.setCaption("Could not compute totals: " + e.getMessage());
+                    aggregateTask = null; // Try again when shown next time
+                });
+            } finally {
+                result.release();
+            }
+        });
+    }
 
-            column.setCellValueFactory(cellData -> {
-                Object value = cellData.getValue().get(columnName);
-                return new javafx.beans.property.SimpleStringProperty(
-                    value != null ? value.toString() : "null"
-                );
-            });
+    /**
+     * Callback that opens a grouped result as a new result tab
+     */
+    public void setGroupResultCallback(SqlWorksheet.QueryResultCallback callback) {
+        this.groupResultCallback = callback;
+    }
 
-            // Style null values
-            column.setCellFactory(col -> new TableCell<Map<String, Object>, String>() {
-                @Override
-                protected void updateItem(String item, boolean empty) {
-                    super.updateItem(item, empty);
-                    if (empty || item == null) {
-                        setText(null);
-                        setStyle("");
-                    } else {
-                        setText(item);
-                        if ("null".equals(item)) {
-                            setStyle("-fx-text-fill: #95a5a6; -fx-font-style: italic;");
-                        } else {
-                            setStyle("");
+    private void showGroupBy() {
+        GroupByDialog.show(columns).ifPresent(spec -> {
+            QueryTask task = new QueryTask("Group query result", null);
+            groupTask = task;
+            List<Map<String, Object>> rows = data;
+            statusLabel.setText("Grouping " + rows.size() + " rows...");
+            result.retain(); // Released when the job ends, even if the grid closes first
+
+            TaskExecutionService.getInstance().submit(task.getDescription(), () -> {
+                try {
+                    long start = System.currentTimeMillis();
+                    GroupByService.GroupResult grouped = GroupByService.group(rows, spec, task);
+                    long millis = System.currentTimeMillis() - start;
+
+                    // The grouped rows become a result of their own, handed over to the new tab
+                    ResultStore store = new ResultStore(grouped.getColumns(),
+                        ConnectionManager.getInstance().getConnectionByName(connectionName));
+                    store.addAll(grouped.getRows());
+                    SharedResult groupedResult = new SharedResult(store);
+                    Platform.runLater(() -> {
+                        statusLabel.setText("Grouped " + rows.size() + " rows into " + grouped.getRows().size()
+                            + " rows locally in " + millis + " ms");
+                        if (groupResultCallback != null) {
+                            groupResultCallback.onQueryResult(spec.describe() + " (local) of " + querySnippet,
+                                groupedResult, grouped.getColumns());
                         }
-                    }
+                        groupedResult.release();
+                    });
+                } catch (Exception e) {
+                    Platform.runLater(() -> statusLabel.setText("Could not group: " + e.getMessage()));
+                } finally {
+                    result.release();
+                    Platform.runLater(() -> {
+                        if (groupTask == task) groupTask = null;
+                    });
                 }
             });
+        });
+    }
+
+    private void createColumns() {
+        for (String columnName : columns) {
+            TableColumn<Map<String, Object>, Object> column = new TableColumn<>(columnName);
+            column.setPrefWidth(Math.max(150, columnName.length() * 10));
+
+            // Formatted, null values styled by pseudo-class
+            GridCells.install(column, columnName);
 
             // Initialize visibility state
             columnVisibilityState.put(columnName, true);
@@ -267,6 +389,30 @@ public class QueryResultGrid extends VBox {
         return tableView.getItems();
     }
 
+    /**
+     * The shared result behind the grid; retain it to read the rows after the grid closes
+     */
+    public SharedResult getResult() {
+        return result;
+    }
+
+    /**
+     * Stop the totals and any group by, and let go of the result (dropped once no other tab
+     * or running job holds it)
+     */
+    public void close() {
+        if (closed) return;
+        closed = true;
+        if (aggregateTask != null) {
+            aggregateTask.cancel();
+        }
+        if (groupTask != null) {
+            groupTask.cancel();
+        }
+        findBar.close();
+        result.release();
+    }
+
     /**
      * Get connection name
      */
@@ -0,0 +1,266 @@
+package com.dbassist.dbassist.components;
+
+import com.dbassist.dbassist.service.SqlTokenizer;
+import javafx.application.Platform;
+import org.fxmisc.richtext.CodeArea;
+import org.fxmisc.richtext.model.PlainTextChange;
+import org.fxmisc.richtext.model.StyleSpans;
+import org.fxmisc.richtext.model.StyleSpansBuilder;
+import org.fxmisc.richtext.model.TwoDimensional;
+import org.reactfx.Subscription;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Incremental syntax highlighter for the SQL worksheet.
+ * Only paragraphs touched by an edit are re-tokenized. Lexing runs on a background
+ * executor and the resulting spans are applied back on the FX thread, so typing
+ * latency does not depend on the size of the document.
+ */
+class SqlSyntaxHighlighter {
+
+    // Maximum number of paragraphs tokenized per background job
+    private static final int CHUNK_SIZE = 500;
+
+    private final CodeArea codeArea;
+    private final ExecutorService executor;
+    private final Subscription subscription;
+
+    // Lexer state at the start of each paragraph (FX thread only)
+    private final List<SqlTokenizer.State> entryStates = new ArrayList<>();
+
+    private int dirtyFrom = Integer.MAX_VALUE;
+    private int dirtyTo = -1;
+    // Range the running job must re-lex, shifted by edits like the dirty range (-1 if none)
+    private int inFlightFrom = -1;
+    private int inFlightTo = -1;
+    private long documentVersion = 0;
+    private boolean jobRunning = false;
+    private boolean disposed = false;
+
+    SqlSyntaxHighlighter(CodeArea codeArea, ExecutorService executor) {
+        this.codeArea = codeArea;
+        this.executor = executor;
+
+        for (int i = 0; i < codeArea.getParagraphs().size(); i++) {
+            entryStates.add(SqlTokenizer.State.DEFAULT);
+        }
+        markDirty(0, entryStates.size() - 1);
+
+        this.subscription = codeArea.plainTextChanges().subscribe(this::onTextChange);
+        scheduleNextChunk();
+    }
+
+    void dispose() {
+        disposed = true;
+        subscription.unsubscribe();
+    }
+
+    private void onTextChange(PlainTextChange change) {
+        documentVersion++;
+
+        int paragraph = codeArea.offsetToPosition(change.getPosition(), TwoDimensional.Bias.Forward).getMajor();
+        int removedLines = countLines(change.getRemoved());
+        int insertedLines = countLines(change.getInserted());
+
+        // Keep the per-paragraph state list aligned with the document
+        for (int i = 0; i < removedLines && paragraph + 1 < entryStates.size(); i++) {
+            entryStates.remove(paragraph + 1);
+        }
+        for (int i = 0; i < insertedLines; i++) {
+            entryStates.add(Math.min(paragraph + 1, entryStates.size()), SqlTokenizer.State.DEFAULT);
+        }
+
+        int paragraphCount = codeArea.getParagraphs().size();
+        if (entryStates.size() != paragraphCount) {
+            // Should not happen, but never let the state list drift - start over
+            entryStates.clear();
+            for (int i = 0; i < paragraphCount; i++) {
+                entryStates.add(SqlTokenizer.State.DEFAULT);
+            }
+            dirtyFrom = Integer.MAX_VALUE;
+            dirtyTo = -1;
+            markDirty(0, paragraphCount - 1);
+        } else {
+            // Shift the pending and in-flight ranges past the edit point
+            int delta = insertedLines - removedLines;
+            if (dirtyTo > paragraph) {
+                dirtyTo = Math.max(paragraph, dirtyTo + delta);
+            }
+            if (dirtyFrom != Integer.MAX_VALUE && dirtyFrom > paragraph) {
+                dirtyFrom = Math.max(paragraph, dirtyFrom + delta);
+            }
+            if (inFlightTo > paragraph) {
+                inFlightTo = Math.max(paragraph, inFlightTo + delta);
+            }
+            if (inFlightFrom > paragraph) {
+                inFlightFrom = Math.max(paragraph, inFlightFrom + delta);
+            }
+            markDirty(paragraph, paragraph + insertedLines);
+        }
+
+        scheduleNextChunk();
+    }
+
+    private void markDirty(int from, int to) {
+        int last = codeArea.getParagraphs().size() - 1;
+        from = Math.max(0, from);
+        to = Math.min(last, to);
+        if (from > to) return;
+
+        dirtyFrom = Math.min(dirtyFrom, from);
+        dirtyTo = Math.max(dirtyTo, to);
+    }
+
+    /**
+     * Hand the next dirty chunk to the background executor (one job in flight at a time)
+     */
+    private void scheduleNextChunk() {
+        if (disposed || jobRunning || dirtyTo < 0 || dirtyFrom > dirtyTo) return;
+
+        int from = dirtyFrom;
+        int to = Math.min(dirtyTo, from + CHUNK_SIZE - 1);
+
+        if (to >= dirtyTo) {
+            dirtyFrom = Integer.MAX_VALUE;
+            dirtyTo = -1;
+        } else {
+            dirtyFrom = to + 1;
+        }
+
+        // Snapshot paragraph text on the FX thread - past the dirty range too, up to the chunk
+        // limit, in case the state flowing out of it changes (e.g. a newly opened /*)
+        int limit = Math.min(entryStates.size() - 1, from + CHUNK_SIZE - 1);
+        List<String> texts = new ArrayList<>(limit - from + 1);
+        List<SqlTokenizer.State> knownStates = new ArrayList<>(limit - from + 1);
+        for (int i = from; i <= limit; i++) {
+            texts.add(codeArea.getParagraph(i).getText());
+            knownStates.add(entryStates.get(i));
+        }
+        int required = to - from + 1;
+        long version = documentVersion;
+
+        inFlightFrom = from;
+        inFlightTo = to;
+        jobRunning = true;
+        try {
+            executor.execute(() -> {
+                ChunkResult result = tokenizeChunk(texts, knownStates, required);
+                Platform.runLater(() -> applyChunk(from, from + result.spans.size() - 1, version, result));
+            });
+        } catch (Exception e) {
+            // Executor shut down - the worksheet is being closed
+            jobRunning = false;
+            inFlightFrom = -1;
+            inFlightTo = -1;
+        }
+    }
+
+    private void applyChunk(int from, int to, long version, ChunkResult result) {
+        jobRunning = false;
+        int redoFrom = inFlightFrom;
+        int redoTo = inFlightTo;
+        inFlightFrom = -1;
+        inFlightTo = -1;
+        if (disposed) return;
+
+        if (version != documentVersion) {
+            // Document changed while tokenizing - redo the job's range, as shifted by the
+            // edits, against the new text
+            markDirty(redoFrom, redoTo);
+            scheduleNextChunk();
+            return;
+        }
+
+        for (int i = 0; i < result.spans.size(); i++) {
+            StyleSpans<Collection<String>> spans = result.spans.get(i);
+            if (spans != null) {
+                codeArea.setStyleSpans(from + i, 0, spans);
+            }
+            if (from + i + 1 < entryStates.size() && i + 1 < result.exitStates.size()) {
+                entryStates.set(from + i + 1, result.exitStates.get(i));
+            }
+        }
+
+        // If the state flowing out of this chunk changed, the next paragraph must be re-lexed
+        int next = to + 1;
+        if (next < entryStates.size()) {
+            SqlTokenizer.State exitState = result.exitStates.get(result.exitStates.size() - 1);
+            if (entryStates.get(next) != exitState) {
+                entryStates.set(next, exitState);
+                markDirty(next, next);
+            }
+        }
+
+        scheduleNextChunk();
+    }
+
+    /**
+     * Tokenize the first {@code required} paragraphs, then keep going while the state entering
+     * a paragraph differs from the one it was last lexed with (background thread)
+     */
+    private static ChunkResult tokenizeChunk(List<String> texts, List<SqlTokenizer.State> knownStates, int required) {
+        ChunkResult result = new ChunkResult();
+        SqlTokenizer.State state = knownStates.get(0);
+        List<SqlTokenizer.Token> tokens = new ArrayList<>();
+
+        for (int i = 0; i < texts.size(); i++) {
+            if (i >= required && state == knownStates.get(i)) break; // Unchanged from here on
+            String text = texts.get(i);
+            tokens.clear();
+            state = SqlTokenizer.tokenize(text, 0, text.length(), state, tokens);
+            result.spans.add(text.isEmpty() ? null : buildSpans(tokens, text.length()));
+            result.exitStates.add(state);
+        }
+
+        return result;
+    }
+
+    private static StyleSpans<Collection<String>> buildSpans(List<SqlTokenizer.Token> tokens, int length) {
+        StyleSpansBuilder<Collection<String>> spansBuilder = new StyleSpansBuilder<>();
+        int lastEnd = 0;
+
+        for (SqlTokenizer.Token token : tokens) {
+            String styleClass = styleClassFor(token.getType());
+            if (styleClass == null) continue;
+
+            if (token.getStart() > lastEnd) {
+                spansBuilder.add(Collections.emptyList(), token.getStart() - lastEnd);
+            }
+            spansBuilder.add(Collections.singleton(styleClass), token.length());
+            lastEnd = token.getEnd();
+        }
+
+        if (lastEnd < length) {
+            spansBuilder.add(Collections.emptyList(), length - lastEnd);
+        }
+        return spansBuilder.create();
+    }
+
+    private static String styleClassFor(SqlTokenizer.TokenType type) {
+        switch (type) {
+            case KEYWORD: return "keyword";
+            case STRING: return "string";
+            case COMMENT: return "comment";
+            case NUMBER: return "number";
+            default: return null;
+        }
+    }
+
+    private static int countLines(String text) {
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') count++;
+        }
+        return count;
+    }
+
+    private static class ChunkResult {
+        final List<StyleSpans<Collection<String>>> spans = new ArrayList<>();
+        final List<SqlTokenizer.State> exitStates = new ArrayList<>();
+    }
+}
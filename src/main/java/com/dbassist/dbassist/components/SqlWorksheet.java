@@ -3,8 +3,20 @@ package com.dbassist.dbassist.components;
 import com.dbassist.dbassist.model.DatabaseConnection;
 import com.dbassist.dbassist.service.ConnectionManager;
 import com.dbassist.dbassist.service.DatabaseMetadataService;
+import com.dbassist.dbassist.service.FetchSizeAdvisor;
+import com.dbassist.dbassist.service.QueryTask;
+import com.dbassist.dbassist.service.ResultCursor;
+import com.dbassist.dbassist.service.ResultStore;
+import com.dbassist.dbassist.service.SharedResult;
+import com.dbassist.dbassist.service.SqlCompletionEngine;
+import com.dbassist.dbassist.service.SqlScriptExecutor;
+import com.dbassist.dbassist.service.SqlScriptSplitter;
+import com.dbassist.dbassist.service.SqlTokenizer;
+import com.dbassist.dbassist.service.TaskExecutionService;
 import com.dbassist.dbassist.service.WorksheetManager;
 import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Orientation;
 import javafx.geometry.Pos;
@@ -14,22 +26,28 @@ import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.*;
 import org.fxmisc.richtext.CodeArea;
 import org.fxmisc.richtext.LineNumberFactory;
-import org.fxmisc.richtext.model.StyleSpans;
-import org.fxmisc.richtext.model.StyleSpansBuilder;
 
 import java.sql.*;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * SQL Worksheet with syntax highlighting and auto-completion
  */
 public class SqlWorksheet extends BorderPane {
 
+    // Characters either side of the caret considered when completing
+    private static final int COMPLETION_WINDOW = 4000;
+
+    // Rows read from an open cursor per page
+    private static final int PAGE_SIZE = 500;
+
+    // Rows read per step when fetching a whole result
+    private static final int FETCH_ALL_CHUNK = 10_000;
+
     private final String connectionName;
     private final String worksheetId; // Unique ID for this worksheet
     private final CodeArea codeArea;
@@ -37,41 +55,25 @@ public class SqlWorksheet extends BorderPane {
     private final TabPane resultsTabPane;
     private final ExecutorService executor;
     private ContextMenu autoCompleteMenu;
-    private List<String> tableNames;
-    private Map<String, List<String>> tableColumns;
+    private volatile SqlCompletionEngine completionEngine;
     private QueryResultCallback queryResultCallback;
     private Button openInGridButton;
+    private CheckBox stopOnErrorCheckBox;
+    private Button stopButton;
+    private volatile QueryTask currentTask; // Query running for this worksheet, if any
+    private final List<ResultCursor> openCursors = new ArrayList<>();
+    private final List<SharedResult> openResults = new ArrayList<>(); // Rows of the result tabs
     private String lastSuccessfulQuery;
-    private List<Map<String, Object>> lastResultData;
+    private SharedResult lastResult; // Retained for "Open in Grid"
     private List<String> lastResultColumns;
     private boolean isLoadingContent = false; // Flag to prevent saving while loading
+    private SqlSyntaxHighlighter highlighter;
 
-    // SQL Keywords for syntax highlighting
-    private static final String[] KEYWORDS = new String[]{
-        "SELECT", "FROM", "WHERE", "INSERT", "UPDATE", "DELETE", "CREATE", "DROP", "ALTER",
-        "TABLE", "INDEX", "VIEW", "JOIN", "INNER", "LEFT", "RIGHT", "OUTER", "ON", "AS",
-        "GROUP", "BY", "ORDER", "HAVING", "DISTINCT", "COUNT", "SUM", "AVG", "MIN", "MAX",
-        "AND", "OR", "NOT", "NULL", "IS", "IN", "LIKE", "BETWEEN", "EXISTS", "CASE", "WHEN",
-        "THEN", "ELSE", "END", "UNION", "ALL", "TOP", "LIMIT", "OFFSET", "WITH", "VALUES",
-        "SET", "INTO", "DEFAULT", "PRIMARY", "KEY", "FOREIGN", "REFERENCES", "CONSTRAINT",
-        "UNIQUE", "CHECK", "CASCADE", "BEGIN", "COMMIT", "ROLLBACK", "TRANSACTION"
-    };
-
-    private static final String KEYWORD_PATTERN = "\\b(" + String.join("|", KEYWORDS) + ")\\b";
-    private static final String STRING_PATTERN = "'([^'\\\\]|\\\\.)*'";
-    private static final String COMMENT_PATTERN = "--[^\n]*|/\\*.*?\\*/";
-    private static final String NUMBER_PATTERN = "\\b\\d+\\.?\\d*\\b";
-
-    private static final Pattern PATTERN = Pattern.compile(
-        "(?<KEYWORD>" + KEYWORD_PATTERN + ")"
-        + "|(?<STRING>" + STRING_PATTERN + ")"
-        + "|(?<COMMENT>" + COMMENT_PATTERN + ")"
-        + "|(?<NUMBER>" + NUMBER_PATTERN + ")",
-        Pattern.CASE_INSENSITIVE | Pattern.DOTALL
-    );
-
+    /**
+     * Receives a result to open elsewhere; a receiver that keeps it must retain it
+     */
     public interface QueryResultCallback {
-        void onQueryResult(String query, List<Map<String, Object>> data, List<String> columns);
+        void onQueryResult(String query, SharedResult result, List<String> columns);
     }
 
     public SqlWorksheet(String connectionName) {
@@ -88,9 +90,12 @@ public class SqlWorksheet extends BorderPane {
             this.worksheetId = WorksheetManager.getInstance().generateWorksheetId(connectionName);
         }
 
-        this.executor = Executors.newSingleThreadExecutor();
-        this.tableNames = new ArrayList<>();
-        this.tableColumns = new HashMap<>();
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "sql-highlighter-" + this.worksheetId);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.completionEngine = new SqlCompletionEngine(Collections.emptyList(), Collections.emptyMap());
 
         // Create CodeArea with syntax highlighting
         codeArea = new CodeArea();
@@ -103,11 +108,11 @@ public class SqlWorksheet extends BorderPane {
             "-fx-control-inner-background: #ffffff;"  // White inner background
         );
 
-        // Apply syntax highlighting and auto-save on text change
-        codeArea.textProperty().addListener((obs, oldText, newText) -> {
-            // Apply syntax highlighting
-            codeArea.setStyleSpans(0, computeHighlighting(newText));
+        // Incremental syntax highlighting (only edited paragraphs are re-tokenized)
+        highlighter = new SqlSyntaxHighlighter(codeArea, executor);
 
+        // Auto-save on text change
+        codeArea.textProperty().addListener((obs, oldText, newText) -> {
             // Auto-save content (skip if we're loading saved content)
             if (!isLoadingContent) {
                 WorksheetManager.getInstance().saveWorksheet(worksheetId, newText);
@@ -160,6 +165,11 @@ public class SqlWorksheet extends BorderPane {
         runButton.setStyle("-fx-background-color: #27ae60; -fx-text-fill: white; -fx-cursor: hand; -fx-padding: 6 15; -fx-font-size: 12px; -fx-background-radius: 4;");
         runButton.setOnAction(e -> executeQuery());
 
+        stopButton = new Button("■ Stop");
+        stopButton.setStyle("-fx-background-color: #c0392b; -fx-text-fill: white; -fx-cursor: hand; -fx-padding: 6 15; -fx-font-size: 12px; -fx-background-radius: 4;");
+        stopButton.setDisable(true); // Enabled while a query runs
+        stopButton.setOnAction(e -> stopQuery());
+
         Button formatButton = new Button("⚡ Format");
         formatButton.setStyle("-fx-background-color: #3498db; -fx-text-fill: white; -fx-cursor: hand; -fx-padding: 6 15; -fx-font-size: 12px; -fx-background-radius: 4;");
         formatButton.setOnAction(e -> formatQuery());
@@ -177,13 +187,17 @@ public class SqlWorksheet extends BorderPane {
         openInGridButton.setDisable(true); // Initially disabled
         openInGridButton.setOnAction(e -> openLastResultInGrid());
 
+        stopOnErrorCheckBox = new CheckBox("Stop on error");
+        stopOnErrorCheckBox.setSelected(true);
+        stopOnErrorCheckBox.setStyle("-fx-text-fill: white; -fx-font-size: 12px;");
+
         Label connectionLabel = new Label("📁 " + connectionName);
         connectionLabel.setStyle("-fx-text-fill: white; -fx-font-size: 12px; -fx-font-weight: 600;");
 
         Region spacer = new Region();
         HBox.setHgrow(spacer, Priority.ALWAYS);
 
-        toolbar.getChildren().addAll(runButton, formatButton, commentButton, clearButton, openInGridButton, spacer, connectionLabel);
+        toolbar.getChildren().addAll(runButton, stopButton, formatButton, commentButton, clearButton, openInGridButton, stopOnErrorCheckBox, spacer, connectionLabel);
 
         return toolbar;
     }
@@ -193,7 +207,7 @@ public class SqlWorksheet extends BorderPane {
 
         codeArea.addEventHandler(KeyEvent.KEY_PRESSED, event -> {
             if (event.getCode() == KeyCode.SPACE && event.isControlDown()) {
-                showAutoComplete();
+                showAutoComplete(codeArea.getCaretPosition());
                 event.consume();
             } else if (event.getCode() == KeyCode.ENTER && event.isControlDown()) {
                 executeQuery();
@@ -201,150 +215,103 @@ public class SqlWorksheet extends BorderPane {
             }
         });
 
-        codeArea.textProperty().addListener((obs, oldText, newText) -> {
-            int caretPos = codeArea.getCaretPosition();
-            if (caretPos > 0) {
-                String textBeforeCaret = newText.substring(0, caretPos);
-                if (textBeforeCaret.endsWith(".")) {
-                    // Show column suggestions for table
-                    showColumnSuggestions(textBeforeCaret);
-                } else if (shouldShowAutoComplete(textBeforeCaret)) {
-                    showAutoComplete();
-                }
+        // React to single typed characters only (not loads, pastes or inserted suggestions)
+        codeArea.plainTextChanges().subscribe(change -> {
+            if (isLoadingContent || !change.getRemoved().isEmpty() || change.getInserted().length() != 1) {
+                if (autoCompleteMenu.isShowing()) autoCompleteMenu.hide();
+                return;
+            }
+
+            char typed = change.getInserted().charAt(0);
+            int caretPos = change.getInsertionEnd();
+            if (typed == '.') {
+                // Show column suggestions for table or alias
+                showAutoComplete(caretPos);
+            } else if (SqlTokenizer.isIdentifierPart(typed) && currentWordLength(caretPos) >= 2) {
+                // Show auto-complete after typing 2+ characters of a word
+                showAutoComplete(caretPos);
+            } else if (autoCompleteMenu.isShowing()) {
+                autoCompleteMenu.hide();
             }
         });
     }
 
-    private boolean shouldShowAutoComplete(String text) {
-        // Show auto-complete after typing 2+ characters of a word
-        String[] words = text.split("\\s+");
-        if (words.length > 0) {
-            String lastWord = words[words.length - 1];
-            return lastWord.length() >= 2 && !lastWord.contains(".");
+    private int currentWordLength(int caretPos) {
+        int start = caretPos;
+        while (start > 0 && caretPos - start < COMPLETION_WINDOW
+                && SqlTokenizer.isIdentifierPart(codeArea.getText(start - 1, start).charAt(0))) {
+            start--;
         }
-        return false;
+        return caretPos - start;
     }
 
-    private void showAutoComplete() {
-        autoCompleteMenu.getItems().clear();
+    private void showAutoComplete(int caretPos) {
+        SqlCompletionEngine engine = completionEngine;
 
-        int caretPos = codeArea.getCaretPosition();
-        String text = codeArea.getText().substring(0, caretPos);
-        String[] words = text.split("\\s+");
-        String currentWord = words.length > 0 ? words[words.length - 1] : "";
+        // Only the statement around the caret is tokenized - bounded by ';' and a fixed window
+        int windowStart = Math.max(0, caretPos - COMPLETION_WINDOW);
+        int windowEnd = Math.min(codeArea.getLength(), caretPos + COMPLETION_WINDOW);
+        String window = codeArea.getText(windowStart, windowEnd);
+        int caretInWindow = caretPos - windowStart;
 
-        List<String> suggestions = new ArrayList<>();
+        int statementStart = window.lastIndexOf(';', caretInWindow - 1) + 1;
+        int statementEnd = window.indexOf(';', caretInWindow);
+        if (statementEnd < 0) statementEnd = window.length();
+        String statement = window.substring(statementStart, statementEnd);
 
-        // Add table names
-        for (String table : tableNames) {
-            if (table.toLowerCase().startsWith(currentWord.toLowerCase())) {
-                suggestions.add(table);
-            }
-        }
+        SqlCompletionEngine.Completion completion = engine.complete(statement, caretInWindow - statementStart, 10);
 
-        // Add keywords
-        for (String keyword : KEYWORDS) {
-            if (keyword.toLowerCase().startsWith(currentWord.toLowerCase())) {
-                suggestions.add(keyword);
-            }
+        autoCompleteMenu.getItems().clear();
+        if (completion.getSuggestions().isEmpty()) {
+            autoCompleteMenu.hide();
+            return;
         }
 
-        if (!suggestions.isEmpty()) {
-            for (String suggestion : suggestions.subList(0, Math.min(10, suggestions.size()))) {
-                MenuItem item = new MenuItem(suggestion);
-                item.setStyle("-fx-text-fill: #2c3e50; -fx-font-weight: bold; -fx-font-size: 13px;");
-                item.setOnAction(e -> insertSuggestion(suggestion, currentWord.length()));
-                autoCompleteMenu.getItems().add(item);
-            }
-
-            // Style the context menu itself
-            autoCompleteMenu.setStyle("-fx-background-color: white; -fx-border-color: #ccc; -fx-border-width: 1px;");
-            autoCompleteMenu.show(codeArea, codeArea.getCaretBounds().get().getMaxX(),
-                                  codeArea.getCaretBounds().get().getMaxY());
+        int replaceLength = completion.getPrefix().length();
+        for (SqlCompletionEngine.Suggestion suggestion : completion.getSuggestions()) {
+            MenuItem item = new MenuItem(suggestion.getText());
+            item.setStyle("-fx-text-fill: #2c3e50; -fx-font-weight: bold; -fx-font-size: 13px;");
+            item.setOnAction(e -> insertSuggestion(suggestion, replaceLength));
+            autoCompleteMenu.getItems().add(item);
         }
-    }
 
-    private void showColumnSuggestions(String textBeforeCaret) {
-        // Extract table name before the dot
-        String[] tokens = textBeforeCaret.split("\\s+");
-        if (tokens.length > 0) {
-            String lastToken = tokens[tokens.length - 1];
-            String tableName = lastToken.substring(0, lastToken.length() - 1); // Remove the dot
-
-            List<String> columns = tableColumns.get(tableName.toUpperCase());
-            if (columns != null && !columns.isEmpty()) {
-                autoCompleteMenu.getItems().clear();
-                for (String column : columns) {
-                    MenuItem item = new MenuItem(column);
-                    item.setStyle("-fx-text-fill: #2c3e50; -fx-font-weight: bold; -fx-font-size: 13px;");
-                    item.setOnAction(e -> insertSuggestion(column, 0));
-                    autoCompleteMenu.getItems().add(item);
-                }
-                // Style the context menu
-                autoCompleteMenu.setStyle("-fx-background-color: white; -fx-border-color: #ccc; -fx-border-width: 1px;");
-                autoCompleteMenu.show(codeArea, codeArea.getCaretBounds().get().getMaxX(),
-                                      codeArea.getCaretBounds().get().getMaxY());
-            }
-        }
+        // Style the context menu itself
+        autoCompleteMenu.setStyle("-fx-background-color: white; -fx-border-color: #ccc; -fx-border-width: 1px;");
+        codeArea.getCaretBounds().ifPresent(bounds ->
+            autoCompleteMenu.show(codeArea, bounds.getMaxX(), bounds.getMaxY()));
     }
 
-    private void insertSuggestion(String suggestion, int replaceLength) {
+    private void insertSuggestion(SqlCompletionEngine.Suggestion suggestion, int replaceLength) {
         int caretPos = codeArea.getCaretPosition();
-        codeArea.replaceText(caretPos - replaceLength, caretPos, suggestion);
+        codeArea.replaceText(caretPos - replaceLength, caretPos, suggestion.getText());
+        completionEngine.recordUsage(suggestion);
         autoCompleteMenu.hide();
     }
 
-    private StyleSpans<Collection<String>> computeHighlighting(String text) {
-        Matcher matcher = PATTERN.matcher(text);
-        int lastKwEnd = 0;
-        StyleSpansBuilder<Collection<String>> spansBuilder = new StyleSpansBuilder<>();
-
-        while (matcher.find()) {
-            String styleClass =
-                matcher.group("KEYWORD") != null ? "keyword" :
-                matcher.group("STRING") != null ? "string" :
-                matcher.group("COMMENT") != null ? "comment" :
-                matcher.group("NUMBER") != null ? "number" :
-                null;
-
-            spansBuilder.add(Collections.emptyList(), matcher.start() - lastKwEnd);
-            spansBuilder.add(Collections.singleton(styleClass), matcher.end() - matcher.start());
-            lastKwEnd = matcher.end();
-        }
-
-        spansBuilder.add(Collections.emptyList(), text.length() - lastKwEnd);
-        return spansBuilder.create();
-    }
-
     private void loadDatabaseMetadata() {
         DatabaseConnection dbConnection = ConnectionManager.getInstance().getConnectionByName(connectionName);
         if (dbConnection == null) return;
 
-        new Thread(() -> {
+        TaskExecutionService.getInstance().submit("Load metadata for " + connectionName, connectionName,
+                TaskExecutionService.TaskPriority.BACKGROUND, null, () -> {
             try {
-                // Load tables
-                tableNames = DatabaseMetadataService.getTables(dbConnection);
-
-                // Load columns for each table
-                for (String tableName : tableNames) {
-                    List<String> columns = DatabaseMetadataService.getTableColumns(dbConnection, tableName);
-                    List<String> columnNames = new ArrayList<>();
-                    for (String columnInfo : columns) {
-                        // Extract column name (before the hyphen)
-                        String[] parts = columnInfo.split(" - ");
-                        if (parts.length > 0) {
-                            columnNames.add(parts[0]);
-                        }
-                    }
-                    tableColumns.put(tableName.toUpperCase(), columnNames);
-                }
+                // Tables plus all columns in a single metadata call (not one call per table)
+                List<String> tableNames = DatabaseMetadataService.getTables(dbConnection);
+                Map<String, List<String>> tableColumns = DatabaseMetadataService.getAllTableColumns(dbConnection);
+
+                // Build the index off the FX thread, then swap it in
+                SqlCompletionEngine engine = completionEngine.withMetadata(tableNames, tableColumns);
+                int columnCount = tableColumns.values().stream().mapToInt(List::size).sum();
 
-                Platform.runLater(() -> updateStatus("Loaded metadata: " + tableNames.size() + " tables"));
+                Platform.runLater(() -> {
+                    completionEngine = engine;
+                    updateStatus("Loaded metadata: " + tableNames.size() + " tables, " + columnCount + " columns");
+                });
             } catch (Exception e) {
                 Platform.runLater(() -> updateStatus("Error loading metadata: " + e.getMessage()));
                 e.printStackTrace();
             }
-        }).start();
+        });
     }
 
     private void executeQuery() {
@@ -358,9 +325,6 @@ public class SqlWorksheet extends BorderPane {
             return;
         }
 
-        updateStatus("Executing query...");
-
-        final String finalQuery = query.trim();
         DatabaseConnection dbConnection = ConnectionManager.getInstance().getConnectionByName(connectionName);
 
         if (dbConnection == null) {
@@ -368,55 +332,117 @@ public class SqlWorksheet extends BorderPane {
             return;
         }
 
-        new Thread(() -> {
-            try (Connection conn = getConnection(dbConnection);
-                 Statement stmt = conn.createStatement()) {
+        List<SqlScriptSplitter.ScriptStatement> statements = SqlScriptSplitter.split(query, dbConnection.getDatabaseType());
+        if (statements.isEmpty()) {
+            updateStatus("No query to execute");
+            return;
+        }
+
+        if (currentTask != null) {
+            updateStatus("A query is already running - stop it first");
+            return;
+        }
+
+        if (statements.size() == 1 && statements.get(0).getKind() == SqlScriptSplitter.StatementKind.QUERY) {
+            // A single query is read page by page from an open cursor
+            executeWithCursor(statements.get(0).getSql(), dbConnection);
+            return;
+        }
+
+        updateStatus(statements.size() == 1 ? "Executing query..." : "Executing " + statements.size() + " statements...");
+        boolean stopOnError = stopOnErrorCheckBox.isSelected();
 
-                boolean isResultSet = stmt.execute(finalQuery);
+        // Scripts (and statements with several results) log to a Messages tab; a single result keeps the old behaviour
+        MessageLog messageLog = new MessageLog();
+        if (statements.size() > 1) {
+            messageLog.open();
+        }
 
-                if (isResultSet) {
-                    // SELECT query - show results
-                    ResultSet rs = stmt.getResultSet();
-                    ResultSetMetaData metaData = rs.getMetaData();
-                    int columnCount = metaData.getColumnCount();
+        QueryTask task = new QueryTask("Worksheet " + connectionName, dbConnection);
+        startTask(task);
+
+        TaskExecutionService.getInstance().submit(task.getDescription(), connectionName,
+                TaskExecutionService.TaskPriority.INTERACTIVE, task, () -> {
+            try (Connection conn = task.register(getConnection(dbConnection, FetchSizeAdvisor.UseCase.BULK))) {
+                int fetchSize = FetchSizeAdvisor.getInstance().advise(dbConnection, FetchSizeAdvisor.UseCase.BULK, null, 0);
+                SqlScriptExecutor scriptExecutor = new SqlScriptExecutor(conn, task, stopOnError, fetchSize, dbConnection, new SqlScriptExecutor.Listener() {
+                    @Override
+                    public void onResultSet(SqlScriptSplitter.ScriptStatement statement, int resultIndex, List<String> columns,
+                                            ResultStore rows, boolean truncated, long elapsedMillis) {
+                        Platform.runLater(() -> {
+                            if (resultIndex > 0) {
+                                messageLog.open();
+                            }
+                            // Each result set gets its own tab as soon as it has been read
+                            SharedResult result = displayResults(statement.getSql(), rows, columns, elapsedMillis);
+                            messageLog.append(statement, resultLabel(resultIndex) + rows.size() + " row(s) returned"
+                                + (rows.isSpilled() ? " (" + rows.getSpilledRowCount() + " spilled to disk)" : "")
+                                + (truncated ? " (truncated at size limit)" : ""), elapsedMillis);
+
+                            // Store results for later grid opening
+                            setLastResult(statement.getSql(), result, columns);
+                            openInGridButton.setDisable(false); // Enable the button
+                        });
+                    }
 
-                    List<String> columns = new ArrayList<>();
-                    for (int i = 1; i <= columnCount; i++) {
-                        columns.add(metaData.getColumnName(i));
+                    @Override
+                    public void onUpdateCount(SqlScriptSplitter.ScriptStatement statement, int resultIndex, int updateCount, long elapsedMillis) {
+                        String result = updateCount >= 0 ? updateCount + " row(s) affected" : "OK";
+                        Platform.runLater(() -> {
+                            if (resultIndex > 0) {
+                                messageLog.open();
+                            }
+                            if (!messageLog.isOpen()) {
+                                displayMessage("Query executed successfully. " + result + ". (" + elapsedMillis + " ms)");
+                                // Disable grid button for DML queries
+                                openInGridButton.setDisable(true);
+                            }
+                            messageLog.append(statement, resultLabel(resultIndex) + result, elapsedMillis);
+                        });
                     }
 
-                    List<Map<String, Object>> data = new ArrayList<>();
-                    while (rs.next()) {
-                        Map<String, Object> row = new LinkedHashMap<>();
-                        for (int i = 1; i <= columnCount; i++) {
-                            row.put(metaData.getColumnName(i), rs.getObject(i));
-                        }
-                        data.add(row);
+                    @Override
+                    public void onError(SqlScriptSplitter.ScriptStatement statement, SQLException error, long elapsedMillis) {
+                        Platform.runLater(() -> {
+                            if (!messageLog.isOpen()) {
+                                displayError("Error executing query: " + error.getMessage());
+                                // Disable button on error
+                                openInGridButton.setDisable(true);
+                            }
+                            messageLog.append(statement, "ERROR: " + error.getMessage(), elapsedMillis);
+                        });
+                        error.printStackTrace();
                     }
+                });
 
-                    Platform.runLater(() -> {
-                        displayResults(finalQuery, data, columns);
-                        updateStatus("Query executed successfully. " + data.size() + " rows returned.");
-
-                        // Store results for later grid opening
-                        lastSuccessfulQuery = finalQuery;
-                        lastResultData = data;
-                        lastResultColumns = columns;
-                        openInGridButton.setDisable(false); // Enable the button
-                    });
-                } else {
-                    // DML query - show rows affected
-                    int updateCount = stmt.getUpdateCount();
-                    Platform.runLater(() -> {
-                        displayMessage("Query executed successfully. " + updateCount + " row(s) affected.");
-                        updateStatus("Query executed successfully. " + updateCount + " row(s) affected.");
-                        // Disable grid button for DML queries
-                        openInGridButton.setDisable(true);
-                    });
-                }
+                SqlScriptExecutor.Summary summary = scriptExecutor.execute(statements);
+
+                Platform.runLater(() -> {
+                    finishTask(task);
+                    String status;
+                    if (summary.isCancelled()) {
+                        status = "Cancelled after " + summary.getExecuted() + " of " + summary.getTotal() + " statements ("
+                            + summary.getElapsedMillis() + " ms)";
+                    } else if (summary.getTotal() == 1) {
+                        status = summary.getFailed() == 0
+                            ? "Query executed successfully in " + summary.getElapsedMillis() + " ms."
+                            : "Error executing query";
+                    } else {
+                        status = "Executed " + summary.getExecuted() + " of " + summary.getTotal() + " statements, "
+                            + summary.getFailed() + " failed (" + summary.getElapsedMillis() + " ms)"
+                            + (summary.isStopped() ? " - stopped on error" : "");
+                    }
+                    updateStatus(status);
+                    messageLog.appendLine(status);
+                });
 
             } catch (Exception e) {
                 Platform.runLater(() -> {
+                    finishTask(task);
+                    if (task.isCancelled()) {
+                        updateStatus("Query cancelled");
+                        return;
+                    }
                     displayError("Error executing query: " + e.getMessage());
                     updateStatus("Error: " + e.getMessage());
                     // Disable button on error
@@ -424,48 +450,322 @@ public class SqlWorksheet extends BorderPane {
                 });
                 e.printStackTrace();
             }
-        }).start();
+        }, queryDropped(task));
+    }
+
+    /**
+     * Report a query cancelled while it waited for a free slot on the connection
+     */
+    private Runnable queryDropped(QueryTask task) {
+        return () -> Platform.runLater(() -> {
+            finishTask(task);
+            updateStatus("Query cancelled");
+        });
+    }
+
+    private void startTask(QueryTask task) {
+        currentTask = task;
+        stopButton.setDisable(false);
+    }
+
+    private void finishTask(QueryTask task) {
+        if (currentTask == task) {
+            currentTask = null;
+            stopButton.setDisable(true);
+        }
     }
 
-    private Connection getConnection(DatabaseConnection dbConnection) throws SQLException {
+    /**
+     * Ask the server to stop the running query
+     */
+    private void stopQuery() {
+        QueryTask task = currentTask;
+        if (task != null) {
+            task.cancel();
+            updateStatus("Cancelling query...");
+        }
+    }
+
+    private Connection getConnection(DatabaseConnection dbConnection, FetchSizeAdvisor.UseCase useCase) throws SQLException {
         String url;
+        Properties properties = FetchSizeAdvisor.getInstance().driverProperties(dbConnection, useCase);
         switch (dbConnection.getDatabaseType()) {
             case "SQL Server":
                 url = "jdbc:sqlserver://" + dbConnection.getHost() + ":" + dbConnection.getPort() +
                       ";databaseName=" + dbConnection.getDatabaseName() + ";encrypt=false";
-                return DriverManager.getConnection(url, dbConnection.getUsername(), dbConnection.getPassword());
+                return DriverManager.getConnection(url, properties);
             case "Oracle":
                 url = "jdbc:oracle:thin:@" + dbConnection.getHost() + ":" + dbConnection.getPort() +
                       ":" + dbConnection.getDatabaseName();
-                return DriverManager.getConnection(url, dbConnection.getUsername(), dbConnection.getPassword());
+                return DriverManager.getConnection(url, properties);
             default:
                 throw new SQLException("Unsupported database type: " + dbConnection.getDatabaseType());
         }
     }
 
-    private void displayResults(String query, List<Map<String, Object>> data, List<String> columns) {
+    /**
+     * Run a single query and show its first page; further pages are read on demand
+     */
+    private void executeWithCursor(String query, DatabaseConnection dbConnection) {
+        updateStatus("Executing query...");
+
+        QueryTask task = new QueryTask("Worksheet " + connectionName, dbConnection);
+        startTask(task);
+
+        TaskExecutionService.getInstance().submit(task.getDescription(), connectionName,
+                TaskExecutionService.TaskPriority.INTERACTIVE, task, () -> {
+            long start = System.currentTimeMillis();
+            try {
+                // Server-side cursor sized to one page - the rest is only read if asked for
+                int fetchSize = FetchSizeAdvisor.getInstance().advise(dbConnection, FetchSizeAdvisor.UseCase.CURSOR, null, PAGE_SIZE);
+                ResultCursor cursor = ResultCursor.open(task.register(getConnection(dbConnection, FetchSizeAdvisor.UseCase.CURSOR)),
+                                                        query, fetchSize, task);
+                List<Map<String, Object>> firstPage = cursor.fetch(PAGE_SIZE);
+                long elapsedMillis = System.currentTimeMillis() - start;
+
+                Platform.runLater(() -> {
+                    finishTask(task);
+                    displayCursorResults(query, dbConnection, cursor, task, firstPage, elapsedMillis);
+                    updateStatus("Query executed successfully in " + elapsedMillis + " ms. " + describeCursor(cursor, null));
+                });
+            } catch (Exception e) {
+                Platform.runLater(() -> {
+                    finishTask(task);
+                    if (task.isCancelled()) {
+                        updateStatus("Query cancelled");
+                        return;
+                    }
+                    displayError("Error executing query: " + e.getMessage());
+                    updateStatus("Error: " + e.getMessage());
+                    // Disable button on error
+                    openInGridButton.setDisable(true);
+                });
+                e.printStackTrace();
+            }
+        }, queryDropped(task));
+    }
+
+    private void displayCursorResults(String query, DatabaseConnection dbConnection, ResultCursor cursor, QueryTask task,
+                                      List<Map<String, Object>> firstPage, long elapsedMillis) {
         Tab resultTab = new Tab("Results " + (resultsTabPane.getTabs().size() + 1));
         resultTab.setClosable(true);
 
         VBox content = new VBox(10);
         content.setPadding(new Insets(10));
 
-        Label queryLabel = new Label("Query: " + (query.length() > 100 ? query.substring(0, 97) + "..." : query));
+        Label queryLabel = new Label("Query: " + (query.length() > 100 ? query.substring(0, 97) + "..." : query)
+            + "  (" + elapsedMillis + " ms)");
         queryLabel.setStyle("-fx-font-size: 11px; -fx-text-fill: #7f8c8d;");
 
-        TableView<Map<String, Object>> table = new TableView<>();
-        table.setStyle("-fx-background-color: white;");
-
-        for (String columnName : columns) {
-            TableColumn<Map<String, Object>, String> column = new TableColumn<>(columnName);
-            column.setCellValueFactory(cellData -> {
-                Object value = cellData.getValue().get(columnName);
-                return new javafx.beans.property.SimpleStringProperty(value != null ? value.toString() : "null");
+        // Rows past the connection's result memory go to a spill file as pages arrive
+        ResultStore store = new ResultStore(cursor.getColumns(), dbConnection);
+        ObservableList<Map<String, Object>> rows = FXCollections.observableList(store);
+        TableView<Map<String, Object>> table = createResultTable(cursor.getColumns(), rows, store);
+        rows.addAll(firstPage);
+        SharedResult result = new SharedResult(store);
+
+        // Footer: rows fetched so far and buttons to read the next page or everything
+        Label rowsLabel = new Label(describeCursor(cursor, store));
+        rowsLabel.setStyle("-fx-font-size: 11px; -fx-text-fill: #7f8c8d;");
+
+        Button fetchMoreButton = new Button("Fetch more");
+        fetchMoreButton.setStyle("-fx-background-color: #3498db; -fx-text-fill: white; -fx-cursor: hand; -fx-padding: 4 12; -fx-font-size: 11px; -fx-background-radius: 4;");
+        fetchMoreButton.setDisable(!cursor.hasMore());
+
+        Button fetchAllButton = new Button("Fetch all");
+        fetchAllButton.setStyle("-fx-background-color: #2980b9; -fx-text-fill: white; -fx-cursor: hand; -fx-padding: 4 12; -fx-font-size: 11px; -fx-background-radius: 4;");
+        fetchAllButton.setDisable(!cursor.hasMore());
+
+        HBox footer = new HBox(10, fetchMoreButton, fetchAllButton, rowsLabel);
+        footer.setAlignment(Pos.CENTER_LEFT);
+
+        boolean[] fetching = {false};
+        boolean[] closed = {false}; // Pages still arriving after the tab closed are dropped
+        // A fetch cancelled while queued ends like a cancelled one: the task stays cancelled
+        Runnable fetchDropped = () -> {
+            TaskExecutionService.getInstance().submit("Close cursor", cursor::close);
+            Platform.runLater(() -> {
+                finishTask(task);
+                rowsLabel.setText("Fetch cancelled - " + cursor.getRowsFetched() + " rows fetched");
+                fetching[0] = false;
             });
-            table.getColumns().add(column);
+        };
+        Runnable fetchMore = () -> {
+            if (fetching[0] || !cursor.hasMore() || currentTask != null) return;
+            fetching[0] = true;
+            fetchMoreButton.setDisable(true);
+            fetchAllButton.setDisable(true);
+            rowsLabel.setText("Fetching...");
+            startTask(task); // Stop button cancels the fetch
+
+            TaskExecutionService.getInstance().submit("Fetch more " + connectionName, connectionName,
+                    TaskExecutionService.TaskPriority.INTERACTIVE, task, () -> {
+                try {
+                    List<Map<String, Object>> page = cursor.fetch(PAGE_SIZE);
+                    Platform.runLater(() -> {
+                        finishTask(task);
+                        appendRows(table, rows, page, closed[0]);
+                        rowsLabel.setText(describeCursor(cursor, store));
+                        fetchMoreButton.setDisable(!cursor.hasMore());
+                        fetchAllButton.setDisable(!cursor.hasMore());
+                        fetching[0] = false;
+                    });
+                } catch (Exception e) {
+                    cursor.close();
+                    Platform.runLater(() -> {
+                        finishTask(task);
+                        rowsLabel.setText(task.isCancelled()
+                            ? "Fetch cancelled - " + cursor.getRowsFetched() + " rows fetched"
+                            : "Error fetching rows: " + e.getMessage());
+                        fetching[0] = false;
+                    });
+                }
+            }, fetchDropped);
+        };
+        fetchMoreButton.setOnAction(e -> fetchMore.run());
+
+        // Read the rest of the result; the store spills what does not fit in memory
+        fetchAllButton.setOnAction(e -> {
+            if (fetching[0] || !cursor.hasMore() || currentTask != null) return;
+            fetching[0] = true;
+            fetchMoreButton.setDisable(true);
+            fetchAllButton.setDisable(true);
+            rowsLabel.setText("Fetching all rows...");
+            startTask(task);
+
+            TaskExecutionService.getInstance().submit("Fetch all " + connectionName, connectionName,
+                    TaskExecutionService.TaskPriority.INTERACTIVE, task, () -> {
+                try {
+                    // At most one chunk waits for the FX thread, so a fast server cannot fill the heap
+                    CompletableFuture<Void> previous = CompletableFuture.completedFuture(null);
+                    while (cursor.hasMore() && !task.isCancelled()) {
+                        List<Map<String, Object>> page = cursor.fetch(FETCH_ALL_CHUNK);
+                        previous.join();
+                        CompletableFuture<Void> added = new CompletableFuture<>();
+                        Platform.runLater(() -> {
+                            appendRows(table, rows, page, closed[0]);
+                            rowsLabel.setText("Fetching all rows... " + describeCursor(cursor, store));
+                            added.complete(null);
+                        });
+                        previous = added;
+                    }
+                    previous.join();
+                    Platform.runLater(() -> {
+                        finishTask(task);
+                        rowsLabel.setText(describeCursor(cursor, store));
+                        fetchMoreButton.setDisable(!cursor.hasMore());
+                        fetchAllButton.setDisable(!cursor.hasMore());
+                        fetching[0] = false;
+                    });
+                } catch (Exception ex) {
+                    cursor.close();
+                    Platform.runLater(() -> {
+                        finishTask(task);
+                        rowsLabel.setText(task.isCancelled()
+                            ? "Fetch cancelled - " + cursor.getRowsFetched() + " rows fetched"
+                            : "Error fetching rows: " + ex.getMessage());
+                        fetching[0] = false;
+                    });
+                }
+            }, fetchDropped);
+        });
+
+        // Fetch the next page when the user scrolls to the bottom
+        table.skinProperty().addListener((obs, oldSkin, newSkin) -> {
+            for (javafx.scene.Node node : table.lookupAll(".scroll-bar")) {
+                if (node instanceof ScrollBar && ((ScrollBar) node).getOrientation() == Orientation.VERTICAL) {
+                    ScrollBar scrollBar = (ScrollBar) node;
+                    scrollBar.valueProperty().addListener((o, oldValue, newValue) -> {
+                        if (newValue.doubleValue() >= scrollBar.getMax() * 0.98) fetchMore.run();
+                    });
+                }
+            }
+        });
+
+        // Release the server cursor as soon as the tab goes away
+        openCursors.add(cursor);
+        openResults.add(result);
+        resultTab.setOnClosed(e -> {
+            closed[0] = true;
+            openCursors.remove(cursor);
+            task.cancel();
+            TaskExecutionService.getInstance().submit("Close cursor", cursor::close);
+            releaseResult(result);
+        });
+
+        VBox.setVgrow(table, Priority.ALWAYS);
+        content.getChildren().addAll(queryLabel, table, footer);
+
+        resultTab.setContent(content);
+        resultsTabPane.getTabs().add(resultTab);
+        resultsTabPane.getSelectionModel().select(resultTab);
+
+        // Store results for later grid opening (a grid gets the rows fetched when it is opened)
+        setLastResult(query, result, cursor.getColumns());
+        openInGridButton.setDisable(false);
+    }
+
+    /**
+     * Add fetched rows to a cursor result; a sorted table sorts its references again. Once
+     * the tab is closed its result is released, and a late page must not refill the store.
+     */
+    private static void appendRows(TableView<Map<String, Object>> table, ObservableList<Map<String, Object>> rows,
+                                   List<Map<String, Object>> page, boolean tabClosed) {
+        if (tabClosed) return;
+        rows.addAll(page);
+        if (table.getItems() != rows) {
+            table.sort();
         }
+    }
 
-        table.getItems().addAll(data);
+    private static String describeCursor(ResultCursor cursor, ResultStore store) {
+        int rows = cursor.getRowsFetched();
+        String spilled = store != null && store.isSpilled()
+            ? ", " + store.getSpilledRowCount() + " on disk (" + store.getSpillFileBytes() / (1024 * 1024) + " MB)"
+            : "";
+        if (cursor.isLimitReached()) {
+            return rows + " rows fetched" + spilled + " (size limit reached - refine the query to see more)";
+        }
+        return rows + " rows fetched" + spilled + (cursor.hasMore() ? " (more available)" : "");
+    }
+
+    /**
+     * Release a closed result tab's rows; they stay while "Open in Grid" or a grid tab holds them
+     */
+    private void releaseResult(SharedResult result) {
+        openResults.remove(result);
+        result.release();
+    }
+
+    /**
+     * Remember the result "Open in Grid" opens; it stays readable after its tab is closed
+     */
+    private void setLastResult(String query, SharedResult result, List<String> columns) {
+        if (lastResult != null) {
+            lastResult.release();
+        }
+        lastSuccessfulQuery = query;
+        lastResult = result.retain();
+        lastResultColumns = columns;
+    }
+
+    private SharedResult displayResults(String query, ResultStore data, List<String> columns, long elapsedMillis) {
+        Tab resultTab = new Tab("Results " + (resultsTabPane.getTabs().size() + 1));
+        resultTab.setClosable(true);
+
+        VBox content = new VBox(10);
+        content.setPadding(new Insets(10));
+
+        Label queryLabel = new Label("Query: " + (query.length() > 100 ? query.substring(0, 97) + "..." : query)
+            + "  (" + data.size() + " rows, " + elapsedMillis + " ms)");
+        queryLabel.setStyle("-fx-font-size: 11px; -fx-text-fill: #7f8c8d;");
+
+        // The table pages over the result - spilled rows are decoded as they scroll into view
+        TableView<Map<String, Object>> table = createResultTable(columns, FXCollections.observableList(data), data);
+
+        SharedResult result = new SharedResult(data);
+        openResults.add(result);
+        resultTab.setOnClosed(e -> releaseResult(result));
 
         VBox.setVgrow(table, Priority.ALWAYS);
         content.getChildren().addAll(queryLabel, table);
@@ -473,6 +773,26 @@ public class SqlWorksheet extends BorderPane {
         resultTab.setContent(content);
         resultsTabPane.getTabs().add(resultTab);
         resultsTabPane.getSelectionModel().select(resultTab);
+        return result;
+    }
+
+    private TableView<Map<String, Object>> createResultTable(List<String> columns, ObservableList<Map<String, Object>> rows,
+                                                             ResultStore store) {
+        TableView<Map<String, Object>> table = new TableView<>(rows);
+        table.setStyle("-fx-background-color: white;");
+
+        // Grid tabs share the rows, so sorting never moves them; rows on disk are not sorted at all
+        GridCells.sortByReference(table, rows, store::isSpilled,
+            () -> updateStatus("Result is partly on disk - sort with ORDER BY instead"));
+
+        table.getStylesheets().add(GridCells.STYLESHEET);
+        for (String columnName : columns) {
+            TableColumn<Map<String, Object>, Object> column = new TableColumn<>(columnName);
+            GridCells.install(column, columnName);
+            table.getColumns().add(column);
+        }
+
+        return table;
     }
 
     private void displayMessage(String message) {
@@ -500,6 +820,54 @@ public class SqlWorksheet extends BorderPane {
         resultsTabPane.getSelectionModel().select(errorTab);
     }
 
+    /**
+     * Messages tab that collects per-statement results of a script run
+     */
+    private TextArea createMessageLog() {
+        Tab messageTab = new Tab("Messages");
+        messageTab.setClosable(true);
+
+        TextArea textArea = new TextArea();
+        textArea.setEditable(false);
+        textArea.setStyle("-fx-font-family: monospace; -fx-font-size: 12px;");
+
+        messageTab.setContent(textArea);
+        resultsTabPane.getTabs().add(messageTab);
+        resultsTabPane.getSelectionModel().select(messageTab);
+        return textArea;
+    }
+
+    private static String resultLabel(int resultIndex) {
+        return resultIndex > 0 ? "Result " + (resultIndex + 1) + ": " : "";
+    }
+
+    /**
+     * Messages tab of one script run, opened when the run first needs it (FX thread only)
+     */
+    private class MessageLog {
+        private TextArea textArea;
+
+        boolean isOpen() {
+            return textArea != null;
+        }
+
+        void open() {
+            if (textArea == null) {
+                textArea = createMessageLog();
+            }
+        }
+
+        void append(SqlScriptSplitter.ScriptStatement statement, String result, long elapsedMillis) {
+            appendLine(statement.getSummary() + "\n    " + result + " (" + elapsedMillis + " ms)");
+        }
+
+        void appendLine(String line) {
+            if (textArea != null) {
+                textArea.appendText(line + "\n");
+            }
+        }
+    }
+
     private void formatQuery() {
         String query = codeArea.getText();
         if (query.trim().isEmpty()) return;
@@ -567,8 +935,8 @@ public class SqlWorksheet extends BorderPane {
      * Open last successful query result in a Table Grid tab
      */
     private void openLastResultInGrid() {
-        if (lastResultData != null && lastResultColumns != null && queryResultCallback != null) {
-            queryResultCallback.onQueryResult(lastSuccessfulQuery, lastResultData, lastResultColumns);
+        if (lastResult != null && lastResultColumns != null && queryResultCallback != null) {
+            queryResultCallback.onQueryResult(lastSuccessfulQuery, lastResult, lastResultColumns);
             updateStatus("Opened result in grid tab");
         }
     }
@@ -588,6 +956,28 @@ public class SqlWorksheet extends BorderPane {
     public void cleanup() {
         // Final save before cleanup
         WorksheetManager.getInstance().saveWorksheet(worksheetId, codeArea.getText());
+
+        // Stop a running query - nobody is waiting for its results any more
+        QueryTask task = currentTask;
+        if (task != null) {
+            task.cancel();
+        }
+
+        // Release cursors still held by open result tabs
+        List<ResultCursor> cursors = new ArrayList<>(openCursors);
+        openCursors.clear();
+        if (!cursors.isEmpty()) {
+            TaskExecutionService.getInstance().submit("Close cursors", () -> cursors.forEach(ResultCursor::close));
+        }
+
+        // Release the result tabs' rows; grid tabs opened from them keep theirs until closed
+        openResults.forEach(SharedResult::release);
+        openResults.clear();
+        if (lastResult != null) {
+            lastResult.release();
+            lastResult = null;
+        }
+        highlighter.dispose();
         executor.shutdown();
     }
 }
@@ -2,11 +2,17 @@ package com.dbassist.dbassist.components;
 
 import com.dbassist.dbassist.model.DataTabConfig;
 import com.dbassist.dbassist.model.DatabaseConnection;
+import com.dbassist.dbassist.model.LobHandle;
+import com.dbassist.dbassist.service.AggregationService;
 import com.dbassist.dbassist.service.ConnectionEventManager;
 import com.dbassist.dbassist.service.ConnectionManager;
 import com.dbassist.dbassist.service.DatabaseMetadataService;
+import com.dbassist.dbassist.service.LocalFilter;
+import com.dbassist.dbassist.service.QueryTask;
 import com.dbassist.dbassist.service.TabConfigManager;
+import com.dbassist.dbassist.service.TableDataCache;
 import com.dbassist.dbassist.service.TableDataService;
+import com.dbassist.dbassist.service.TaskExecutionService;
 import javafx.application.Platform;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
@@ -15,8 +21,13 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Component to display table data in a modern grid with filters
@@ -35,6 +46,38 @@ public class TableDataGrid extends VBox implements ConnectionEventManager.Connec
     private Tab parentTab; // Reference to the parent tab for updating name
     private CloneTabCallback cloneCallback; // Callback for cloning tab
     private double savedHScrollValue = 0.0; // Preserve horizontal scroll position
+    private volatile QueryTask loadTask; // Load currently running, if any
+    private volatile TaskExecutionService.TaskInfo loadTaskInfo; // Its entry in the connection queue
+    private boolean dataRequested = false; // False until the first load (deferred for restored tabs)
+
+    // Complete result of the last load and the filters that produced it; null when that
+    // result was capped by max rows (then narrower filters must go back to the server)
+    private List<Map<String, Object>> loadedRows;
+    private Map<String, String> loadedFilters;
+    private Map<String, Boolean> loadedExactFlags;
+    private Map<String, String> loadedColumnTypes;
+
+    // Columns present in the displayed rows; hidden columns are left out of the query and
+    // fetched by a reload once they are shown again
+    private Set<String> fetchedColumns;
+
+    // Data columns by name, and those already sized to their values (each is sized once,
+    // on the first load that fetched it with rows)
+    private final Map<String, TableColumn<Map<String, Object>, Object>> columnsByName = new LinkedHashMap<>();
+    private final Set<String> sizedColumns = new HashSet<>();
+
+    // Set while the saved sort order is put back on the columns, so it does not trigger a load
+    private boolean restoringSort = false;
+
+    // Bumped by every load and local filter; only the latest may update the table (FX thread only)
+    private int loadGeneration = 0;
+    private Button stopButton;
+
+    // Optional footer with per-column totals, recomputed after every load while shown
+    private AggregateFooter aggregateFooter;
+    private volatile QueryTask aggregateTask;
+    private int aggregateGeneration = 0; // FX thread only
+    private FindBar<Map<String, Object>> findBar;
 
     /**
      * Callback interface for clone tab action
@@ -44,6 +87,14 @@ public class TableDataGrid extends VBox implements ConnectionEventManager.Connec
     }
 
     public TableDataGrid(DataTabConfig tabConfig) {
+        this(tabConfig, false);
+    }
+
+    /**
+     * @param deferLoad true to skip the initial query until the tab is first selected
+     *                  (tabs restored at startup)
+     */
+    public TableDataGrid(DataTabConfig tabConfig, boolean deferLoad) {
         this.tabConfig = tabConfig;
         this.dbConnection = ConnectionManager.getInstance().getConnectionByName(tabConfig.getConnectionName());
         this.filterFields = new HashMap<>();
@@ -52,7 +103,11 @@ public class TableDataGrid extends VBox implements ConnectionEventManager.Connec
         this.columnVisibilityState = new HashMap<>();
 
         initialize();
-        loadData();
+        if (deferLoad) {
+            statusLabel.setText("Data loads when this tab is opened");
+        } else {
+            loadData();
+        }
 
         // Register as listener for connection changes
         ConnectionEventManager.getInstance().addListener(this);
@@ -62,6 +117,7 @@ public class TableDataGrid extends VBox implements ConnectionEventManager.Connec
         this.setSpacing(10);
         this.setPadding(new Insets(15));
         this.setStyle("-fx-background-color: #f5f7fa;");
+        this.getStylesheets().add(GridCells.STYLESHEET);
 
         // Header with table info and refresh button
         HBox header = createHeader();
@@ -79,8 +135,33 @@ public class TableDataGrid extends VBox implements ConnectionEventManager.Connec
         tableView.setColumnResizePolicy(TableView.UNCONSTRAINED_RESIZE_POLICY);
         // Disable placeholder column
         tableView.setPlaceholder(new Label("No data available"));
+        // Header clicks sort on the server - sorting only the loaded rows would be wrong
+        // when the result was capped at max rows
+        tableView.setSortPolicy(table -> {
+            applySortOrder();
+            return true;
+        });
         VBox.setVgrow(tableView, Priority.ALWAYS);
-        this.getChildren().add(tableView);
+        findBar = new FindBar<>(tableView, GridCells::displayText);
+        this.getChildren().addAll(findBar, tableView);
+
+        // Ctrl+F anywhere in the grid opens the find bar
+        this.addEventFilter(javafx.scene.input.KeyEvent.KEY_PRESSED, e -> {
+            if (e.isShortcutDown() && e.getCode() == javafx.scene.input.KeyCode.F) {
+                findBar.open();
+                e.consume();
+            }
+        });
+
+        aggregateFooter = new AggregateFooter(tableView, column -> {
+            for (Map.Entry<String, TableColumn<Map<String, Object>, Object>> entry : columnsByName.entrySet()) {
+                if (entry.getValue() == column) return entry.getKey();
+            }
+            return null;
+        });
+        aggregateFooter.setVisible(false);
+        aggregateFooter.setManaged(false);
+        this.getChildren().add(aggregateFooter);
 
         // Status bar
         statusLabel = new Label("Ready");
@@ -119,27 +200,81 @@ public class TableDataGrid extends VBox implements ConnectionEventManager.Connec
             }
         });
 
+        Button findButton = new Button("🔍 Find");
+        findButton.setStyle("-fx-background-color: #34495e; -fx-text-fill: white; -fx-cursor: hand; -fx-padding: 8 15;");
+        findButton.setTooltip(new Tooltip("Find in the loaded rows (Ctrl+F)"));
+        findButton.setOnAction(e -> findBar.open());
+
         Button columnSelectorButton = new Button("📋 Columns");
         columnSelectorButton.setStyle("-fx-background-color: #9b59b6; -fx-text-fill: white; -fx-cursor: hand; -fx-padding: 8 15;");
         columnSelectorButton.setOnAction(e -> showColumnSelector());
 
+        ToggleButton totalsButton = new ToggleButton("Σ Totals");
+        totalsButton.setStyle("-fx-background-color: #16a085; -fx-text-fill: white; -fx-cursor: hand; -fx-padding: 8 15;");
+        totalsButton.setTooltip(new Tooltip("Sum, min/max, distinct count and nulls per column"));
+        totalsButton.setOnAction(e -> {
+            aggregateFooter.setVisible(totalsButton.isSelected());
+            aggregateFooter.setManaged(totalsButton.isSelected());
+            if (totalsButton.isSelected()) {
+                refreshAggregates();
+            } else {
+                cancelAggregates();
+            }
+        });
+
         Button cloneButton = new Button("📑 Clone Tab");
         cloneButton.setStyle("-fx-background-color: #3498db; -fx-text-fill: white; -fx-cursor: hand; -fx-padding: 8 15;");
         cloneButton.setOnAction(e -> cloneTab());
 
         Button refreshButton = new Button("🔄 Refresh");
         refreshButton.setStyle("-fx-background-color: #27ae60; -fx-text-fill: white; -fx-cursor: hand; -fx-padding: 8 15;");
-        refreshButton.setOnAction(e -> loadData());
+        refreshButton.setOnAction(e -> {
+            // Refresh always goes to the database
+            TableDataService.invalidateTable(tabConfig.getConnectionName(), tabConfig.getTableName());
+            loadData();
+        });
+
+        stopButton = new Button("■ Stop");
+        stopButton.setStyle("-fx-background-color: #c0392b; -fx-text-fill: white; -fx-cursor: hand; -fx-padding: 8 15;");
+        stopButton.setDisable(true); // Enabled while data is loading
+        stopButton.setOnAction(e -> cancelLoading());
 
         Button clearFiltersButton = new Button("✖ Clear Filters");
         clearFiltersButton.setStyle("-fx-background-color: #e74c3c; -fx-text-fill: white; -fx-cursor: hand; -fx-padding: 8 15;");
         clearFiltersButton.setOnAction(e -> clearFilters());
 
+        // How long typing must pause before a filter runs (0 = only on Enter)
+        ComboBox<Integer> debounceComboBox = new ComboBox<>();
+        debounceComboBox.getItems().addAll(0, 200, 400, 800, 1500);
+        if (!debounceComboBox.getItems().contains(tabConfig.getFilterDebounceMillis())) {
+            debounceComboBox.getItems().add(tabConfig.getFilterDebounceMillis());
+        }
+        debounceComboBox.setValue(tabConfig.getFilterDebounceMillis());
+        debounceComboBox.setConverter(new javafx.util.StringConverter<>() {
+            @Override
+            public String toString(Integer millis) {
+                if (millis == null) return "";
+                return millis == 0 ? "Filter on Enter" : "Live filter " + millis + " ms";
+            }
+
+            @Override
+            public Integer fromString(String text) {
+                return null;
+            }
+        });
+        debounceComboBox.setTooltip(new Tooltip("When column filters run while you type"));
+        debounceComboBox.setOnAction(e -> {
+            Integer millis = debounceComboBox.getValue();
+            if (millis == null) return;
+            tabConfig.setFilterDebounceMillis(millis);
+            TabConfigManager.getInstance().updateTabConfig(tabConfig);
+        });
+
         javafx.scene.layout.Region spacer = new javafx.scene.layout.Region();
         HBox.setHgrow(spacer, Priority.ALWAYS);
 
-        header.getChildren().addAll(titleLabel, spacer, connectionLabel, connectionComboBox,
-                                    columnSelectorButton, cloneButton, clearFiltersButton, refreshButton);
+        header.getChildren().addAll(titleLabel, spacer, connectionLabel, connectionComboBox, debounceComboBox,
+                                    findButton, columnSelectorButton, totalsButton, cloneButton, clearFiltersButton, refreshButton, stopButton);
 
         return header;
     }
@@ -150,7 +285,9 @@ public class TableDataGrid extends VBox implements ConnectionEventManager.Connec
             return;
         }
 
+        dataRequested = true;
         statusLabel.setText("Loading data...");
+        statusLabel.setStyle("-fx-font-size: 11px; -fx-text-fill: #7f8c8d;");
 
         // Save current column visibility state before clearing
         saveColumnVisibilityState();
@@ -162,43 +299,99 @@ public class TableDataGrid extends VBox implements ConnectionEventManager.Connec
         saveHorizontalScrollPosition();
 
         // Only clear items, NOT columns - this preserves the table structure and scroll
+        // (clearing a spilled result also deletes its spill file)
         tableView.getItems().clear();
 
         // Only clear and rebuild columns if this is the first load
         boolean isFirstLoad = tableView.getColumns().isEmpty();
 
+        // A new load supersedes one still running
+        QueryTask previousTask = loadTask;
+        if (previousTask != null) {
+            previousTask.cancel();
+        }
+        QueryTask task = new QueryTask("Load " + tabConfig.getTableName(), dbConnection);
+        loadTask = task;
+        stopButton.setDisable(false);
+
+        // Loads for the tab the user is looking at go ahead of other tabs' refreshes
+        TaskExecutionService.TaskPriority priority = parentTab != null && parentTab.isSelected()
+            ? TaskExecutionService.TaskPriority.INTERACTIVE
+            : TaskExecutionService.TaskPriority.BACKGROUND;
+
+        // Snapshot filters on the FX thread - they describe the rows this load returns
+        Map<String, String> filters = new HashMap<>(tabConfig.getColumnFilters());
+        Map<String, Boolean> exactFlags = collectExactFlags();
+        Set<String> hiddenColumns = collectHiddenColumns(filters);
+        Map<String, Boolean> sortColumns = new LinkedHashMap<>(tabConfig.getSortColumns());
+        loadedRows = null;
+        int generation = ++loadGeneration;
+
         // Load data in background thread
-        new Thread(() -> {
+        loadTaskInfo = TaskExecutionService.getInstance().submit(task.getDescription(), tabConfig.getConnectionName(), priority, task, () -> {
             try {
-                // Collect exact search flags
-                Map<String, Boolean> exactFlags = new HashMap<>();
-                for (Map.Entry<String, CheckBox> entry : exactSearchFlags.entrySet()) {
-                    exactFlags.put(entry.getKey(), entry.getValue().isSelected());
-                }
-
                 TableDataService.TableDataResult result = TableDataService.fetchTableData(
                     dbConnection,
                     tabConfig.getTableName(),
-                    tabConfig.getColumnFilters(),
+                    filters,
                     exactFlags,
-                    tabConfig.getMaxRows()
+                    hiddenColumns,
+                    sortColumns,
+                    tabConfig.getMaxRows(),
+                    task
                 );
 
                 Platform.runLater(() -> {
+                    if (loadTask == task) {
+                        loadTask = null;
+                        stopButton.setDisable(true);
+                    }
+                    // A newer load or local filter replaced this one - never paint stale rows
+                    if (generation != loadGeneration) return;
+                    if (task.isCancelled()) {
+                        statusLabel.setText("Loading cancelled");
+                        return;
+                    }
+
                     if (result.hasError()) {
                         showError("Error: " + result.getError());
                     } else {
+                        // An uncapped result can serve narrower filters without a query (unless it
+                        // was too large to keep in memory)
+                        if (result.getRowCount() < tabConfig.getMaxRows() && result.getSpilledRowCount() == 0) {
+                            loadedRows = new ArrayList<>(result.getRows());
+                            loadedFilters = filters;
+                            loadedExactFlags = exactFlags;
+                            loadedColumnTypes = result.getColumnTypes();
+                        }
+                        fetchedColumns = new HashSet<>(result.getColumnNames());
+
                         if (isFirstLoad) {
                             // First load: create columns
                             displayData(result);
                         } else {
-                            // Subsequent loads: just update data, keep columns
-                            tableView.getItems().addAll(result.getRows());
+                            // Subsequent loads: just swap the rows, keep columns
+                            tableView.setItems(result.getRows());
                         }
+                        autoSizeColumns();
+                        refreshAggregates();
 
                         String statusMessage = result.getRowCount() > 0
                             ? "Loaded " + result.getRowCount() + " rows (max " + tabConfig.getMaxRows() + ")"
                             : "No data matches the current filters";
+                        if (result.getSpilledRowCount() > 0) {
+                            statusMessage += " - " + result.getSpilledRowCount() + " kept on disk";
+                        }
+                        if (result.isProjected()) {
+                            statusMessage += " - " + result.getColumnNames().size() + " of "
+                                + result.getAllColumnNames().size() + " columns fetched";
+                        }
+                        if (result.isFromCache()) {
+                            TableDataCache cache = TableDataCache.getInstance();
+                            statusMessage += " - from cache, fetched "
+                                + (System.currentTimeMillis() - result.getCachedAt()) / 1000 + "s ago (Refresh to re-query; cache "
+                                + cache.getHits() + " hits / " + cache.getMisses() + " misses)";
+                        }
                         statusLabel.setText(statusMessage);
 
                         // Restore horizontal scroll position after data is displayed
@@ -207,15 +400,107 @@ public class TableDataGrid extends VBox implements ConnectionEventManager.Connec
                 });
 
             } catch (Exception e) {
-                Platform.runLater(() -> showError("Error loading data: " + e.getMessage()));
+                Platform.runLater(() -> {
+                    if (loadTask == task) {
+                        loadTask = null;
+                        stopButton.setDisable(true);
+                    }
+                    if (generation != loadGeneration) return;
+                    showError("Error loading data: " + e.getMessage());
+                });
                 e.printStackTrace();
             }
-        }).start();
+        }, () -> Platform.runLater(() -> {
+            // Cancelled while queued - it never ran
+            if (loadTask == task) {
+                loadTask = null;
+                stopButton.setDisable(true);
+            }
+            if (generation == loadGeneration) {
+                statusLabel.setText("Loading cancelled");
+            }
+        }));
+    }
+
+    /**
+     * Stop the running load (Stop button, or the tab being closed)
+     */
+    public void cancelLoading() {
+        QueryTask task = loadTask;
+        if (task != null) {
+            task.cancel();
+            statusLabel.setText("Cancelling...");
+        }
+        cancelAggregates();
+    }
+
+    /**
+     * Recompute the totals footer, if shown, for the current filters. A complete result in
+     * memory is reduced locally; a result capped at max rows (or partly on disk) is
+     * aggregated by the database, so the totals cover every matching row.
+     */
+    private void refreshAggregates() {
+        if (!aggregateFooter.isVisible() || fetchedColumns == null || dbConnection == null) return;
+        cancelAggregates();
+
+        List<String> columns = new ArrayList<>();
+        for (Map.Entry<String, TableColumn<Map<String, Object>, Object>> entry : columnsByName.entrySet()) {
+            if (entry.getValue().isVisible() && fetchedColumns.contains(entry.getKey())) {
+                columns.add(entry.getKey());
+            }
+        }
+
+        int generation = ++aggregateGeneration;
+        QueryTask task = new QueryTask("Totals of " + tabConfig.getTableName(), dbConnection);
+        aggregateTask = task;
+
+        // Loaded rows are replaced on change, never modified, so they can be read in the background
+        List<Map<String, Object>> rows = loadedRows;
+        Map<String, String> filters = new HashMap<>(tabConfig.getColumnFilters());
+        Map<String, Boolean> exactFlags = collectExactFlags();
+        String caption = rows != null
+            ? String.format("Totals of the %,d loaded rows", rows.size())
+            : "Totals of all rows matching the filters (computed by the database)";
+        aggregateFooter.setCaption("Computing totals...");
+
+        Runnable work = () -> {
+            try {
+                Map<String, AggregationService.ColumnAggregate> aggregates = rows != null
+                    ? AggregationService.aggregate(rows, columns, task)
+                    : TableDataService.fetchAggregates(dbConnection, tabConfig.getTableName(), filters, exactFlags, columns, task);
+                Platform.runLater(() -> {
+                    if (generation == aggregateGeneration) {
+                        aggregateFooter.setAggregates(aggregates, caption);
+                    }
+                });
+            } catch (Exception e) {
+                Platform.runLater(() -> {
+                    if (generation == aggregateGeneration && !task.isCancelled()) {
+                        aggregateFooter.setCaption("Could not compute totals: " + e.getMessage());
+                    }
+                });
+            }
+        };
+
+        if (rows != null) {
+            TaskExecutionService.getInstance().submit(task.getDescription(), work);
+        } else {
+            TaskExecutionService.getInstance().submit(task.getDescription(), tabConfig.getConnectionName(),
+                    TaskExecutionService.TaskPriority.INTERACTIVE, task, work);
+        }
+    }
+
+    private void cancelAggregates() {
+        QueryTask task = aggregateTask;
+        if (task != null) {
+            task.cancel();
+            aggregateTask = null;
+        }
     }
 
     private void displayData(TableDataService.TableDataResult result) {
-        // Create columns with filters
-        for (String columnName : result.getColumnNames()) {
+        // Create columns with filters - for every column, including hidden ones not fetched
+        for (String columnName : result.getAllColumnNames()) {
             TableColumn<Map<String, Object>, Object> column = new TableColumn<>();
 
             // Create column header with filter
@@ -250,7 +535,27 @@ public class TableDataGrid extends VBox implements ConnectionEventManager.Connec
 
             exactSearchFlags.put(columnName, exactSearchCheckBox);
 
-            filterField.setOnAction(e -> applyFilter(columnName, filterField.getText()));
+            // Type-ahead: run the filter once typing pauses; Enter runs it right away
+            javafx.animation.PauseTransition debounce = new javafx.animation.PauseTransition();
+            debounce.setOnFinished(e -> {
+                String text = filterField.getText();
+                String current = tabConfig.getColumnFilters().get(columnName);
+                String wanted = text == null || text.trim().isEmpty() ? null : text;
+                if (!java.util.Objects.equals(wanted, current)) {
+                    applyFilter(columnName, text);
+                }
+            });
+            filterField.textProperty().addListener((obs, oldText, newText) -> {
+                int delay = tabConfig.getFilterDebounceMillis();
+                if (delay <= 0) return;
+                debounce.setDuration(javafx.util.Duration.millis(delay));
+                debounce.playFromStart();
+            });
+
+            filterField.setOnAction(e -> {
+                debounce.stop();
+                applyFilter(columnName, filterField.getText());
+            });
 
             exactSearchCheckBox.setOnAction(e -> {
                 // Save the exact search state
@@ -267,31 +572,22 @@ public class TableDataGrid extends VBox implements ConnectionEventManager.Connec
             headerBox.getChildren().addAll(headerLabel, filterField, checkboxContainer);
             column.setGraphic(headerBox);
 
-            // Set cell value factory
-            column.setCellValueFactory(cellData -> {
-                Object value = cellData.getValue().get(columnName);
-                return new javafx.beans.property.SimpleObjectProperty<>(value);
-            });
-
-            // Set cell factory for display
-            column.setCellFactory(col -> new TableCell<Map<String, Object>, Object>() {
-                @Override
-                protected void updateItem(Object item, boolean empty) {
-                    super.updateItem(item, empty);
-                    if (empty) {
-                        setText(null);
-                        setStyle("");
-                    } else if (item == null) {
-                        setText("null");
-                        setStyle("-fx-text-fill: #95a5a6; -fx-font-style: italic;"); // Grey italic for null
-                    } else {
-                        setText(item.toString());
-                        setStyle("");
+            // Cells format through the column's cached formatter; null and large values are
+            // styled by pseudo-class (data-grid.css)
+            GridCells.Formatter formatter = new GridCells.Formatter();
+            column.setCellValueFactory(cellData -> GridCells.cellValue(cellData.getValue().get(columnName)));
+            column.setCellFactory(col -> {
+                GridCells.ValueCell<Map<String, Object>> cell = new GridCells.ValueCell<>(formatter);
+                // Large values hold a preview - double-click loads the full value
+                cell.setOnMouseClicked(e -> {
+                    if (e.getClickCount() == 2 && cell.getItem() instanceof LobHandle) {
+                        LobValueViewer.show((LobHandle) cell.getItem());
                     }
-                }
+                });
+                return cell;
             });
 
-            // Calculate column width based on column name length
+            // Width from the column name until the first rows are measured (autoSizeColumns)
             // Minimum 100px, add 10px per character, maximum 300px
             int nameLength = columnName.length();
             double calculatedWidth = Math.min(Math.max(100, nameLength * 10 + 60), 300);
@@ -312,12 +608,80 @@ public class TableDataGrid extends VBox implements ConnectionEventManager.Connec
             }
 
             tableView.getColumns().add(column);
+            columnsByName.put(columnName, column);
         }
 
+        restoreSortOrder();
+
         // Set data
         tableView.setItems(result.getRows());
     }
 
+    /**
+     * Size fetched columns to their values, once per column; columns hidden (not fetched) or
+     * without rows yet are sized by a later load
+     */
+    private void autoSizeColumns() {
+        if (fetchedColumns == null || tableView.getItems().isEmpty()) return;
+
+        Map<String, TableColumn<Map<String, Object>, Object>> pending = new LinkedHashMap<>();
+        for (Map.Entry<String, TableColumn<Map<String, Object>, Object>> entry : columnsByName.entrySet()) {
+            if (fetchedColumns.contains(entry.getKey()) && sizedColumns.add(entry.getKey())) {
+                pending.put(entry.getKey(), entry.getValue());
+            }
+        }
+        ColumnSizer.sizeColumns(tableView, pending);
+    }
+
+    /**
+     * Show the saved sort order on the column headers
+     */
+    private void restoreSortOrder() {
+        List<TableColumn<Map<String, Object>, ?>> sortOrder = new ArrayList<>();
+        for (Map.Entry<String, Boolean> sort : tabConfig.getSortColumns().entrySet()) {
+            for (TableColumn<Map<String, Object>, ?> column : tableView.getColumns()) {
+                if (sort.getKey().equals(getColumnName(column))) {
+                    column.setSortType(sort.getValue() ? TableColumn.SortType.ASCENDING : TableColumn.SortType.DESCENDING);
+                    sortOrder.add(column);
+                }
+            }
+        }
+
+        restoringSort = true;
+        try {
+            tableView.getSortOrder().setAll(sortOrder);
+        } finally {
+            restoringSort = false;
+        }
+    }
+
+    /**
+     * Sort policy: save the header sort order and reload, so the database sorts before
+     * applying the row limit. The loaded rows themselves are never reordered.
+     */
+    private void applySortOrder() {
+        if (restoringSort) return;
+
+        Map<String, Boolean> sortColumns = new LinkedHashMap<>();
+        for (TableColumn<Map<String, Object>, ?> column : tableView.getSortOrder()) {
+            String columnName = getColumnName(column);
+            if (columnName != null) {
+                sortColumns.put(columnName, column.getSortType() == TableColumn.SortType.ASCENDING);
+            }
+        }
+
+        // The policy also runs when nothing changed (e.g. new items) - only a new order reloads
+        if (new ArrayList<>(sortColumns.entrySet()).equals(new ArrayList<>(tabConfig.getSortColumns().entrySet()))) {
+            return;
+        }
+
+        tabConfig.setSortColumns(sortColumns);
+        TabConfigManager.getInstance().updateTabConfig(tabConfig);
+
+        // Not from inside the table's own sort() call
+        Platform.runLater(this::loadData);
+    }
+
     private void applyFilter(String columnName, String filterValue) {
         if (filterValue == null || filterValue.trim().isEmpty()) {
             tabConfig.removeFilter(columnName);
@@ -328,10 +692,81 @@ public class TableDataGrid extends VBox implements ConnectionEventManager.Connec
         // Save configuration
         TabConfigManager.getInstance().updateTabConfig(tabConfig);
 
+        // Narrowed filter over a complete result - no need to ask the server
+        if (refineLocally()) return;
+
         // Reload data with new filter
         loadData();
     }
 
+    /**
+     * Apply the current filters to the rows already loaded, if they are a refinement of
+     * the filters those rows were loaded with
+     *
+     * @return true if the table was filtered locally
+     */
+    private boolean refineLocally() {
+        if (loadedRows == null || loadTask != null) return false;
+
+        Map<String, String> filters = new HashMap<>(tabConfig.getColumnFilters());
+        Map<String, Boolean> exactFlags = collectExactFlags();
+
+        LocalFilter localFilter = new LocalFilter(dbConnection.getDatabaseType());
+        if (!localFilter.isRefinement(loadedFilters, loadedExactFlags, filters, exactFlags)) return false;
+
+        java.util.function.Predicate<Map<String, Object>> predicate = localFilter.compile(filters, exactFlags, loadedRows, loadedColumnTypes);
+        if (predicate == null) return false;
+
+        long start = System.currentTimeMillis();
+        int before = loadedRows.size();
+        List<Map<String, Object>> matches = LocalFilter.apply(loadedRows, predicate);
+
+        loadGeneration++;
+        loadedRows = matches;
+        loadedFilters = filters;
+        loadedExactFlags = exactFlags;
+        tableView.getItems().setAll(matches);
+        refreshAggregates();
+
+        statusLabel.setText(matches.isEmpty()
+            ? "No data matches the current filters (filtered locally)"
+            : "Filtered " + matches.size() + " of " + before + " loaded rows locally in "
+                + (System.currentTimeMillis() - start) + " ms (no query)");
+        statusLabel.setStyle("-fx-font-size: 11px; -fx-text-fill: #7f8c8d;");
+        return true;
+    }
+
+    /**
+     * Columns to leave out of the next query: hidden ones, except those with a filter, which
+     * stay in the rows so a narrower filter can still be applied locally
+     */
+    private Set<String> collectHiddenColumns(Map<String, String> filters) {
+        Set<String> hiddenColumns = new HashSet<>();
+        Map<String, Boolean> visibility = columnVisibilityState.isEmpty()
+            ? tabConfig.getColumnVisibility() // Columns not built yet - use the saved settings
+            : columnVisibilityState;
+        for (Map.Entry<String, Boolean> entry : visibility.entrySet()) {
+            if (!entry.getValue()) {
+                hiddenColumns.add(entry.getKey());
+            }
+        }
+
+        for (Map.Entry<String, String> filter : filters.entrySet()) {
+            if (filter.getValue() != null && !filter.getValue().trim().isEmpty()) {
+                hiddenColumns.remove(filter.getKey());
+            }
+        }
+        return hiddenColumns;
+    }
+
+    private Map<String, Boolean> collectExactFlags() {
+        Map<String, Boolean> exactFlags = new HashMap<>();
+        for (Map.Entry<String, CheckBox> entry : exactSearchFlags.entrySet()) {
+            exactFlags.put(entry.getKey(), entry.getValue().isSelected());
+        }
+        return exactFlags;
+    }
+
     private void clearFilters() {
         tabConfig.clearFilters();
         TabConfigManager.getInstance().updateTabConfig(tabConfig);
@@ -365,6 +800,28 @@ public class TableDataGrid extends VBox implements ConnectionEventManager.Connec
      */
     public void setParentTab(Tab parentTab) {
         this.parentTab = parentTab;
+
+        // A deferred grid loads on first selection; a load still waiting for a free
+        // connection slot jumps the queue once the tab is shown
+        parentTab.selectedProperty().addListener((obs, wasSelected, isSelected) -> {
+            if (!isSelected) return;
+            TaskExecutionService.TaskInfo info = loadTaskInfo;
+            if (!dataRequested) {
+                loadData();
+            } else if (info != null) {
+                info.promote();
+            }
+        });
+    }
+
+    /**
+     * Flag a restored tab whose table no longer exists, before the user opens it
+     */
+    public void markTableMissing() {
+        if (dataRequested) return;
+        statusLabel.setText("Table " + tabConfig.getTableName() + " was not found on " + tabConfig.getConnectionName()
+            + " - it may have been dropped or renamed");
+        statusLabel.setStyle("-fx-font-size: 11px; -fx-text-fill: #e74c3c;");
     }
 
     /**
@@ -556,6 +1013,18 @@ public class TableDataGrid extends VBox implements ConnectionEventManager.Connec
                 // Persist to disk
                 TabConfigManager.getInstance().updateTabConfig(tabConfig);
                 System.out.println("Column visibility saved for table: " + tabConfig.getTableName());
+
+                // Shown columns that the last query left out have no values yet - fetch them
+                int notFetched = 0;
+                for (CheckBox cb : checkBoxes) {
+                    if (cb.isSelected() && fetchedColumns != null && !fetchedColumns.contains(cb.getText())) {
+                        notFetched++;
+                    }
+                }
+                if (notFetched > 0) {
+                    System.out.println("Fetching " + notFetched + " newly shown columns of " + tabConfig.getTableName());
+                    loadData();
+                }
             }
         });
     }
@@ -666,7 +1135,8 @@ public class TableDataGrid extends VBox implements ConnectionEventManager.Connec
         // Validate in background thread
         statusLabel.setText("Validating connection compatibility...");
 
-        new Thread(() -> {
+        TaskExecutionService.getInstance().submit("Validate " + tabConfig.getTableName() + " on " + newConnectionName, newConnectionName,
+                TaskExecutionService.TaskPriority.BACKGROUND, null, () -> {
             try {
                 // Check if table exists in new connection
                 boolean tableExists = validateTableExists(newConnection, tabConfig.getTableName());
@@ -731,7 +1201,7 @@ public class TableDataGrid extends VBox implements ConnectionEventManager.Connec
                 });
                 e.printStackTrace();
             }
-        }).start();
+        });
     }
 
     /**
@@ -857,6 +1327,8 @@ public class TableDataGrid extends VBox implements ConnectionEventManager.Connec
 
             // Copy max rows setting
             clonedConfig.setMaxRows(tabConfig.getMaxRows());
+            clonedConfig.setFilterDebounceMillis(tabConfig.getFilterDebounceMillis());
+            clonedConfig.setSortColumns(tabConfig.getSortColumns());
 
             System.out.println("Cloning tab: " + tabConfig.getDisplayName());
             System.out.println("  New name: " + newName);
@@ -934,37 +1406,15 @@ public class TableDataGrid extends VBox implements ConnectionEventManager.Connec
             // Clear existing columns
             tableView.getColumns().clear();
             filterFields.clear();
+            columnsByName.clear();
 
             // Create columns from query results
             for (String columnName : columns) {
-                TableColumn<Map<String, Object>, String> column = new TableColumn<>(columnName);
+                TableColumn<Map<String, Object>, Object> column = new TableColumn<>(columnName);
                 column.setPrefWidth(Math.max(150, columnName.length() * 10));
 
-                column.setCellValueFactory(cellData -> {
-                    Object value = cellData.getValue().get(columnName);
-                    return new javafx.beans.property.SimpleStringProperty(
-                        value != null ? value.toString() : "null"
-                    );
-                });
-
-                // Style null values
-                column.setCellFactory(col -> new TableCell<Map<String, Object>, String>() {
-                    @Override
-                    protected void updateItem(String item, boolean empty) {
-                        super.updateItem(item, empty);
-                        if (empty || item == null) {
-                            setText(null);
-                            setStyle("");
-                        } else {
-                            setText(item);
-                            if ("null".equals(item)) {
-                                setStyle("-fx-text-fill: #95a5a6; -fx-font-style: italic;");
-                            } else {
-                                setStyle("");
-                            }
-                        }
-                    }
-                });
+                // Formatted, null values styled by pseudo-class
+                GridCells.install(column, columnName);
 
                 tableView.getColumns().add(column);
             }
@@ -973,6 +1423,12 @@ public class TableDataGrid extends VBox implements ConnectionEventManager.Connec
             tableView.getItems().clear();
             tableView.getItems().addAll(data);
 
+            Map<String, TableColumn<Map<String, Object>, ?>> queryColumns = new LinkedHashMap<>();
+            for (TableColumn<Map<String, Object>, ?> column : tableView.getColumns()) {
+                queryColumns.put(column.getText(), column);
+            }
+            ColumnSizer.sizeColumns(tableView, queryColumns);
+
             statusLabel.setText("Loaded " + data.size() + " rows");
         });
     }
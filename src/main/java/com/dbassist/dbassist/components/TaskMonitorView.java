@@ -0,0 +1,121 @@
+package com.dbassist.dbassist.components;
+
+import com.dbassist.dbassist.service.BrowseSessionPool;
+import com.dbassist.dbassist.service.TableDataCache;
+import com.dbassist.dbassist.service.TaskExecutionService;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.geometry.Insets;
+import javafx.scene.control.*;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.util.Duration;
+
+/**
+ * Lists background tasks (queued and running) with a Cancel action per task.
+ * Refreshes once a second while it is shown.
+ */
+public class TaskMonitorView extends VBox {
+
+    private final TableView<TaskExecutionService.TaskInfo> tableView;
+    private final Label summaryLabel;
+    private final Timeline refreshTimeline;
+
+    public TaskMonitorView() {
+        this.setSpacing(10);
+        this.setPadding(new Insets(15));
+        this.setStyle("-fx-background-color: #f5f7fa;");
+
+        Label titleLabel = new Label("Background Tasks");
+        titleLabel.setStyle("-fx-font-size: 16px; -fx-font-weight: bold; -fx-text-fill: #2c3e50;");
+
+        tableView = new TableView<>();
+        tableView.setStyle("-fx-background-color: white;");
+        tableView.setPlaceholder(new Label("No background tasks running"));
+        tableView.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+
+        TableColumn<TaskExecutionService.TaskInfo, String> taskColumn = new TableColumn<>("Task");
+        taskColumn.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getDescription()));
+
+        TableColumn<TaskExecutionService.TaskInfo, String> connectionColumn = new TableColumn<>("Connection");
+        connectionColumn.setCellValueFactory(data -> new SimpleStringProperty(
+            data.getValue().getConnectionName() != null ? data.getValue().getConnectionName() : "-"));
+
+        TableColumn<TaskExecutionService.TaskInfo, String> stateColumn = new TableColumn<>("State");
+        stateColumn.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getState().name()));
+
+        TableColumn<TaskExecutionService.TaskInfo, String> priorityColumn = new TableColumn<>("Priority");
+        priorityColumn.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getPriority().name()));
+
+        TableColumn<TaskExecutionService.TaskInfo, String> waitColumn = new TableColumn<>("Waited");
+        waitColumn.setCellValueFactory(data -> new SimpleStringProperty(
+            data.getValue().getConnectionName() != null
+                ? String.format("%.1f s", data.getValue().getWaitMillis() / 1000.0) : "-"));
+
+        TableColumn<TaskExecutionService.TaskInfo, String> progressColumn = new TableColumn<>("Progress");
+        progressColumn.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getProgress()));
+
+        TableColumn<TaskExecutionService.TaskInfo, String> elapsedColumn = new TableColumn<>("Elapsed");
+        elapsedColumn.setCellValueFactory(data -> new SimpleStringProperty(
+            String.format("%.1f s", data.getValue().getElapsedMillis() / 1000.0)));
+
+        TableColumn<TaskExecutionService.TaskInfo, Void> actionColumn = new TableColumn<>("");
+        actionColumn.setCellFactory(column -> new TableCell<>() {
+            private final Button cancelButton = new Button("Cancel");
+
+            {
+                cancelButton.setStyle("-fx-background-color: #e74c3c; -fx-text-fill: white; -fx-cursor: hand; -fx-padding: 2 10; -fx-font-size: 11px;");
+                cancelButton.setOnAction(e -> {
+                    TaskExecutionService.TaskInfo task = getTableRow() != null ? getTableRow().getItem() : null;
+                    if (task != null) {
+                        task.cancel();
+                        cancelButton.setDisable(true);
+                    }
+                });
+            }
+
+            @Override
+            protected void updateItem(Void item, boolean empty) {
+                super.updateItem(item, empty);
+                setGraphic(empty ? null : cancelButton);
+                cancelButton.setDisable(false);
+            }
+        });
+
+        tableView.getColumns().addAll(java.util.List.of(taskColumn, connectionColumn, stateColumn, priorityColumn, waitColumn, progressColumn, elapsedColumn, actionColumn));
+        VBox.setVgrow(tableView, Priority.ALWAYS);
+
+        summaryLabel = new Label();
+        summaryLabel.setStyle("-fx-font-size: 11px; -fx-text-fill: #7f8c8d;");
+
+        this.getChildren().addAll(titleLabel, tableView, summaryLabel);
+
+        refreshTimeline = new Timeline(new KeyFrame(Duration.seconds(1), e -> refresh()));
+        refreshTimeline.setCycleCount(Animation.INDEFINITE);
+
+        // Only poll while the view is part of a scene
+        sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (newScene != null) {
+                refresh();
+                refreshTimeline.play();
+            } else {
+                refreshTimeline.stop();
+            }
+        });
+    }
+
+    private void refresh() {
+        java.util.List<TaskExecutionService.TaskInfo> tasks = TaskExecutionService.getInstance().getActiveTasks();
+        tableView.getItems().setAll(tasks);
+
+        long running = tasks.stream().filter(t -> t.getState() == TaskExecutionService.TaskState.RUNNING).count();
+        TableDataCache cache = TableDataCache.getInstance();
+        summaryLabel.setText(running + " running, " + (tasks.size() - running) + " queued"
+            + "   |   Result cache: " + cache.getHits() + " hits, " + cache.getMisses() + " misses, "
+            + cache.getEntryCount() + " entries (" + String.format("%.1f", cache.getSizeBytes() / (1024.0 * 1024.0)) + " MB)"
+            + "   |   Statements: " + BrowseSessionPool.getInstance().getPreparedCount() + " prepared, "
+            + BrowseSessionPool.getInstance().getReusedCount() + " reused");
+    }
+}
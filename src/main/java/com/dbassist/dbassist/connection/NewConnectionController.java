@@ -23,6 +23,15 @@ public class NewConnectionController {
     @FXML
     private TextField databaseNameField;
 
+    @FXML
+    private TextField queryTimeoutField;
+    @FXML
+    private TextField maxConcurrentField;
+    @FXML
+    private TextField cacheTtlField;
+    @FXML
+    private TextField resultMemoryField;
+
     @FXML
     private TextField usernameField;
 
@@ -100,7 +109,7 @@ public class NewConnectionController {
         testConn.setPassword(passwordField.getText());
 
         // Test connection in background thread
-        new Thread(() -> {
+        com.dbassist.dbassist.service.TaskExecutionService.getInstance().submit("Test connection " + hostField.getText(), () -> {
             try {
                 boolean success = com.dbassist.dbassist.service.ConnectionService.testConnection(testConn);
 
@@ -119,7 +128,7 @@ public class NewConnectionController {
                     statusLabel.setText("✗ Error: " + e.getMessage());
                 });
             }
-        }).start();
+        });
     }
 
     @FXML
@@ -134,6 +143,10 @@ public class NewConnectionController {
             connection.setUsername(usernameField.getText());
             connection.setPassword(passwordField.getText());
             connection.setSavePassword(savePasswordCheckbox.isSelected());
+            connection.setQueryTimeoutSeconds(parseQueryTimeout());
+            connection.setMaxConcurrentQueries(parseMaxConcurrent());
+            connection.setResultCacheTtlSeconds(parseCacheTtl());
+            connection.setResultMemoryMb(parseResultMemory());
 
             saveClicked = true;
             dialogStage.close();
@@ -173,6 +186,18 @@ public class NewConnectionController {
         if (usernameField.getText() == null || usernameField.getText().trim().isEmpty()) {
             errorMessage += "Username is required!\n";
         }
+        if (parseQueryTimeout() < 0) {
+            errorMessage += "Query timeout must be a whole number of seconds (empty or 0 for none)!\n";
+        }
+        if (parseMaxConcurrent() < 1) {
+            errorMessage += "Max concurrent queries must be a whole number of at least 1!\n";
+        }
+        if (parseCacheTtl() < 0) {
+            errorMessage += "Result cache TTL must be a whole number of seconds (0 to disable)!\n";
+        }
+        if (parseResultMemory() < 1) {
+            errorMessage += "Result memory must be a whole number of MB, at least 1!\n";
+        }
 
         if (errorMessage.isEmpty()) {
             return true;
@@ -186,6 +211,62 @@ public class NewConnectionController {
         }
     }
 
+    /**
+     * Query timeout in seconds; 0 when empty, -1 when invalid
+     */
+    private int parseQueryTimeout() {
+        String text = queryTimeoutField.getText();
+        if (text == null || text.trim().isEmpty()) return 0;
+        try {
+            int seconds = Integer.parseInt(text.trim());
+            return seconds >= 0 ? seconds : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Concurrent query limit; the default when empty, -1 when invalid
+     */
+    private int parseMaxConcurrent() {
+        String text = maxConcurrentField.getText();
+        if (text == null || text.trim().isEmpty()) return DatabaseConnection.DEFAULT_MAX_CONCURRENT_QUERIES;
+        try {
+            int limit = Integer.parseInt(text.trim());
+            return limit >= 1 ? limit : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Result cache TTL in seconds; the default when empty, -1 when invalid
+     */
+    private int parseCacheTtl() {
+        String text = cacheTtlField.getText();
+        if (text == null || text.trim().isEmpty()) return DatabaseConnection.DEFAULT_RESULT_CACHE_TTL_SECONDS;
+        try {
+            int seconds = Integer.parseInt(text.trim());
+            return seconds >= 0 ? seconds : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Heap per result in MB; the default when empty, -1 when invalid
+     */
+    private int parseResultMemory() {
+        String text = resultMemoryField.getText();
+        if (text == null || text.trim().isEmpty()) return DatabaseConnection.DEFAULT_RESULT_MEMORY_MB;
+        try {
+            int megabytes = Integer.parseInt(text.trim());
+            return megabytes >= 1 ? megabytes : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
     public void setDialogStage(Stage dialogStage) {
         this.dialogStage = dialogStage;
     }
@@ -213,6 +294,11 @@ public class NewConnectionController {
         usernameField.setText(existingConnection.getUsername());
         passwordField.setText(existingConnection.getPassword());
         savePasswordCheckbox.setSelected(existingConnection.isSavePassword());
+        queryTimeoutField.setText(existingConnection.getQueryTimeoutSeconds() > 0
+            ? String.valueOf(existingConnection.getQueryTimeoutSeconds()) : "");
+        maxConcurrentField.setText(String.valueOf(existingConnection.getMaxConcurrentQueries()));
+        cacheTtlField.setText(String.valueOf(existingConnection.getResultCacheTtlSeconds()));
+        resultMemoryField.setText(String.valueOf(existingConnection.getResultMemoryMb()));
 
         // Select the connection name text for easy editing
         connectionNameField.selectAll();
@@ -234,6 +320,11 @@ public class NewConnectionController {
         usernameField.setText(existingConnection.getUsername());
         passwordField.setText(existingConnection.getPassword());
         savePasswordCheckbox.setSelected(existingConnection.isSavePassword());
+        queryTimeoutField.setText(existingConnection.getQueryTimeoutSeconds() > 0
+            ? String.valueOf(existingConnection.getQueryTimeoutSeconds()) : "");
+        maxConcurrentField.setText(String.valueOf(existingConnection.getMaxConcurrentQueries()));
+        cacheTtlField.setText(String.valueOf(existingConnection.getResultCacheTtlSeconds()));
+        resultMemoryField.setText(String.valueOf(existingConnection.getResultMemoryMb()));
 
         // Focus on the first field
         hostField.requestFocus();
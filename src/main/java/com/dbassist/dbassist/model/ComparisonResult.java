@@ -143,9 +143,22 @@ public class ComparisonResult {
             this.matched = areValuesEqual(sourceValue, targetValue);
         }
 
+        /**
+         * Comparison decided by the caller (large values compared by their full contents)
+         */
+        public CellComparison(String columnName, Object sourceValue, Object targetValue, boolean matched) {
+            this.columnName = columnName;
+            this.sourceValue = sourceValue;
+            this.targetValue = targetValue;
+            this.matched = matched;
+        }
+
         private boolean areValuesEqual(Object v1, Object v2) {
             if (v1 == null && v2 == null) return true;
             if (v1 == null || v2 == null) return false;
+            if (v1 instanceof LobHandle && v2 instanceof LobHandle) {
+                return ((LobHandle) v1).contentEquals((LobHandle) v2);
+            }
             return v1.toString().equals(v2.toString());
         }
 
@@ -1,6 +1,7 @@
 package com.dbassist.dbassist.model;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -12,12 +13,15 @@ public class DataTabConfig {
     private String tableName;
     private Map<String, String> columnFilters; // column name -> filter value
     private Map<String, Boolean> columnVisibility; // column name -> visible/hidden
+    private Map<String, Boolean> sortColumns; // column name -> ascending, in sort priority order
     private int maxRows = 1000;
+    private int filterDebounceMillis = 400; // Pause after typing before a filter runs, 0 = only on Enter
     private String customDisplayName; // Optional custom name for the tab
 
     public DataTabConfig() {
         this.columnFilters = new HashMap<>();
         this.columnVisibility = new HashMap<>();
+        this.sortColumns = new LinkedHashMap<>();
     }
 
     public DataTabConfig(String connectionName, String tableName) {
@@ -26,6 +30,7 @@ public class DataTabConfig {
         this.tabId = generateTabId(connectionName, tableName);
         this.columnFilters = new HashMap<>();
         this.columnVisibility = new HashMap<>();
+        this.sortColumns = new LinkedHashMap<>();
     }
 
     private String generateTabId(String connectionName, String tableName) {
@@ -93,6 +98,14 @@ public class DataTabConfig {
         return columnVisibility.getOrDefault(columnName, true); // Default to visible
     }
 
+    public Map<String, Boolean> getSortColumns() {
+        return sortColumns;
+    }
+
+    public void setSortColumns(Map<String, Boolean> sortColumns) {
+        this.sortColumns = new LinkedHashMap<>(sortColumns); // Order matters
+    }
+
     public int getMaxRows() {
         return maxRows;
     }
@@ -101,6 +114,14 @@ public class DataTabConfig {
         this.maxRows = maxRows;
     }
 
+    public int getFilterDebounceMillis() {
+        return filterDebounceMillis;
+    }
+
+    public void setFilterDebounceMillis(int filterDebounceMillis) {
+        this.filterDebounceMillis = filterDebounceMillis;
+    }
+
     public String getCustomDisplayName() {
         return customDisplayName;
     }
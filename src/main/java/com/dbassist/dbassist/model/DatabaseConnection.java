@@ -1,6 +1,10 @@
 package com.dbassist.dbassist.model;
 
 public class DatabaseConnection {
+    public static final int DEFAULT_MAX_CONCURRENT_QUERIES = 4;
+    public static final int DEFAULT_RESULT_CACHE_TTL_SECONDS = 60;
+    public static final int DEFAULT_RESULT_MEMORY_MB = 64;
+
     private String connectionName;
     private String databaseType;
     private String host;
@@ -9,6 +13,10 @@ public class DatabaseConnection {
     private String username;
     private String password;
     private boolean savePassword;
+    private int queryTimeoutSeconds; // Default timeout for queries on this connection, 0 = none
+    private int maxConcurrentQueries = DEFAULT_MAX_CONCURRENT_QUERIES; // Queries run at once, the rest queue
+    private int resultCacheTtlSeconds = DEFAULT_RESULT_CACHE_TTL_SECONDS; // How long browse results are reused, 0 = never
+    private int resultMemoryMb = DEFAULT_RESULT_MEMORY_MB; // Heap for one result's rows before the rest spill to disk
 
     public DatabaseConnection() {
     }
@@ -89,6 +97,38 @@ public class DatabaseConnection {
         this.savePassword = savePassword;
     }
 
+    public int getQueryTimeoutSeconds() {
+        return queryTimeoutSeconds;
+    }
+
+    public void setQueryTimeoutSeconds(int queryTimeoutSeconds) {
+        this.queryTimeoutSeconds = queryTimeoutSeconds;
+    }
+
+    public int getMaxConcurrentQueries() {
+        return maxConcurrentQueries;
+    }
+
+    public void setMaxConcurrentQueries(int maxConcurrentQueries) {
+        this.maxConcurrentQueries = maxConcurrentQueries;
+    }
+
+    public int getResultCacheTtlSeconds() {
+        return resultCacheTtlSeconds;
+    }
+
+    public void setResultCacheTtlSeconds(int resultCacheTtlSeconds) {
+        this.resultCacheTtlSeconds = resultCacheTtlSeconds;
+    }
+
+    public int getResultMemoryMb() {
+        return resultMemoryMb;
+    }
+
+    public void setResultMemoryMb(int resultMemoryMb) {
+        this.resultMemoryMb = resultMemoryMb;
+    }
+
     @Override
     public String toString() {
         return connectionName + " (" + databaseType + ")";
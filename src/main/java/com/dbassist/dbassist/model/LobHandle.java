@@ -0,0 +1,150 @@
+package com.dbassist.dbassist.model;
+
+import java.util.Map;
+
+/**
+ * Stands in for a large value (CLOB, BLOB, NVARCHAR(MAX), XML, ...) in a result row: its
+ * length and a short preview, plus where it came from so the full value can be fetched
+ * by key when the cell is opened.
+ */
+public class LobHandle {
+
+    private final String preview; // Start of the text, or hex of the first bytes
+    private final long length; // -1 if unknown
+    private final boolean binary;
+    private final boolean lengthInBytes;
+    private final boolean complete; // The preview is the whole value
+
+    // Source of the value; key is null when the row cannot be addressed (no primary key, worksheet query)
+    private String connectionName;
+    private String databaseType;
+    private String tableName;
+    private String columnName;
+    private Map<String, Object> key;
+
+    // Server-side hash of the full value, filled in for comparisons
+    private volatile String hash;
+
+    public LobHandle(String preview, long length, boolean binary, boolean lengthInBytes, boolean complete) {
+        this.preview = preview;
+        this.length = length;
+        this.binary = binary;
+        this.lengthInBytes = lengthInBytes;
+        this.complete = complete;
+    }
+
+    /**
+     * Record the table row the value belongs to, so it can be fetched again
+     */
+    public void setSource(String connectionName, String databaseType, String tableName, String columnName,
+                          Map<String, Object> key) {
+        this.connectionName = connectionName;
+        this.databaseType = databaseType;
+        this.tableName = tableName;
+        this.columnName = columnName;
+        this.key = key;
+    }
+
+    public String getPreview() {
+        return preview;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public boolean isBinary() {
+        return binary;
+    }
+
+    public boolean isLengthInBytes() {
+        return lengthInBytes;
+    }
+
+    public String getConnectionName() {
+        return connectionName;
+    }
+
+    public String getDatabaseType() {
+        return databaseType;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public String getColumnName() {
+        return columnName;
+    }
+
+    public Map<String, Object> getKey() {
+        return key;
+    }
+
+    /**
+     * True if the full value can be fetched from its table
+     */
+    public boolean hasKey() {
+        return key != null && tableName != null;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Compare by server-side hash when both sides have one from the same kind of database,
+     * otherwise by the previews if both hold the whole value. Without hashes, a truncated
+     * preview cannot prove the values equal, so it is reported as a difference; callers
+     * that can should compare the full values instead (see {@link #isDecidableWith}).
+     */
+    public boolean contentEquals(LobHandle other) {
+        boolean sameDialect = isSameDialect(other);
+        if (sameDialect && hash != null && other.hash != null) {
+            return hash.equals(other.hash);
+        }
+        if (sameDialect && lengthInBytes == other.lengthInBytes && length != other.length) {
+            return false;
+        }
+        if (!complete || !other.complete) {
+            return false;
+        }
+        return preview.equals(other.preview);
+    }
+
+    /**
+     * True if {@link #contentEquals} gives a definite answer for the pair: both hashed by the
+     * same kind of database, lengths that already differ, or both previews holding the whole value
+     */
+    public boolean isDecidableWith(LobHandle other) {
+        boolean sameDialect = isSameDialect(other);
+        return sameDialect && hash != null && other.hash != null
+            || sameDialect && lengthInBytes == other.lengthInBytes && length != other.length
+            || complete && other.complete;
+    }
+
+    private boolean isSameDialect(LobHandle other) {
+        return databaseType != null && databaseType.equals(other.databaseType);
+    }
+
+    public String describeLength() {
+        if (length < 0) return "size unknown";
+        if (!lengthInBytes) return String.format("%,d chars", length);
+        if (length < 1024) return length + " bytes";
+        if (length < 1024 * 1024) return String.format("%.1f KB", length / 1024.0);
+        return String.format("%.1f MB", length / (1024.0 * 1024.0));
+    }
+
+    @Override
+    public String toString() {
+        return isComplete() ? preview : preview + "… [" + describeLength() + "]";
+    }
+}
@@ -0,0 +1,294 @@
+package com.dbassist.dbassist.service;
+
+import com.dbassist.dbassist.model.LobHandle;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Per-column aggregates (count, nulls, sum, min, max, distinct count) over rows in memory.
+ * The rows are reduced in parallel: each split keeps its own small accumulators, which are
+ * merged at the end, while distinct counts go into one shared {@link HyperLogLog} per column.
+ * For aggregates over a whole table see {@link TableDataService#fetchAggregates}.
+ */
+public class AggregationService {
+
+    // Row count from which the reduction is split across cores
+    private static final int PARALLEL_THRESHOLD = 20_000;
+
+    /**
+     * Aggregates of one column. Sum is null for non-numeric columns, min/max null for values
+     * that cannot be ordered (large values, binary) or when every value is null, distinct
+     * -1 where it was not counted.
+     */
+    public static class ColumnAggregate {
+        private final long rows;
+        private final long nonNull;
+        private final Number sum;
+        private final Object min;
+        private final Object max;
+        private final long distinct;
+        private final boolean distinctEstimated;
+
+        public ColumnAggregate(long rows, long nonNull, Number sum, Object min, Object max,
+                               long distinct, boolean distinctEstimated) {
+            this.rows = rows;
+            this.nonNull = nonNull;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+            this.distinct = distinct;
+            this.distinctEstimated = distinctEstimated;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getNonNull() {
+            return nonNull;
+        }
+
+        public long getNulls() {
+            return rows - nonNull;
+        }
+
+        public Number getSum() {
+            return sum;
+        }
+
+        public Object getMin() {
+            return min;
+        }
+
+        public Object getMax() {
+            return max;
+        }
+
+        public long getDistinct() {
+            return distinct;
+        }
+
+        /**
+         * True if the distinct count is a sketch estimate (about 1% off) rather than exact
+         */
+        public boolean isDistinctEstimated() {
+            return distinctEstimated;
+        }
+    }
+
+    /**
+     * Aggregate the given columns over the rows. The rows must not change meanwhile; the task
+     * is checked between splits so a cancel stops the reduction early.
+     *
+     * @return column -> aggregates, in the order of {@code columns}
+     */
+    public static Map<String, ColumnAggregate> aggregate(List<Map<String, Object>> rows, List<String> columns,
+                                                         QueryTask task) throws java.sql.SQLException {
+        long start = System.currentTimeMillis();
+        String[] names = columns.toArray(new String[0]);
+        HyperLogLog[] sketches = new HyperLogLog[names.length];
+        for (int c = 0; c < names.length; c++) {
+            sketches[c] = new HyperLogLog();
+        }
+
+        IntStream indexes = IntStream.range(0, rows.size());
+        if (rows.size() >= PARALLEL_THRESHOLD) {
+            indexes = indexes.parallel();
+        }
+        Partial total;
+        try {
+            total = indexes.collect(
+                () -> new Partial(names, sketches, task),
+                (partial, index) -> partial.accept(rows.get(index)),
+                Partial::merge);
+        } catch (ComputationCancelledException e) {
+            throw new java.sql.SQLException("Cancelled by user");
+        }
+        task.checkCancelled();
+
+        Map<String, ColumnAggregate> aggregates = new LinkedHashMap<>();
+        for (int c = 0; c < names.length; c++) {
+            aggregates.put(names[c], total.accumulators[c].finish(rows.size(), sketches[c]));
+        }
+        System.out.println("Aggregated " + names.length + " columns over " + rows.size() + " rows in "
+            + (System.currentTimeMillis() - start) + " ms");
+        return aggregates;
+    }
+
+    /**
+     * Accumulators of all columns for one split of the rows
+     */
+    private static class Partial {
+        private final String[] names;
+        private final HyperLogLog[] sketches;
+        private final QueryTask task;
+        private final Accumulator[] accumulators;
+        private int sinceCheck = 0;
+
+        Partial(String[] names, HyperLogLog[] sketches, QueryTask task) {
+            this.names = names;
+            this.sketches = sketches;
+            this.task = task;
+            this.accumulators = new Accumulator[names.length];
+            for (int c = 0; c < names.length; c++) {
+                accumulators[c] = new Accumulator();
+            }
+        }
+
+        void accept(Map<String, Object> row) {
+            // Cancelled: skip the rest cheaply, the caller reports the cancel
+            if (++sinceCheck >= 4096) {
+                sinceCheck = 0;
+                if (task.isCancelled()) throw new ComputationCancelledException();
+            }
+            for (int c = 0; c < names.length; c++) {
+                Object value = row.get(names[c]);
+                if (value != null) {
+                    accumulators[c].add(value);
+                    sketches[c].addHash(HyperLogLog.hash(value));
+                }
+            }
+        }
+
+        void merge(Partial other) {
+            for (int c = 0; c < accumulators.length; c++) {
+                accumulators[c].merge(other.accumulators[c]);
+            }
+        }
+    }
+
+    /**
+     * Running count, sum and bounds of one column. Integers are summed in a long (spilling
+     * into a BigDecimal on overflow), decimals exactly, floating point values as doubles.
+     */
+    private static class Accumulator {
+        private long nonNull;
+        private boolean numeric = true;
+        private long longSum;
+        private BigDecimal decimalSum; // Decimals and long overflow, null if none
+        private double doubleSum;
+        private boolean hasDouble;
+        private boolean orderable = true;
+        private Object min;
+        private Object max;
+
+        void add(Object value) {
+            nonNull++;
+
+            if (numeric) {
+                if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+                    addLong(((Number) value).longValue());
+                } else if (value instanceof BigDecimal) {
+                    BigDecimal decimal = (BigDecimal) value;
+                    // Oracle returns every NUMBER as BigDecimal - keep whole ones on the long path
+                    if (decimal.scale() == 0 && decimal.precision() < 19) {
+                        addLong(decimal.longValue());
+                    } else {
+                        decimalSum = decimalSum == null ? decimal : decimalSum.add(decimal);
+                    }
+                } else if (value instanceof Double || value instanceof Float) {
+                    doubleSum += ((Number) value).doubleValue();
+                    hasDouble = true;
+                } else {
+                    numeric = false;
+                }
+            }
+
+            if (orderable) {
+                if (value instanceof LobHandle || value instanceof byte[] || !(value instanceof Comparable)) {
+                    orderable = false;
+                    min = max = null;
+                } else if (min == null) {
+                    min = max = value;
+                } else {
+                    if (compareValues(value, min) < 0) min = value;
+                    if (compareValues(value, max) > 0) max = value;
+                }
+            }
+        }
+
+        private void addLong(long value) {
+            long sum = longSum + value;
+            if (((longSum ^ sum) & (value ^ sum)) < 0) {
+                // Overflow - carry the current sum over into the decimal
+                decimalSum = (decimalSum == null ? BigDecimal.ZERO : decimalSum).add(BigDecimal.valueOf(longSum));
+                sum = value;
+            }
+            longSum = sum;
+        }
+
+        void merge(Accumulator other) {
+            nonNull += other.nonNull;
+            numeric &= other.numeric;
+            addLong(other.longSum);
+            if (other.decimalSum != null) {
+                decimalSum = decimalSum == null ? other.decimalSum : decimalSum.add(other.decimalSum);
+            }
+            doubleSum += other.doubleSum;
+            hasDouble |= other.hasDouble;
+
+            orderable &= other.orderable;
+            if (!orderable) {
+                min = max = null;
+            } else if (other.min != null) {
+                if (min == null || compareValues(other.min, min) < 0) min = other.min;
+                if (max == null || compareValues(other.max, max) > 0) max = other.max;
+            }
+        }
+
+        ColumnAggregate finish(long rows, HyperLogLog sketch) {
+            Number sum = null;
+            if (numeric && nonNull > 0) {
+                if (hasDouble) {
+                    sum = doubleSum + longSum + (decimalSum != null ? decimalSum.doubleValue() : 0);
+                } else if (decimalSum != null) {
+                    sum = decimalSum.add(BigDecimal.valueOf(longSum));
+                } else {
+                    sum = longSum;
+                }
+            }
+            long distinct = nonNull == 0 ? 0 : Math.min(sketch.estimate(), nonNull);
+            return new ColumnAggregate(rows, nonNull, sum, min, max, distinct, true);
+        }
+    }
+
+    /**
+     * Order of two values of one column: numbers by value across their types, other values
+     * by their natural order (text by character code - not the database collation)
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static int compareValues(Object a, Object b) {
+        if (a instanceof Number && b instanceof Number) {
+            if (a instanceof BigDecimal && b instanceof BigDecimal) {
+                return ((BigDecimal) a).compareTo((BigDecimal) b);
+            }
+            if (isIntegral(a) && isIntegral(b)) {
+                return Long.compare(((Number) a).longValue(), ((Number) b).longValue());
+            }
+            if ((a instanceof BigDecimal || b instanceof BigDecimal) && isFinite((Number) a) && isFinite((Number) b)) {
+                return toDecimal((Number) a).compareTo(toDecimal((Number) b));
+            }
+            return Double.compare(((Number) a).doubleValue(), ((Number) b).doubleValue());
+        }
+        if (a.getClass() == b.getClass()) {
+            return ((Comparable) a).compareTo(b);
+        }
+        return a.toString().compareTo(b.toString());
+    }
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+    }
+
+    private static boolean isFinite(Number value) {
+        return !(value instanceof Double || value instanceof Float) || Double.isFinite(value.doubleValue());
+    }
+
+    private static BigDecimal toDecimal(Number value) {
+        if (value instanceof BigDecimal) return (BigDecimal) value;
+        if (isIntegral(value)) return BigDecimal.valueOf(value.longValue());
+        return new BigDecimal(value.toString());
+    }
+}
@@ -0,0 +1,248 @@
+package com.dbassist.dbassist.service;
+
+import com.dbassist.dbassist.model.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a few idle JDBC sessions per connection for table browsing, each with a small LRU
+ * of prepared statements. Re-running a grid query with different bind values then skips
+ * the login and reuses the statement already prepared on the server, instead of preparing
+ * (and planning) a fresh one every time.
+ *
+ * Every session is stamped with its connection's generation, which moves on whenever the
+ * connection is edited or removed; a session from an older generation is closed when it is
+ * handed back, so nothing keeps running against the old host or credentials.
+ */
+public class BrowseSessionPool implements ConnectionEventManager.ConnectionChangeListener {
+
+    // Idle sessions kept per connection - a DBA-friendly handful, not a full pool
+    private static final int MAX_IDLE_SESSIONS = 2;
+
+    // Prepared statements cached per session
+    private static final int MAX_STATEMENTS_PER_SESSION = 32;
+
+    // Idle sessions older than this are closed instead of reused
+    private static final long IDLE_TIMEOUT_MILLIS = 5 * 60 * 1000;
+
+    // How often expired idle sessions are swept, so they do not wait for the next acquire
+    private static final long SWEEP_INTERVAL_MILLIS = 60 * 1000;
+
+    /**
+     * One pooled JDBC session and its prepared statements. Used by one thread at a time.
+     */
+    public static class Session {
+        private final Connection connection;
+        private final long generation;
+        private final LinkedHashMap<String, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+        private long lastUsed = System.currentTimeMillis();
+
+        Session(Connection connection, long generation) {
+            this.connection = connection;
+            this.generation = generation;
+        }
+
+        public Connection getConnection() {
+            return connection;
+        }
+
+        /**
+         * Cached statement for {@code sql}, prepared on first use
+         */
+        public PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement statement = statements.get(sql);
+            if (statement != null && !statement.isClosed()) {
+                statement.clearParameters();
+                getInstance().reused.incrementAndGet();
+                return statement;
+            }
+
+            statement = connection.prepareStatement(sql);
+            statements.put(sql, statement);
+            getInstance().prepared.incrementAndGet();
+
+            if (statements.size() > MAX_STATEMENTS_PER_SESSION) {
+                Iterator<PreparedStatement> eldest = statements.values().iterator();
+                closeQuietly(eldest.next());
+                eldest.remove();
+            }
+            return statement;
+        }
+
+        private void close() {
+            for (PreparedStatement statement : statements.values()) {
+                closeQuietly(statement);
+            }
+            statements.clear();
+            closeQuietly(connection);
+        }
+    }
+
+    private static BrowseSessionPool instance;
+
+    // Guarded by this; sessions are only ever closed outside the lock
+    private final Map<String, Deque<Session>> idleSessions = new HashMap<>();
+    private final Map<String, Long> generations = new HashMap<>();
+    private final AtomicLong prepared = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+    private final ScheduledExecutorService sweeper;
+
+    private BrowseSessionPool() {
+        ConnectionEventManager.getInstance().addListener(this);
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "browse-session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::closeExpired, SWEEP_INTERVAL_MILLIS, SWEEP_INTERVAL_MILLIS,
+                                       TimeUnit.MILLISECONDS);
+    }
+
+    public static synchronized BrowseSessionPool getInstance() {
+        if (instance == null) {
+            instance = new BrowseSessionPool();
+        }
+        return instance;
+    }
+
+    /**
+     * An idle session for the connection, or a new one
+     */
+    public Session acquire(DatabaseConnection dbConnection) throws SQLException {
+        String connectionName = dbConnection.getConnectionName();
+        long generation;
+
+        while (true) {
+            Session session;
+            synchronized (this) {
+                generation = generations.getOrDefault(connectionName, 0L);
+                Deque<Session> idle = idleSessions.get(connectionName);
+                session = idle != null ? idle.pollFirst() : null;
+            }
+            if (session == null) break;
+
+            if (!isExpired(session, System.currentTimeMillis()) && !session.connection.isClosed()) {
+                return session;
+            }
+            session.close();
+        }
+
+        // Stamped with the generation read before connecting: if the connection is edited
+        // meanwhile, this session is already stale and will not be pooled
+        return new Session(ConnectionService.createConnection(dbConnection, FetchSizeAdvisor.UseCase.GRID_PAGE),
+                           generation);
+    }
+
+    /**
+     * Hand a session back. Sessions that saw an error or a cancel are closed, not reused.
+     */
+    public void release(DatabaseConnection dbConnection, Session session, boolean reusable) {
+        if (session == null) return;
+
+        if (reusable) {
+            String connectionName = dbConnection.getConnectionName();
+            session.lastUsed = System.currentTimeMillis();
+            synchronized (this) {
+                // A session from before the connection was edited or removed is not kept
+                if (session.generation == generations.getOrDefault(connectionName, 0L)) {
+                    Deque<Session> idle = idleSessions.computeIfAbsent(connectionName, k -> new ArrayDeque<>());
+                    if (idle.size() < MAX_IDLE_SESSIONS) {
+                        idle.addFirst(session);
+                        return;
+                    }
+                }
+            }
+        }
+        session.close();
+    }
+
+    /**
+     * Close the idle sessions of a connection. Sessions still in use are closed when they are
+     * released, instead of going back to the pool.
+     */
+    public void closeIdle(String connectionName) {
+        Deque<Session> idle;
+        synchronized (this) {
+            generations.merge(connectionName, 1L, Long::sum);
+            idle = idleSessions.remove(connectionName);
+        }
+        if (idle != null) {
+            idle.forEach(Session::close);
+        }
+    }
+
+    /**
+     * Close every idle session (application exit)
+     */
+    public void closeAll() {
+        sweeper.shutdownNow();
+        List<String> connectionNames;
+        synchronized (this) {
+            connectionNames = new ArrayList<>(idleSessions.keySet());
+        }
+        connectionNames.forEach(this::closeIdle);
+    }
+
+    /**
+     * Close idle sessions past the idle timeout (run periodically by the sweeper)
+     */
+    private void closeExpired() {
+        long now = System.currentTimeMillis();
+        List<Session> expired = new ArrayList<>();
+        synchronized (this) {
+            for (Deque<Session> idle : idleSessions.values()) {
+                for (Iterator<Session> it = idle.iterator(); it.hasNext(); ) {
+                    Session session = it.next();
+                    if (isExpired(session, now)) {
+                        expired.add(session);
+                        it.remove();
+                    }
+                }
+            }
+        }
+        expired.forEach(Session::close);
+    }
+
+    private static boolean isExpired(Session session, long now) {
+        return now - session.lastUsed >= IDLE_TIMEOUT_MILLIS;
+    }
+
+    public long getPreparedCount() {
+        return prepared.get();
+    }
+
+    public long getReusedCount() {
+        return reused.get();
+    }
+
+    @Override
+    public void onConnectionAdded(String connectionName) {
+        // Sessions are opened on demand
+    }
+
+    @Override
+    public void onConnectionRemoved(String connectionName) {
+        closeIdle(connectionName);
+    }
+
+    @Override
+    public void onConnectionUpdated(String connectionName) {
+        // Credentials or host may have changed
+        closeIdle(connectionName);
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            System.err.println("Error closing browse session resource: " + e.getMessage());
+        }
+    }
+}
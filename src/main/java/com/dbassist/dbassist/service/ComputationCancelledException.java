@@ -0,0 +1,14 @@
+package com.dbassist.dbassist.service;
+
+/**
+ * Thrown from inside a parallel in-memory computation (aggregates, group by) to unwind it
+ * once its task is cancelled; the service catches it and reports the cancel to its caller.
+ */
+class ComputationCancelledException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    ComputationCancelledException() {
+        super("Cancelled by user", null, false, false);
+    }
+}
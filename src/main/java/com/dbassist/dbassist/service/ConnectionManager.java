@@ -139,7 +139,7 @@ public class ConnectionManager {
      * Serialize connection to string (simple format)
      */
     private String serializeConnection(DatabaseConnection conn) {
-        // Format: name|type|host|port|dbname|username|password|savePassword
+        // Format: name|type|host|port|dbname|username|password|savePassword|queryTimeoutSeconds|maxConcurrentQueries|resultCacheTtlSeconds|resultMemoryMb
         StringBuilder sb = new StringBuilder();
         sb.append(encode(conn.getConnectionName())).append("|");
         sb.append(encode(conn.getDatabaseType())).append("|");
@@ -154,6 +154,14 @@ public class ConnectionManager {
         }
         sb.append("|");
         sb.append(conn.isSavePassword());
+        sb.append("|");
+        sb.append(conn.getQueryTimeoutSeconds());
+        sb.append("|");
+        sb.append(conn.getMaxConcurrentQueries());
+        sb.append("|");
+        sb.append(conn.getResultCacheTtlSeconds());
+        sb.append("|");
+        sb.append(conn.getResultMemoryMb());
 
         return sb.toString();
     }
@@ -180,6 +188,20 @@ public class ConnectionManager {
 
             conn.setSavePassword(Boolean.parseBoolean(parts[7]));
 
+            // Query timeout was added later - older files have 8 fields
+            if (parts.length > 8) {
+                conn.setQueryTimeoutSeconds(Integer.parseInt(parts[8]));
+            }
+            if (parts.length > 9) {
+                conn.setMaxConcurrentQueries(Integer.parseInt(parts[9]));
+            }
+            if (parts.length > 10) {
+                conn.setResultCacheTtlSeconds(Integer.parseInt(parts[10]));
+            }
+            if (parts.length > 11) {
+                conn.setResultMemoryMb(Integer.parseInt(parts[11]));
+            }
+
             return conn;
         } catch (Exception e) {
             System.err.println("Error deserializing connection: " + e.getMessage());
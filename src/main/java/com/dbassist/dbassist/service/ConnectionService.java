@@ -42,6 +42,13 @@ public class ConnectionService {
      * Create database connection
      */
     public static Connection createConnection(DatabaseConnection dbConnection) throws SQLException {
+        return createConnection(dbConnection, FetchSizeAdvisor.UseCase.GRID_PAGE);
+    }
+
+    /**
+     * Create database connection with the driver's streaming settings for {@code useCase}
+     */
+    public static Connection createConnection(DatabaseConnection dbConnection, FetchSizeAdvisor.UseCase useCase) throws SQLException {
         String jdbcUrl = buildJdbcUrl(dbConnection);
 
         try {
@@ -50,8 +57,7 @@ public class ConnectionService {
 
             return DriverManager.getConnection(
                 jdbcUrl,
-                dbConnection.getUsername(),
-                dbConnection.getPassword()
+                FetchSizeAdvisor.getInstance().driverProperties(dbConnection, useCase)
             );
         } catch (ClassNotFoundException e) {
             throw new SQLException("JDBC Driver not found: " + e.getMessage());
@@ -2,15 +2,117 @@ package com.dbassist.dbassist.service;
 
 import com.dbassist.dbassist.model.ComparisonResult;
 import com.dbassist.dbassist.model.ComparisonResult.*;
+import com.dbassist.dbassist.model.DatabaseConnection;
+import com.dbassist.dbassist.model.LobHandle;
 import javafx.collections.ObservableList;
 
+import java.sql.SQLException;
 import java.util.*;
 
 /**
- * Service for comparing table data between two sources
+ * Service for comparing table data between two sources.
+ * Rows are looked up by index rather than held, so results spilled to disk
+ * ({@link ResultStore}) are read back a block at a time.
  */
 public class DataComparisonService {
 
+    /**
+     * Ask each LOB's database for hashes of the compared LOB columns, one batch of keys per
+     * table column. The hashes are also returned by value, since rows read back from a spill
+     * file are new copies.
+     *
+     * @param hashes filled with LOB source (see {@link #lobKey}) -> hash
+     */
+    private static void resolveLobHashes(List<Map<String, Object>> rows, List<String> columns, Map<String, String> hashes,
+                                         QueryTask task) throws SQLException {
+        // connection + table + column -> handles
+        Map<String, List<LobHandle>> handlesByColumn = new LinkedHashMap<>();
+        for (Map<String, Object> row : rows) {
+            for (String column : columns) {
+                Object value = row.get(column);
+                if (value instanceof LobHandle && ((LobHandle) value).hasKey()) {
+                    LobHandle handle = (LobHandle) value;
+                    String key = handle.getConnectionName() + "\u0000" + handle.getTableName() + "\u0000" + handle.getColumnName();
+                    handlesByColumn.computeIfAbsent(key, k -> new ArrayList<>()).add(handle);
+                }
+            }
+        }
+
+        for (List<LobHandle> handles : handlesByColumn.values()) {
+            LobHandle first = handles.get(0);
+            DatabaseConnection dbConnection = ConnectionManager.getInstance().getConnectionByName(first.getConnectionName());
+            if (dbConnection == null) continue;
+
+            int hashed = TableDataService.fetchLobHashes(dbConnection, first.getTableName(), first.getColumnName(), handles, task);
+            task.checkCancelled();
+            System.out.println("Hashed " + hashed + " values of " + first.getTableName() + "." + first.getColumnName());
+            for (LobHandle handle : handles) {
+                if (handle.getHash() != null) {
+                    hashes.put(lobKey(handle), handle.getHash());
+                }
+            }
+        }
+    }
+
+    /**
+     * Compare two large values the hashes and previews could not decide (different kinds of
+     * database, no hash function available) by their full contents, read by key. A value
+     * that cannot be read whole counts as a difference.
+     */
+    private static boolean fullValuesEqual(LobHandle source, LobHandle target, QueryTask task) throws SQLException {
+        Object sourceValue = fetchFullValue(source, task);
+        Object targetValue = fetchFullValue(target, task);
+        if (sourceValue == null || targetValue == null) return false;
+        if (sourceValue instanceof byte[] && targetValue instanceof byte[]) {
+            return Arrays.equals((byte[]) sourceValue, (byte[]) targetValue);
+        }
+        return sourceValue.equals(targetValue);
+    }
+
+    /**
+     * The whole value behind a handle, or null if it cannot be read whole
+     */
+    private static Object fetchFullValue(LobHandle handle, QueryTask task) throws SQLException {
+        if (!handle.hasKey()) return null;
+        DatabaseConnection dbConnection = ConnectionManager.getInstance().getConnectionByName(handle.getConnectionName());
+        if (dbConnection == null) return null;
+
+        Object value;
+        try {
+            value = TableDataService.fetchLobValue(dbConnection, handle, task);
+        } catch (SQLException e) {
+            task.checkCancelled();
+            System.err.println("Could not read " + handle.getTableName() + "." + handle.getColumnName()
+                + " to compare: " + e.getMessage());
+            return null;
+        }
+        // Reads stop at the viewer's limits; a value cut there is not whole
+        if (value instanceof String && ((String) value).length() >= TableDataService.MAX_LOB_OPEN_CHARS) return null;
+        if (value instanceof byte[] && ((byte[]) value).length >= TableDataService.MAX_LOB_OPEN_BYTES) return null;
+        return value;
+    }
+
+    private static String lobKey(LobHandle handle) {
+        return handle.getConnectionName() + "\u0000" + handle.getTableName() + "\u0000" + handle.getColumnName()
+            + "\u0000" + handle.getKey();
+    }
+
+    /**
+     * A row of the compared data, with LOB hashes restored if it was read back from disk
+     */
+    private static Map<String, Object> getRow(List<Map<String, Object>> data, Integer index, Map<String, String> hashes) {
+        if (index == null) return null;
+        Map<String, Object> row = data.get(index);
+        if (!hashes.isEmpty()) {
+            for (Object value : row.values()) {
+                if (value instanceof LobHandle && ((LobHandle) value).getHash() == null && ((LobHandle) value).hasKey()) {
+                    ((LobHandle) value).setHash(hashes.get(lobKey((LobHandle) value)));
+                }
+            }
+        }
+        return row;
+    }
+
     /**
      * Compare data from two sources
      *
@@ -21,7 +123,9 @@ public class DataComparisonService {
      * @param targetData Target data rows
      * @param visibleColumns List of visible columns to compare
      * @param primaryKeyColumns List of primary key columns for row identification
+     * @param task Task of the comparison; cancelling it stops the large value reads
      * @return ComparisonResult with detailed comparison
+     * @throws SQLException if the comparison was cancelled
      */
     public static ComparisonResult compareData(
             String tableName,
@@ -30,7 +134,8 @@ public class DataComparisonService {
             ObservableList<Map<String, Object>> sourceData,
             ObservableList<Map<String, Object>> targetData,
             List<String> visibleColumns,
-            List<String> primaryKeyColumns) {
+            List<String> primaryKeyColumns,
+            QueryTask task) throws SQLException {
 
         ComparisonResult result = new ComparisonResult();
         result.setTableName(tableName);
@@ -39,11 +144,17 @@ public class DataComparisonService {
         result.setCommonColumns(visibleColumns);
         result.setPrimaryKeyColumns(primaryKeyColumns);
 
+        // Large values are compared by server-side hash where possible, by their contents otherwise
+        Map<String, String> lobHashes = new HashMap<>();
+        resolveLobHashes(sourceData, visibleColumns, lobHashes, task);
+        resolveLobHashes(targetData, visibleColumns, lobHashes, task);
+
         // Build maps for quick lookup by primary key
-        Map<String, Map<String, Object>> sourceMap = buildPKMap(sourceData, primaryKeyColumns);
-        Map<String, Map<String, Object>> targetMap = buildPKMap(targetData, primaryKeyColumns);
+        Map<String, Integer> sourceMap = buildPKMap(sourceData, primaryKeyColumns);
+        Map<String, Integer> targetMap = buildPKMap(targetData, primaryKeyColumns);
 
-        Set<String> allPKs = new HashSet<>();
+        // In row order, so rows read back from disk are mostly found in blocks already decoded
+        Set<String> allPKs = new LinkedHashSet<>();
         allPKs.addAll(sourceMap.keySet());
         allPKs.addAll(targetMap.keySet());
 
@@ -55,8 +166,8 @@ public class DataComparisonService {
 
         // Compare each row
         for (String pkKey : allPKs) {
-            Map<String, Object> sourceRow = sourceMap.get(pkKey);
-            Map<String, Object> targetRow = targetMap.get(pkKey);
+            Map<String, Object> sourceRow = getRow(sourceData, sourceMap.get(pkKey), lobHashes);
+            Map<String, Object> targetRow = getRow(targetData, targetMap.get(pkKey), lobHashes);
 
             ComparisonRow compRow = new ComparisonRow();
             compRow.setPrimaryKeyValues(extractPKValues(sourceRow != null ? sourceRow : targetRow, primaryKeyColumns));
@@ -70,7 +181,14 @@ public class DataComparisonService {
                     Object sourceValue = sourceRow.get(column);
                     Object targetValue = targetRow.get(column);
 
-                    CellComparison cellComp = new CellComparison(column, sourceValue, targetValue);
+                    CellComparison cellComp;
+                    if (sourceValue instanceof LobHandle && targetValue instanceof LobHandle
+                            && !((LobHandle) sourceValue).isDecidableWith((LobHandle) targetValue)) {
+                        cellComp = new CellComparison(column, sourceValue, targetValue,
+                            fullValuesEqual((LobHandle) sourceValue, (LobHandle) targetValue, task));
+                    } else {
+                        cellComp = new CellComparison(column, sourceValue, targetValue);
+                    }
                     cellComparisons.put(column, cellComp);
 
                     if (!cellComp.isMatched()) {
@@ -128,17 +246,18 @@ public class DataComparisonService {
     }
 
     /**
-     * Build a map of rows keyed by primary key composite
+     * Build a map of row indexes keyed by primary key composite
      */
-    private static Map<String, Map<String, Object>> buildPKMap(
+    private static Map<String, Integer> buildPKMap(
             ObservableList<Map<String, Object>> data,
             List<String> primaryKeyColumns) {
 
-        Map<String, Map<String, Object>> map = new HashMap<>();
+        Map<String, Integer> map = new LinkedHashMap<>();
 
+        int index = 0;
         for (Map<String, Object> row : data) {
             String pkKey = buildPKKey(row, primaryKeyColumns);
-            map.put(pkKey, row);
+            map.put(pkKey, index++);
         }
 
         return map;
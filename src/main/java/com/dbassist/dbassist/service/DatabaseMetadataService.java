@@ -6,8 +6,11 @@ import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service to fetch database metadata (tables, views, procedures, etc.)
@@ -18,9 +21,16 @@ public class DatabaseMetadataService {
      * Get list of all tables in the database
      */
     public static List<String> getTables(DatabaseConnection dbConnection) {
+        return getTables(dbConnection, null);
+    }
+
+    /**
+     * Get list of all tables in the database; the lookup can be stopped through {@code task}
+     */
+    public static List<String> getTables(DatabaseConnection dbConnection, QueryTask task) {
         List<String> tables = new ArrayList<>();
 
-        try (Connection conn = ConnectionService.createConnection(dbConnection)) {
+        try (Connection conn = openConnection(dbConnection, task)) {
             DatabaseMetaData metaData = conn.getMetaData();
 
             // Get tables for the specific database
@@ -57,9 +67,16 @@ public class DatabaseMetadataService {
      * Get list of all views in the database
      */
     public static List<String> getViews(DatabaseConnection dbConnection) {
+        return getViews(dbConnection, null);
+    }
+
+    /**
+     * Get list of all views in the database; the lookup can be stopped through {@code task}
+     */
+    public static List<String> getViews(DatabaseConnection dbConnection, QueryTask task) {
         List<String> views = new ArrayList<>();
 
-        try (Connection conn = ConnectionService.createConnection(dbConnection)) {
+        try (Connection conn = openConnection(dbConnection, task)) {
             DatabaseMetaData metaData = conn.getMetaData();
 
             String catalog = dbConnection.getDatabaseName();
@@ -91,9 +108,16 @@ public class DatabaseMetadataService {
      * Get list of all stored procedures in the database
      */
     public static List<String> getProcedures(DatabaseConnection dbConnection) {
+        return getProcedures(dbConnection, null);
+    }
+
+    /**
+     * Get list of all stored procedures in the database; the lookup can be stopped through {@code task}
+     */
+    public static List<String> getProcedures(DatabaseConnection dbConnection, QueryTask task) {
         List<String> procedures = new ArrayList<>();
 
-        try (Connection conn = ConnectionService.createConnection(dbConnection)) {
+        try (Connection conn = openConnection(dbConnection, task)) {
             DatabaseMetaData metaData = conn.getMetaData();
 
             String catalog = dbConnection.getDatabaseName();
@@ -125,9 +149,16 @@ public class DatabaseMetadataService {
      * Get list of all functions in the database
      */
     public static List<String> getFunctions(DatabaseConnection dbConnection) {
+        return getFunctions(dbConnection, null);
+    }
+
+    /**
+     * Get list of all functions in the database; the lookup can be stopped through {@code task}
+     */
+    public static List<String> getFunctions(DatabaseConnection dbConnection, QueryTask task) {
         List<String> functions = new ArrayList<>();
 
-        try (Connection conn = ConnectionService.createConnection(dbConnection)) {
+        try (Connection conn = openConnection(dbConnection, task)) {
             DatabaseMetaData metaData = conn.getMetaData();
 
             String catalog = dbConnection.getDatabaseName();
@@ -174,9 +205,16 @@ public class DatabaseMetadataService {
      * Returns list of formatted strings: "columnName (dataType, length)"
      */
     public static List<String> getTableColumns(DatabaseConnection dbConnection, String tableName) {
+        return getTableColumns(dbConnection, tableName, null);
+    }
+
+    /**
+     * Get columns for a specific table; the lookup can be stopped through {@code task}
+     */
+    public static List<String> getTableColumns(DatabaseConnection dbConnection, String tableName, QueryTask task) {
         List<String> columns = new ArrayList<>();
 
-        try (Connection conn = ConnectionService.createConnection(dbConnection)) {
+        try (Connection conn = openConnection(dbConnection, task)) {
             DatabaseMetaData metaData = conn.getMetaData();
 
             String catalog = dbConnection.getDatabaseName();
@@ -234,6 +272,136 @@ public class DatabaseMetadataService {
         return columns;
     }
 
+    /**
+     * Catalog type of a column: its java.sql.Types type, the database's own type name and
+     * its declared size (length for character columns)
+     */
+    public static class ColumnType {
+        private final int sqlType;
+        private final String typeName;
+        private final int size;
+
+        public ColumnType(int sqlType, String typeName, int size) {
+            this.sqlType = sqlType;
+            this.typeName = typeName;
+            this.size = size;
+        }
+
+        public int getSqlType() {
+            return sqlType;
+        }
+
+        public String getTypeName() {
+            return typeName;
+        }
+
+        public int getSize() {
+            return size;
+        }
+    }
+
+    /**
+     * Get the type of each column of a table, on an already open connection
+     * Returns map of column name -> type in ordinal order. (MAX) columns are reported as
+     * their LONG equivalent, so callers can tell them from bounded VARCHARs.
+     */
+    public static Map<String, ColumnType> getColumnTypes(Connection conn, DatabaseConnection dbConnection,
+                                                         String tableName) throws SQLException {
+        Map<String, ColumnType> columnTypes = new LinkedHashMap<>();
+
+        String catalog = dbConnection.getDatabaseName();
+        String schemaPattern = null;
+
+        if ("SQL Server".equals(dbConnection.getDatabaseType())) {
+            schemaPattern = "dbo";
+        } else if ("Oracle".equals(dbConnection.getDatabaseType())) {
+            schemaPattern = dbConnection.getUsername().toUpperCase();
+        }
+
+        try (ResultSet rs = conn.getMetaData().getColumns(catalog, schemaPattern, tableName, "%")) {
+            while (rs.next()) {
+                int dataType = rs.getInt("DATA_TYPE");
+                int columnSize = rs.getInt("COLUMN_SIZE");
+                if (LobReader.isLob(dataType, columnSize)) {
+                    if (dataType == Types.VARCHAR) dataType = Types.LONGVARCHAR;
+                    if (dataType == Types.NVARCHAR) dataType = Types.LONGNVARCHAR;
+                    if (dataType == Types.VARBINARY) dataType = Types.LONGVARBINARY;
+                }
+                columnTypes.put(rs.getString("COLUMN_NAME"), new ColumnType(dataType, rs.getString("TYPE_NAME"), columnSize));
+            }
+        }
+
+        return columnTypes;
+    }
+
+    /**
+     * Get the primary key columns of a table in key order, on an already open connection
+     */
+    public static List<String> getPrimaryKeyColumns(Connection conn, DatabaseConnection dbConnection,
+                                                    String tableName) throws SQLException {
+        String catalog = dbConnection.getDatabaseName();
+        String schemaPattern = null;
+
+        if ("SQL Server".equals(dbConnection.getDatabaseType())) {
+            schemaPattern = "dbo";
+        } else if ("Oracle".equals(dbConnection.getDatabaseType())) {
+            schemaPattern = dbConnection.getUsername().toUpperCase();
+        }
+
+        Map<Integer, String> keyColumns = new java.util.TreeMap<>();
+        try (ResultSet rs = conn.getMetaData().getPrimaryKeys(catalog, schemaPattern, tableName)) {
+            while (rs.next()) {
+                keyColumns.put(rs.getInt("KEY_SEQ"), rs.getString("COLUMN_NAME"));
+            }
+        }
+
+        return new ArrayList<>(keyColumns.values());
+    }
+
+    /**
+     * Get column names of every table in one metadata round trip
+     * Returns map of table name -> column names in ordinal order
+     */
+    public static Map<String, List<String>> getAllTableColumns(DatabaseConnection dbConnection) {
+        Map<String, List<String>> columnsByTable = new LinkedHashMap<>();
+
+        try (Connection conn = openConnection(dbConnection, null)) {
+            DatabaseMetaData metaData = conn.getMetaData();
+
+            String catalog = dbConnection.getDatabaseName();
+            String schemaPattern = null;
+
+            if ("SQL Server".equals(dbConnection.getDatabaseType())) {
+                schemaPattern = "dbo";
+            } else if ("Oracle".equals(dbConnection.getDatabaseType())) {
+                schemaPattern = dbConnection.getUsername().toUpperCase();
+            }
+
+            ResultSet rs = metaData.getColumns(catalog, schemaPattern, "%", "%");
+
+            while (rs.next()) {
+                String tableName = rs.getString("TABLE_NAME");
+                String columnName = rs.getString("COLUMN_NAME");
+                columnsByTable.computeIfAbsent(tableName, k -> new ArrayList<>()).add(columnName);
+            }
+
+            rs.close();
+
+        } catch (SQLException e) {
+            System.err.println("Error fetching columns: " + e.getMessage());
+        }
+
+        return columnsByTable;
+    }
+
+    /**
+     * Open a connection, registering it with the task (if any) so a cancel aborts it
+     */
+    private static Connection openConnection(DatabaseConnection dbConnection, QueryTask task) throws SQLException {
+        Connection conn = ConnectionService.createConnection(dbConnection);
+        return task != null ? task.register(conn) : conn;
+    }
+
     /**
      * Check if data type needs size specification
      */
@@ -0,0 +1,181 @@
+package com.dbassist.dbassist.service;
+
+import com.dbassist.dbassist.model.DatabaseConnection;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Picks JDBC fetch sizes and driver streaming settings per use case.
+ * Drivers default to tiny batches (Oracle thin fetches 10 rows per round trip), so a 1000
+ * row grid load costs 100 round trips. The advisor sizes each batch to a byte budget for
+ * the use case, using the row width observed on earlier reads of the same source, and
+ * reads more rows per batch on connections whose round trips were measured to be slow.
+ */
+public class FetchSizeAdvisor {
+
+    /**
+     * How a result is read
+     */
+    public enum UseCase {
+        GRID_PAGE(1024 * 1024),      // Table browse: up to max rows, read at once
+        CURSOR(256 * 1024),          // Worksheet result kept open and read page by page
+        BULK(4 * 1024 * 1024);       // Script results drained completely
+
+        private final int bytesPerRoundTrip;
+
+        UseCase(int bytesPerRoundTrip) {
+            this.bytesPerRoundTrip = bytesPerRoundTrip;
+        }
+    }
+
+    private static final int MIN_FETCH_SIZE = 50;
+    private static final int MAX_FETCH_SIZE = 10_000;
+
+    // Upper bound for Oracle's connection-wide prefetch, and for statements of unknown columns
+    private static final int ORACLE_MAX_DEFAULT_PREFETCH = 500;
+
+    // Oracle thin sizes its fetch buffers by declared column widths times the fetch size,
+    // whatever the values hold; this bounds that allocation per statement
+    private static final long ORACLE_FETCH_BUFFER_BYTES = 16 * 1024 * 1024;
+
+    // Row width assumed until a source has been read once
+    private static final int DEFAULT_ROW_BYTES = 256;
+
+    // Weight of a new observation in the moving averages
+    private static final double ALPHA = 0.3;
+
+    private static FetchSizeAdvisor instance;
+
+    // connection + source -> average row width in bytes (estimated)
+    private final Map<String, Double> rowBytes = new ConcurrentHashMap<>();
+    // connection -> average millis per fetch round trip
+    private final Map<String, Double> roundTripMillis = new ConcurrentHashMap<>();
+
+    private FetchSizeAdvisor() {
+    }
+
+    public static synchronized FetchSizeAdvisor getInstance() {
+        if (instance == null) {
+            instance = new FetchSizeAdvisor();
+        }
+        return instance;
+    }
+
+    /**
+     * Fetch size for reading {@code source} (a table name, or null if unknown)
+     *
+     * @param rowsWanted rows the caller will read at most, 0 if unbounded
+     */
+    public int advise(DatabaseConnection dbConnection, UseCase useCase, String source, int rowsWanted) {
+        return advise(dbConnection, useCase, source, rowsWanted, 0);
+    }
+
+    /**
+     * Fetch size for reading {@code source} (a table name, or null if unknown)
+     *
+     * @param rowsWanted       rows the caller will read at most, 0 if unbounded
+     * @param declaredRowBytes row width from the declared column sizes (see {@link #declaredBytes}),
+     *                         0 if unknown; bounds Oracle's fetch buffers
+     */
+    public int advise(DatabaseConnection dbConnection, UseCase useCase, String source, int rowsWanted,
+                      long declaredRowBytes) {
+        double width = source != null
+            ? rowBytes.getOrDefault(key(dbConnection, source), (double) DEFAULT_ROW_BYTES)
+            : DEFAULT_ROW_BYTES;
+
+        // Fewer, bigger batches when every round trip is expensive
+        double latency = roundTripMillis.getOrDefault(dbConnection.getConnectionName(), 0.0);
+        int latencyFactor = latency >= 50 ? 4 : latency >= 10 ? 2 : 1;
+
+        long size = (long) (useCase.bytesPerRoundTrip / Math.max(width, 16)) * latencyFactor;
+        int cap = rowsWanted > 0 ? Math.min(rowsWanted, MAX_FETCH_SIZE) : MAX_FETCH_SIZE;
+        if ("Oracle".equals(dbConnection.getDatabaseType())) {
+            // The measured width says nothing about the buffers the driver allocates
+            int oracleCap = declaredRowBytes > 0
+                ? (int) Math.max(1, Math.min(MAX_FETCH_SIZE, ORACLE_FETCH_BUFFER_BYTES / declaredRowBytes))
+                : ORACLE_MAX_DEFAULT_PREFETCH;
+            cap = Math.min(cap, oracleCap);
+        }
+        return (int) Math.max(Math.min(size, cap), Math.min(MIN_FETCH_SIZE, cap));
+    }
+
+    /**
+     * Bytes a driver reserves per row for a column of the given java.sql.Types type and
+     * declared size: characters at two bytes each, LOBs as their locator
+     */
+    public static long declaredBytes(int sqlType, int size) {
+        if (LobReader.isLob(sqlType, size)) return 100;
+        switch (sqlType) {
+            case java.sql.Types.CHAR:
+            case java.sql.Types.VARCHAR:
+            case java.sql.Types.NCHAR:
+            case java.sql.Types.NVARCHAR:
+                return 2L * Math.max(size, 1);
+            case java.sql.Types.BINARY:
+            case java.sql.Types.VARBINARY:
+                return Math.max(size, 1);
+            default:
+                return 22; // Oracle NUMBER at its widest; dates and timestamps are smaller
+        }
+    }
+
+    /**
+     * Feed back a completed read, so later reads of the same source are sized to its rows
+     *
+     * @param bytes      estimated size of the rows read
+     * @param readMillis time spent reading after the first batch arrived
+     */
+    public void record(DatabaseConnection dbConnection, String source, int rows, long bytes,
+                       long readMillis, int fetchSize) {
+        if (rows <= 0) return;
+
+        if (source != null) {
+            rowBytes.merge(key(dbConnection, source), (double) bytes / rows, FetchSizeAdvisor::average);
+        }
+
+        // Batches after the first one each cost one round trip
+        int roundTrips = (rows - 1) / Math.max(fetchSize, 1);
+        if (roundTrips > 0) {
+            roundTripMillis.merge(dbConnection.getConnectionName(), (double) readMillis / roundTrips, FetchSizeAdvisor::average);
+        }
+    }
+
+    /**
+     * Driver settings for a connection used for {@code useCase}, plus the credentials
+     */
+    public Properties driverProperties(DatabaseConnection dbConnection, UseCase useCase) {
+        Properties properties = new Properties();
+        properties.setProperty("user", dbConnection.getUsername() != null ? dbConnection.getUsername() : "");
+        properties.setProperty("password", dbConnection.getPassword() != null ? dbConnection.getPassword() : "");
+
+        switch (dbConnection.getDatabaseType()) {
+            case "SQL Server":
+                // Stream rows as they are read instead of buffering whole results
+                properties.setProperty("responseBuffering", "adaptive");
+                if (useCase == UseCase.CURSOR) {
+                    // A result left open between pages stays on the server, fetched per page
+                    properties.setProperty("selectMethod", "cursor");
+                }
+                break;
+            case "Oracle":
+                // Default for statements that do not size themselves (metadata, DDL); kept
+                // moderate since the driver sizes its buffers by declared column widths
+                int prefetch = Math.min(advise(dbConnection, useCase, null, 0), ORACLE_MAX_DEFAULT_PREFETCH);
+                properties.setProperty("defaultRowPrefetch", String.valueOf(prefetch));
+                break;
+            default:
+                break;
+        }
+        return properties;
+    }
+
+    private static String key(DatabaseConnection dbConnection, String source) {
+        return dbConnection.getConnectionName() + "\u0000" + source.toLowerCase();
+    }
+
+    private static double average(double old, double observed) {
+        return old * (1 - ALPHA) + observed * ALPHA;
+    }
+}
@@ -0,0 +1,342 @@
+package com.dbassist.dbassist.service;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One column filter from the grid, parsed according to the column's SQL type into a
+ * predicate with bind variables. Grammar:
+ * <pre>
+ *   text columns     abc      contains     col LIKE '%abc%'   (% and _ stay wildcards)
+ *                    abc*     starts with  col LIKE 'abc%'    (can use an index)
+ *                    [Exact]  equals       col = 'abc'
+ *   number / date    5        equals       col = 5
+ *                    &gt;5 &gt;=5 &lt;5 &lt;=5 &lt;&gt;5 !=5
+ *                    1..10    range        col BETWEEN 1 AND 10
+ *                    1,2,3    list         col IN (1, 2, 3)
+ * </pre>
+ * A date without a time on a date/timestamp column means the whole day, written as a
+ * half-open range so an index on the column can still be used.
+ */
+public class FilterExpression {
+
+    public enum Operator {
+        CONTAINS, PREFIX, EQUALS, NOT_EQUALS, LESS, LESS_OR_EQUAL, GREATER, GREATER_OR_EQUAL, BETWEEN, IN
+    }
+
+    private final Operator operator;
+    private final List<Object> operands;
+    private final int sqlType;
+
+    // SQL with {c} standing for the column, plus the values bound to its ? markers
+    private final String sqlTemplate;
+    private final List<Object> binds;
+
+    private FilterExpression(Operator operator, List<Object> operands, int sqlType, String sqlTemplate, List<Object> binds) {
+        this.operator = operator;
+        this.operands = operands;
+        this.sqlType = sqlType;
+        this.sqlTemplate = sqlTemplate;
+        this.binds = binds;
+    }
+
+    /**
+     * Parse a filter value for a column of the given java.sql.Types type
+     *
+     * @throws IllegalArgumentException if the value does not fit the column type
+     */
+    public static FilterExpression parse(String text, boolean exact, int sqlType) {
+        return parse(text, exact, sqlType, null, 0);
+    }
+
+    /**
+     * Parse a filter value for a catalog column: its java.sql.Types type, database type name
+     * and declared size decide how values are bound
+     *
+     * @throws IllegalArgumentException if the value does not fit the column type
+     */
+    public static FilterExpression parse(String text, boolean exact, int sqlType, String typeName, int columnSize) {
+        if (sqlType == Types.TIMESTAMP && "DATE".equalsIgnoreCase(typeName)) {
+            // Oracle reports DATE (which has a time of day) as TIMESTAMP. Against a TIMESTAMP bind
+            // it converts the column on every row, so the values are bound as DATE instead
+            FilterExpression typed = parseTyped(text.trim(), Types.DATE);
+            return new FilterExpression(typed.operator, typed.operands, Types.DATE,
+                typed.sqlTemplate.replace("?", "CAST(? AS DATE)"), typed.binds);
+        }
+        if (isNumeric(sqlType) || isTemporal(sqlType) || isBoolean(sqlType)) {
+            return parseTyped(text.trim(), sqlType);
+        }
+        return parseText(text, exact, sqlType, columnSize);
+    }
+
+    private static FilterExpression parseText(String text, boolean exact, int sqlType, int columnSize) {
+        if (exact) {
+            // Oracle compares a VARCHAR bind with a CHAR(n) column without blank-padding, so the
+            // value is padded to the column length as it is stored (SQL Server ignores the padding)
+            boolean fixedLength = sqlType == Types.CHAR || sqlType == Types.NCHAR;
+            String bound = fixedLength && text.length() < columnSize
+                ? text + " ".repeat(columnSize - text.length())
+                : text;
+            return new FilterExpression(Operator.EQUALS, List.of(text), sqlType, "{c} = ?", List.of(bound));
+        }
+        if (text.length() > 1 && text.endsWith("*")) {
+            String prefix = text.substring(0, text.length() - 1);
+            return new FilterExpression(Operator.PREFIX, List.of(prefix), sqlType, "{c} LIKE ?", List.of(prefix + "%"));
+        }
+        return new FilterExpression(Operator.CONTAINS, List.of(text), sqlType, "{c} LIKE ?", List.of("%" + text + "%"));
+    }
+
+    private static FilterExpression parseTyped(String text, int sqlType) {
+        if (isBoolean(sqlType)) {
+            Object value = parseValue(text, sqlType);
+            return new FilterExpression(Operator.EQUALS, List.of(value), sqlType, "{c} = ?", List.of(value));
+        }
+
+        int range = text.indexOf("..");
+        if (range > 0) {
+            Object low = parseValue(text.substring(0, range).trim(), sqlType);
+            Object high = parseValue(text.substring(range + 2).trim(), sqlType);
+            if (isWholeDay(high)) {
+                return new FilterExpression(Operator.BETWEEN, List.of(low, high), sqlType,
+                    "{c} >= ? AND {c} < ?", List.of(bindValue(low, sqlType), dayStart(((LocalDate) high).plusDays(1), sqlType)));
+            }
+            return new FilterExpression(Operator.BETWEEN, List.of(low, high), sqlType,
+                "{c} BETWEEN ? AND ?", List.of(bindValue(low, sqlType), bindValue(high, sqlType)));
+        }
+
+        if (text.indexOf(',') >= 0) {
+            List<Object> values = new ArrayList<>();
+            for (String part : text.split(",")) {
+                if (!part.trim().isEmpty()) {
+                    values.add(parseValue(part.trim(), sqlType));
+                }
+            }
+            if (values.isEmpty()) throw new IllegalArgumentException("empty list");
+
+            // Whole days in a list become one range per day
+            if (values.stream().anyMatch(FilterExpression::isWholeDay)) {
+                StringBuilder sql = new StringBuilder("(");
+                List<Object> binds = new ArrayList<>();
+                for (Object value : values) {
+                    if (binds.size() > 0) sql.append(" OR ");
+                    appendEquals(sql, binds, value, sqlType);
+                }
+                return new FilterExpression(Operator.IN, values, sqlType, sql.append(")").toString(), binds);
+            }
+
+            String markers = String.join(", ", java.util.Collections.nCopies(values.size(), "?"));
+            List<Object> binds = new ArrayList<>();
+            for (Object value : values) {
+                binds.add(bindValue(value, sqlType));
+            }
+            return new FilterExpression(Operator.IN, values, sqlType, "{c} IN (" + markers + ")", binds);
+        }
+
+        Operator operator = Operator.EQUALS;
+        String[][] prefixes = {{">=", "GREATER_OR_EQUAL"}, {"<=", "LESS_OR_EQUAL"}, {"<>", "NOT_EQUALS"},
+                               {"!=", "NOT_EQUALS"}, {">", "GREATER"}, {"<", "LESS"}, {"=", "EQUALS"}};
+        for (String[] prefix : prefixes) {
+            if (text.startsWith(prefix[0])) {
+                operator = Operator.valueOf(prefix[1]);
+                text = text.substring(prefix[0].length()).trim();
+                break;
+            }
+        }
+
+        Object value = parseValue(text, sqlType);
+        List<Object> binds = new ArrayList<>();
+        StringBuilder sql = new StringBuilder();
+
+        if (isWholeDay(value)) {
+            // Compare against day boundaries instead of converting the column
+            LocalDate day = (LocalDate) value;
+            Object start = dayStart(day, sqlType);
+            Object next = dayStart(day.plusDays(1), sqlType);
+            switch (operator) {
+                case EQUALS:
+                    appendEquals(sql, binds, value, sqlType);
+                    break;
+                case NOT_EQUALS:
+                    sql.append("({c} < ? OR {c} >= ?)");
+                    binds.add(start);
+                    binds.add(next);
+                    break;
+                case GREATER:
+                    sql.append("{c} >= ?");
+                    binds.add(next);
+                    break;
+                case GREATER_OR_EQUAL:
+                    sql.append("{c} >= ?");
+                    binds.add(start);
+                    break;
+                case LESS:
+                    sql.append("{c} < ?");
+                    binds.add(start);
+                    break;
+                default: // LESS_OR_EQUAL
+                    sql.append("{c} < ?");
+                    binds.add(next);
+                    break;
+            }
+        } else {
+            sql.append("{c} ").append(sqlOperator(operator)).append(" ?");
+            binds.add(bindValue(value, sqlType));
+        }
+
+        return new FilterExpression(operator, List.of(value), sqlType, sql.toString(), binds);
+    }
+
+    private static void appendEquals(StringBuilder sql, List<Object> binds, Object value, int sqlType) {
+        if (isWholeDay(value)) {
+            LocalDate day = (LocalDate) value;
+            sql.append("({c} >= ? AND {c} < ?)");
+            binds.add(dayStart(day, sqlType));
+            binds.add(dayStart(day.plusDays(1), sqlType));
+        } else {
+            sql.append("{c} = ?");
+            binds.add(bindValue(value, sqlType));
+        }
+    }
+
+    private static String sqlOperator(Operator operator) {
+        switch (operator) {
+            case NOT_EQUALS: return "<>";
+            case LESS: return "<";
+            case LESS_OR_EQUAL: return "<=";
+            case GREATER: return ">";
+            case GREATER_OR_EQUAL: return ">=";
+            default: return "=";
+        }
+    }
+
+    private static Object parseValue(String text, int sqlType) {
+        if (text.isEmpty()) throw new IllegalArgumentException("value expected");
+
+        try {
+            switch (sqlType) {
+                case Types.TINYINT:
+                case Types.SMALLINT:
+                case Types.INTEGER:
+                    return Integer.parseInt(text);
+                case Types.BIGINT:
+                    return Long.parseLong(text);
+                case Types.REAL:
+                case Types.FLOAT:
+                case Types.DOUBLE:
+                    return Double.parseDouble(text);
+                case Types.DECIMAL:
+                case Types.NUMERIC:
+                    return new BigDecimal(text);
+                case Types.BIT:
+                case Types.BOOLEAN:
+                    String lower = text.toLowerCase();
+                    if (lower.equals("1") || lower.equals("true") || lower.equals("yes")) return Boolean.TRUE;
+                    if (lower.equals("0") || lower.equals("false") || lower.equals("no")) return Boolean.FALSE;
+                    throw new IllegalArgumentException("expected true/false or 1/0, got '" + text + "'");
+                default: // Dates and times
+                    String normalized = text.replace('T', ' ');
+                    if (normalized.length() <= 10) {
+                        return LocalDate.parse(normalized);
+                    }
+                    if (normalized.length() == 16) {
+                        normalized += ":00";
+                    }
+                    return LocalDateTime.parse(normalized.replace(' ', 'T'));
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("'" + text + "' is not a valid number");
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("'" + text + "' is not a date (yyyy-MM-dd [HH:mm[:ss]])");
+        }
+    }
+
+    private static boolean isWholeDay(Object value) {
+        return value instanceof LocalDate;
+    }
+
+    private static Object dayStart(Object day, int sqlType) {
+        LocalDate date = (LocalDate) day;
+        return sqlType == Types.DATE ? java.sql.Date.valueOf(date) : java.sql.Timestamp.valueOf(date.atStartOfDay());
+    }
+
+    private static Object bindValue(Object value, int sqlType) {
+        if (value instanceof LocalDate) return dayStart(value, sqlType);
+        if (value instanceof LocalDateTime) return java.sql.Timestamp.valueOf((LocalDateTime) value);
+        return value;
+    }
+
+    /**
+     * Predicate SQL for the column, with ? markers for {@link #bind}
+     */
+    public String toSql(String column) {
+        return sqlTemplate.replace("{c}", column);
+    }
+
+    /**
+     * Bind this filter's values starting at {@code index}
+     *
+     * @return the next free parameter index
+     */
+    public int bind(PreparedStatement statement, int index) throws SQLException {
+        for (Object value : binds) {
+            if (value instanceof String) {
+                // Bind text as the column's own type: an NVARCHAR parameter against a VARCHAR
+                // column makes SQL Server convert every row and scan instead of seek
+                boolean national = sqlType == Types.NCHAR || sqlType == Types.NVARCHAR
+                    || sqlType == Types.LONGNVARCHAR || sqlType == Types.NCLOB;
+                statement.setObject(index++, value, national ? Types.NVARCHAR : Types.VARCHAR);
+            } else {
+                statement.setObject(index++, value);
+            }
+        }
+        return index;
+    }
+
+    public Operator getOperator() {
+        return operator;
+    }
+
+    /**
+     * Parsed values: the text for text operators, typed values otherwise
+     */
+    public List<Object> getOperands() {
+        return operands;
+    }
+
+    public boolean isTextMatch() {
+        return operator == Operator.CONTAINS || operator == Operator.PREFIX
+            || (operator == Operator.EQUALS && operands.get(0) instanceof String);
+    }
+
+    public static boolean isNumeric(int sqlType) {
+        switch (sqlType) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public static boolean isTemporal(int sqlType) {
+        return sqlType == Types.DATE || sqlType == Types.TIMESTAMP || sqlType == Types.TIMESTAMP_WITH_TIMEZONE;
+    }
+
+    private static boolean isBoolean(int sqlType) {
+        return sqlType == Types.BIT || sqlType == Types.BOOLEAN;
+    }
+}
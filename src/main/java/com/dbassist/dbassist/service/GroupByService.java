@@ -0,0 +1,495 @@
+package com.dbassist.dbassist.service;
+
+import com.dbassist.dbassist.model.LobHandle;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Group-by and pivot over rows already in memory, so a result can be sliced differently
+ * without querying again. The rows are split over the fork/join pool; every split groups
+ * its rows into its own hash table (group key -> accumulator with primitive counters) and
+ * the tables are merged pairwise as the splits join.
+ */
+public class GroupByService {
+
+    // Rows one split groups on its own
+    private static final int SPLIT_ROWS = 16_384;
+
+    // More distinct pivot values than this would not make a readable table
+    public static final int MAX_PIVOT_VALUES = 500;
+
+    public static final String ROWS_COLUMN = "Rows";
+
+    public enum Function {
+        COUNT, SUM, AVG, MIN, MAX
+    }
+
+    /**
+     * What to group: the key columns, an optional column whose values become result columns,
+     * and the functions applied to the value column
+     */
+    public static class GroupSpec {
+        private final List<String> groupColumns;
+        private final String pivotColumn; // null for none
+        private final String valueColumn; // null to count rows only
+        private final List<Function> functions;
+
+        public GroupSpec(List<String> groupColumns, String pivotColumn, String valueColumn, List<Function> functions) {
+            this.groupColumns = new ArrayList<>(groupColumns);
+            this.pivotColumn = pivotColumn;
+            this.valueColumn = valueColumn;
+            this.functions = valueColumn != null ? new ArrayList<>(functions) : Collections.emptyList();
+        }
+
+        public List<String> getGroupColumns() {
+            return groupColumns;
+        }
+
+        public String getPivotColumn() {
+            return pivotColumn;
+        }
+
+        public String getValueColumn() {
+            return valueColumn;
+        }
+
+        public List<Function> getFunctions() {
+            return functions;
+        }
+
+        /**
+         * Short description, e.g. "GROUP BY region, year PIVOT quarter: SUM(amount)"
+         */
+        public String describe() {
+            StringBuilder text = new StringBuilder("GROUP BY ").append(String.join(", ", groupColumns));
+            if (pivotColumn != null) {
+                text.append(" PIVOT ").append(pivotColumn);
+            }
+            List<String> measures = new ArrayList<>();
+            for (Function function : functions) {
+                measures.add(function + "(" + valueColumn + ")");
+            }
+            text.append(": ").append(measures.isEmpty() ? "COUNT(*)" : String.join(", ", measures));
+            return text.toString();
+        }
+    }
+
+    /**
+     * Grouped rows, ordered by their group key, and the result columns in order
+     */
+    public static class GroupResult {
+        private final List<String> columns;
+        private final List<Map<String, Object>> rows;
+        private final int sourceRows;
+
+        GroupResult(List<String> columns, List<Map<String, Object>> rows, int sourceRows) {
+            this.columns = columns;
+            this.rows = rows;
+            this.sourceRows = sourceRows;
+        }
+
+        public List<String> getColumns() {
+            return columns;
+        }
+
+        public List<Map<String, Object>> getRows() {
+            return rows;
+        }
+
+        public int getSourceRows() {
+            return sourceRows;
+        }
+    }
+
+    /**
+     * Group the rows. They must not change meanwhile; a cancel of the task stops the splits.
+     *
+     * @throws IllegalArgumentException if the pivot column has too many distinct values
+     */
+    public static GroupResult group(List<Map<String, Object>> rows, GroupSpec spec, QueryTask task)
+            throws java.sql.SQLException {
+        long start = System.currentTimeMillis();
+
+        // Key columns: the group columns, followed by the pivot column
+        List<String> keyColumns = new ArrayList<>(spec.getGroupColumns());
+        if (spec.getPivotColumn() != null) {
+            keyColumns.add(spec.getPivotColumn());
+        }
+
+        Map<GroupKey, Accumulator> groups;
+        try {
+            groups = ForkJoinPool.commonPool().invoke(
+                new GroupTask(rows, 0, rows.size(), keyColumns.toArray(new String[0]), spec.getValueColumn(), task));
+        } catch (ComputationCancelledException e) {
+            throw new java.sql.SQLException("Cancelled by user");
+        }
+        task.checkCancelled();
+
+        GroupResult result = spec.getPivotColumn() == null
+            ? tabulate(groups, spec, rows.size())
+            : pivot(groups, spec, rows.size());
+        System.out.println("Grouped " + rows.size() + " rows into " + result.getRows().size() + " rows in "
+            + (System.currentTimeMillis() - start) + " ms");
+        return result;
+    }
+
+    /**
+     * One row per group: key columns, row count, then one column per function
+     */
+    private static GroupResult tabulate(Map<GroupKey, Accumulator> groups, GroupSpec spec, int sourceRows) {
+        List<String> columns = new ArrayList<>(spec.getGroupColumns());
+        String rowsColumn = uniqueName(columns, ROWS_COLUMN);
+        columns.add(rowsColumn);
+        String[] measureColumns = new String[spec.getFunctions().size()];
+        for (int f = 0; f < measureColumns.length; f++) {
+            measureColumns[f] = uniqueName(columns, measureName(spec.getFunctions().get(f), spec.getValueColumn()));
+            columns.add(measureColumns[f]);
+        }
+
+        List<GroupKey> keys = new ArrayList<>(groups.keySet());
+        keys.sort(GroupKey::compareTo);
+
+        List<Map<String, Object>> rows = new ArrayList<>(keys.size());
+        for (GroupKey key : keys) {
+            Accumulator accumulator = groups.get(key);
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 0; i < spec.getGroupColumns().size(); i++) {
+                row.put(spec.getGroupColumns().get(i), key.values[i]);
+            }
+            row.put(rowsColumn, accumulator.rows);
+            for (int f = 0; f < measureColumns.length; f++) {
+                row.put(measureColumns[f], accumulator.result(spec.getFunctions().get(f)));
+            }
+            rows.add(row);
+        }
+        return new GroupResult(columns, rows, sourceRows);
+    }
+
+    /**
+     * One row per group of the group columns, with a column per pivot value (and function,
+     * if more than one) and the group's total row count
+     */
+    private static GroupResult pivot(Map<GroupKey, Accumulator> groups, GroupSpec spec, int sourceRows) {
+        int groupWidth = spec.getGroupColumns().size();
+
+        // Distinct pivot values, in order
+        TreeSet<Object> pivotValues = new TreeSet<>(GroupByService::compareKeyValues);
+        for (GroupKey key : groups.keySet()) {
+            pivotValues.add(key.values[groupWidth] == null ? NullKey.INSTANCE : key.values[groupWidth]);
+            if (pivotValues.size() > MAX_PIVOT_VALUES) {
+                throw new IllegalArgumentException(spec.getPivotColumn() + " has more than " + MAX_PIVOT_VALUES
+                    + " distinct values - too many to pivot");
+            }
+        }
+
+        List<Function> functions = spec.getFunctions().isEmpty()
+            ? Collections.singletonList(null) // Count rows per pivot value
+            : spec.getFunctions();
+        List<String> columns = new ArrayList<>(spec.getGroupColumns());
+        Map<Object, String[]> pivotColumns = new TreeMap<>(GroupByService::compareKeyValues);
+        for (Object pivotValue : pivotValues) {
+            String[] names = new String[functions.size()];
+            for (int f = 0; f < names.length; f++) {
+                String label = String.valueOf(pivotValue);
+                // A pivot value may equal a group column name
+                names[f] = uniqueName(columns, functions.size() > 1 ? label + " " + functions.get(f) : label);
+                columns.add(names[f]);
+            }
+            pivotColumns.put(pivotValue, names);
+        }
+        String rowsColumn = uniqueName(columns, ROWS_COLUMN);
+        columns.add(rowsColumn);
+
+        // Fold the (group, pivot value) keys into one row per group
+        Map<GroupKey, Map<String, Object>> rowsByGroup = new HashMap<>();
+        for (Map.Entry<GroupKey, Accumulator> entry : groups.entrySet()) {
+            GroupKey groupKey = entry.getKey().prefix(groupWidth);
+            Map<String, Object> row = rowsByGroup.computeIfAbsent(groupKey, k -> {
+                Map<String, Object> newRow = new LinkedHashMap<>();
+                for (int i = 0; i < groupWidth; i++) {
+                    newRow.put(spec.getGroupColumns().get(i), k.values[i]);
+                }
+                return newRow;
+            });
+
+            Object pivotValue = entry.getKey().values[groupWidth];
+            String[] names = pivotColumns.get(pivotValue == null ? NullKey.INSTANCE : pivotValue);
+            Accumulator accumulator = entry.getValue();
+            for (int f = 0; f < names.length; f++) {
+                row.put(names[f], functions.get(f) == null ? (Object) accumulator.rows : accumulator.result(functions.get(f)));
+            }
+            row.merge(rowsColumn, accumulator.rows, (a, b) -> (Long) a + (Long) b);
+        }
+
+        List<GroupKey> keys = new ArrayList<>(rowsByGroup.keySet());
+        keys.sort(GroupKey::compareTo);
+        List<Map<String, Object>> rows = new ArrayList<>(keys.size());
+        for (GroupKey key : keys) {
+            rows.add(rowsByGroup.get(key));
+        }
+        return new GroupResult(columns, rows, sourceRows);
+    }
+
+    private static String uniqueName(List<String> columns, String name) {
+        while (columns.contains(name)) {
+            name = name + "_";
+        }
+        return name;
+    }
+
+    public static String measureName(Function function, String valueColumn) {
+        return function + "(" + valueColumn + ")";
+    }
+
+    /**
+     * Groups one range of rows, splitting it in half until it is small enough
+     */
+    @SuppressWarnings("serial") // Never serialized; ForkJoinTask is Serializable only by inheritance
+    private static class GroupTask extends RecursiveTask<Map<GroupKey, Accumulator>> {
+        private final List<Map<String, Object>> rows;
+        private final int from;
+        private final int to;
+        private final String[] keyColumns;
+        private final String valueColumn;
+        private final QueryTask task;
+
+        GroupTask(List<Map<String, Object>> rows, int from, int to, String[] keyColumns, String valueColumn, QueryTask task) {
+            this.rows = rows;
+            this.from = from;
+            this.to = to;
+            this.keyColumns = keyColumns;
+            this.valueColumn = valueColumn;
+            this.task = task;
+        }
+
+        @Override
+        protected Map<GroupKey, Accumulator> compute() {
+            if (task.isCancelled()) throw new ComputationCancelledException();
+
+            if (to - from > SPLIT_ROWS) {
+                int middle = (from + to) >>> 1;
+                GroupTask left = new GroupTask(rows, from, middle, keyColumns, valueColumn, task);
+                GroupTask right = new GroupTask(rows, middle, to, keyColumns, valueColumn, task);
+                left.fork();
+                Map<GroupKey, Accumulator> rightGroups = right.compute();
+                return merge(left.join(), rightGroups);
+            }
+
+            Map<GroupKey, Accumulator> groups = new HashMap<>();
+            // One probe key is reused for lookups; a key is only copied for a new group
+            GroupKey probe = new GroupKey(new Object[keyColumns.length]);
+            for (int i = from; i < to; i++) {
+                Map<String, Object> row = rows.get(i);
+                for (int k = 0; k < keyColumns.length; k++) {
+                    probe.values[k] = keyValue(row.get(keyColumns[k]));
+                }
+                probe.rehash();
+
+                Accumulator accumulator = groups.get(probe);
+                if (accumulator == null) {
+                    accumulator = new Accumulator();
+                    groups.put(probe.copy(), accumulator);
+                }
+                accumulator.add(valueColumn != null ? row.get(valueColumn) : null);
+            }
+            return groups;
+        }
+
+        private static Map<GroupKey, Accumulator> merge(Map<GroupKey, Accumulator> a, Map<GroupKey, Accumulator> b) {
+            Map<GroupKey, Accumulator> into = a.size() >= b.size() ? a : b;
+            Map<GroupKey, Accumulator> from = into == a ? b : a;
+            for (Map.Entry<GroupKey, Accumulator> entry : from.entrySet()) {
+                Accumulator existing = into.putIfAbsent(entry.getKey(), entry.getValue());
+                if (existing != null) {
+                    existing.merge(entry.getValue());
+                }
+            }
+            return into;
+        }
+    }
+
+    /**
+     * Values that group by content rather than identity (binary, large values by their preview)
+     */
+    private static Object keyValue(Object value) {
+        if (value instanceof byte[]) return HexFormat.of().formatHex((byte[]) value);
+        if (value instanceof LobHandle) return value.toString();
+        return value;
+    }
+
+    /**
+     * Key of one group, hash computed once per row
+     */
+    private static final class GroupKey implements Comparable<GroupKey> {
+        private final Object[] values;
+        private int hash;
+
+        GroupKey(Object[] values) {
+            this.values = values;
+            rehash();
+        }
+
+        void rehash() {
+            int h = 1;
+            for (Object value : values) {
+                h = 31 * h + (value == null ? 0 : value.hashCode());
+            }
+            hash = h;
+        }
+
+        GroupKey copy() {
+            return new GroupKey(values.clone());
+        }
+
+        GroupKey prefix(int length) {
+            return new GroupKey(Arrays.copyOf(values, length));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof GroupKey && hash == ((GroupKey) o).hash && Arrays.equals(values, ((GroupKey) o).values);
+        }
+
+        @Override
+        public int compareTo(GroupKey other) {
+            for (int i = 0; i < values.length; i++) {
+                int c = compareKeyValues(values[i], other.values[i]);
+                if (c != 0) return c;
+            }
+            return 0;
+        }
+    }
+
+    // Stands in for NULL among pivot values (sorted first, shown as "null")
+    private enum NullKey {
+        INSTANCE;
+
+        @Override
+        public String toString() {
+            return "null";
+        }
+    }
+
+    private static int compareKeyValues(Object a, Object b) {
+        if (a == b) return 0;
+        if (a == null || a == NullKey.INSTANCE) return -1;
+        if (b == null || b == NullKey.INSTANCE) return 1;
+        return AggregationService.compareValues(a, b);
+    }
+
+    /**
+     * Counters of one group. Sums stay in primitives where they can: whole numbers in a long,
+     * decimals of one scale as an unscaled long, floating point in a double; only mixed
+     * scales or overflow fall back to BigDecimal.
+     */
+    private static final class Accumulator {
+        private long rows;
+        private long nonNull;
+        private boolean numeric = true;
+        private long unscaledSum;
+        private int scale = 0;
+        private BigDecimal decimalSum; // Overflow and mixed scales, null if none
+        private double doubleSum;
+        private boolean hasDouble;
+        private Object min;
+        private Object max;
+
+        void add(Object value) {
+            rows++;
+            if (value == null) return;
+            nonNull++;
+
+            if (numeric) {
+                if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+                    addUnscaled(((Number) value).longValue(), 0);
+                } else if (value instanceof BigDecimal) {
+                    BigDecimal decimal = (BigDecimal) value;
+                    if (decimal.precision() < 19 && decimal.scale() >= 0) {
+                        addUnscaled(decimal.unscaledValue().longValue(), decimal.scale());
+                    } else {
+                        addDecimal(decimal);
+                    }
+                } else if (value instanceof Double || value instanceof Float) {
+                    doubleSum += ((Number) value).doubleValue();
+                    hasDouble = true;
+                } else {
+                    numeric = false;
+                }
+            }
+
+            if (value instanceof Comparable && !(value instanceof LobHandle)) {
+                if (min == null || AggregationService.compareValues(value, min) < 0) min = value;
+                if (max == null || AggregationService.compareValues(value, max) > 0) max = value;
+            }
+        }
+
+        private void addUnscaled(long unscaled, int valueScale) {
+            if (unscaledSum == 0) {
+                scale = valueScale; // Nothing summed at the old scale yet
+            }
+            if (valueScale != scale) {
+                addDecimal(BigDecimal.valueOf(unscaled, valueScale));
+                return;
+            }
+            long sum = unscaledSum + unscaled;
+            if (((unscaledSum ^ sum) & (unscaled ^ sum)) < 0) {
+                addDecimal(BigDecimal.valueOf(unscaled, valueScale)); // Would overflow
+                return;
+            }
+            unscaledSum = sum;
+        }
+
+        private void addDecimal(BigDecimal value) {
+            decimalSum = decimalSum == null ? value : decimalSum.add(value);
+        }
+
+        void merge(Accumulator other) {
+            rows += other.rows;
+            numeric &= other.numeric;
+            if (other.unscaledSum != 0) addUnscaled(other.unscaledSum, other.scale);
+            if (other.decimalSum != null) addDecimal(other.decimalSum);
+            nonNull += other.nonNull;
+            doubleSum += other.doubleSum;
+            hasDouble |= other.hasDouble;
+            if (other.min != null && (min == null || AggregationService.compareValues(other.min, min) < 0)) min = other.min;
+            if (other.max != null && (max == null || AggregationService.compareValues(other.max, max) > 0)) max = other.max;
+        }
+
+        Object result(Function function) {
+            switch (function) {
+                case COUNT:
+                    return nonNull;
+                case MIN:
+                    return min;
+                case MAX:
+                    return max;
+                case SUM:
+                    return sum();
+                case AVG: {
+                    Number sum = sum();
+                    if (sum == null) return null;
+                    if (sum instanceof Double) return (Double) sum / nonNull;
+                    return ((BigDecimal) sum).divide(BigDecimal.valueOf(nonNull), MathContext.DECIMAL64);
+                }
+                default:
+                    return null;
+            }
+        }
+
+        private Number sum() {
+            if (!numeric || nonNull == 0) return null;
+            BigDecimal exact = BigDecimal.valueOf(unscaledSum, scale);
+            if (decimalSum != null) exact = exact.add(decimalSum);
+            return hasDouble ? (Number) (exact.doubleValue() + doubleSum) : exact;
+        }
+    }
+}
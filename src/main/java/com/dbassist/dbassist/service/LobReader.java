@@ -0,0 +1,175 @@
+package com.dbassist.dbassist.service;
+
+import com.dbassist.dbassist.model.LobHandle;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.*;
+
+/**
+ * Reads large column values (CLOB, BLOB, LONG, NVARCHAR(MAX), XML, ...) as a
+ * {@link LobHandle} with a short preview instead of materializing them. Used where the
+ * SQL cannot be rewritten to fetch a server-side preview (worksheet queries, Oracle LONG).
+ */
+public class LobReader {
+
+    public static final int PREVIEW_CHARS = 200;
+    public static final int PREVIEW_BYTES = 32;
+
+    // VARCHAR(MAX) and friends report a precision of about 2^30 or 2^31
+    private static final int MAX_TYPE_PRECISION = 1_000_000;
+
+    /**
+     * True for column types that can hold values too large to read eagerly
+     */
+    public static boolean isLob(int sqlType, int precision) {
+        switch (sqlType) {
+            case Types.CLOB:
+            case Types.NCLOB:
+            case Types.BLOB:
+            case Types.LONGVARCHAR:
+            case Types.LONGNVARCHAR:
+            case Types.LONGVARBINARY:
+            case Types.SQLXML:
+                return true;
+            case Types.VARCHAR:
+            case Types.NVARCHAR:
+            case Types.VARBINARY:
+                return precision >= MAX_TYPE_PRECISION;
+            default:
+                return false;
+        }
+    }
+
+    public static boolean isBinary(int sqlType) {
+        return sqlType == Types.BLOB || sqlType == Types.LONGVARBINARY || sqlType == Types.VARBINARY
+            || sqlType == Types.BINARY;
+    }
+
+    /**
+     * LOB flags for each column of a result (index 0 is column 1)
+     */
+    public static boolean[] findLobColumns(ResultSetMetaData metaData) throws SQLException {
+        boolean[] lobColumns = new boolean[metaData.getColumnCount()];
+        for (int i = 1; i <= lobColumns.length; i++) {
+            lobColumns[i - 1] = isLob(metaData.getColumnType(i), metaData.getPrecision(i));
+        }
+        return lobColumns;
+    }
+
+    /**
+     * Read a preview of a LOB column of the current row, or null for SQL NULL. Locators
+     * (Clob/Blob) only transfer the preview; streams are skipped to the end to count them.
+     */
+    public static LobHandle readPreview(ResultSet rs, int column, int sqlType) throws SQLException {
+        try {
+            switch (sqlType) {
+                case Types.CLOB:
+                case Types.NCLOB: {
+                    Clob clob = rs.getClob(column);
+                    if (clob == null) return null;
+                    try {
+                        long length = clob.length();
+                        String preview = clob.getSubString(1, (int) Math.min(length, PREVIEW_CHARS));
+                        return new LobHandle(preview, length, false, false, length <= PREVIEW_CHARS);
+                    } finally {
+                        freeQuietly(clob);
+                    }
+                }
+                case Types.BLOB: {
+                    Blob blob = rs.getBlob(column);
+                    if (blob == null) return null;
+                    try {
+                        long length = blob.length();
+                        byte[] preview = blob.getBytes(1, (int) Math.min(length, PREVIEW_BYTES));
+                        return new LobHandle(toHex(preview, preview.length), length, true, true, length <= PREVIEW_BYTES);
+                    } finally {
+                        freeQuietly(blob);
+                    }
+                }
+                default:
+                    if (isBinary(sqlType)) {
+                        try (InputStream in = rs.getBinaryStream(column)) {
+                            if (in == null) return null;
+                            byte[] preview = new byte[PREVIEW_BYTES];
+                            int read = in.readNBytes(preview, 0, PREVIEW_BYTES);
+                            long length = read + skipAll(in);
+                            return new LobHandle(toHex(preview, read), length, true, true, length <= PREVIEW_BYTES);
+                        }
+                    }
+                    try (Reader in = rs.getCharacterStream(column)) {
+                        if (in == null) return null;
+                        char[] preview = new char[PREVIEW_CHARS];
+                        int read = 0;
+                        int n;
+                        while (read < PREVIEW_CHARS && (n = in.read(preview, read, PREVIEW_CHARS - read)) > 0) {
+                            read += n;
+                        }
+                        long length = read + skipAll(in);
+                        return new LobHandle(new String(preview, 0, read), length, false, false, length <= PREVIEW_CHARS);
+                    }
+            }
+        } catch (IOException e) {
+            throw new SQLException("Error reading large value: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Hex preview of the first bytes, e.g. 0x89504E47
+     */
+    public static String toHex(byte[] bytes, int length) {
+        StringBuilder hex = new StringBuilder("0x");
+        for (int i = 0; i < length; i++) {
+            hex.append(String.format("%02X", bytes[i]));
+        }
+        return hex.toString();
+    }
+
+    private static long skipAll(InputStream in) throws IOException {
+        long skipped = 0;
+        long n;
+        while ((n = in.skip(1 << 20)) > 0) {
+            skipped += n;
+        }
+        // skip() may stop early on some streams - make sure we are at the end
+        while (in.read() >= 0) {
+            skipped++;
+            while ((n = in.skip(1 << 20)) > 0) {
+                skipped += n;
+            }
+        }
+        return skipped;
+    }
+
+    private static long skipAll(Reader in) throws IOException {
+        long skipped = 0;
+        long n;
+        while ((n = in.skip(1 << 20)) > 0) {
+            skipped += n;
+        }
+        while (in.read() >= 0) {
+            skipped++;
+            while ((n = in.skip(1 << 20)) > 0) {
+                skipped += n;
+            }
+        }
+        return skipped;
+    }
+
+    private static void freeQuietly(Clob clob) {
+        try {
+            clob.free();
+        } catch (SQLException | UnsupportedOperationException e) {
+            // Released with the result set anyway
+        }
+    }
+
+    private static void freeQuietly(Blob blob) {
+        try {
+            blob.free();
+        } catch (SQLException | UnsupportedOperationException e) {
+            // Released with the result set anyway
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.dbassist.dbassist.service;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Evaluates table browse filters over rows already in memory, so narrowing a filter does
+ * not need a round trip. Follows the server's semantics for the text predicates of
+ * {@link FilterExpression}: LIKE '%value%' or 'value%' (with % and _ as wildcards) or
+ * = 'value', case-insensitive and ignoring trailing spaces on SQL Server, exact elsewhere
+ * (except on CHAR/NCHAR columns, whose blank-padded values match a padded bind).
+ * Only text columns are evaluated locally - for anything else the server's implicit
+ * conversions would be guesswork, so {@link #compile} gives up and the caller re-queries.
+ */
+public class LocalFilter {
+
+    // Row count from which filtering is split across cores
+    private static final int PARALLEL_THRESHOLD = 20_000;
+
+    private final boolean caseInsensitive;
+
+    public LocalFilter(String databaseType) {
+        this.caseInsensitive = "SQL Server".equals(databaseType);
+    }
+
+    /**
+     * True if every row matching the new filters also matches the old ones, i.e. the new
+     * result is a subset of the old one. Filters may be added or narrowed, never removed.
+     */
+    public boolean isRefinement(Map<String, String> oldFilters, Map<String, Boolean> oldExact,
+                                Map<String, String> newFilters, Map<String, Boolean> newExact) {
+        for (Map.Entry<String, String> old : oldFilters.entrySet()) {
+            String oldValue = old.getValue();
+            if (isBlank(oldValue)) continue;
+
+            String newValue = newFilters.get(old.getKey());
+            if (isBlank(newValue)) return false; // Filter removed - result grows
+
+            FilterExpression oldFilter = parseText(oldValue, oldExact.get(old.getKey()));
+            FilterExpression newFilter = parseText(newValue, newExact.get(old.getKey()));
+            String oldText = (String) oldFilter.getOperands().get(0);
+            String newText = (String) newFilter.getOperands().get(0);
+
+            switch (oldFilter.getOperator()) {
+                case EQUALS:
+                    if (newFilter.getOperator() != FilterExpression.Operator.EQUALS
+                        || !normalize(newText).equals(normalize(oldText))) return false;
+                    break;
+                case PREFIX:
+                    // LIKE 'abc%' narrows LIKE 'ab%'; = 'abx' narrows it too
+                    if (newFilter.getOperator() == FilterExpression.Operator.CONTAINS) return false;
+                    if (newFilter.getOperator() == FilterExpression.Operator.EQUALS) {
+                        if (!textPredicate(oldFilter, false).test(newText)) return false;
+                    } else if (!foldCase(newText).startsWith(foldCase(oldText))) {
+                        return false;
+                    }
+                    break;
+                default: // CONTAINS
+                    // LIKE '%abc%' and LIKE 'abc%' narrow LIKE '%ab%'; = 'x' does when x matches it
+                    if (newFilter.getOperator() == FilterExpression.Operator.EQUALS) {
+                        if (!textPredicate(oldFilter, false).test(newText)) return false;
+                    } else if (!foldCase(newText).contains(foldCase(oldText))) {
+                        return false;
+                    }
+                    break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compile filters into a row predicate, or return null if they cannot be evaluated
+     * exactly on the client (non-text columns, SQL Server [] patterns)
+     *
+     * @param columnTypes column name -> database type name of the loaded rows
+     */
+    public Predicate<Map<String, Object>> compile(Map<String, String> filters, Map<String, Boolean> exactFlags,
+                                                  List<Map<String, Object>> rows, Map<String, String> columnTypes) {
+        if (columnTypes == null) return null; // Padding rules unknown
+        List<Predicate<Map<String, Object>>> conditions = new ArrayList<>();
+
+        for (Map.Entry<String, String> filter : filters.entrySet()) {
+            String column = filter.getKey();
+            String value = filter.getValue();
+            if (isBlank(value)) continue;
+
+            if (!isTextColumn(rows, column)) return null;
+
+            FilterExpression filterExpression = parseText(value, exactFlags.get(column));
+            if (filterExpression.getOperator() != FilterExpression.Operator.EQUALS
+                && caseInsensitive && value.indexOf('[') >= 0) return null;
+
+            Predicate<String> test = textPredicate(filterExpression, isFixedLength(columnTypes.get(column)));
+            conditions.add(row -> {
+                Object cell = row.get(column);
+                return cell != null && test.test((String) cell); // NULL never matches
+            });
+        }
+
+        return row -> {
+            for (Predicate<Map<String, Object>> condition : conditions) {
+                if (!condition.test(row)) return false;
+            }
+            return true;
+        };
+    }
+
+    /**
+     * Rows matching the predicate, in their original order
+     */
+    public static List<Map<String, Object>> apply(List<Map<String, Object>> rows, Predicate<Map<String, Object>> predicate) {
+        if (rows.size() >= PARALLEL_THRESHOLD) {
+            return rows.parallelStream().filter(predicate).collect(Collectors.toList());
+        }
+        List<Map<String, Object>> matches = new ArrayList<>();
+        for (Map<String, Object> row : rows) {
+            if (predicate.test(row)) matches.add(row);
+        }
+        return matches;
+    }
+
+    private static FilterExpression parseText(String value, Boolean exact) {
+        return FilterExpression.parse(value, Boolean.TRUE.equals(exact), java.sql.Types.VARCHAR);
+    }
+
+    private Predicate<String> textPredicate(FilterExpression filterExpression, boolean fixedLength) {
+        String text = (String) filterExpression.getOperands().get(0);
+        switch (filterExpression.getOperator()) {
+            case EQUALS:
+                return equalsPredicate(text, fixedLength);
+            case PREFIX:
+                return likePredicate(text, false);
+            default:
+                return likePredicate(text, true);
+        }
+    }
+
+    private Predicate<String> equalsPredicate(String value, boolean fixedLength) {
+        if (fixedLength) {
+            // The server binds the value padded to the column length, so padding never matters
+            String expected = normalize(trimTrailingSpaces(value));
+            return cell -> normalize(trimTrailingSpaces(cell)).equals(expected);
+        }
+        String expected = normalize(value);
+        return cell -> normalize(cell).equals(expected);
+    }
+
+    /**
+     * LIKE '%value%' (or 'value%' when not {@code contains}). Without wildcards this is a
+     * plain substring or prefix test.
+     */
+    private Predicate<String> likePredicate(String value, boolean contains) {
+        if (value.indexOf('%') < 0 && value.indexOf('_') < 0) {
+            String needle = foldCase(value);
+            return contains ? cell -> foldCase(cell).contains(needle) : cell -> foldCase(cell).startsWith(needle);
+        }
+
+        StringBuilder regex = new StringBuilder(contains ? ".*" : "");
+        StringBuilder literal = new StringBuilder();
+        for (char c : value.toCharArray()) {
+            if (c == '%' || c == '_') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '%' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        regex.append(".*");
+
+        Pattern pattern = Pattern.compile(regex.toString(),
+            Pattern.DOTALL | (caseInsensitive ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0));
+        return cell -> pattern.matcher(cell).matches();
+    }
+
+    private String foldCase(String value) {
+        return caseInsensitive ? value.toLowerCase() : value;
+    }
+
+    private String normalize(String value) {
+        if (!caseInsensitive) return value;
+        return value.replaceAll(" +$", "").toLowerCase(); // SQL Server pads for =
+    }
+
+    private static String trimTrailingSpaces(String value) {
+        return value.replaceAll(" +$", "");
+    }
+
+    private static boolean isFixedLength(String typeName) {
+        return "CHAR".equalsIgnoreCase(typeName) || "NCHAR".equalsIgnoreCase(typeName);
+    }
+
+    private static boolean isTextColumn(List<Map<String, Object>> rows, String column) {
+        if (!rows.isEmpty() && !rows.get(0).containsKey(column)) return false; // Not loaded
+        for (Map<String, Object> row : rows) {
+            Object value = row.get(column);
+            if (value != null && !(value instanceof String)) return false;
+        }
+        return true;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
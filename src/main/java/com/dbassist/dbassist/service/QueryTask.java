@@ -0,0 +1,122 @@
+package com.dbassist.dbassist.service;
+
+import com.dbassist.dbassist.model.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Handle for one piece of background database work that can be stopped.
+ * The worker registers the Statement (or, for metadata calls, the Connection) it is
+ * using; {@link #cancel()} then asks the server to stop via Statement.cancel() or aborts
+ * the connection, so neither the server session nor the client thread stays busy.
+ * Registered statements also get the connection's default query timeout.
+ */
+public class QueryTask {
+
+    private final String description;
+    private final int queryTimeoutSeconds;
+
+    private volatile Statement statement;
+    private volatile Connection connection;
+    private volatile boolean cancelled = false;
+    private volatile Runnable cancelListener;
+
+    public QueryTask(String description, DatabaseConnection dbConnection) {
+        this.description = description;
+        this.queryTimeoutSeconds = dbConnection != null ? dbConnection.getQueryTimeoutSeconds() : 0;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Track the statement about to be executed and apply the default query timeout
+     */
+    public <T extends Statement> T register(T stmt) throws SQLException {
+        if (queryTimeoutSeconds > 0) {
+            stmt.setQueryTimeout(queryTimeoutSeconds);
+        }
+        this.statement = stmt;
+        if (cancelled) {
+            stmt.cancel();
+        }
+        return stmt;
+    }
+
+    /**
+     * Track a connection used without a statement (metadata calls)
+     */
+    public Connection register(Connection conn) {
+        this.connection = conn;
+        if (cancelled) {
+            abortQuietly(conn);
+        }
+        return conn;
+    }
+
+    /**
+     * Run {@code listener} once when the task is cancelled (immediately if it already is)
+     */
+    void setCancelListener(Runnable listener) {
+        this.cancelListener = listener;
+        if (cancelled) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Throw if the task was cancelled - call between steps of multi-step work
+     */
+    public void checkCancelled() throws SQLException {
+        if (cancelled) {
+            throw new SQLException("Cancelled by user");
+        }
+    }
+
+    /**
+     * Stop the task. The driver call runs on its own thread since cancel() can block on the network.
+     */
+    public void cancel() {
+        if (cancelled) return;
+        cancelled = true;
+
+        Runnable listener = cancelListener;
+        if (listener != null) {
+            listener.run();
+        }
+
+        Statement stmt = statement;
+        Connection conn = connection;
+        if (stmt == null && conn == null) return;
+
+        Thread canceller = new Thread(() -> {
+            if (stmt != null) {
+                // Cancel the running statement but keep the session usable
+                try {
+                    stmt.cancel();
+                } catch (Exception e) {
+                    System.err.println("Error cancelling query: " + e.getMessage());
+                }
+            } else {
+                abortQuietly(conn);
+            }
+        }, "query-cancel");
+        canceller.setDaemon(true);
+        canceller.start();
+    }
+
+    private static void abortQuietly(Connection conn) {
+        try {
+            conn.abort(Runnable::run);
+        } catch (Exception e) {
+            System.err.println("Error aborting connection: " + e.getMessage());
+        }
+    }
+}
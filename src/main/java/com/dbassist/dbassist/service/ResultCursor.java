@@ -0,0 +1,161 @@
+package com.dbassist.dbassist.service;
+
+import com.dbassist.dbassist.model.LobHandle;
+
+import java.sql.*;
+import java.util.*;
+
+/**
+ * An open query result that is read one page at a time.
+ * Owns its Connection, Statement and ResultSet until {@link #close()} is called, so the
+ * caller must close it (e.g. when the result tab is closed). Reading stops once the rows
+ * read for this result reach {@link #MAX_RESULT_BYTES} (estimated); the caller keeps them in
+ * a {@link ResultStore}, which spills to disk past the connection's result memory. Large
+ * values are kept as {@link LobHandle} previews.
+ */
+public class ResultCursor implements AutoCloseable {
+
+    // Hard ceiling for the (estimated) size of one result, heap and spill file together
+    public static final long MAX_RESULT_BYTES = 8L * 1024 * 1024 * 1024;
+
+    private final Connection connection;
+    private final Statement statement;
+    private final ResultSet resultSet;
+    private final List<String> columns;
+    private final int columnCount;
+    private final int[] columnTypes;
+    private final boolean[] lobColumns;
+
+    // Written under the lock, readable from the FX thread without blocking on a running fetch
+    private long estimatedBytes = 0;
+    private volatile int rowsFetched = 0;
+    private volatile boolean exhausted = false;
+    private volatile boolean limitReached = false;
+    private volatile boolean closed = false;
+
+    private ResultCursor(Connection connection, Statement statement, ResultSet resultSet) throws SQLException {
+        this.connection = connection;
+        this.statement = statement;
+        this.resultSet = resultSet;
+
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        this.columnCount = metaData.getColumnCount();
+        this.columns = new ArrayList<>(columnCount);
+        this.columnTypes = new int[columnCount];
+        for (int i = 1; i <= columnCount; i++) {
+            columns.add(metaData.getColumnName(i));
+            columnTypes[i - 1] = metaData.getColumnType(i);
+        }
+        this.lobColumns = LobReader.findLobColumns(metaData);
+    }
+
+    /**
+     * Execute a query and keep its cursor open. The connection is closed with the cursor,
+     * or immediately if the query fails. The statement stays registered with {@code task}
+     * so later fetches can be cancelled too.
+     */
+    public static ResultCursor open(Connection connection, String sql, int fetchSize, QueryTask task) throws SQLException {
+        Statement statement = null;
+        try {
+            statement = task.register(connection.createStatement());
+            statement.setFetchSize(fetchSize);
+            ResultSet resultSet = statement.executeQuery(sql);
+            return new ResultCursor(connection, statement, resultSet);
+        } catch (SQLException e) {
+            closeQuietly(statement);
+            closeQuietly(connection);
+            throw e;
+        }
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Read up to {@code maxRows} more rows. Returns an empty list once the cursor is
+     * exhausted, closed or the memory ceiling has been reached.
+     */
+    public synchronized List<Map<String, Object>> fetch(int maxRows) throws SQLException {
+        List<Map<String, Object>> page = new ArrayList<>(Math.min(maxRows, 1024));
+        if (closed || exhausted || limitReached) return page;
+
+        while (page.size() < maxRows) {
+            if (estimatedBytes >= MAX_RESULT_BYTES) {
+                limitReached = true;
+                break;
+            }
+            if (!resultSet.next()) {
+                exhausted = true;
+                break;
+            }
+
+            Map<String, Object> row = new LinkedHashMap<>();
+            long rowBytes = 48;
+            for (int i = 1; i <= columnCount; i++) {
+                Object value = lobColumns[i - 1]
+                    ? LobReader.readPreview(resultSet, i, columnTypes[i - 1])
+                    : resultSet.getObject(i);
+                row.put(columns.get(i - 1), value);
+                rowBytes += 32 + estimateSize(value);
+            }
+            estimatedBytes += rowBytes;
+            page.add(row);
+        }
+
+        rowsFetched += page.size();
+
+        // Nothing more to read - release server resources right away
+        if (exhausted || limitReached) {
+            close();
+        }
+        return page;
+    }
+
+    public int getRowsFetched() {
+        return rowsFetched;
+    }
+
+    public boolean hasMore() {
+        return !closed && !exhausted && !limitReached;
+    }
+
+    public boolean isLimitReached() {
+        return limitReached;
+    }
+
+    /**
+     * Release the cursor, statement and connection. Safe to call more than once.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+        }
+        closeQuietly(resultSet);
+        closeQuietly(statement);
+        closeQuietly(connection);
+    }
+
+    /**
+     * Rough heap size of a column value as returned by getObject
+     */
+    static long estimateSize(Object value) {
+        if (value == null) return 0;
+        if (value instanceof String) return 40 + 2L * ((String) value).length();
+        if (value instanceof byte[]) return 16 + ((byte[]) value).length;
+        if (value instanceof LobHandle) return 96 + 2L * ((LobHandle) value).getPreview().length();
+        if (value instanceof Number || value instanceof Boolean) return 24;
+        return 64;
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        if (closeable == null) return;
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            System.err.println("Error closing cursor resource: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.dbassist.dbassist.service;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * Finds the cells of a loaded result whose text matches a search, row by row. The first
+ * search scans every cell in parallel. From the second search on, each column gets a
+ * dictionary of its distinct cell texts with a compact code per row (built once, lazily):
+ * a search then tests each distinct text once and the rows by code only, so repeated finds
+ * over a million rows do not format or match a cell again. Columns with too many distinct
+ * values for a dictionary to pay off (ids, free text) keep being scanned.
+ */
+public class ResultSearch<T> {
+
+    // Rows per parallel scan chunk
+    private static final int CHUNK_ROWS = 8192;
+
+    // Matches kept per search; navigation beyond that needs a narrower search
+    public static final int MAX_MATCHES = 1_000_000;
+
+    // A column is indexed only while it has at most this many distinct texts...
+    private static final int MAX_DICTIONARY_VALUES = 65_536;
+    // ...and at most one distinct text per this many rows
+    private static final int MIN_ROWS_PER_VALUE = 4;
+
+    // Matches are packed as row << COLUMN_BITS | column
+    private static final int COLUMN_BITS = 20;
+
+    private final List<T> rows;
+    private final List<Function<T, String>> columnTexts;
+    private final ColumnDictionary[] dictionaries;
+    private int searches = 0;
+
+    /**
+     * @param rows        rows to search, in display order
+     * @param columnTexts per column, the text shown for a row's cell
+     */
+    public ResultSearch(List<T> rows, List<Function<T, String>> columnTexts) {
+        this.rows = rows;
+        this.columnTexts = new ArrayList<>(columnTexts);
+        this.dictionaries = new ColumnDictionary[columnTexts.size()];
+    }
+
+    /**
+     * Text test for a search: case-insensitive substring, or a (case-insensitive) regular
+     * expression found anywhere in the text
+     *
+     * @throws java.util.regex.PatternSyntaxException for an invalid regular expression
+     */
+    public static Predicate<String> compile(String query, boolean regex) {
+        if (regex) {
+            Pattern pattern = Pattern.compile(query, Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+            return text -> pattern.matcher(text).find();
+        }
+        return text -> containsIgnoreCase(text, query);
+    }
+
+    private static boolean containsIgnoreCase(String text, String query) {
+        int length = query.length();
+        for (int i = 0, last = text.length() - length; i <= last; i++) {
+            if (text.regionMatches(true, i, query, 0, length)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Matching cells in row-major order, packed (see {@link #row} and {@link #column}); at
+     * most {@link #MAX_MATCHES}. One search runs at a time per result.
+     */
+    public synchronized long[] find(Predicate<String> matcher, QueryTask task) throws java.sql.SQLException {
+        long start = System.currentTimeMillis();
+        if (++searches >= 2) {
+            buildDictionaries(task);
+        }
+
+        // Indexed columns: test each distinct text once
+        boolean[][] hits = new boolean[dictionaries.length][];
+        int indexed = 0;
+        for (int c = 0; c < dictionaries.length; c++) {
+            ColumnDictionary dictionary = dictionaries[c];
+            if (dictionary != null && dictionary != ColumnDictionary.TOO_MANY) {
+                hits[c] = dictionary.match(matcher);
+                indexed++;
+            }
+        }
+
+        int chunks = (rows.size() + CHUNK_ROWS - 1) / CHUNK_ROWS;
+        long[][] chunkMatches = IntStream.range(0, chunks).parallel()
+            .mapToObj(chunk -> task.isCancelled() ? new long[0] : scan(chunk, matcher, hits))
+            .toArray(long[][]::new);
+        task.checkCancelled();
+
+        // Chunks are in row order - concatenate up to the cap
+        int total = 0;
+        for (long[] matches : chunkMatches) {
+            total = (int) Math.min(MAX_MATCHES, (long) total + matches.length);
+        }
+        long[] matches = new long[total];
+        int filled = 0;
+        for (long[] chunk : chunkMatches) {
+            int n = Math.min(chunk.length, total - filled);
+            System.arraycopy(chunk, 0, matches, filled, n);
+            filled += n;
+        }
+
+        System.out.println("Found " + matches.length + " cells in " + rows.size() + " rows (" + indexed + " of "
+            + dictionaries.length + " columns indexed) in " + (System.currentTimeMillis() - start) + " ms");
+        return matches;
+    }
+
+    private long[] scan(int chunk, Predicate<String> matcher, boolean[][] hits) {
+        int from = chunk * CHUNK_ROWS;
+        int to = Math.min(from + CHUNK_ROWS, rows.size());
+        long[] matches = new long[16];
+        int count = 0;
+
+        for (int r = from; r < to; r++) {
+            T row = null; // Read only if a column has to be scanned
+            for (int c = 0; c < hits.length; c++) {
+                boolean match;
+                if (hits[c] != null) {
+                    match = hits[c][dictionaries[c].code(r)];
+                } else {
+                    if (row == null) row = rows.get(r);
+                    String text = columnTexts.get(c).apply(row);
+                    match = text != null && matcher.test(text);
+                }
+                if (match) {
+                    if (count == matches.length) matches = Arrays.copyOf(matches, count * 2);
+                    matches[count++] = ((long) r << COLUMN_BITS) | c;
+                }
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    /**
+     * Build the dictionaries not built yet, columns in parallel
+     */
+    private void buildDictionaries(QueryTask task) {
+        IntStream.range(0, dictionaries.length).parallel().forEach(c -> {
+            if (dictionaries[c] == null && !task.isCancelled()) {
+                dictionaries[c] = ColumnDictionary.build(rows, columnTexts.get(c), task);
+            }
+        });
+    }
+
+    public static int row(long match) {
+        return (int) (match >>> COLUMN_BITS);
+    }
+
+    public static int column(long match) {
+        return (int) (match & ((1 << COLUMN_BITS) - 1));
+    }
+
+    /**
+     * Distinct texts of one column and the code of each row's text: a byte per row for up
+     * to 256 distinct texts, a char otherwise
+     */
+    private static final class ColumnDictionary {
+        static final ColumnDictionary TOO_MANY = new ColumnDictionary(null, null, null);
+
+        private final String[] values;
+        private final byte[] byteCodes;
+        private final char[] charCodes;
+
+        private ColumnDictionary(String[] values, byte[] byteCodes, char[] charCodes) {
+            this.values = values;
+            this.byteCodes = byteCodes;
+            this.charCodes = charCodes;
+        }
+
+        static <T> ColumnDictionary build(List<T> rows, Function<T, String> text, QueryTask task) {
+            int size = rows.size();
+            int limit = Math.min(MAX_DICTIONARY_VALUES, Math.max(256, size / MIN_ROWS_PER_VALUE));
+            Map<String, Integer> ids = new HashMap<>();
+            List<String> values = new ArrayList<>();
+            int[] codes = new int[size];
+
+            for (int r = 0; r < size; r++) {
+                if ((r & 0xFFFF) == 0 && task.isCancelled()) return null; // Built by a later search
+                String value = text.apply(rows.get(r));
+                Integer id = ids.get(value);
+                if (id == null) {
+                    if (values.size() == limit) return TOO_MANY;
+                    id = values.size();
+                    ids.put(value, id);
+                    values.add(value);
+                }
+                codes[r] = id;
+            }
+
+            if (values.size() <= 256) {
+                byte[] byteCodes = new byte[size];
+                for (int r = 0; r < size; r++) byteCodes[r] = (byte) codes[r];
+                return new ColumnDictionary(values.toArray(new String[0]), byteCodes, null);
+            }
+            char[] charCodes = new char[size];
+            for (int r = 0; r < size; r++) charCodes[r] = (char) codes[r];
+            return new ColumnDictionary(values.toArray(new String[0]), null, charCodes);
+        }
+
+        int code(int row) {
+            return byteCodes != null ? byteCodes[row] & 0xFF : charCodes[row];
+        }
+
+        boolean[] match(Predicate<String> matcher) {
+            boolean[] hits = new boolean[values.length];
+            for (int i = 0; i < values.length; i++) {
+                hits[i] = values[i] != null && matcher.test(values[i]);
+            }
+            return hits;
+        }
+    }
+}
@@ -0,0 +1,584 @@
+package com.dbassist.dbassist.service;
+
+import com.dbassist.dbassist.model.DatabaseConnection;
+import com.dbassist.dbassist.model.LobHandle;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.Cleaner;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Rows of one query result. Rows stay on the heap until they reach the connection's result
+ * memory budget; later rows are spilled to a file under ~/.dbassist/spill in blocks of
+ * {@link #BLOCK_ROWS} rows, each block stored column by column, and read back through
+ * memory-mapped regions of the file. The store is a random-access list, so a TableView
+ * over it only decodes the blocks it shows.
+ * Rows can be appended at any time; spilled rows are read-only. The spill file is deleted
+ * when the store is closed or cleared, or once it is no longer referenced.
+ */
+public class ResultStore extends AbstractList<Map<String, Object>> implements RandomAccess, AutoCloseable {
+
+    private static final String SPILL_DIR = System.getProperty("user.home") + "/.dbassist/spill/";
+
+    public static final int BLOCK_ROWS = 1024;
+
+    // Size of one mapped window of the spill file; blocks never straddle two windows
+    private static final long REGION_BYTES = 64L * 1024 * 1024;
+
+    // Decoded blocks kept for scrolling back and forth
+    private static final int CACHED_BLOCKS = 8;
+
+    // Spill files left behind by a crash (where the OS could not delete them on close)
+    private static final long STALE_SPILL_MILLIS = 24L * 60 * 60 * 1000;
+
+    private static final Cleaner CLEANER = Cleaner.create();
+    private static boolean staleFilesRemoved = false;
+
+    // Value tags
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte STRING_REF = 2; // Repeat of a string earlier in the same column block
+    private static final byte INT = 3;
+    private static final byte LONG = 4;
+    private static final byte SHORT = 5;
+    private static final byte BYTE = 6;
+    private static final byte DOUBLE = 7;
+    private static final byte FLOAT = 8;
+    private static final byte DECIMAL = 9;
+    private static final byte TRUE = 10;
+    private static final byte FALSE = 11;
+    private static final byte TIMESTAMP = 12;
+    private static final byte DATE = 13;
+    private static final byte TIME = 14;
+    private static final byte BYTES = 15;
+    private static final byte LOB = 16;
+
+    private final List<String> columns;
+    private final long memoryBudgetBytes;
+
+    // Rows 0 .. heapRows.size()-1 live here, the rest in the spill file or the pending block
+    private List<Map<String, Object>> heapRows = new ArrayList<>();
+    private long heapBytes = 0;
+
+    private SpillFile spillFile;
+    private Cleaner.Cleanable cleanable;
+    private long[] blockOffsets = new long[16];
+    private int[] blockLengths = new int[16];
+    private int blockCount = 0;
+    private int spilledRows = 0; // Rows in written blocks
+    private final List<Map<String, Object>> pendingRows = new ArrayList<>(); // Spilled rows not yet written
+    private final List<MappedByteBuffer> regions = new ArrayList<>();
+    private final LinkedHashMap<Integer, List<Map<String, Object>>> decodedBlocks =
+        new LinkedHashMap<Integer, List<Map<String, Object>>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<Map<String, Object>>> eldest) {
+                return size() > CACHED_BLOCKS;
+            }
+        };
+
+    /**
+     * The open spill file; also the clean-up action run when the store is unreachable
+     */
+    private static class SpillFile implements Runnable {
+        private final Path path;
+        private final FileChannel channel;
+        private long size = 0;
+
+        SpillFile(Path path, FileChannel channel) {
+            this.path = path;
+            this.channel = channel;
+        }
+
+        @Override
+        public void run() {
+            try {
+                channel.close();
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                System.err.println("Error deleting spill file " + path + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Store with the memory budget of {@code dbConnection} (the default if null)
+     */
+    public ResultStore(List<String> columns, DatabaseConnection dbConnection) {
+        this(columns, (dbConnection != null ? dbConnection.getResultMemoryMb() : DatabaseConnection.DEFAULT_RESULT_MEMORY_MB)
+            * 1024L * 1024);
+    }
+
+    public ResultStore(List<String> columns, long memoryBudgetBytes) {
+        this.columns = new ArrayList<>(new LinkedHashSet<>(columns));
+        this.memoryBudgetBytes = memoryBudgetBytes;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * True once rows have gone to disk
+     */
+    public synchronized boolean isSpilled() {
+        return spillFile != null;
+    }
+
+    /**
+     * Rows held on disk (or waiting to be written)
+     */
+    public synchronized int getSpilledRowCount() {
+        return spilledRows + pendingRows.size();
+    }
+
+    public synchronized long getSpillFileBytes() {
+        return spillFile != null ? spillFile.size : 0;
+    }
+
+    @Override
+    public synchronized int size() {
+        return heapRows.size() + spilledRows + pendingRows.size();
+    }
+
+    @Override
+    public synchronized Map<String, Object> get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Row " + index + " of " + size());
+        }
+        if (index < heapRows.size()) {
+            return heapRows.get(index);
+        }
+
+        int spilledIndex = index - heapRows.size();
+        if (spilledIndex >= spilledRows) {
+            return pendingRows.get(spilledIndex - spilledRows);
+        }
+        return readBlock(spilledIndex / BLOCK_ROWS).get(spilledIndex % BLOCK_ROWS);
+    }
+
+    /**
+     * Append a row; rows can only be added at the end
+     */
+    @Override
+    public synchronized void add(int index, Map<String, Object> row) {
+        if (index != size()) {
+            throw new UnsupportedOperationException("Rows can only be appended to a result");
+        }
+
+        if (spillFile == null) {
+            long rowBytes = estimateRow(row);
+            if (heapBytes + rowBytes <= memoryBudgetBytes) {
+                heapRows.add(row);
+                heapBytes += rowBytes;
+                modCount++;
+                return;
+            }
+            openSpillFile();
+        }
+
+        pendingRows.add(row);
+        if (pendingRows.size() == BLOCK_ROWS) {
+            writeBlock();
+        }
+        modCount++;
+    }
+
+    /**
+     * Replace a row held on the heap (e.g. when sorting a result that was not spilled)
+     */
+    @Override
+    public synchronized Map<String, Object> set(int index, Map<String, Object> row) {
+        if (index >= heapRows.size()) {
+            throw new UnsupportedOperationException("Rows spilled to disk are read-only");
+        }
+        return heapRows.set(index, row);
+    }
+
+    @Override
+    public synchronized Map<String, Object> remove(int index) {
+        if (index >= heapRows.size()) {
+            throw new UnsupportedOperationException("Rows spilled to disk are read-only");
+        }
+        Map<String, Object> row = heapRows.remove(index);
+        heapBytes -= estimateRow(row);
+        modCount++;
+        return row;
+    }
+
+    /**
+     * Drop all rows and delete the spill file
+     */
+    @Override
+    public synchronized void clear() {
+        close();
+        heapRows = new ArrayList<>();
+        heapBytes = 0;
+        modCount++;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (cleanable != null) {
+            cleanable.clean();
+            cleanable = null;
+        }
+        spillFile = null;
+        blockCount = 0;
+        spilledRows = 0;
+        pendingRows.clear();
+        regions.clear();
+        decodedBlocks.clear();
+    }
+
+    private static long estimateRow(Map<String, Object> row) {
+        long bytes = 48;
+        for (Object value : row.values()) {
+            bytes += 32 + ResultCursor.estimateSize(value);
+        }
+        return bytes;
+    }
+
+    private void openSpillFile() {
+        try {
+            File dir = new File(SPILL_DIR);
+            if (!dir.exists()) {
+                dir.mkdirs();
+            }
+            removeStaleSpillFiles(dir);
+
+            Path path = Files.createTempFile(dir.toPath(), "result-", ".spill");
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                                                   StandardOpenOption.DELETE_ON_CLOSE);
+            spillFile = new SpillFile(path, channel);
+            cleanable = CLEANER.register(this, spillFile);
+            System.out.println("Result passed " + memoryBudgetBytes / (1024 * 1024) + " MB - spilling rows to " + path);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot create spill file in " + SPILL_DIR + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static synchronized void removeStaleSpillFiles(File dir) {
+        if (staleFilesRemoved) return;
+        staleFilesRemoved = true;
+
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".spill"));
+        if (files == null) return;
+        for (File file : files) {
+            if (System.currentTimeMillis() - file.lastModified() > STALE_SPILL_MILLIS && file.delete()) {
+                System.out.println("Deleted stale spill file " + file.getName());
+            }
+        }
+    }
+
+    // ---- Writing ----
+
+    private void writeBlock() {
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+            DataOutputStream out = new DataOutputStream(buffer);
+
+            // Column by column: similar values sit together and repeated strings are written once
+            writeVarInt(out, pendingRows.size());
+            for (String column : columns) {
+                Map<String, Integer> strings = new HashMap<>();
+                for (Map<String, Object> row : pendingRows) {
+                    writeValue(out, row.get(column), strings);
+                }
+            }
+            out.flush();
+            byte[] bytes = buffer.toByteArray();
+
+            long position = spillFile.size;
+            if (bytes.length <= REGION_BYTES && position / REGION_BYTES != (position + bytes.length - 1) / REGION_BYTES) {
+                position = (position / REGION_BYTES + 1) * REGION_BYTES;
+            }
+            ByteBuffer source = ByteBuffer.wrap(bytes);
+            while (source.hasRemaining()) {
+                spillFile.channel.write(source, position + source.position());
+            }
+            spillFile.size = position + bytes.length;
+
+            if (blockCount == blockOffsets.length) {
+                blockOffsets = Arrays.copyOf(blockOffsets, blockCount * 2);
+                blockLengths = Arrays.copyOf(blockLengths, blockCount * 2);
+            }
+            blockOffsets[blockCount] = position;
+            blockLengths[blockCount] = bytes.length;
+            blockCount++;
+            spilledRows += pendingRows.size();
+            pendingRows.clear();
+        } catch (IOException e) {
+            throw new IllegalStateException("Error writing spill file: " + e.getMessage(), e);
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Object value, Map<String, Integer> strings) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            String text = (String) value;
+            Integer ref = strings != null ? strings.get(text) : null;
+            if (ref != null) {
+                out.writeByte(STRING_REF);
+                writeVarInt(out, ref);
+            } else {
+                out.writeByte(STRING);
+                writeString(out, text);
+                if (strings != null && text.length() <= 256) {
+                    strings.put(text, strings.size());
+                }
+            }
+        } else if (value instanceof Integer) {
+            out.writeByte(INT);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Short) {
+            out.writeByte(SHORT);
+            out.writeShort((Short) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof BigDecimal) {
+            BigDecimal decimal = (BigDecimal) value;
+            byte[] unscaled = decimal.unscaledValue().toByteArray();
+            out.writeByte(DECIMAL);
+            writeVarInt(out, decimal.scale() + 1024); // Scales can be negative
+            writeVarInt(out, unscaled.length);
+            out.write(unscaled);
+        } else if (value instanceof Boolean) {
+            out.writeByte((Boolean) value ? TRUE : FALSE);
+        } else if (value instanceof java.sql.Timestamp) {
+            java.sql.Timestamp timestamp = (java.sql.Timestamp) value;
+            out.writeByte(TIMESTAMP);
+            out.writeLong(timestamp.getTime());
+            out.writeInt(timestamp.getNanos());
+        } else if (value instanceof java.sql.Date) {
+            out.writeByte(DATE);
+            out.writeLong(((java.sql.Date) value).getTime());
+        } else if (value instanceof java.sql.Time) {
+            out.writeByte(TIME);
+            out.writeLong(((java.sql.Time) value).getTime());
+        } else if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            out.writeByte(BYTES);
+            writeVarInt(out, bytes.length);
+            out.write(bytes);
+        } else if (value instanceof LobHandle) {
+            out.writeByte(LOB);
+            writeLob(out, (LobHandle) value);
+        } else {
+            // Driver-specific types (Oracle TIMESTAMPTZ, DateTimeOffset, ...) are kept as their text
+            writeValue(out, value.toString(), strings);
+        }
+    }
+
+    private static void writeLob(DataOutputStream out, LobHandle handle) throws IOException {
+        writeString(out, handle.getPreview());
+        out.writeLong(handle.getLength());
+        out.writeByte((handle.isBinary() ? 1 : 0) | (handle.isLengthInBytes() ? 2 : 0) | (handle.isComplete() ? 4 : 0));
+        writeValue(out, handle.getHash(), null);
+        writeValue(out, handle.getConnectionName(), null);
+        writeValue(out, handle.getDatabaseType(), null);
+        writeValue(out, handle.getTableName(), null);
+        writeValue(out, handle.getColumnName(), null);
+
+        Map<String, Object> key = handle.getKey();
+        writeVarInt(out, key != null ? key.size() + 1 : 0);
+        if (key != null) {
+            for (Map.Entry<String, Object> entry : key.entrySet()) {
+                writeString(out, entry.getKey());
+                writeValue(out, entry.getValue(), null);
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    // ---- Reading ----
+
+    private List<Map<String, Object>> readBlock(int block) {
+        List<Map<String, Object>> rows = decodedBlocks.get(block);
+        if (rows != null) return rows;
+
+        try {
+            ByteBuffer in = mapBlock(block);
+            int rowCount = readVarInt(in);
+
+            rows = new ArrayList<>(rowCount);
+            for (int i = 0; i < rowCount; i++) {
+                rows.add(new LinkedHashMap<>(columns.size() * 2));
+            }
+            for (String column : columns) {
+                List<String> strings = new ArrayList<>();
+                for (Map<String, Object> row : rows) {
+                    row.put(column, readValue(in, strings));
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Error reading spill file: " + e.getMessage(), e);
+        }
+
+        decodedBlocks.put(block, rows);
+        return rows;
+    }
+
+    /**
+     * The bytes of a block, as a view of the mapped window of the file that holds it
+     */
+    private ByteBuffer mapBlock(int block) throws IOException {
+        long offset = blockOffsets[block];
+        int length = blockLengths[block];
+        if (length > REGION_BYTES) {
+            return spillFile.channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        }
+
+        int region = (int) (offset / REGION_BYTES);
+        long regionStart = region * REGION_BYTES;
+        while (regions.size() <= region) {
+            regions.add(null);
+        }
+
+        // The last window is mapped up to the end of the file - map it again once it has grown
+        MappedByteBuffer mapped = regions.get(region);
+        if (mapped == null || mapped.capacity() < offset - regionStart + length) {
+            mapped = spillFile.channel.map(FileChannel.MapMode.READ_ONLY, regionStart,
+                                           Math.min(REGION_BYTES, spillFile.size - regionStart));
+            regions.set(region, mapped);
+        }
+
+        ByteBuffer view = mapped.duplicate();
+        view.position((int) (offset - regionStart));
+        view.limit((int) (offset - regionStart) + length);
+        return view.slice();
+    }
+
+    private static Object readValue(ByteBuffer in, List<String> strings) {
+        byte tag = in.get();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING: {
+                String text = readString(in);
+                if (strings != null && text.length() <= 256) {
+                    strings.add(text);
+                }
+                return text;
+            }
+            case STRING_REF:
+                return strings.get(readVarInt(in));
+            case INT:
+                return in.getInt();
+            case LONG:
+                return in.getLong();
+            case SHORT:
+                return in.getShort();
+            case BYTE:
+                return in.get();
+            case DOUBLE:
+                return in.getDouble();
+            case FLOAT:
+                return in.getFloat();
+            case DECIMAL: {
+                int scale = readVarInt(in) - 1024;
+                byte[] unscaled = new byte[readVarInt(in)];
+                in.get(unscaled);
+                return new BigDecimal(new BigInteger(unscaled), scale);
+            }
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case TIMESTAMP: {
+                java.sql.Timestamp timestamp = new java.sql.Timestamp(in.getLong());
+                timestamp.setNanos(in.getInt());
+                return timestamp;
+            }
+            case DATE:
+                return new java.sql.Date(in.getLong());
+            case TIME:
+                return new java.sql.Time(in.getLong());
+            case BYTES: {
+                byte[] bytes = new byte[readVarInt(in)];
+                in.get(bytes);
+                return bytes;
+            }
+            case LOB:
+                return readLob(in);
+            default:
+                throw new IllegalStateException("Corrupt spill file (tag " + tag + ")");
+        }
+    }
+
+    private static LobHandle readLob(ByteBuffer in) {
+        String preview = readString(in);
+        long length = in.getLong();
+        int flags = in.get();
+        LobHandle handle = new LobHandle(preview, length, (flags & 1) != 0, (flags & 2) != 0, (flags & 4) != 0);
+        handle.setHash((String) readValue(in, null));
+        String connectionName = (String) readValue(in, null);
+        String databaseType = (String) readValue(in, null);
+        String tableName = (String) readValue(in, null);
+        String columnName = (String) readValue(in, null);
+
+        Map<String, Object> key = null;
+        int keySize = readVarInt(in) - 1;
+        if (keySize >= 0) {
+            key = new LinkedHashMap<>();
+            for (int i = 0; i < keySize; i++) {
+                key.put(readString(in), readValue(in, null));
+            }
+        }
+        handle.setSource(connectionName, databaseType, tableName, columnName, key);
+        return handle;
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int readVarInt(ByteBuffer in) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
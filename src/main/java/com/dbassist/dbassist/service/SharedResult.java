@@ -0,0 +1,82 @@
+package com.dbassist.dbassist.service;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Read-only handle on a query result, shared without copying by the worksheet result tab,
+ * the grid tabs opened from it and comparisons. Every holder retains the handle and releases
+ * it when done; the rows (and their spill file) are dropped when the last holder releases.
+ * The handle starts with one reference, owned by whoever created it.
+ */
+public class SharedResult {
+
+    private final ResultStore store;
+    private int references = 1;
+
+    public SharedResult(ResultStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Take another reference; each call needs its own {@link #release()}
+     */
+    public synchronized SharedResult retain() {
+        if (references == 0) {
+            throw new IllegalStateException("Result has already been released");
+        }
+        references++;
+        return this;
+    }
+
+    /**
+     * Drop a reference; the last one clears the store, freeing its rows and deleting its spill file
+     */
+    public void release() {
+        synchronized (this) {
+            if (references == 0 || --references > 0) return;
+        }
+        store.clear();
+    }
+
+    /**
+     * The rows present now, as a read-only list. Rows the store receives later (a worksheet
+     * cursor still fetching) are not part of it, so holders see a fixed snapshot.
+     */
+    public List<Map<String, Object>> getRows() {
+        return new Rows(store, store.size());
+    }
+
+    public boolean isSpilled() {
+        return store.isSpilled();
+    }
+
+    public int getSpilledRowCount() {
+        return store.getSpilledRowCount();
+    }
+
+    private static final class Rows extends AbstractList<Map<String, Object>> implements RandomAccess {
+        private final ResultStore store;
+        private final int size;
+
+        Rows(ResultStore store, int size) {
+            this.store = store;
+            this.size = size;
+        }
+
+        @Override
+        public Map<String, Object> get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Row " + index + " of " + size);
+            }
+            return store.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.dbassist.dbassist.service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Auto-completion engine for the SQL worksheet.
+ *
+ * All completion candidates (keywords, tables, columns) live in one sorted index that is
+ * searched by binary search on the typed prefix. For prefixes that match a large part of
+ * the index the ranked head is cached, so lookups stay sub-millisecond even for schemas
+ * with 100k+ columns. Candidates are ranked by how often the user picked them.
+ * Context (table aliases, "alias." qualifiers) comes from tokenizing the current statement.
+ */
+public class SqlCompletionEngine {
+
+    private static final int MAX_SCAN = 2000; // Ranges larger than this use a cached ranked head
+    private static final int CACHED_HEAD_SIZE = 32;
+
+    public enum Kind {
+        COLUMN_IN_SCOPE, TABLE, KEYWORD, COLUMN
+    }
+
+    /**
+     * A completion candidate
+     */
+    public static class Suggestion {
+        private final String text;
+        private final Kind kind;
+        private final String key; // lower-case text used for prefix matching
+
+        Suggestion(String text, Kind kind) {
+            this.text = text;
+            this.kind = kind;
+            this.key = text.toLowerCase(Locale.ROOT);
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+    }
+
+    /**
+     * What the completion was asked for: the word being typed and the candidates ranked for it
+     */
+    public static class Completion {
+        private final String prefix;
+        private final List<Suggestion> suggestions;
+
+        Completion(String prefix, List<Suggestion> suggestions) {
+            this.prefix = prefix;
+            this.suggestions = suggestions;
+        }
+
+        public String getPrefix() {
+            return prefix;
+        }
+
+        public List<Suggestion> getSuggestions() {
+            return suggestions;
+        }
+    }
+
+    private final Suggestion[] index;                    // sorted by key
+    private final Map<String, Suggestion[]> columnsByTable; // upper-case table -> sorted columns
+    private final Map<String, Integer> usage;            // "kind:key" -> times picked
+    private final Map<String, List<Suggestion>> headCache = new ConcurrentHashMap<>();
+
+    private final Comparator<Suggestion> ranking = (a, b) -> {
+        int cmp = Integer.compare(usageOf(b), usageOf(a));
+        if (cmp != 0) return cmp;
+        cmp = a.kind.compareTo(b.kind);
+        if (cmp != 0) return cmp;
+        cmp = Integer.compare(a.key.length(), b.key.length());
+        return cmp != 0 ? cmp : a.key.compareTo(b.key);
+    };
+
+    public SqlCompletionEngine(Collection<String> tableNames, Map<String, List<String>> tableColumns) {
+        this(tableNames, tableColumns, new ConcurrentHashMap<>());
+    }
+
+    private SqlCompletionEngine(Collection<String> tableNames, Map<String, List<String>> tableColumns,
+                                Map<String, Integer> usage) {
+        this.usage = usage;
+
+        Map<String, Suggestion> entries = new HashMap<>();
+        for (String keyword : SqlTokenizer.KEYWORDS) {
+            entries.putIfAbsent("K:" + keyword.toLowerCase(Locale.ROOT), new Suggestion(keyword, Kind.KEYWORD));
+        }
+        for (String table : tableNames) {
+            entries.putIfAbsent("T:" + table.toLowerCase(Locale.ROOT), new Suggestion(table, Kind.TABLE));
+        }
+
+        this.columnsByTable = new HashMap<>();
+        for (Map.Entry<String, List<String>> entry : tableColumns.entrySet()) {
+            Suggestion[] columns = new Suggestion[entry.getValue().size()];
+            for (int i = 0; i < columns.length; i++) {
+                String column = entry.getValue().get(i);
+                columns[i] = new Suggestion(column, Kind.COLUMN);
+                entries.putIfAbsent("C:" + columns[i].key, columns[i]);
+            }
+            Arrays.sort(columns, Comparator.comparing(s -> s.key));
+            columnsByTable.put(entry.getKey().toUpperCase(Locale.ROOT), columns);
+        }
+
+        this.index = entries.values().toArray(new Suggestion[0]);
+        Arrays.sort(index, Comparator.comparing(s -> s.key));
+    }
+
+    /**
+     * Rebuild the engine with new metadata, keeping what the user has picked so far
+     */
+    public SqlCompletionEngine withMetadata(Collection<String> tableNames, Map<String, List<String>> tableColumns) {
+        return new SqlCompletionEngine(tableNames, tableColumns, usage);
+    }
+
+    /**
+     * Record that the user picked a suggestion so it ranks higher next time
+     */
+    public void recordUsage(Suggestion suggestion) {
+        Kind kind = suggestion.kind == Kind.COLUMN_IN_SCOPE ? Kind.COLUMN : suggestion.kind;
+        usage.merge(usageKey(kind, suggestion.key), 1, Integer::sum);
+
+        // Cached heads for any prefix of this key may now be out of order
+        for (int i = 0; i <= suggestion.key.length(); i++) {
+            headCache.remove(suggestion.key.substring(0, i));
+        }
+    }
+
+    /**
+     * Compute suggestions for the caret position within a statement
+     *
+     * @param statement text of the statement around the caret
+     * @param caret caret offset within {@code statement}
+     * @param limit maximum number of suggestions
+     */
+    public Completion complete(String statement, int caret, int limit) {
+        List<SqlTokenizer.Token> tokens = new ArrayList<>();
+        SqlTokenizer.tokenize(statement, 0, statement.length(), SqlTokenizer.State.DEFAULT, tokens);
+
+        // Locate the word being typed and an optional "qualifier." before it
+        String prefix = "";
+        String qualifier = null;
+        int tokenIndex = tokenEndingAt(tokens, caret);
+        int dotIndex = -1;
+
+        if (tokenIndex >= 0) {
+            SqlTokenizer.Token token = tokens.get(tokenIndex);
+            if (token.getType() == SqlTokenizer.TokenType.IDENTIFIER || token.getType() == SqlTokenizer.TokenType.KEYWORD) {
+                prefix = statement.substring(token.getStart(), caret);
+                dotIndex = tokenIndex - 1;
+            } else if (token.getType() == SqlTokenizer.TokenType.STRING
+                    || token.getType() == SqlTokenizer.TokenType.COMMENT) {
+                return new Completion("", Collections.emptyList()); // Never complete inside strings/comments
+            } else {
+                dotIndex = tokenIndex;
+            }
+        }
+        if (dotIndex >= 1 && isDot(statement, tokens.get(dotIndex))) {
+            SqlTokenizer.Token qualifierToken = tokens.get(dotIndex - 1);
+            if (qualifierToken.getType() != SqlTokenizer.TokenType.WHITESPACE) {
+                qualifier = unquote(qualifierToken.getText(statement));
+            }
+        }
+
+        Map<String, String> aliases = findTableReferences(statement, tokens);
+
+        if (qualifier != null) {
+            String table = aliases.getOrDefault(qualifier.toUpperCase(Locale.ROOT), qualifier);
+            return new Completion(prefix, rankColumns(table, prefix, Kind.COLUMN, limit));
+        }
+
+        // Unqualified: columns of tables referenced in this statement first, then the global index
+        List<Suggestion> result = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (String table : new LinkedHashSet<>(aliases.values())) {
+            for (Suggestion column : rankColumns(table, prefix, Kind.COLUMN_IN_SCOPE, limit)) {
+                if (result.size() < limit && seen.add("C:" + column.key)) {
+                    result.add(column);
+                }
+            }
+        }
+        for (Suggestion suggestion : rankGlobal(prefix.toLowerCase(Locale.ROOT), limit + result.size())) {
+            if (result.size() >= limit) break;
+            String key = (suggestion.kind == Kind.COLUMN ? "C:" : suggestion.kind.name()) + suggestion.key;
+            if (seen.add(key)) {
+                result.add(suggestion);
+            }
+        }
+
+        return new Completion(prefix, result);
+    }
+
+    /**
+     * Map of alias (upper-case) -> table name for tables referenced after FROM / JOIN / UPDATE / INTO
+     */
+    public static Map<String, String> findTableReferences(String statement, List<SqlTokenizer.Token> tokens) {
+        Map<String, String> aliases = new LinkedHashMap<>();
+        List<SqlTokenizer.Token> significant = new ArrayList<>();
+        for (SqlTokenizer.Token token : tokens) {
+            if (token.getType() != SqlTokenizer.TokenType.WHITESPACE && token.getType() != SqlTokenizer.TokenType.COMMENT) {
+                significant.add(token);
+            }
+        }
+
+        boolean inFromList = false;
+        for (int i = 0; i < significant.size(); i++) {
+            SqlTokenizer.Token token = significant.get(i);
+            String text = token.getText(statement).toUpperCase(Locale.ROOT);
+
+            boolean startsReference = token.getType() == SqlTokenizer.TokenType.KEYWORD
+                && (text.equals("FROM") || text.equals("JOIN") || text.equals("UPDATE") || text.equals("INTO"));
+            boolean continuesFromList = inFromList && text.equals(",");
+
+            if (token.getType() == SqlTokenizer.TokenType.KEYWORD && !startsReference) {
+                // Any other clause keyword ends a FROM list (ON, WHERE, GROUP, ...) - AS is handled below
+                if (!text.equals("AS")) inFromList = false;
+                continue;
+            }
+            if (!startsReference && !continuesFromList) continue;
+
+            if (startsReference) inFromList = text.equals("FROM") || text.equals("JOIN");
+
+            // Table name, possibly qualified: schema.table
+            int j = i + 1;
+            String table = null;
+            while (j < significant.size() && isNameToken(significant.get(j))) {
+                table = unquote(significant.get(j).getText(statement));
+                if (j + 2 < significant.size() && isDot(statement, significant.get(j + 1))) {
+                    j += 2;
+                } else {
+                    j++;
+                    break;
+                }
+            }
+            if (table == null) continue;
+
+            aliases.put(table.toUpperCase(Locale.ROOT), table);
+
+            // Optional [AS] alias
+            if (j < significant.size() && significant.get(j).getText(statement).equalsIgnoreCase("AS")) {
+                j++;
+            }
+            if (j < significant.size() && isNameToken(significant.get(j))) {
+                aliases.put(unquote(significant.get(j).getText(statement)).toUpperCase(Locale.ROOT), table);
+            }
+        }
+
+        return aliases;
+    }
+
+    private List<Suggestion> rankColumns(String table, String prefix, Kind kind, int limit) {
+        Suggestion[] columns = columnsByTable.get(table.toUpperCase(Locale.ROOT));
+        if (columns == null) return Collections.emptyList();
+
+        String key = prefix.toLowerCase(Locale.ROOT);
+        int from = lowerBound(columns, key);
+        int to = upperBound(columns, key);
+
+        List<Suggestion> matches = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            matches.add(kind == Kind.COLUMN ? columns[i] : new Suggestion(columns[i].text, kind));
+        }
+        matches.sort(ranking);
+        return matches.size() > limit ? matches.subList(0, limit) : matches;
+    }
+
+    private List<Suggestion> rankGlobal(String key, int limit) {
+        int from = lowerBound(index, key);
+        int to = upperBound(index, key);
+
+        if (to - from <= MAX_SCAN) {
+            return topK(from, to, limit);
+        }
+
+        // Large range (short prefix): rank once and reuse until usage changes
+        List<Suggestion> head = headCache.computeIfAbsent(key, k -> topK(from, to, CACHED_HEAD_SIZE));
+        return head.size() > limit ? head.subList(0, limit) : head;
+    }
+
+    /**
+     * Best {@code k} entries of index[from, to) without sorting the whole range
+     */
+    private List<Suggestion> topK(int from, int to, int k) {
+        PriorityQueue<Suggestion> heap = new PriorityQueue<>(k + 1, ranking.reversed());
+        for (int i = from; i < to; i++) {
+            heap.offer(index[i]);
+            if (heap.size() > k) heap.poll();
+        }
+        List<Suggestion> result = new ArrayList<>(heap);
+        result.sort(ranking);
+        return result;
+    }
+
+    private int usageOf(Suggestion suggestion) {
+        Kind kind = suggestion.kind == Kind.COLUMN_IN_SCOPE ? Kind.COLUMN : suggestion.kind;
+        return usage.getOrDefault(usageKey(kind, suggestion.key), 0);
+    }
+
+    private static String usageKey(Kind kind, String key) {
+        return kind.name() + ":" + key;
+    }
+
+    private static int lowerBound(Suggestion[] sorted, String prefix) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid].key.compareTo(prefix) < 0) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    private static int upperBound(Suggestion[] sorted, String prefix) {
+        int lo = lowerBound(sorted, prefix), hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid].key.startsWith(prefix)) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    private static int tokenEndingAt(List<SqlTokenizer.Token> tokens, int caret) {
+        for (int i = tokens.size() - 1; i >= 0; i--) {
+            SqlTokenizer.Token token = tokens.get(i);
+            if (token.getStart() < caret && token.getEnd() >= caret) return i;
+            if (token.getEnd() < caret) break;
+        }
+        return -1;
+    }
+
+    private static boolean isDot(String statement, SqlTokenizer.Token token) {
+        return token.getType() == SqlTokenizer.TokenType.OPERATOR && statement.charAt(token.getStart()) == '.';
+    }
+
+    private static boolean isNameToken(SqlTokenizer.Token token) {
+        return token.getType() == SqlTokenizer.TokenType.IDENTIFIER
+            || token.getType() == SqlTokenizer.TokenType.QUOTED_IDENTIFIER;
+    }
+
+    private static String unquote(String name) {
+        if (name.length() >= 2 && ((name.startsWith("[") && name.endsWith("]"))
+                || (name.startsWith("\"") && name.endsWith("\"")))) {
+            return name.substring(1, name.length() - 1);
+        }
+        return name;
+    }
+}
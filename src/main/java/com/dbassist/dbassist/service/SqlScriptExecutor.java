@@ -0,0 +1,260 @@
+package com.dbassist.dbassist.service;
+
+import com.dbassist.dbassist.model.DatabaseConnection;
+
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Executes a split script on one connection.
+ * Consecutive DML statements are sent together with addBatch/executeBatch; every other
+ * statement runs on its own. Progress is reported through a Listener (called on the
+ * executing thread) with per-statement timing.
+ */
+public class SqlScriptExecutor {
+
+    // Maximum number of statements sent in one executeBatch round trip
+    private static final int MAX_BATCH_SIZE = 500;
+
+    /**
+     * Receives execution progress. All callbacks run on the executing thread, as each
+     * result arrives. {@code resultIndex} numbers the results of one statement from 0; the
+     * rows of a result set are handed over in a store the listener then owns.
+     */
+    public interface Listener {
+        void onResultSet(SqlScriptSplitter.ScriptStatement statement, int resultIndex, List<String> columns,
+                         ResultStore rows, boolean truncated, long elapsedMillis);
+
+        void onUpdateCount(SqlScriptSplitter.ScriptStatement statement, int resultIndex, int updateCount, long elapsedMillis);
+
+        void onError(SqlScriptSplitter.ScriptStatement statement, SQLException error, long elapsedMillis);
+    }
+
+    /**
+     * Totals for a finished script
+     */
+    public static class Summary {
+        private final int executed;
+        private final int failed;
+        private final int total;
+        private final long elapsedMillis;
+        private final boolean cancelled;
+
+        Summary(int executed, int failed, int total, long elapsedMillis, boolean cancelled) {
+            this.executed = executed;
+            this.failed = failed;
+            this.total = total;
+            this.elapsedMillis = elapsedMillis;
+            this.cancelled = cancelled;
+        }
+
+        public int getExecuted() {
+            return executed;
+        }
+
+        public int getFailed() {
+            return failed;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public boolean isStopped() {
+            return executed < total;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private final Connection connection;
+    private final QueryTask task;
+    private final boolean stopOnError;
+    private final int fetchSize;
+    private final DatabaseConnection dbConnection;
+    private final Listener listener;
+
+    public SqlScriptExecutor(Connection connection, QueryTask task, boolean stopOnError, int fetchSize,
+                             DatabaseConnection dbConnection, Listener listener) {
+        this.connection = connection;
+        this.task = task;
+        this.stopOnError = stopOnError;
+        this.fetchSize = fetchSize;
+        this.dbConnection = dbConnection;
+        this.listener = listener;
+    }
+
+    public Summary execute(List<SqlScriptSplitter.ScriptStatement> statements) throws SQLException {
+        long scriptStart = System.currentTimeMillis();
+        int executed = 0;
+        int failed = 0;
+
+        try (Statement stmt = task.register(connection.createStatement())) {
+            stmt.setFetchSize(fetchSize); // Results are drained completely - big batches
+            int i = 0;
+            while (i < statements.size() && !task.isCancelled()) {
+                // Collect a run of consecutive DML
+                int runEnd = i;
+                while (runEnd < statements.size() && runEnd - i < MAX_BATCH_SIZE
+                        && statements.get(runEnd).getKind() == SqlScriptSplitter.StatementKind.DML) {
+                    runEnd++;
+                }
+
+                int size = Math.max(1, runEnd - i);
+                int[] outcome = size > 1
+                    ? executeBatch(stmt, statements.subList(i, runEnd))
+                    : new int[]{1, executeSingle(stmt, statements.get(i)) ? 0 : 1, 0};
+
+                executed += outcome[0];
+                failed += outcome[1];
+                i += Math.max(1, outcome[0]); // A batch the driver aborted resumes after the failed statement
+
+                // A batch of unknown outcome may have partly run - resuming could repeat its statements
+                if (outcome[2] > 0) break;
+                if (outcome[1] > 0 && (stopOnError || task.isCancelled())) break;
+            }
+        }
+
+        return new Summary(executed, failed, statements.size(), System.currentTimeMillis() - scriptStart, task.isCancelled());
+    }
+
+    /**
+     * Execute one statement and drain every result it produces (stored procedures and
+     * T-SQL batches can return several result sets and update counts)
+     *
+     * @return true if the statement succeeded
+     */
+    private boolean executeSingle(Statement stmt, SqlScriptSplitter.ScriptStatement statement) {
+        long start = System.currentTimeMillis();
+        try {
+            boolean isResultSet = stmt.execute(statement.getSql());
+            int resultIndex = 0;
+
+            while (true) {
+                if (isResultSet) {
+                    try (ResultSet rs = stmt.getResultSet()) {
+                        ResultSetMetaData metaData = rs.getMetaData();
+                        int columnCount = metaData.getColumnCount();
+
+                        List<String> columns = new ArrayList<>();
+                        for (int i = 1; i <= columnCount; i++) {
+                            columns.add(metaData.getColumnName(i));
+                        }
+                        boolean[] lobColumns = LobReader.findLobColumns(metaData);
+
+                        // Spill past the connection's result memory; stop at the same ceiling as cursor-backed results
+                        ResultStore data = new ResultStore(columns, dbConnection);
+                        long estimatedBytes = 0;
+                        boolean truncated = false;
+                        while (rs.next()) {
+                            if (estimatedBytes >= ResultCursor.MAX_RESULT_BYTES) {
+                                truncated = true;
+                                break;
+                            }
+                            Map<String, Object> row = new LinkedHashMap<>();
+                            estimatedBytes += 48;
+                            for (int i = 1; i <= columnCount; i++) {
+                                Object value = lobColumns[i - 1]
+                                    ? LobReader.readPreview(rs, i, metaData.getColumnType(i))
+                                    : rs.getObject(i);
+                                row.put(columns.get(i - 1), value);
+                                estimatedBytes += 32 + ResultCursor.estimateSize(value);
+                            }
+                            data.add(row);
+                        }
+
+                        listener.onResultSet(statement, resultIndex, columns, data, truncated, System.currentTimeMillis() - start);
+                    }
+                } else {
+                    int updateCount = stmt.getUpdateCount();
+                    if (updateCount == -1) break; // No more results
+                    listener.onUpdateCount(statement, resultIndex, updateCount, System.currentTimeMillis() - start);
+                }
+
+                // Each result is timed from the end of the previous one
+                start = System.currentTimeMillis();
+                resultIndex++;
+                isResultSet = stmt.getMoreResults();
+            }
+            return true;
+        } catch (SQLException e) {
+            listener.onError(statement, e, System.currentTimeMillis() - start);
+            return false;
+        }
+    }
+
+    /**
+     * Send a run of DML in one round trip; timing is reported as the batch average.
+     * If the batch fails without per-statement counts (timeout, lost connection), the server
+     * may have run and committed any part of it, so every statement is reported as failed
+     * with an unknown outcome and the script must stop.
+     *
+     * @return {statements executed, statements failed, 1 if the outcome is unknown}
+     */
+    private int[] executeBatch(Statement stmt, List<SqlScriptSplitter.ScriptStatement> batch) {
+        long start = System.currentTimeMillis();
+        int[] counts;
+        SQLException error = null;
+
+        try {
+            for (SqlScriptSplitter.ScriptStatement statement : batch) {
+                stmt.addBatch(statement.getSql());
+            }
+            counts = stmt.executeBatch();
+        } catch (BatchUpdateException e) {
+            counts = e.getUpdateCounts();
+            error = e;
+        } catch (SQLException e) {
+            counts = null;
+            error = e;
+        } finally {
+            try {
+                stmt.clearBatch();
+            } catch (SQLException ignored) {
+            }
+        }
+
+        long perStatement = (System.currentTimeMillis() - start) / batch.size();
+
+        if (counts == null) {
+            SQLException unknown = new SQLException("Outcome unknown - the batch of " + batch.size()
+                + " statements failed and some of them may have run: " + error.getMessage(),
+                error.getSQLState(), error.getErrorCode(), error);
+            for (SqlScriptSplitter.ScriptStatement statement : batch) {
+                listener.onError(statement, unknown, perStatement);
+            }
+            return new int[]{batch.size(), batch.size(), 1};
+        }
+
+        int executed = 0;
+        int failed = 0;
+
+        for (int i = 0; i < batch.size(); i++) {
+            SqlScriptSplitter.ScriptStatement statement = batch.get(i);
+            if (i < counts.length && counts[i] != Statement.EXECUTE_FAILED) {
+                // SUCCESS_NO_INFO (-2) is reported as an unknown count
+                listener.onUpdateCount(statement, 0, Math.max(counts[i], -1), perStatement);
+                executed++;
+            } else if (i < counts.length) {
+                // Driver kept going after a failure and flagged this statement
+                listener.onError(statement, error, perStatement);
+                executed++;
+                failed++;
+            } else if (error != null) {
+                // Driver stopped at this statement - the rest of the batch did not run
+                listener.onError(statement, error, perStatement);
+                executed++;
+                failed++;
+                break;
+            }
+        }
+
+        return new int[]{executed, failed, 0};
+    }
+}
@@ -0,0 +1,230 @@
+package com.dbassist.dbassist.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits a worksheet script into executable statements.
+ * Uses SqlTokenizer so ';' inside strings, comments and quoted identifiers is ignored.
+ * Understands SQL Server "GO" batch separators and the Oracle "/" terminator that ends
+ * PL/SQL blocks (DECLARE / BEGIN / CREATE PROCEDURE ...).
+ */
+public class SqlScriptSplitter {
+
+    public enum StatementKind {
+        QUERY, DML, BLOCK, OTHER
+    }
+
+    /**
+     * One statement of a script with its position in the original text
+     */
+    public static class ScriptStatement {
+        private final String sql;
+        private final int startOffset;
+        private final StatementKind kind;
+
+        ScriptStatement(String sql, int startOffset, StatementKind kind) {
+            this.sql = sql;
+            this.startOffset = startOffset;
+            this.kind = kind;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public int getStartOffset() {
+            return startOffset;
+        }
+
+        public StatementKind getKind() {
+            return kind;
+        }
+
+        /**
+         * Single-line preview for status and message output
+         */
+        public String getSummary() {
+            String oneLine = sql.replaceAll("\\s+", " ").trim();
+            return oneLine.length() > 80 ? oneLine.substring(0, 77) + "..." : oneLine;
+        }
+    }
+
+    /**
+     * Split a script for the given database type ("SQL Server" or "Oracle")
+     */
+    public static List<ScriptStatement> split(String script, String databaseType) {
+        boolean oracle = "Oracle".equals(databaseType);
+
+        List<SqlTokenizer.Token> tokens = new ArrayList<>();
+        SqlTokenizer.tokenize(script, 0, script.length(), SqlTokenizer.State.DEFAULT, tokens);
+
+        List<ScriptStatement> statements = new ArrayList<>();
+        int statementStart = -1;
+        boolean block = false;      // ';' does not end the statement inside a block
+        boolean firstWordSeen = false;
+        boolean usesVariables = false;
+
+        for (int i = 0; i < tokens.size(); i++) {
+            SqlTokenizer.Token token = tokens.get(i);
+
+            // Batch terminator on a line of its own: GO (SQL Server) or / (Oracle)
+            if (isTerminatorLine(script, token, oracle)) {
+                if (statementStart >= 0) {
+                    addStatement(statements, script, statementStart, token.getStart(), block, usesVariables);
+                }
+                statementStart = -1;
+                block = false;
+                firstWordSeen = false;
+                usesVariables = false;
+                // Skip the rest of the terminator line (e.g. "GO 5" repeat count is not supported)
+                while (i + 1 < tokens.size() && !containsNewline(script, tokens.get(i + 1))) i++;
+                continue;
+            }
+
+            if (token.getType() == SqlTokenizer.TokenType.WHITESPACE || token.getType() == SqlTokenizer.TokenType.COMMENT) {
+                continue;
+            }
+
+            if (statementStart < 0) {
+                statementStart = token.getStart();
+            }
+
+            String text = token.getText(script).toUpperCase(Locale.ROOT);
+            if (text.startsWith("@")) usesVariables = true;
+
+            if (!firstWordSeen) {
+                firstWordSeen = true;
+                block = startsBlock(script, tokens, i, oracle);
+            }
+
+            if (token.getType() == SqlTokenizer.TokenType.OPERATOR && text.equals(";") && !block) {
+                // In SQL Server scripts that use variables the whole batch must run together
+                if (!oracle && usesVariables) continue;
+
+                addStatement(statements, script, statementStart, token.getStart(), false, false);
+                statementStart = -1;
+                firstWordSeen = false;
+            }
+        }
+
+        if (statementStart >= 0) {
+            addStatement(statements, script, statementStart, script.length(), block, usesVariables);
+        }
+
+        return statements;
+    }
+
+    private static void addStatement(List<ScriptStatement> statements, String script, int start, int end,
+                                     boolean block, boolean wholeBatch) {
+        String sql = script.substring(start, end).trim();
+
+        // Drivers reject a trailing ';' on plain SQL (Oracle), but PL/SQL needs its final "END;"
+        if (!block && sql.endsWith(";")) {
+            sql = sql.substring(0, sql.length() - 1).trim();
+        }
+        if (sql.isEmpty()) return;
+
+        StatementKind kind = block || wholeBatch ? StatementKind.BLOCK : classify(sql);
+        statements.add(new ScriptStatement(sql, start, kind));
+    }
+
+    private static StatementKind classify(String sql) {
+        List<SqlTokenizer.Token> tokens = new ArrayList<>();
+        SqlTokenizer.tokenize(sql, 0, Math.min(sql.length(), 200), SqlTokenizer.State.DEFAULT, tokens);
+        for (SqlTokenizer.Token token : tokens) {
+            if (token.getType() == SqlTokenizer.TokenType.WHITESPACE || token.getType() == SqlTokenizer.TokenType.COMMENT) {
+                continue;
+            }
+            switch (token.getText(sql).toUpperCase(Locale.ROOT)) {
+                case "SELECT":
+                case "WITH":
+                    return StatementKind.QUERY;
+                case "INSERT":
+                case "UPDATE":
+                case "DELETE":
+                case "MERGE":
+                    // An OUTPUT clause returns rows, which executeBatch rejects after the write
+                    return hasOutputClause(sql) ? StatementKind.OTHER : StatementKind.DML;
+                default:
+                    return StatementKind.OTHER;
+            }
+        }
+        return StatementKind.OTHER;
+    }
+
+    /**
+     * Does the DML statement have a T-SQL OUTPUT clause (outside strings and comments)?
+     */
+    private static boolean hasOutputClause(String sql) {
+        List<SqlTokenizer.Token> tokens = new ArrayList<>();
+        SqlTokenizer.tokenize(sql, 0, sql.length(), SqlTokenizer.State.DEFAULT, tokens);
+        for (SqlTokenizer.Token token : tokens) {
+            if ((token.getType() == SqlTokenizer.TokenType.KEYWORD || token.getType() == SqlTokenizer.TokenType.IDENTIFIER)
+                    && token.getText(sql).equalsIgnoreCase("OUTPUT")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Does the statement starting at token {@code index} contain its own ';'-terminated body?
+     */
+    private static boolean startsBlock(String script, List<SqlTokenizer.Token> tokens, int index, boolean oracle) {
+        List<String> words = new ArrayList<>();
+        for (int i = index; i < tokens.size() && words.size() < 5; i++) {
+            SqlTokenizer.Token token = tokens.get(i);
+            if (token.getType() == SqlTokenizer.TokenType.KEYWORD || token.getType() == SqlTokenizer.TokenType.IDENTIFIER) {
+                words.add(token.getText(script).toUpperCase(Locale.ROOT));
+            } else if (token.getType() != SqlTokenizer.TokenType.WHITESPACE && token.getType() != SqlTokenizer.TokenType.COMMENT) {
+                break;
+            }
+        }
+        if (words.isEmpty()) return false;
+
+        String first = words.get(0);
+        if (first.equals("BEGIN")) {
+            // BEGIN TRAN / BEGIN TRANSACTION is a plain statement
+            return words.size() < 2 || !(words.get(1).equals("TRAN") || words.get(1).equals("TRANSACTION"));
+        }
+        if (first.equals("DECLARE")) {
+            return oracle; // T-SQL DECLARE is a plain statement
+        }
+        if (first.equals("CREATE") || first.equals("ALTER")) {
+            int i = 1;
+            if (i + 1 < words.size() && words.get(i).equals("OR")) i += 2; // OR REPLACE / OR ALTER
+            if (i < words.size()) {
+                String object = words.get(i);
+                return object.equals("PROCEDURE") || object.equals("PROC") || object.equals("FUNCTION")
+                    || object.equals("TRIGGER") || object.equals("PACKAGE") || object.equals("TYPE");
+            }
+        }
+        return false;
+    }
+
+    private static boolean isTerminatorLine(String script, SqlTokenizer.Token token, boolean oracle) {
+        String text = token.getText(script);
+        boolean candidate = oracle
+            ? token.getType() == SqlTokenizer.TokenType.OPERATOR && text.equals("/")
+            : (token.getType() == SqlTokenizer.TokenType.IDENTIFIER || token.getType() == SqlTokenizer.TokenType.KEYWORD)
+                && text.equalsIgnoreCase("GO");
+        if (!candidate) return false;
+
+        // Only whitespace before it on the line
+        for (int i = token.getStart() - 1; i >= 0 && script.charAt(i) != '\n'; i--) {
+            if (!Character.isWhitespace(script.charAt(i))) return false;
+        }
+        // Only whitespace (or a GO repeat count) after it on the line
+        for (int i = token.getEnd(); i < script.length() && script.charAt(i) != '\n'; i++) {
+            char c = script.charAt(i);
+            if (!Character.isWhitespace(c) && !(Character.isDigit(c) && !oracle)) return false;
+        }
+        return true;
+    }
+
+    private static boolean containsNewline(String script, SqlTokenizer.Token token) {
+        return token.getType() == SqlTokenizer.TokenType.WHITESPACE && token.getText(script).indexOf('\n') >= 0;
+    }
+}
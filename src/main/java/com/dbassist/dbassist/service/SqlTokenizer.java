@@ -0,0 +1,226 @@
+package com.dbassist.dbassist.service;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Lightweight hand-written SQL lexer.
+ * Text can be tokenized in pieces (e.g. one paragraph at a time) by passing the
+ * state the previous piece ended in, so multi-line comments and strings are handled.
+ */
+public class SqlTokenizer {
+
+    // SQL Keywords recognized by the lexer (syntax highlighting and auto-completion)
+    public static final String[] KEYWORDS = new String[]{
+        "SELECT", "FROM", "WHERE", "INSERT", "UPDATE", "DELETE", "CREATE", "DROP", "ALTER",
+        "TABLE", "INDEX", "VIEW", "JOIN", "INNER", "LEFT", "RIGHT", "OUTER", "ON", "AS",
+        "GROUP", "BY", "ORDER", "HAVING", "DISTINCT", "COUNT", "SUM", "AVG", "MIN", "MAX",
+        "AND", "OR", "NOT", "NULL", "IS", "IN", "LIKE", "BETWEEN", "EXISTS", "CASE", "WHEN",
+        "THEN", "ELSE", "END", "UNION", "ALL", "TOP", "LIMIT", "OFFSET", "WITH", "VALUES",
+        "SET", "INTO", "DEFAULT", "PRIMARY", "KEY", "FOREIGN", "REFERENCES", "CONSTRAINT",
+        "UNIQUE", "CHECK", "CASCADE", "BEGIN", "COMMIT", "ROLLBACK", "TRANSACTION"
+    };
+
+    private static final Set<String> KEYWORD_SET = new HashSet<>(Arrays.asList(KEYWORDS));
+
+    public enum TokenType {
+        KEYWORD, IDENTIFIER, QUOTED_IDENTIFIER, STRING, COMMENT, NUMBER, OPERATOR, WHITESPACE
+    }
+
+    /**
+     * Lexer state at a piece boundary
+     */
+    public enum State {
+        DEFAULT, BLOCK_COMMENT, STRING, QUOTED_IDENTIFIER
+    }
+
+    /**
+     * A token as a [start, end) range of the tokenized text
+     */
+    public static class Token {
+        private final TokenType type;
+        private final int start;
+        private final int end;
+
+        public Token(TokenType type, int start, int end) {
+            this.type = type;
+            this.start = start;
+            this.end = end;
+        }
+
+        public TokenType getType() {
+            return type;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+
+        public int length() {
+            return end - start;
+        }
+
+        public String getText(CharSequence source) {
+            return source.subSequence(start, end).toString();
+        }
+    }
+
+    public static boolean isKeyword(String word) {
+        return KEYWORD_SET.contains(word.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Tokenize text[from, to) starting in the given state.
+     * Tokens are appended to {@code out}; the state the lexer ends in is returned.
+     */
+    public static State tokenize(CharSequence text, int from, int to, State state, List<Token> out) {
+        int pos = from;
+
+        // Finish a construct left open by the previous piece
+        if (state == State.BLOCK_COMMENT) {
+            int end = indexOf(text, "*/", pos, to);
+            if (end < 0) {
+                addToken(out, TokenType.COMMENT, pos, to);
+                return State.BLOCK_COMMENT;
+            }
+            addToken(out, TokenType.COMMENT, pos, end + 2);
+            pos = end + 2;
+        } else if (state == State.STRING || state == State.QUOTED_IDENTIFIER) {
+            char quote = state == State.STRING ? '\'' : '"';
+            int end = findClosingQuote(text, pos, to, quote);
+            TokenType type = state == State.STRING ? TokenType.STRING : TokenType.QUOTED_IDENTIFIER;
+            if (end < 0) {
+                addToken(out, type, pos, to);
+                return state;
+            }
+            addToken(out, type, pos, end + 1);
+            pos = end + 1;
+        }
+
+        while (pos < to) {
+            char c = text.charAt(pos);
+
+            if (Character.isWhitespace(c)) {
+                int end = pos + 1;
+                while (end < to && Character.isWhitespace(text.charAt(end))) end++;
+                addToken(out, TokenType.WHITESPACE, pos, end);
+                pos = end;
+            } else if (c == '-' && pos + 1 < to && text.charAt(pos + 1) == '-') {
+                // Line comment runs to end of line
+                int end = pos + 2;
+                while (end < to && text.charAt(end) != '\n') end++;
+                addToken(out, TokenType.COMMENT, pos, end);
+                pos = end;
+            } else if (c == '/' && pos + 1 < to && text.charAt(pos + 1) == '*') {
+                int end = indexOf(text, "*/", pos + 2, to);
+                if (end < 0) {
+                    addToken(out, TokenType.COMMENT, pos, to);
+                    return State.BLOCK_COMMENT;
+                }
+                addToken(out, TokenType.COMMENT, pos, end + 2);
+                pos = end + 2;
+            } else if (c == '\'' || c == '"') {
+                int end = findClosingQuote(text, pos + 1, to, c);
+                TokenType type = c == '\'' ? TokenType.STRING : TokenType.QUOTED_IDENTIFIER;
+                if (end < 0) {
+                    addToken(out, type, pos, to);
+                    return c == '\'' ? State.STRING : State.QUOTED_IDENTIFIER;
+                }
+                addToken(out, type, pos, end + 1);
+                pos = end + 1;
+            } else if (c == '[') {
+                // SQL Server bracketed identifier (never spans lines)
+                int end = pos + 1;
+                while (end < to && text.charAt(end) != ']' && text.charAt(end) != '\n') end++;
+                if (end < to && text.charAt(end) == ']') end++;
+                addToken(out, TokenType.QUOTED_IDENTIFIER, pos, end);
+                pos = end;
+            } else if (Character.isDigit(c) || (c == '.' && pos + 1 < to && Character.isDigit(text.charAt(pos + 1))
+                    && (pos == from || !isIdentifierPart(text.charAt(pos - 1))))) {
+                int end = pos + 1;
+                boolean seenDot = c == '.';
+                while (end < to) {
+                    char d = text.charAt(end);
+                    if (Character.isDigit(d)) {
+                        end++;
+                    } else if (d == '.' && !seenDot) {
+                        seenDot = true;
+                        end++;
+                    } else {
+                        break;
+                    }
+                }
+                // "12abc" is an identifier, not a number
+                if (end < to && isIdentifierPart(text.charAt(end)) && !seenDot) {
+                    while (end < to && isIdentifierPart(text.charAt(end))) end++;
+                    addToken(out, TokenType.IDENTIFIER, pos, end);
+                } else {
+                    addToken(out, TokenType.NUMBER, pos, end);
+                }
+                pos = end;
+            } else if (isIdentifierStart(c)) {
+                int end = pos + 1;
+                while (end < to && isIdentifierPart(text.charAt(end))) end++;
+                String word = text.subSequence(pos, end).toString();
+                addToken(out, isKeyword(word) ? TokenType.KEYWORD : TokenType.IDENTIFIER, pos, end);
+                pos = end;
+            } else {
+                addToken(out, TokenType.OPERATOR, pos, pos + 1);
+                pos++;
+            }
+        }
+
+        return State.DEFAULT;
+    }
+
+    public static boolean isIdentifierStart(char c) {
+        return Character.isLetter(c) || c == '_' || c == '@' || c == '#' || c == '$';
+    }
+
+    public static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '@' || c == '#' || c == '$';
+    }
+
+    private static void addToken(List<Token> out, TokenType type, int start, int end) {
+        if (end > start) {
+            out.add(new Token(type, start, end));
+        }
+    }
+
+    /**
+     * Find the closing quote, treating a doubled quote as an escaped one
+     */
+    private static int findClosingQuote(CharSequence text, int from, int to, char quote) {
+        int pos = from;
+        while (pos < to) {
+            if (text.charAt(pos) == quote) {
+                if (pos + 1 < to && text.charAt(pos + 1) == quote) {
+                    pos += 2;
+                    continue;
+                }
+                return pos;
+            }
+            pos++;
+        }
+        return -1;
+    }
+
+    private static int indexOf(CharSequence text, String needle, int from, int to) {
+        int last = to - needle.length();
+        outer:
+        for (int i = from; i <= last; i++) {
+            for (int j = 0; j < needle.length(); j++) {
+                if (text.charAt(i + j) != needle.charAt(j)) continue outer;
+            }
+            return i;
+        }
+        return -1;
+    }
+}
@@ -130,6 +130,23 @@ public class TabConfigManager {
             sb.append(encode(visibility.toString()));
         }
 
+        sb.append("|");
+        sb.append(config.getFilterDebounceMillis());
+
+        sb.append("|");
+
+        // Serialize sort order
+        if (config.getSortColumns().isEmpty()) {
+            sb.append("NOSORT");
+        } else {
+            StringBuilder sort = new StringBuilder();
+            for (Map.Entry<String, Boolean> entry : config.getSortColumns().entrySet()) {
+                sort.append(encode(entry.getKey())).append("=")
+                    .append(entry.getValue() ? "ASC" : "DESC").append(";");
+            }
+            sb.append(encode(sort.toString()));
+        }
+
         return sb.toString();
     }
 
@@ -174,6 +191,26 @@ public class TabConfigManager {
                 }
             }
 
+            // Filter debounce was added later - older files have 6 fields
+            if (parts.length >= 7) {
+                config.setFilterDebounceMillis(Integer.parseInt(parts[6]));
+            }
+
+            // Sort order was added later still - older files have 7 fields
+            if (parts.length >= 8 && !"NOSORT".equals(parts[7])) {
+                String sortStr = decode(parts[7]);
+                if (!sortStr.isEmpty()) {
+                    Map<String, Boolean> sortColumns = new java.util.LinkedHashMap<>();
+                    for (String pair : sortStr.split(";")) {
+                        String[] kv = pair.split("=");
+                        if (kv.length == 2) {
+                            sortColumns.put(decode(kv[0]), "ASC".equals(kv[1]));
+                        }
+                    }
+                    config.setSortColumns(sortColumns);
+                }
+            }
+
             return config;
         } catch (Exception e) {
             System.err.println("Error deserializing tab config: " + e.getMessage());
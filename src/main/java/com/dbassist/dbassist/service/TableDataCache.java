@@ -0,0 +1,223 @@
+package com.dbassist.dbassist.service;
+
+import com.dbassist.dbassist.model.DatabaseConnection;
+import javafx.collections.FXCollections;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recently fetched table browsing results, so flipping a filter back, cloning a tab or
+ * reopening a table does not re-run the same query.
+ * Entries are keyed by connection, table, normalized filters, exact flags, projection, sort
+ * order and row limit; they expire after the connection's result cache TTL and are evicted least
+ * recently used first once the (estimated) cache size passes {@link #MAX_CACHE_BYTES}.
+ * Callers always get their own row list, since the grid clears and refills the list it is given.
+ */
+public class TableDataCache implements ConnectionEventManager.ConnectionChangeListener {
+
+    // Memory budget for all cached results (estimated)
+    public static final long MAX_CACHE_BYTES = 32L * 1024 * 1024;
+
+    // Results larger than this share of the budget are not cached
+    private static final long MAX_ENTRY_BYTES = MAX_CACHE_BYTES / 4;
+
+    private static class CacheEntry {
+        private final String connectionName;
+        private final String tableName;
+        private final List<String> columnNames;
+        private final List<String> allColumnNames;
+        private final Map<String, String> columnTypes;
+        private final List<Map<String, Object>> rows;
+        private final long bytes;
+        private final long createdAt = System.currentTimeMillis();
+
+        CacheEntry(String connectionName, String tableName, TableDataService.TableDataResult result, long bytes) {
+            this.connectionName = connectionName;
+            this.tableName = tableName;
+            this.columnNames = new ArrayList<>(result.getColumnNames());
+            this.allColumnNames = new ArrayList<>(result.getAllColumnNames());
+            this.columnTypes = new HashMap<>(result.getColumnTypes());
+            this.rows = new ArrayList<>(result.getRows());
+            this.bytes = bytes;
+        }
+    }
+
+    private static TableDataCache instance;
+
+    // Access-ordered, so iteration starts at the least recently used entry. Guarded by this.
+    private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private TableDataCache() {
+        ConnectionEventManager.getInstance().addListener(this);
+    }
+
+    public static synchronized TableDataCache getInstance() {
+        if (instance == null) {
+            instance = new TableDataCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Cache key for a browse query. Blank filters are dropped, filters are ordered by column,
+     * and the exact flag only counts for columns that are filtered. Filter values are kept as
+     * typed: text filters bind them untrimmed, so "abc " and "abc" are different queries.
+     *
+     * @param projection selected columns, or null for all columns
+     * @param sortColumns column -> ascending, in sort priority order
+     */
+    public static String buildKey(String connectionName, String tableName, Map<String, String> filters,
+                                  Map<String, Boolean> exactSearchFlags, List<String> projection,
+                                  Map<String, Boolean> sortColumns, int maxRows) {
+        StringBuilder key = new StringBuilder();
+        key.append(connectionName).append('\u0000').append(tableName.toLowerCase()).append('\u0000');
+
+        if (filters != null) {
+            for (Map.Entry<String, String> filter : new TreeMap<>(filters).entrySet()) {
+                String value = filter.getValue();
+                if (value == null || value.trim().isEmpty()) continue;
+
+                boolean exact = exactSearchFlags != null && Boolean.TRUE.equals(exactSearchFlags.get(filter.getKey()));
+                key.append(filter.getKey()).append(exact ? '=' : '~').append(value).append('\u0001');
+            }
+        }
+
+        key.append('\u0000').append(projection != null ? String.join(",", projection) : "*");
+        key.append('\u0000');
+        for (Map.Entry<String, Boolean> sort : sortColumns.entrySet()) {
+            key.append(sort.getKey()).append(sort.getValue() ? '+' : '-').append('\u0001');
+        }
+        key.append('\u0000').append(maxRows);
+        return key.toString();
+    }
+
+    /**
+     * Cached result for {@code key}, or null on a miss or if the entry has expired
+     */
+    public TableDataService.TableDataResult get(String key, DatabaseConnection dbConnection) {
+        long ttlMillis = dbConnection.getResultCacheTtlSeconds() * 1000L;
+        if (ttlMillis <= 0) return null; // Caching disabled for this connection
+
+        CacheEntry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null && System.currentTimeMillis() - entry.createdAt > ttlMillis) {
+                remove(key);
+                entry = null;
+            }
+        }
+
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+
+        TableDataService.TableDataResult result = new TableDataService.TableDataResult();
+        result.setColumnNames(new ArrayList<>(entry.columnNames));
+        result.setAllColumnNames(new ArrayList<>(entry.allColumnNames));
+        result.setColumnTypes(new HashMap<>(entry.columnTypes));
+        result.setRows(FXCollections.observableArrayList(entry.rows));
+        result.setRowCount(entry.rows.size());
+        result.setCachedAt(entry.createdAt);
+        return result;
+    }
+
+    /**
+     * Remember a successful result. The caller keeps ownership of the result passed in.
+     */
+    public void put(String key, DatabaseConnection dbConnection, String tableName, TableDataService.TableDataResult result) {
+        if (dbConnection.getResultCacheTtlSeconds() <= 0 || result.hasError() || result.getRows() == null) return;
+        if (result.getSpilledRowCount() > 0) return; // Past the result memory - far too large to keep
+
+        long bytes = 256;
+        for (Map<String, Object> row : result.getRows()) {
+            bytes += 48;
+            for (Object value : row.values()) {
+                bytes += 32 + ResultCursor.estimateSize(value);
+            }
+            if (bytes > MAX_ENTRY_BYTES) return; // Too large to be worth keeping
+        }
+
+        CacheEntry entry = new CacheEntry(dbConnection.getConnectionName(), tableName, result, bytes);
+        synchronized (this) {
+            remove(key);
+            entries.put(key, entry);
+            totalBytes += bytes;
+
+            // Evict least recently used entries until back under budget
+            Iterator<CacheEntry> it = entries.values().iterator();
+            while (totalBytes > MAX_CACHE_BYTES && it.hasNext()) {
+                totalBytes -= it.next().bytes;
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Drop every cached result for a table (explicit refresh)
+     */
+    public synchronized void invalidate(String connectionName, String tableName) {
+        entries.entrySet().removeIf(e -> {
+            boolean match = e.getValue().connectionName.equals(connectionName)
+                && e.getValue().tableName.equalsIgnoreCase(tableName);
+            if (match) totalBytes -= e.getValue().bytes;
+            return match;
+        });
+    }
+
+    /**
+     * Drop every cached result for a connection
+     */
+    public synchronized void invalidateConnection(String connectionName) {
+        entries.entrySet().removeIf(e -> {
+            boolean match = e.getValue().connectionName.equals(connectionName);
+            if (match) totalBytes -= e.getValue().bytes;
+            return match;
+        });
+    }
+
+    private void remove(String key) {
+        CacheEntry old = entries.remove(key);
+        if (old != null) {
+            totalBytes -= old.bytes;
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public synchronized long getSizeBytes() {
+        return totalBytes;
+    }
+
+    @Override
+    public void onConnectionAdded(String connectionName) {
+        // Nothing cached yet
+    }
+
+    @Override
+    public void onConnectionRemoved(String connectionName) {
+        invalidateConnection(connectionName);
+    }
+
+    @Override
+    public void onConnectionUpdated(String connectionName) {
+        // Host or database may have changed - cached rows no longer describe it
+        invalidateConnection(connectionName);
+    }
+}
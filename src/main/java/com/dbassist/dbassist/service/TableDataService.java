@@ -1,6 +1,7 @@
 package com.dbassist.dbassist.service;
 
 import com.dbassist.dbassist.model.DatabaseConnection;
+import com.dbassist.dbassist.model.LobHandle;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
@@ -8,10 +9,43 @@ import java.sql.*;
 import java.util.*;
 
 /**
- * Service to fetch table data with filtering
+ * Service to fetch table data with filtering.
+ * Large values (CLOB, BLOB, NVARCHAR(MAX), XML, ...) are never fetched with the rows: the
+ * query selects a short preview and the length instead, and the row carries a
+ * {@link LobHandle} from which {@link #fetchLobValue} reads the full value by primary key.
  */
 public class TableDataService {
 
+    // Largest value shown when a LOB cell is opened
+    public static final int MAX_LOB_OPEN_CHARS = 4 * 1024 * 1024;
+    public static final int MAX_LOB_OPEN_BYTES = 64 * 1024;
+
+    // Keys per hash query for comparisons
+    private static final int HASH_BATCH_SIZE = 100;
+
+    /**
+     * Columns of a table from the catalog: names in ordinal order, the java.sql.Types type
+     * of each for typed filter predicates, and the primary key for fetching LOBs by key
+     */
+    private static class TableColumns {
+        private final List<String> names;
+        private final Map<String, Integer> sqlTypes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        private final Map<String, DatabaseMetadataService.ColumnType> types = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        private final List<String> primaryKey;
+        private final boolean hasLobs;
+
+        TableColumns(Map<String, DatabaseMetadataService.ColumnType> columnTypes, List<String> primaryKey) {
+            this.names = new ArrayList<>(columnTypes.keySet());
+            this.types.putAll(columnTypes);
+            columnTypes.forEach((name, type) -> sqlTypes.put(name, type.getSqlType()));
+            this.primaryKey = primaryKey;
+            this.hasLobs = sqlTypes.values().stream().anyMatch(type -> LobReader.isLob(type, 0));
+        }
+    }
+
+    // connection + table -> catalog columns, looked up once per table
+    private static final Map<String, TableColumns> TABLE_COLUMNS = new java.util.concurrent.ConcurrentHashMap<>();
+
     /**
      * Fetch table data with optional filters
      */
@@ -20,105 +54,695 @@ public class TableDataService {
                                                   Map<String, String> filters,
                                                   Map<String, Boolean> exactSearchFlags,
                                                   int maxRows) {
-        TableDataResult result = new TableDataResult();
+        return fetchTableData(dbConnection, tableName, filters, exactSearchFlags, Collections.emptySet(),
+                              Collections.emptyMap(), maxRows, new QueryTask("Load " + tableName, dbConnection));
+    }
 
-        try (Connection conn = ConnectionService.createConnection(dbConnection)) {
-            // Build SQL query with filters
-            String sql = buildSelectQuery(tableName, filters, exactSearchFlags, maxRows);
-            System.out.println("Executing: " + sql);
+    /**
+     * Fetch table data with optional filters; the query can be stopped through {@code task}.
+     * Columns in {@code hiddenColumns} are left out of the SELECT list - the result's
+     * column names are the ones fetched, {@link TableDataResult#getAllColumnNames} the whole table.
+     * With {@code sortColumns} (column -> ascending) the database sorts before the row limit,
+     * so the rows are the first ones of the whole table in that order.
+     */
+    public static TableDataResult fetchTableData(DatabaseConnection dbConnection,
+                                                  String tableName,
+                                                  Map<String, String> filters,
+                                                  Map<String, Boolean> exactSearchFlags,
+                                                  Set<String> hiddenColumns,
+                                                  Map<String, Boolean> sortColumns,
+                                                  int maxRows,
+                                                  QueryTask task) {
+        String columnsKey = dbConnection.getConnectionName() + "\u0000" + tableName.toLowerCase();
+        TableColumns columns = TABLE_COLUMNS.get(columnsKey);
+
+        // Same browse query not long ago - reuse its rows. The projection depends on the
+        // table's columns, so with hidden columns this waits until they are known.
+        String cacheKey = null;
+        if (hiddenColumns.isEmpty() || columns != null) {
+            cacheKey = TableDataCache.buildKey(dbConnection.getConnectionName(), tableName, filters,
+                                               exactSearchFlags, getProjection(columns, hiddenColumns),
+                                               sortColumns, maxRows);
+            TableDataResult cached = TableDataCache.getInstance().get(cacheKey, dbConnection);
+            if (cached != null) {
+                System.out.println("Result cache hit: " + tableName);
+                return cached;
+            }
+        }
 
-            Statement stmt = conn.createStatement();
-            ResultSet rs = stmt.executeQuery(sql);
-            ResultSetMetaData metaData = rs.getMetaData();
+        TableDataResult result = new TableDataResult();
+        BrowseSessionPool pool = BrowseSessionPool.getInstance();
+        BrowseSessionPool.Session session = null;
+        boolean reusable = false;
+
+        try {
+            // Pooled session - the connection is not registered with the task, since a
+            // cancel must stop the statement without aborting a session we may reuse.
+            // A load cancelled before it got here must not log in at all.
+            task.checkCancelled();
+            session = pool.acquire(dbConnection);
+
+            if (columns == null) {
+                Connection conn = session.getConnection();
+                columns = new TableColumns(DatabaseMetadataService.getColumnTypes(conn, dbConnection, tableName),
+                                           DatabaseMetadataService.getPrimaryKeyColumns(conn, dbConnection, tableName));
+                TABLE_COLUMNS.put(columnsKey, columns);
+            }
+            List<String> projection = getProjection(columns, hiddenColumns);
+            if (cacheKey == null) {
+                cacheKey = TableDataCache.buildKey(dbConnection.getConnectionName(), tableName, filters,
+                                                   exactSearchFlags, projection, sortColumns, maxRows);
+            }
 
-            int columnCount = metaData.getColumnCount();
+            // Build a parameterized query from the filters, typed by the column metadata
+            List<FilterExpression> predicates = new ArrayList<>();
+            String sql = buildSelectQuery(dbConnection, tableName, projection, filters, exactSearchFlags,
+                                          sortColumns, columns, maxRows, predicates);
+            System.out.println("Executing: " + sql);
 
-            // Get column names and types
-            List<String> columnNames = new ArrayList<>();
-            Map<String, String> columnTypes = new HashMap<>();
+            PreparedStatement stmt = task.register(session.prepare(sql));
+            int parameterIndex = 1;
+            for (FilterExpression predicate : predicates) {
+                parameterIndex = predicate.bind(stmt, parameterIndex);
+            }
 
-            for (int i = 1; i <= columnCount; i++) {
-                String columnName = metaData.getColumnName(i);
-                String columnType = metaData.getColumnTypeName(i);
-                columnNames.add(columnName);
-                columnTypes.put(columnName, columnType);
+            // Batch size from the width of this table's rows on earlier loads, bounded by
+            // the declared widths of the columns read
+            FetchSizeAdvisor advisor = FetchSizeAdvisor.getInstance();
+            long declaredRowBytes = 0;
+            for (String column : projection != null ? projection : columns.names) {
+                DatabaseMetadataService.ColumnType type = columns.types.get(column);
+                if (type != null) {
+                    declaredRowBytes += FetchSizeAdvisor.declaredBytes(type.getSqlType(), type.getSize());
+                }
             }
+            int fetchSize = advisor.advise(dbConnection, FetchSizeAdvisor.UseCase.GRID_PAGE, tableName, maxRows,
+                                           declaredRowBytes);
+            stmt.setFetchSize(fetchSize);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                long readStart = System.currentTimeMillis();
+                ResultSetMetaData metaData = rs.getMetaData();
+
+                int columnCount = metaData.getColumnCount();
+
+                // Get column names and types, and how each column is read
+                List<String> columnNames = new ArrayList<>();
+                Map<String, String> columnTypes = new HashMap<>();
+                int[] readAs = new int[columnCount + 1];
+                String[] readNames = new String[columnCount + 1];
+
+                for (int i = 1; i <= columnCount; i++) {
+                    String columnName = metaData.getColumnName(i);
+                    Integer catalogType = projection != null ? columns.sqlTypes.get(columnName) : null;
+
+                    if (catalogType != null && isServerPreview(dbConnection, catalogType)) {
+                        // Preview followed by its length column
+                        readAs[i] = LobReader.isBinary(catalogType) ? READ_BINARY_PREVIEW : READ_TEXT_PREVIEW;
+                        columnTypes.put(columnName, "LOB");
+                        readNames[i] = columnName;
+                        columnNames.add(columnName);
+                        i++;
+                        continue;
+                    }
 
-            result.setColumnNames(columnNames);
-            result.setColumnTypes(columnTypes);
+                    readAs[i] = LobReader.isLob(metaData.getColumnType(i), metaData.getPrecision(i)) ? READ_CLIENT_LOB : READ_VALUE;
+                    columnTypes.put(columnName, metaData.getColumnTypeName(i));
+                    readNames[i] = columnName;
+                    columnNames.add(columnName);
+                }
 
-            // Fetch rows
-            ObservableList<Map<String, Object>> rows = FXCollections.observableArrayList();
-            int rowCount = 0;
+                result.setColumnNames(columnNames);
+                result.setColumnTypes(columnTypes);
+                result.setAllColumnNames(projection != null ? new ArrayList<>(columns.names) : null);
+
+                // Fetch rows - past the connection's result memory they are kept on disk
+                ResultStore store = new ResultStore(columnNames, dbConnection);
+                ObservableList<Map<String, Object>> rows = FXCollections.observableList(store);
+                int rowCount = 0;
+                long estimatedBytes = 0;
+
+                boolean lengthInBytes = !"Oracle".equals(dbConnection.getDatabaseType()); // DATALENGTH vs GETLENGTH
+
+                while (rs.next() && rowCount < maxRows) {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    Map<String, LobHandle> handles = null; // column -> handle
+                    estimatedBytes += 48;
+                    for (int i = 1; i <= columnCount; i++) {
+                        if (readNames[i] == null) continue; // Length column of a preview
+
+                        Object value;
+                        switch (readAs[i]) {
+                            case READ_TEXT_PREVIEW: {
+                                String preview = rs.getString(i);
+                                long length = rs.getLong(i + 1);
+                                value = preview == null ? null : new LobHandle(preview, length, false,
+                                    lengthInBytes, preview.length() < LobReader.PREVIEW_CHARS);
+                                break;
+                            }
+                            case READ_BINARY_PREVIEW: {
+                                byte[] preview = rs.getBytes(i);
+                                long length = rs.getLong(i + 1);
+                                value = preview == null ? null : new LobHandle(LobReader.toHex(preview, preview.length),
+                                    length, true, true, preview.length < LobReader.PREVIEW_BYTES);
+                                break;
+                            }
+                            case READ_CLIENT_LOB:
+                                value = LobReader.readPreview(rs, i, metaData.getColumnType(i));
+                                break;
+                            default:
+                                value = rs.getObject(i);
+                                break;
+                        }
+
+                        if (value instanceof LobHandle) {
+                            if (handles == null) handles = new HashMap<>();
+                            handles.put(readNames[i], (LobHandle) value);
+                        }
+                        row.put(readNames[i], value);
+                        estimatedBytes += 32 + ResultCursor.estimateSize(value);
+                    }
 
-            while (rs.next() && rowCount < maxRows) {
-                Map<String, Object> row = new LinkedHashMap<>();
-                for (String columnName : columnNames) {
-                    Object value = rs.getObject(columnName);
-                    row.put(columnName, value);
+                    if (handles != null) {
+                        Map<String, Object> key = getRowKey(row, columns);
+                        for (Map.Entry<String, LobHandle> handle : handles.entrySet()) {
+                            handle.getValue().setSource(dbConnection.getConnectionName(), dbConnection.getDatabaseType(),
+                                                        tableName, handle.getKey(), key);
+                        }
+                    }
+                    rows.add(row);
+                    rowCount++;
                 }
-                rows.add(row);
-                rowCount++;
-            }
 
-            result.setRows(rows);
-            result.setRowCount(rowCount);
+                result.setRows(rows);
+                result.setRowCount(rowCount);
+                result.setSpilledRowCount(store.getSpilledRowCount());
+                advisor.record(dbConnection, tableName, rowCount, estimatedBytes,
+                               System.currentTimeMillis() - readStart, fetchSize);
+            }
 
-            rs.close();
-            stmt.close();
+            reusable = !task.isCancelled();
+            TableDataCache.getInstance().put(cacheKey, dbConnection, tableName, result);
 
-        } catch (SQLException e) {
-            System.err.println("Error fetching table data: " + e.getMessage());
-            e.printStackTrace();
+        } catch (IllegalArgumentException e) {
+            // A filter value that does not fit its column, e.g. text in a number column
+            reusable = true;
             result.setError(e.getMessage());
+        } catch (SQLException e) {
+            if (task.isCancelled()) {
+                result.setError("Cancelled by user");
+            } else {
+                System.err.println("Error fetching table data: " + e.getMessage());
+                e.printStackTrace();
+                result.setError(e.getMessage());
+            }
+        } finally {
+            pool.release(dbConnection, session, reusable);
         }
 
         return result;
     }
 
+    // How a result column is read
+    private static final int READ_VALUE = 0;
+    private static final int READ_TEXT_PREVIEW = 1;
+    private static final int READ_BINARY_PREVIEW = 2;
+    private static final int READ_CLIENT_LOB = 3;
+
     /**
-     * Build SELECT query with filters
+     * Table columns minus the hidden ones, in table order; null for all columns (SELECT *),
+     * also when the columns are not known yet. Tables with LOBs always get an explicit list
+     * (for the previews) that includes the primary key (to fetch the full values).
      */
-    private static String buildSelectQuery(String tableName, Map<String, String> filters,
-                                          Map<String, Boolean> exactSearchFlags, int maxRows) {
-        StringBuilder sql = new StringBuilder();
-        sql.append("SELECT TOP ").append(maxRows).append(" * FROM ").append(tableName);
+    private static List<String> getProjection(TableColumns columns, Set<String> hiddenColumns) {
+        if (columns == null || columns.names.isEmpty()) return null;
+        if (hiddenColumns.isEmpty() && !columns.hasLobs) return null;
+
+        List<String> projection = new ArrayList<>();
+        for (String column : columns.names) {
+            if (!hiddenColumns.contains(column) || (columns.hasLobs && columns.primaryKey.contains(column))) {
+                projection.add(column);
+            }
+        }
 
-        if (filters != null && !filters.isEmpty()) {
-            sql.append(" WHERE ");
-            List<String> conditions = new ArrayList<>();
+        if (projection.size() == columns.names.size() && !columns.hasLobs) return null;
+        if (projection.isEmpty()) {
+            projection.add(columns.names.get(0)); // Everything hidden - a SELECT needs a column
+        }
+        return projection;
+    }
 
-            for (Map.Entry<String, String> filter : filters.entrySet()) {
-                String column = filter.getKey();
-                String value = filter.getValue();
+    /**
+     * Primary key values of a row, or null if the table has no primary key or it was not fetched
+     */
+    private static Map<String, Object> getRowKey(Map<String, Object> row, TableColumns columns) {
+        if (columns == null || columns.primaryKey.isEmpty()) return null;
+
+        Map<String, Object> key = new LinkedHashMap<>();
+        for (String column : columns.primaryKey) {
+            if (!row.containsKey(column)) return null;
+            key.put(column, row.get(column));
+        }
+        return key;
+    }
+
+    /**
+     * True if a column of this type is selected as a server-side preview. Oracle LONG
+     * columns cannot be passed to DBMS_LOB, so they are previewed on the client.
+     */
+    private static boolean isServerPreview(DatabaseConnection dbConnection, int sqlType) {
+        if ("Oracle".equals(dbConnection.getDatabaseType())) {
+            return sqlType == Types.CLOB || sqlType == Types.NCLOB || sqlType == Types.BLOB;
+        }
+        return LobReader.isLob(sqlType, 0);
+    }
+
+    /**
+     * Select list entries for a LOB column: its preview (under the column's name) and its length
+     */
+    private static String lobPreviewSql(DatabaseConnection dbConnection, String column, int sqlType, int index) {
+        String quoted = quoteIdentifier(dbConnection, column);
+        String lengthAlias = quoteIdentifier(dbConnection, "LOB_LENGTH_" + index);
+        boolean binary = LobReader.isBinary(sqlType);
+
+        if ("Oracle".equals(dbConnection.getDatabaseType())) {
+            int previewLength = binary ? LobReader.PREVIEW_BYTES : LobReader.PREVIEW_CHARS;
+            return "DBMS_LOB.SUBSTR(" + quoted + ", " + previewLength + ", 1) AS " + quoted
+                + ", DBMS_LOB.GETLENGTH(" + quoted + ") AS " + lengthAlias;
+        }
+
+        String preview = binary
+            ? "SUBSTRING(" + quoted + ", 1, " + LobReader.PREVIEW_BYTES + ")"
+            : "SUBSTRING(CAST(" + quoted + " AS NVARCHAR(MAX)), 1, " + LobReader.PREVIEW_CHARS + ")";
+        return preview + " AS " + quoted + ", DATALENGTH(" + quoted + ") AS " + lengthAlias;
+    }
+
+    /**
+     * Read the full value behind a LOB handle, by the primary key of its row: a String for
+     * text (up to {@link #MAX_LOB_OPEN_CHARS}), a byte[] for binary values (up to
+     * {@link #MAX_LOB_OPEN_BYTES}), or null if the row or value is gone
+     */
+    public static Object fetchLobValue(DatabaseConnection dbConnection, LobHandle handle, QueryTask task) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT ")
+            .append(quoteIdentifier(dbConnection, handle.getColumnName()))
+            .append(" FROM ").append(handle.getTableName()).append(" WHERE ");
+        List<String> keyConditions = new ArrayList<>();
+        for (String keyColumn : handle.getKey().keySet()) {
+            keyConditions.add(quoteIdentifier(dbConnection, keyColumn) + " = ?");
+        }
+        sql.append(String.join(" AND ", keyConditions));
+
+        task.checkCancelled();
+        BrowseSessionPool pool = BrowseSessionPool.getInstance();
+        BrowseSessionPool.Session session = pool.acquire(dbConnection);
+        boolean reusable = false;
+        try {
+            PreparedStatement stmt = task.register(session.prepare(sql.toString()));
+            int index = 1;
+            for (Object keyValue : handle.getKey().values()) {
+                stmt.setObject(index++, keyValue);
+            }
+
+            Object value = null;
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    value = handle.isBinary() ? readBytes(rs, 1, MAX_LOB_OPEN_BYTES) : readChars(rs, 1, MAX_LOB_OPEN_CHARS);
+                }
+            }
+            reusable = !task.isCancelled();
+            return value;
+        } catch (java.io.IOException e) {
+            throw new SQLException("Error reading large value: " + e.getMessage(), e);
+        } finally {
+            pool.release(dbConnection, session, reusable);
+        }
+    }
+
+    private static String readChars(ResultSet rs, int column, int maxChars) throws SQLException, java.io.IOException {
+        try (java.io.Reader in = rs.getCharacterStream(column)) {
+            if (in == null) return null;
+            StringBuilder text = new StringBuilder();
+            char[] buffer = new char[8192];
+            int n;
+            while (text.length() < maxChars && (n = in.read(buffer, 0, Math.min(buffer.length, maxChars - text.length()))) > 0) {
+                text.append(buffer, 0, n);
+            }
+            return text.toString();
+        }
+    }
+
+    private static byte[] readBytes(ResultSet rs, int column, int maxBytes) throws SQLException, java.io.IOException {
+        try (java.io.InputStream in = rs.getBinaryStream(column)) {
+            return in == null ? null : in.readNBytes(maxBytes);
+        }
+    }
+
+    /**
+     * Fill in server-side hashes of the values behind LOB handles of one table column, so
+     * comparisons do not need the contents. Handles without a key are skipped; if the
+     * database cannot hash (e.g. no EXECUTE on DBMS_CRYPTO) the handles stay unhashed.
+     *
+     * @param task the comparison's task; its cancel stops the hash query
+     *
+     * @return number of handles hashed
+     */
+    public static int fetchLobHashes(DatabaseConnection dbConnection, String tableName, String columnName,
+                                     List<LobHandle> handles, QueryTask task) {
+        List<LobHandle> keyed = new ArrayList<>();
+        for (LobHandle handle : handles) {
+            if (handle.hasKey() && handle.getHash() == null) keyed.add(handle);
+        }
+        if (keyed.isEmpty()) return 0;
+
+        List<String> keyColumns = new ArrayList<>(keyed.get(0).getKey().keySet());
+        String quotedColumn = quoteIdentifier(dbConnection, columnName);
+        String hashSql = "Oracle".equals(dbConnection.getDatabaseType())
+            ? "RAWTOHEX(DBMS_CRYPTO.HASH(" + quotedColumn + ", 4))" // 4 = SHA-256
+            : "CONVERT(VARCHAR(64), HASHBYTES('SHA2_256', CAST(" + quotedColumn + " AS VARBINARY(MAX))), 2)";
+
+        List<String> quotedKeys = new ArrayList<>();
+        List<String> keyCondition = new ArrayList<>();
+        for (String keyColumn : keyColumns) {
+            quotedKeys.add(quoteIdentifier(dbConnection, keyColumn));
+            keyCondition.add(quoteIdentifier(dbConnection, keyColumn) + " = ?");
+        }
+        String rowCondition = "(" + String.join(" AND ", keyCondition) + ")";
+
+        BrowseSessionPool pool = BrowseSessionPool.getInstance();
+        BrowseSessionPool.Session session = null;
+        boolean reusable = false;
+        int hashed = 0;
+
+        try {
+            task.checkCancelled();
+            session = pool.acquire(dbConnection);
+
+            for (int start = 0; start < keyed.size(); start += HASH_BATCH_SIZE) {
+                task.checkCancelled();
+                List<LobHandle> batch = keyed.subList(start, Math.min(start + HASH_BATCH_SIZE, keyed.size()));
+                Map<String, LobHandle> byKey = new HashMap<>();
+                for (LobHandle handle : batch) {
+                    byKey.put(keyString(handle.getKey().values()), handle);
+                }
+
+                String sql = "SELECT " + String.join(", ", quotedKeys) + ", " + hashSql + " FROM " + tableName
+                    + " WHERE " + String.join(" OR ", Collections.nCopies(batch.size(), rowCondition));
+                PreparedStatement stmt = task.register(session.prepare(sql));
+                int index = 1;
+                for (LobHandle handle : batch) {
+                    for (Object keyValue : handle.getKey().values()) {
+                        stmt.setObject(index++, keyValue);
+                    }
+                }
 
-                if (value != null && !value.trim().isEmpty()) {
-                    // Check if exact search is enabled for this column
-                    boolean isExact = exactSearchFlags != null &&
-                                     Boolean.TRUE.equals(exactSearchFlags.get(column));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        List<Object> keyValues = new ArrayList<>();
+                        for (int i = 1; i <= keyColumns.size(); i++) {
+                            keyValues.add(rs.getObject(i));
+                        }
+                        LobHandle handle = byKey.get(keyString(keyValues));
+                        if (handle != null) {
+                            handle.setHash(rs.getString(keyColumns.size() + 1));
+                            hashed++;
+                        }
+                    }
+                }
+            }
+            reusable = !task.isCancelled();
+        } catch (SQLException e) {
+            System.err.println("Could not hash " + tableName + "." + columnName + " on the server, comparing values: "
+                + e.getMessage());
+        } finally {
+            pool.release(dbConnection, session, reusable);
+        }
+        return hashed;
+    }
+
+    private static String keyString(Collection<Object> keyValues) {
+        StringBuilder key = new StringBuilder();
+        for (Object value : keyValues) {
+            key.append(value).append('\u0000');
+        }
+        return key.toString();
+    }
 
-                    if (isExact) {
-                        // Exact match
-                        conditions.add(column + " = '" + escapeSQL(value) + "'");
+    /**
+     * Forget cached rows and columns of a table (explicit refresh - the data or the
+     * table definition may have changed)
+     */
+    public static void invalidateTable(String connectionName, String tableName) {
+        TableDataCache.getInstance().invalidate(connectionName, tableName);
+        TABLE_COLUMNS.remove(connectionName + "\u0000" + tableName.toLowerCase());
+    }
+
+    /**
+     * Aggregates of the given columns over every row matching the filters (not just the rows
+     * a grid loaded): COUNT, MIN/MAX, SUM of numeric columns and the distinct count, which
+     * uses the server's sketch-based APPROX_COUNT_DISTINCT (SQL Server 2019+, Oracle 12c+)
+     * and falls back to an exact COUNT(DISTINCT) on older servers. Large values only get
+     * counted. Wide tables are aggregated in batches of columns (Oracle allows 1000 select items).
+     *
+     * @throws IllegalArgumentException if a filter value does not fit its column
+     */
+    public static Map<String, AggregationService.ColumnAggregate> fetchAggregates(DatabaseConnection dbConnection,
+                                                                                  String tableName,
+                                                                                  Map<String, String> filters,
+                                                                                  Map<String, Boolean> exactSearchFlags,
+                                                                                  List<String> columnNames,
+                                                                                  QueryTask task) throws SQLException {
+        String columnsKey = dbConnection.getConnectionName() + "\u0000" + tableName.toLowerCase();
+        boolean oracle = "Oracle".equals(dbConnection.getDatabaseType());
+        Map<String, AggregationService.ColumnAggregate> aggregates = new LinkedHashMap<>();
+
+        BrowseSessionPool pool = BrowseSessionPool.getInstance();
+        BrowseSessionPool.Session session = null;
+        boolean reusable = false;
+
+        try {
+            task.checkCancelled();
+            session = pool.acquire(dbConnection);
+
+            TableColumns columns = TABLE_COLUMNS.get(columnsKey);
+            if (columns == null) {
+                Connection conn = session.getConnection();
+                columns = new TableColumns(DatabaseMetadataService.getColumnTypes(conn, dbConnection, tableName),
+                                           DatabaseMetadataService.getPrimaryKeyColumns(conn, dbConnection, tableName));
+                TABLE_COLUMNS.put(columnsKey, columns);
+            }
+
+            List<FilterExpression> predicates = new ArrayList<>();
+            List<String> conditions = buildConditions(dbConnection, filters, exactSearchFlags, columns.types, predicates);
+            String where = conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+            boolean approximate = true;
+
+            for (int start = 0; start < columnNames.size(); start += AGGREGATE_BATCH_COLUMNS) {
+                List<String> batch = columnNames.subList(start, Math.min(start + AGGREGATE_BATCH_COLUMNS, columnNames.size()));
+                List<String> selectItems = new ArrayList<>();
+                selectItems.add("COUNT(*)");
+                for (String column : batch) {
+                    String quoted = quoteIdentifier(dbConnection, column);
+                    int sqlType = columns.sqlTypes.getOrDefault(column, Types.VARCHAR);
+                    boolean orderable = isOrderable(dbConnection, sqlType);
+
+                    selectItems.add("COUNT(" + quoted + ")");
+                    selectItems.add(orderable ? "MIN(" + quoted + ")" : "NULL");
+                    selectItems.add(orderable ? "MAX(" + quoted + ")" : "NULL");
+                    if (!isNumeric(sqlType)) {
+                        selectItems.add("NULL");
+                    } else if (!oracle && isIntegerType(sqlType)) {
+                        selectItems.add("SUM(CAST(" + quoted + " AS DECIMAL(38, 0)))"); // SUM(INT) overflows as INT
                     } else {
-                        // LIKE search (default)
-                        conditions.add(column + " LIKE '%" + escapeSQL(value) + "%'");
+                        selectItems.add("SUM(" + quoted + ")");
                     }
+                    selectItems.add(!orderable ? "NULL"
+                        : approximate ? "APPROX_COUNT_DISTINCT(" + quoted + ")"
+                        : "COUNT(DISTINCT " + quoted + ")");
+                }
+
+                String sql = "SELECT " + String.join(", ", selectItems) + " FROM " + tableName + where;
+                System.out.println("Executing: " + sql);
+
+                try {
+                    readAggregates(session, sql, predicates, batch, approximate, task, aggregates);
+                } catch (SQLException e) {
+                    if (task.isCancelled() || !approximate) throw e;
+                    // No APPROX_COUNT_DISTINCT on this server - count exactly from here on
+                    System.out.println("Approximate distinct count not available, counting exactly: " + e.getMessage());
+                    approximate = false;
+                    start -= AGGREGATE_BATCH_COLUMNS;
                 }
             }
+            reusable = true;
+        } finally {
+            pool.release(dbConnection, session, reusable);
+        }
+        return aggregates;
+    }
+
+    // Columns per aggregate query - five select items each
+    private static final int AGGREGATE_BATCH_COLUMNS = 150;
+
+    private static void readAggregates(BrowseSessionPool.Session session, String sql, List<FilterExpression> predicates,
+                                       List<String> batch, boolean approximate, QueryTask task,
+                                       Map<String, AggregationService.ColumnAggregate> aggregates) throws SQLException {
+        PreparedStatement stmt = task.register(session.prepare(sql));
+        int parameterIndex = 1;
+        for (FilterExpression predicate : predicates) {
+            parameterIndex = predicate.bind(stmt, parameterIndex);
+        }
 
-            sql.append(String.join(" AND ", conditions));
+        try (ResultSet rs = stmt.executeQuery()) {
+            if (!rs.next()) return;
+            long rows = rs.getLong(1);
+            int index = 2;
+            for (String column : batch) {
+                long nonNull = rs.getLong(index);
+                Object min = rs.getObject(index + 1);
+                Object max = rs.getObject(index + 2);
+                java.math.BigDecimal sum = rs.getBigDecimal(index + 3);
+                Object distinctCount = rs.getObject(index + 4);
+                long distinct = distinctCount != null ? ((Number) distinctCount).longValue() : -1;
+                aggregates.put(column, new AggregationService.ColumnAggregate(rows, nonNull, sum, min, max, distinct, approximate));
+                index += 5;
+            }
+        }
+    }
+
+    private static boolean isNumeric(int sqlType) {
+        switch (sqlType) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isIntegerType(int sqlType) {
+        return sqlType == Types.TINYINT || sqlType == Types.SMALLINT || sqlType == Types.INTEGER || sqlType == Types.BIGINT;
+    }
+
+    /**
+     * True if MIN/MAX and DISTINCT work on the type: not for large values, nor for SQL Server BIT
+     */
+    private static boolean isOrderable(DatabaseConnection dbConnection, int sqlType) {
+        if (LobReader.isLob(sqlType, 0)) return false;
+        if (sqlType == Types.BIT || sqlType == Types.BOOLEAN) return "Oracle".equals(dbConnection.getDatabaseType());
+        return sqlType != Types.OTHER && sqlType != Types.JAVA_OBJECT && sqlType != Types.STRUCT && sqlType != Types.ARRAY;
+    }
+
+    /**
+     * Build a parameterized SELECT of the projected columns (all if null), sorted and limited
+     * to {@code maxRows} in the connection's dialect. Each non-blank filter is parsed by the
+     * column's type (see {@link FilterExpression}) and added to {@code predicates} in bind order.
+     *
+     * @throws IllegalArgumentException if a filter value does not fit its column
+     */
+    private static String buildSelectQuery(DatabaseConnection dbConnection, String tableName, List<String> projection,
+                                          Map<String, String> filters, Map<String, Boolean> exactSearchFlags,
+                                          Map<String, Boolean> sortColumns, TableColumns columns,
+                                          int maxRows, List<FilterExpression> predicates) {
+        boolean oracle = "Oracle".equals(dbConnection.getDatabaseType());
+        Map<String, Integer> sqlTypes = columns.sqlTypes;
+
+        String selectList = "*";
+        if (projection != null) {
+            List<String> quoted = new ArrayList<>();
+            for (String column : projection) {
+                Integer sqlType = sqlTypes.get(column);
+                quoted.add(sqlType != null && isServerPreview(dbConnection, sqlType)
+                    ? lobPreviewSql(dbConnection, column, sqlType, quoted.size() + 1)
+                    : quoteIdentifier(dbConnection, column));
+            }
+            selectList = String.join(", ", quoted);
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT ");
+        if (!oracle) {
+            sql.append("TOP ").append(maxRows).append(" ");
+        }
+        sql.append(selectList).append(" FROM ").append(tableName);
+
+        List<String> conditions = buildConditions(dbConnection, filters, exactSearchFlags, columns.types, predicates);
+
+        // Sort columns that no longer exist (saved sort, table changed) are dropped
+        List<String> orderBy = new ArrayList<>();
+        for (Map.Entry<String, Boolean> sort : sortColumns.entrySet()) {
+            if (sqlTypes.isEmpty() || sqlTypes.containsKey(sort.getKey())) {
+                orderBy.add(quoteIdentifier(dbConnection, sort.getKey()) + (sort.getValue() ? " ASC" : " DESC"));
+            }
+        }
+
+        // Oracle has no TOP: ROWNUM limits an unsorted query directly, a sorted one from outside
+        if (oracle && orderBy.isEmpty()) {
+            conditions.add("ROWNUM <= " + maxRows);
+        }
+
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+
+        if (!orderBy.isEmpty()) {
+            sql.append(" ORDER BY ").append(String.join(", ", orderBy));
+            if (oracle) {
+                return "SELECT * FROM (" + sql + ") WHERE ROWNUM <= " + maxRows;
+            }
         }
 
         return sql.toString();
     }
 
     /**
-     * Escape SQL special characters
+     * WHERE conditions for the non-blank filters, with their predicates added to
+     * {@code predicates} in bind order
+     *
+     * @throws IllegalArgumentException if a filter value does not fit its column
+     */
+    private static List<String> buildConditions(DatabaseConnection dbConnection, Map<String, String> filters,
+                                                Map<String, Boolean> exactSearchFlags,
+                                                Map<String, DatabaseMetadataService.ColumnType> columnTypes,
+                                                List<FilterExpression> predicates) {
+        List<String> conditions = new ArrayList<>();
+        if (filters != null) {
+            // Ordered by column so the same filters always produce the same statement text
+            for (Map.Entry<String, String> filter : new TreeMap<>(filters).entrySet()) {
+                String column = filter.getKey();
+                String value = filter.getValue();
+                if (value == null || value.trim().isEmpty()) continue;
+
+                boolean isExact = exactSearchFlags != null && Boolean.TRUE.equals(exactSearchFlags.get(column));
+                DatabaseMetadataService.ColumnType type = columnTypes.get(column);
+
+                try {
+                    FilterExpression predicate = type != null
+                        ? FilterExpression.parse(value, isExact, type.getSqlType(), type.getTypeName(), type.getSize())
+                        : FilterExpression.parse(value, isExact, Types.VARCHAR); // Unknown: text match as before
+                    predicates.add(predicate);
+                    conditions.add(predicate.toSql(quoteIdentifier(dbConnection, column)));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Invalid filter on " + column + ": " + e.getMessage());
+                }
+            }
+        }
+        return conditions;
+    }
+
+    /**
+     * Quote a column name from the catalog, so names with spaces or reserved words still work
      */
-    private static String escapeSQL(String input) {
-        if (input == null) return "";
-        return input.replace("'", "''");
+    private static String quoteIdentifier(DatabaseConnection dbConnection, String column) {
+        if ("SQL Server".equals(dbConnection.getDatabaseType())) {
+            return "[" + column.replace("]", "]]") + "]";
+        }
+        return "\"" + column.replace("\"", "\"\"") + "\"";
     }
 
     /**
@@ -126,10 +750,13 @@ public class TableDataService {
      */
     public static class TableDataResult {
         private List<String> columnNames;
+        private List<String> allColumnNames; // Every column of the table, when only some were fetched
         private Map<String, String> columnTypes;
         private ObservableList<Map<String, Object>> rows;
         private int rowCount;
+        private int spilledRowCount; // Rows kept in a spill file rather than on the heap
         private String error;
+        private long cachedAt; // When the rows were fetched, if served from the result cache
 
         public List<String> getColumnNames() {
             return columnNames;
@@ -139,6 +766,22 @@ public class TableDataService {
             this.columnNames = columnNames;
         }
 
+        /**
+         * Every column of the table in table order - a superset of {@link #getColumnNames}
+         * when hidden columns were left out of the query
+         */
+        public List<String> getAllColumnNames() {
+            return allColumnNames != null ? allColumnNames : columnNames;
+        }
+
+        public void setAllColumnNames(List<String> allColumnNames) {
+            this.allColumnNames = allColumnNames;
+        }
+
+        public boolean isProjected() {
+            return allColumnNames != null && allColumnNames.size() > columnNames.size();
+        }
+
         public Map<String, String> getColumnTypes() {
             return columnTypes;
         }
@@ -163,6 +806,14 @@ public class TableDataService {
             this.rowCount = rowCount;
         }
 
+        public int getSpilledRowCount() {
+            return spilledRowCount;
+        }
+
+        public void setSpilledRowCount(int spilledRowCount) {
+            this.spilledRowCount = spilledRowCount;
+        }
+
         public String getError() {
             return error;
         }
@@ -174,6 +825,18 @@ public class TableDataService {
         public boolean hasError() {
             return error != null && !error.isEmpty();
         }
+
+        public boolean isFromCache() {
+            return cachedAt > 0;
+        }
+
+        public long getCachedAt() {
+            return cachedAt;
+        }
+
+        public void setCachedAt(long cachedAt) {
+            this.cachedAt = cachedAt;
+        }
     }
 }
 
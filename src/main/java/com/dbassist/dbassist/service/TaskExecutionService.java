@@ -0,0 +1,363 @@
+package com.dbassist.dbassist.service;
+
+import com.dbassist.dbassist.model.DatabaseConnection;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Application-wide executor for blocking background work (JDBC calls, exports).
+ * Work runs on named daemon threads and every task is tracked so it can be listed in the
+ * task monitor and cancelled. Work for a database connection goes through a per-connection
+ * queue: at most {@link DatabaseConnection#getMaxConcurrentQueries()} tasks run against it
+ * at once, and waiting tasks start in priority order, oldest first within a priority.
+ */
+public class TaskExecutionService {
+
+    public enum TaskState {
+        QUEUED, RUNNING
+    }
+
+    /**
+     * Order in which queued work gets a free slot on its connection
+     */
+    public enum TaskPriority {
+        INTERACTIVE, // The user is waiting on it (worksheet query, load of the selected tab)
+        BACKGROUND   // Refreshes of other tabs, metadata loads
+    }
+
+    /**
+     * A submitted task as seen by the task monitor
+     */
+    public static class TaskInfo {
+        private final long id;
+        private final String description;
+        private final String connectionName;
+        private final QueryTask queryTask;
+        private final Runnable work;
+        private final Runnable onDropped;
+        private final long submittedAt = System.currentTimeMillis();
+        private volatile TaskPriority priority;
+        private volatile long startedAt;
+        private volatile TaskState state = TaskState.QUEUED;
+        private volatile String progress = "";
+        private volatile Future<?> future;
+        private volatile boolean holdsSlot = false;
+
+        TaskInfo(long id, String description, String connectionName, TaskPriority priority, QueryTask queryTask,
+                 Runnable work, Runnable onDropped) {
+            this.id = id;
+            this.description = description;
+            this.connectionName = connectionName;
+            this.priority = priority;
+            this.queryTask = queryTask;
+            this.work = work;
+            this.onDropped = onDropped;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public String getConnectionName() {
+            return connectionName;
+        }
+
+        public TaskPriority getPriority() {
+            return priority;
+        }
+
+        public TaskState getState() {
+            return state;
+        }
+
+        public String getProgress() {
+            return progress;
+        }
+
+        public void setProgress(String progress) {
+            this.progress = progress;
+        }
+
+        public long getElapsedMillis() {
+            return System.currentTimeMillis() - submittedAt;
+        }
+
+        /**
+         * Time spent waiting for a free slot on the connection (so far, if still queued)
+         */
+        public long getWaitMillis() {
+            long started = startedAt;
+            return (started > 0 ? started : System.currentTimeMillis()) - submittedAt;
+        }
+
+        /**
+         * Move the task ahead of background work if it is still waiting
+         */
+        public void promote() {
+            getInstance().reprioritize(this, TaskPriority.INTERACTIVE);
+        }
+
+        /**
+         * Stop the task: cancels its running statement (if any) and interrupts the worker
+         */
+        public void cancel() {
+            if (queryTask != null) {
+                queryTask.cancel(); // Also takes the task out of the queue via the cancel listener
+            } else {
+                getInstance().dequeueCancelled(this);
+            }
+            Future<?> f = future;
+            if (f != null) {
+                f.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Queued and running work for one connection. Guarded by its own monitor.
+     */
+    private static class ConnectionQueue {
+        private final PriorityQueue<TaskInfo> waiting = new PriorityQueue<>(
+            Comparator.comparing((TaskInfo t) -> t.priority).thenComparingLong(t -> t.id));
+        private int running = 0;
+    }
+
+    private static TaskExecutionService instance;
+
+    private final ExecutorService workers;
+    private final Map<String, ConnectionQueue> connectionQueues = new ConcurrentHashMap<>();
+    private final Map<Long, TaskInfo> activeTasks = new ConcurrentHashMap<>();
+    private final AtomicLong nextTaskId = new AtomicLong(1);
+
+    // Moving average of queue wait for connection work, shown in the status bar
+    private volatile double averageWaitMillis = 0;
+
+    private TaskExecutionService() {
+        AtomicInteger threadCount = new AtomicInteger(1);
+        this.workers = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "dbassist-worker-" + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static synchronized TaskExecutionService getInstance() {
+        if (instance == null) {
+            instance = new TaskExecutionService();
+        }
+        return instance;
+    }
+
+    /**
+     * Run work that does not talk to a database (exports, file IO)
+     */
+    public TaskInfo submit(String description, Runnable work) {
+        return submit(description, null, TaskPriority.BACKGROUND, null, work, null);
+    }
+
+    /**
+     * Run database work for a connection; work cancelled while queued is dropped silently
+     */
+    public TaskInfo submit(String description, String connectionName, TaskPriority priority, QueryTask queryTask, Runnable work) {
+        return submit(description, connectionName, priority, queryTask, work, null);
+    }
+
+    /**
+     * Run database work for a connection. The work waits in the connection's queue while
+     * the connection already runs its maximum number of tasks.
+     *
+     * @param connectionName connection the work uses, or null for no limit
+     * @param queryTask handle used to cancel the running statement, or null
+     * @param onDropped run instead of the work when the task is cancelled while still queued
+     *                  (on the cancelling thread), so the UI can report it; or null
+     */
+    public TaskInfo submit(String description, String connectionName, TaskPriority priority, QueryTask queryTask,
+                           Runnable work, Runnable onDropped) {
+        TaskInfo info = new TaskInfo(nextTaskId.getAndIncrement(), description, connectionName, priority, queryTask,
+                                     work, onDropped);
+        activeTasks.put(info.id, info);
+
+        if (connectionName == null) {
+            start(info);
+            return info;
+        }
+
+        ConnectionQueue queue = connectionQueues.computeIfAbsent(connectionName, k -> new ConnectionQueue());
+        synchronized (queue) {
+            queue.waiting.add(info);
+        }
+        if (queryTask != null) {
+            queryTask.setCancelListener(() -> dequeueCancelled(info));
+        }
+        dispatch(connectionName, queue);
+        return info;
+    }
+
+    /**
+     * Start queued tasks while the connection has free slots
+     */
+    private void dispatch(String connectionName, ConnectionQueue queue) {
+        DatabaseConnection dbConnection = ConnectionManager.getInstance().getConnectionByName(connectionName);
+        int limit = dbConnection != null ? Math.max(1, dbConnection.getMaxConcurrentQueries())
+                                         : DatabaseConnection.DEFAULT_MAX_CONCURRENT_QUERIES;
+
+        List<TaskInfo> ready = new ArrayList<>();
+        synchronized (queue) {
+            while (queue.running < limit && !queue.waiting.isEmpty()) {
+                TaskInfo next = queue.waiting.poll();
+                next.holdsSlot = true;
+                queue.running++;
+                ready.add(next);
+            }
+        }
+
+        for (TaskInfo info : ready) {
+            start(info);
+        }
+    }
+
+    private void start(TaskInfo info) {
+        try {
+            info.future = workers.submit(() -> run(info));
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            System.err.println("Task rejected (shutting down): " + info.description);
+            finish(info);
+        }
+    }
+
+    private void run(TaskInfo info) {
+        info.startedAt = System.currentTimeMillis();
+        info.state = TaskState.RUNNING;
+        if (info.holdsSlot) {
+            averageWaitMillis = averageWaitMillis * 0.8 + info.getWaitMillis() * 0.2;
+        }
+
+        try {
+            info.work.run();
+        } catch (Exception e) {
+            System.err.println("Task failed: " + info.description + " - " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            finish(info);
+        }
+    }
+
+    private void finish(TaskInfo info) {
+        activeTasks.remove(info.id);
+        if (!info.holdsSlot) return;
+
+        ConnectionQueue queue = connectionQueues.get(info.connectionName);
+        synchronized (queue) {
+            queue.running--;
+        }
+        dispatch(info.connectionName, queue);
+    }
+
+    /**
+     * A task cancelled while waiting leaves the queue without running - its work would only
+     * open a session outside the connection's limit. Its drop callback reports the cancel.
+     */
+    private void dequeueCancelled(TaskInfo info) {
+        ConnectionQueue queue = info.connectionName != null ? connectionQueues.get(info.connectionName) : null;
+        if (queue == null) return;
+
+        boolean removed;
+        synchronized (queue) {
+            removed = queue.waiting.remove(info);
+        }
+        if (!removed) return;
+
+        activeTasks.remove(info.id);
+        if (info.onDropped != null) {
+            try {
+                info.onDropped.run();
+            } catch (Exception e) {
+                System.err.println("Error reporting dropped task: " + info.description + " - " + e.getMessage());
+            }
+        }
+    }
+
+    private void reprioritize(TaskInfo info, TaskPriority priority) {
+        ConnectionQueue queue = info.connectionName != null ? connectionQueues.get(info.connectionName) : null;
+        if (queue == null) return;
+
+        synchronized (queue) {
+            // Re-insert so the queue picks up the new ordering
+            if (queue.waiting.remove(info)) {
+                info.priority = priority;
+                queue.waiting.add(info);
+            }
+        }
+    }
+
+    /**
+     * Snapshot of queued and running tasks, oldest first
+     */
+    public List<TaskInfo> getActiveTasks() {
+        List<TaskInfo> tasks = new ArrayList<>(activeTasks.values());
+        tasks.sort(Comparator.comparingLong(TaskInfo::getId));
+        return tasks;
+    }
+
+    /**
+     * Number of tasks waiting for a free slot, over all connections
+     */
+    public int getQueuedCount() {
+        int queued = 0;
+        for (ConnectionQueue queue : connectionQueues.values()) {
+            synchronized (queue) {
+                queued += queue.waiting.size();
+            }
+        }
+        return queued;
+    }
+
+    /**
+     * How long the oldest queued task has been waiting, 0 if nothing is queued
+     */
+    public long getLongestWaitMillis() {
+        long longest = 0;
+        for (TaskInfo info : activeTasks.values()) {
+            if (info.state == TaskState.QUEUED && info.connectionName != null) {
+                longest = Math.max(longest, info.getWaitMillis());
+            }
+        }
+        return longest;
+    }
+
+    /**
+     * Recent average time connection work waited before starting
+     */
+    public long getAverageWaitMillis() {
+        return Math.round(averageWaitMillis);
+    }
+
+    /**
+     * Cancel all work and stop the worker threads (application exit)
+     */
+    public void shutdown() {
+        for (TaskInfo info : activeTasks.values()) {
+            info.cancel();
+        }
+        workers.shutdownNow();
+        try {
+            if (!workers.awaitTermination(5, TimeUnit.SECONDS)) {
+                System.err.println("Background tasks did not stop within 5 seconds");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
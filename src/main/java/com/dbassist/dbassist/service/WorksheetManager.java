@@ -1,25 +1,45 @@
 package com.dbassist.dbassist.service;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Manages persistence of SQL Worksheet content
+ * Manages persistence of SQL Worksheet content.
+ * Saves are write-behind: edits are coalesced per worksheet and only the latest
+ * content is written, by a single writer thread, after a short quiet period.
  */
 public class WorksheetManager {
 
     private static WorksheetManager instance;
     private static final String WORKSHEETS_DIR = System.getProperty("user.home") + "/.dbassist/worksheets/";
+    private static final long SAVE_DELAY_MS = 500;     // Quiet period before a worksheet is written
+    private static final long MAX_SAVE_DELAY_MS = 5000; // Upper bound while the user keeps typing
+
     private Map<String, String> worksheetCache; // worksheetId -> content
+    private final Map<String, String> pendingWrites = new ConcurrentHashMap<>(); // worksheetId -> latest unsaved content
+    private final Map<String, ScheduledFuture<?>> scheduledWrites = new ConcurrentHashMap<>();
+    private final Map<String, Long> firstPendingAt = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService writer;
 
     private WorksheetManager() {
-        worksheetCache = new HashMap<>();
+        worksheetCache = new ConcurrentHashMap<>();
+        writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "worksheet-autosave");
+            thread.setDaemon(true);
+            return thread;
+        });
         ensureDirectoryExists();
         loadAllWorksheets();
     }
 
-    public static WorksheetManager getInstance() {
+    public static synchronized WorksheetManager getInstance() {
         if (instance == null) {
             instance = new WorksheetManager();
         }
@@ -71,7 +91,8 @@ public class WorksheetManager {
     }
 
     /**
-     * Save worksheet content (called on every text change)
+     * Save worksheet content (called on every text change).
+     * The write is deferred and coalesced with later edits of the same worksheet.
      */
     public void saveWorksheet(String worksheetId, String content) {
         if (worksheetId == null || worksheetId.trim().isEmpty()) {
@@ -82,16 +103,18 @@ public class WorksheetManager {
             // Update cache
             worksheetCache.put(worksheetId, content);
 
-            // Save to disk asynchronously
-            String filePath = WORKSHEETS_DIR + worksheetId + ".sql";
-            new Thread(() -> {
-                try {
-                    Files.write(Paths.get(filePath), content.getBytes("UTF-8"));
-                    // System.out.println("Saved worksheet: " + worksheetId); // Too verbose
-                } catch (IOException e) {
-                    System.err.println("Error saving worksheet " + worksheetId + ": " + e.getMessage());
-                }
-            }).start();
+            // Keep only the latest content; the writer picks it up when the timer fires
+            pendingWrites.put(worksheetId, content);
+            long now = System.currentTimeMillis();
+            long firstPending = firstPendingAt.computeIfAbsent(worksheetId, id -> now);
+
+            // Debounce, but don't postpone forever while the user keeps typing
+            long delay = Math.max(0, Math.min(SAVE_DELAY_MS, firstPending + MAX_SAVE_DELAY_MS - now));
+            ScheduledFuture<?> previous = scheduledWrites.put(worksheetId,
+                writer.schedule(() -> writePending(worksheetId), delay, TimeUnit.MILLISECONDS));
+            if (previous != null) {
+                previous.cancel(false);
+            }
 
         } catch (Exception e) {
             System.err.println("Error in saveWorksheet: " + e.getMessage());
@@ -99,6 +122,80 @@ public class WorksheetManager {
         }
     }
 
+    /**
+     * Write all pending worksheets now and wait for the writes to finish
+     */
+    public void flush() {
+        try {
+            writer.submit(() -> {
+                for (String worksheetId : new ArrayList<>(pendingWrites.keySet())) {
+                    writePending(worksheetId);
+                }
+            }).get(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            System.err.println("Error flushing worksheets: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Flush pending writes and stop the writer thread (application shutdown)
+     */
+    public void shutdown() {
+        flush();
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("Worksheet autosave stopped");
+    }
+
+    /**
+     * Write the latest pending content of a worksheet (writer thread only)
+     */
+    private void writePending(String worksheetId) {
+        scheduledWrites.remove(worksheetId);
+        firstPendingAt.remove(worksheetId);
+        String content = pendingWrites.remove(worksheetId);
+        if (content == null) {
+            return; // Already written by an earlier timer or a flush
+        }
+
+        try {
+            writeAtomically(worksheetId, content);
+        } catch (IOException e) {
+            System.err.println("Error saving worksheet " + worksheetId + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Write to a temp file and move it over the worksheet so a crash never leaves a torn file
+     */
+    private void writeAtomically(String worksheetId, String content) throws IOException {
+        Path target = Paths.get(WORKSHEETS_DIR + worksheetId + ".sql");
+        Path temp = Paths.get(WORKSHEETS_DIR + worksheetId + ".sql.tmp");
+
+        Files.write(temp, content.getBytes(StandardCharsets.UTF_8));
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Drop any pending write for a worksheet
+     */
+    private void cancelPendingWrite(String worksheetId) {
+        pendingWrites.remove(worksheetId);
+        firstPendingAt.remove(worksheetId);
+        ScheduledFuture<?> scheduled = scheduledWrites.remove(worksheetId);
+        if (scheduled != null) {
+            scheduled.cancel(false);
+        }
+    }
+
     /**
      * Load worksheet content by ID
      */
@@ -138,16 +235,19 @@ public class WorksheetManager {
         }
 
         try {
-            // Remove from cache
+            // Remove from cache and drop any unsaved edits
             worksheetCache.remove(worksheetId);
+            cancelPendingWrite(worksheetId);
 
-            // Delete file
+            // Delete file on the writer thread so it can't race an in-flight write
             String filePath = WORKSHEETS_DIR + worksheetId + ".sql";
-            File file = new File(filePath);
-            if (file.exists()) {
-                file.delete();
-                System.out.println("Deleted worksheet: " + worksheetId);
-            }
+            writer.execute(() -> {
+                File file = new File(filePath);
+                if (file.exists()) {
+                    file.delete();
+                    System.out.println("Deleted worksheet: " + worksheetId);
+                }
+            });
         } catch (Exception e) {
             System.err.println("Error deleting worksheet " + worksheetId + ": " + e.getMessage());
         }
@@ -192,6 +292,10 @@ public class WorksheetManager {
      */
     public void clearAll() {
         try {
+            for (String worksheetId : new ArrayList<>(pendingWrites.keySet())) {
+                cancelPendingWrite(worksheetId);
+            }
+
             File dir = new File(WORKSHEETS_DIR);
             File[] files = dir.listFiles((d, name) -> name.endsWith(".sql"));
 
@@ -11,6 +11,7 @@ module com.dbassist.dbassist {
     requires org.apache.poi.ooxml;
     requires java.desktop;
     requires org.fxmisc.richtext;
+    requires reactfx;
 
     opens com.dbassist.dbassist to javafx.fxml;
     opens com.dbassist.dbassist.connection to javafx.fxml;